@@ -20,9 +20,27 @@ repositories {
     mavenCentral()
 }
 
+sourceSets {
+    // JMH benchmarks, which are run with the "jmh" task
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+}
+
+configurations {
+    "jmhImplementation" {
+        extendsFrom(configurations["implementation"])
+    }
+}
+
 dependencies {
     compileOnly("org.jetbrains:annotations:22.0.0")
 
+    "jmhCompileOnly"("org.jetbrains:annotations:22.0.0")
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.33")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.33")
+
     // Use JUnit Jupiter for testing.
     testImplementation("org.junit.jupiter:junit-jupiter:5.7.2")
     testImplementation("org.junit.jupiter:junit-jupiter-params:5.7.2")
@@ -71,12 +89,50 @@ tasks {
         useJUnitPlatform()
 
         systemProperties(
-            "junit.jupiter.execution.timeout.testable.method.default" to "2000 ms"
+            "junit.jupiter.execution.timeout.testable.method.default" to "2000 ms",
+            "hk.ust.cse.comp3021.pa1.checkBoardConsistency" to "true"
         )
 
         jvmArgs("--enable-preview")
     }
 
+    register<JavaExec>("solverSpeedup") {
+        group = "application"
+        description = "Measures the speedup of the parallel solver for each number of threads."
+
+        classpath = sourceSets["main"].runtimeClasspath
+        mainClass.set("hk.ust.cse.comp3021.pa1.solver.SolverSpeedup")
+        args(
+            project.findProperty("game")?.toString() ?: "../puzzles/04-random.game",
+            project.findProperty("maxThreads")?.toString() ?: Runtime.getRuntime().availableProcessors().toString()
+        )
+    }
+
+    register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks, and writes the results to build/reports/jmh/results.json."
+
+        val resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+        outputs.file(resultsFile)
+        outputs.upToDateWhen { false }
+
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        doFirst {
+            resultsFile.get().asFile.parentFile.mkdirs()
+        }
+        args(
+            listOfNotNull(
+                project.findProperty("jmhInclude")?.toString(),
+                "-rf", "json",
+                "-rff", resultsFile.get().asFile.absolutePath,
+                "-prof", "gc",
+                "-jvmArgsAppend", "--enable-preview " +
+                    "-Dhk.ust.cse.comp3021.pa1.puzzlesDir=${rootProject.file("puzzles").absolutePath}"
+            )
+        )
+    }
+
     create<Test>("testSanity") {
         useJUnitPlatform {
             includeTags("sanity")
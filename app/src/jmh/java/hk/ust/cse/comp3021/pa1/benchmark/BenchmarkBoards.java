@@ -0,0 +1,104 @@
+package hk.ust.cse.comp3021.pa1.benchmark;
+
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.model.PackedBoard;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Game boards used by the benchmarks.
+ *
+ * <p>
+ * A board parameter is either the file name of a shipped puzzle (e.g. {@code 04-random.game}), which is looked up in
+ * the directory given by the {@value #PUZZLES_DIR_PROPERTY} system property, or a number {@code N}, which generates a
+ * synthetic {@code N}x{@code N} board.
+ * </p>
+ */
+final class BenchmarkBoards {
+
+    /**
+     * System property holding the directory of the shipped puzzles.
+     */
+    static final String PUZZLES_DIR_PROPERTY = "hk.ust.cse.comp3021.pa1.puzzlesDir";
+
+    /**
+     * Seed of synthetic boards, so that every run benchmarks the same boards.
+     */
+    private static final long SEED = 3021;
+
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * Loads or generates a game board.
+     *
+     * @param board The board parameter of a benchmark.
+     * @return A new game with the specified board.
+     * @throws FileNotFoundException if the board is a puzzle which does not exist.
+     */
+    @NotNull
+    static GameState load(@NotNull final String board) throws FileNotFoundException {
+        if (isSynthetic(board)) {
+            final var size = Integer.parseInt(board);
+            return new GameState(generate(size, size));
+        }
+        return GameStateSerializer.loadFrom(puzzlePath(board));
+    }
+
+    /**
+     * @param board The board parameter of a benchmark.
+     * @return Whether the board is generated instead of loaded from a puzzle.
+     */
+    static boolean isSynthetic(@NotNull final String board) {
+        return board.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * @param puzzle File name of a shipped puzzle.
+     * @return The path to the puzzle.
+     */
+    @NotNull
+    static Path puzzlePath(@NotNull final String puzzle) {
+        return Path.of(System.getProperty(PUZZLES_DIR_PROPERTY, "puzzles"), puzzle).toAbsolutePath();
+    }
+
+    /**
+     * Generates a synthetic game board.
+     *
+     * <p>
+     * The board has no walls, so that every gem is reachable, and is sprinkled with stop cells, mines, gems and extra
+     * lives. The player starts at the top-left corner.
+     * </p>
+     *
+     * @param numRows The number of rows of the board.
+     * @param numCols The number of columns of the board.
+     * @return The generated game board.
+     */
+    @NotNull
+    static GameBoard generate(final int numRows, final int numCols) {
+        final var random = new Random(SEED);
+        final var data = new byte[numRows * numCols];
+        for (int i = 0; i < data.length; ++i) {
+            final var x = random.nextInt(100);
+            if (x < 5) {
+                data[i] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+            } else if (x < 8) {
+                data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+            } else if (x < 13) {
+                data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+            } else if (x < 14) {
+                data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+            } else {
+                data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+            }
+        }
+        data[0] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        data[data.length - 1] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        return GameBoard.fromPackedBoard(new PackedBoard(numRows, numCols, data));
+    }
+}
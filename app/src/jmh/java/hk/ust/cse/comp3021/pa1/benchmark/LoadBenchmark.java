@@ -0,0 +1,95 @@
+package hk.ust.cse.comp3021.pa1.benchmark;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameStateSerializer#loadFrom(Path)}.
+ *
+ * <p>
+ * Synthetic boards are written to a temporary file before the benchmark, so that every board is loaded from disk.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+
+    /**
+     * The board to benchmark on; See {@link BenchmarkBoards}.
+     */
+    @Param({"01-simple.game", "02-mines.game", "03-extra-life.game", "04-random.game", "64", "512", "2048"})
+    private String board;
+
+    /**
+     * The file to load.
+     */
+    private Path path;
+
+    /**
+     * Whether {@link #path} is a temporary file created by this benchmark.
+     */
+    private boolean temporary;
+
+    /**
+     * Resolves or creates the file to load.
+     *
+     * @throws IOException if the temporary file cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        temporary = BenchmarkBoards.isSynthetic(board);
+        if (temporary) {
+            // writeTo refuses to overwrite, so only reserve a unique name
+            path = Files.createTempFile("inertia-benchmark-", ".game");
+            Files.delete(path);
+            GameStateSerializer.writeTo(BenchmarkBoards.load(board), path);
+        } else {
+            path = BenchmarkBoards.puzzlePath(board);
+        }
+    }
+
+    /**
+     * Deletes the temporary file, if any.
+     *
+     * @throws IOException if the temporary file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        if (temporary) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Loads the game from the file.
+     *
+     * @return The loaded game.
+     * @throws FileNotFoundException if the file does not exist.
+     */
+    @Benchmark
+    public GameState loadFrom() throws FileNotFoundException {
+        return GameStateSerializer.loadFrom(path);
+    }
+}
@@ -0,0 +1,147 @@
+package hk.ust.cse.comp3021.pa1.benchmark;
+
+import hk.ust.cse.comp3021.pa1.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.model.MoveResult;
+import hk.ust.cse.comp3021.pa1.model.MutableMoveResult;
+import hk.ust.cse.comp3021.pa1.model.PackedBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameBoardController#makeMove(Direction)} and {@link GameController#processUndo()}.
+ *
+ * <p>
+ * Each invocation tries the next direction in a fixed cycle, and undoes the move if it succeeded, so that the game
+ * board stays the same across invocations.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    /**
+     * The directions to cycle through, cached since {@link Direction#values()} returns a new array on every call.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The board to benchmark on; See {@link BenchmarkBoards}.
+     */
+    @Param({"01-simple.game", "02-mines.game", "03-extra-life.game", "04-random.game", "64", "512", "2048"})
+    private String board;
+
+    /**
+     * The game being benchmarked.
+     */
+    private GameState gameState;
+
+    /**
+     * Controller of the game board of {@link #gameState}.
+     */
+    private GameBoardController boardController;
+
+    /**
+     * Controller of {@link #gameState}.
+     */
+    private GameController gameController;
+
+    /**
+     * Reusable result of {@link #makeMoveMutable()}.
+     */
+    private final MutableMoveResult mutableResult = new MutableMoveResult();
+
+    /**
+     * Index of the next direction to move in.
+     */
+    private int nextDirection = 0;
+
+    /**
+     * Loads the game board.
+     *
+     * @throws FileNotFoundException if the board is a puzzle which does not exist.
+     */
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        gameState = BenchmarkBoards.load(board);
+        boardController = gameState.getGameBoardController();
+        gameController = new GameController(gameState);
+    }
+
+    /**
+     * @return The next direction in the cycle.
+     */
+    private Direction nextDirection() {
+        nextDirection = (nextDirection + 1) % DIRECTIONS.length;
+        return DIRECTIONS[nextDirection];
+    }
+
+    /**
+     * Moves the player with {@link GameBoardController#makeMove(Direction)}, and undoes the move.
+     *
+     * @return The result of the move.
+     */
+    @Benchmark
+    public MoveResult makeMove() {
+        final var result = boardController.makeMove(nextDirection());
+        boardController.undoMove(result);
+        return result;
+    }
+
+    /**
+     * Moves the player with the allocation-free {@link GameBoardController#makeMove(Direction, MutableMoveResult)},
+     * and undoes the move.
+     *
+     * <p>
+     * The move is undone directly on the {@link PackedBoard} instead of through a {@link MoveResult}, so that the
+     * allocation rate of this benchmark only reflects the move itself.
+     * </p>
+     *
+     * @return The result of the move.
+     */
+    @Benchmark
+    public MutableMoveResult makeMoveMutable() {
+        boardController.makeMove(nextDirection(), mutableResult);
+        if (mutableResult.getKind() == MutableMoveResult.Kind.ALIVE) {
+            final var packedBoard = gameState.getGameBoard().getPackedBoard();
+            packedBoard.movePlayer(mutableResult.getOrigCell());
+            for (int i = 0; i < mutableResult.getNumCollectedGems(); ++i) {
+                packedBoard.setEntityKind(mutableResult.getCollectedGem(i), PackedBoard.ENTITY_GEM);
+            }
+            for (int i = 0; i < mutableResult.getNumCollectedExtraLives(); ++i) {
+                packedBoard.setEntityKind(mutableResult.getCollectedExtraLife(i), PackedBoard.ENTITY_EXTRA_LIFE);
+            }
+        }
+        return mutableResult;
+    }
+
+    /**
+     * Moves the player with {@link GameController#processMove(Direction)}, and undoes the move with
+     * {@link GameController#processUndo()}.
+     *
+     * @return Whether a move was undone.
+     */
+    @Benchmark
+    public boolean processMoveAndUndo() {
+        gameController.processMove(nextDirection());
+        return gameController.processUndo();
+    }
+}
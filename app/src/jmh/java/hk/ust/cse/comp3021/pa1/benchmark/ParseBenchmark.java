@@ -0,0 +1,118 @@
+package hk.ust.cse.comp3021.pa1.benchmark;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import hk.ust.cse.comp3021.pa1.util.StreamingGameStateParser;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link StreamingGameStateParser}, reporting the parse throughput in cells per second.
+ *
+ * <p>
+ * The serialized game is kept in memory, so that only parsing and validation are measured. The {@code cells} counter
+ * in the results is the number of cells parsed per second.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    /**
+     * Number of cells parsed, reported by JMH as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CellCounter {
+
+        /**
+         * Number of cells parsed in the current iteration.
+         */
+        public long cells;
+
+        /**
+         * Resets the counter before each iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            cells = 0;
+        }
+    }
+
+    /**
+     * The board to benchmark on; See {@link BenchmarkBoards}.
+     */
+    @Param({"04-random.game", "64", "512", "2048"})
+    private String board;
+
+    /**
+     * The serialized game.
+     */
+    private byte[] source;
+
+    /**
+     * Number of cells of the board.
+     */
+    private long numCells;
+
+    /**
+     * The parser being benchmarked, reused across invocations.
+     */
+    private final StreamingGameStateParser parser = new StreamingGameStateParser();
+
+    /**
+     * Serializes the game into memory.
+     *
+     * @throws IOException if the game cannot be serialized.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final var gameState = BenchmarkBoards.load(board);
+        final var gameBoard = gameState.getGameBoard();
+        numCells = (long) gameBoard.getNumRows() * gameBoard.getNumCols();
+
+        final var file = Files.createTempFile("inertia-benchmark-", ".game");
+        try {
+            Files.delete(file);
+            GameStateSerializer.writeTo(gameState, file);
+            source = Files.readAllBytes(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Parses the game.
+     *
+     * @param counter The counter of parsed cells.
+     * @return The parsed game.
+     * @throws IOException never, as the game is read from memory.
+     */
+    @Benchmark
+    public GameState parse(final CellCounter counter) throws IOException {
+        final var gameState = parser.parse(Channels.newChannel(new ByteArrayInputStream(source)));
+        counter.cells += numCells;
+        return gameState;
+    }
+}
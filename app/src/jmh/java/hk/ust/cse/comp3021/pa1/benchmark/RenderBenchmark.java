@@ -0,0 +1,111 @@
+package hk.ust.cse.comp3021.pa1.benchmark;
+
+import hk.ust.cse.comp3021.pa1.view.GameBoardView;
+import hk.ust.cse.comp3021.pa1.view.Viewport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link GameBoardView#output(boolean)}, {@link GameBoardView#outputDiff(boolean)} and
+ * {@link GameBoardView#outputViewport(boolean, Viewport)}.
+ *
+ * <p>
+ * {@link System#out} is replaced by a stream which discards its output during the benchmark, so that only the cost of
+ * producing the output is measured.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    /**
+     * The board to benchmark on; See {@link BenchmarkBoards}.
+     */
+    @Param({"01-simple.game", "02-mines.game", "03-extra-life.game", "04-random.game", "64", "512"})
+    private String board;
+
+    /**
+     * Whether to output Unicode characters instead of ASCII characters.
+     */
+    @Param({"false", "true"})
+    private boolean useUnicodeChars;
+
+    /**
+     * The view being benchmarked.
+     */
+    private GameBoardView view;
+
+    /**
+     * A viewport of the size of a typical terminal.
+     */
+    private final Viewport viewport = new Viewport(24, 80, 2);
+
+    /**
+     * The original {@link System#out}.
+     */
+    private PrintStream originalOut;
+
+    /**
+     * Loads the game board and redirects {@link System#out}.
+     *
+     * @throws FileNotFoundException if the board is a puzzle which does not exist.
+     */
+    @Setup
+    public void setUp() throws FileNotFoundException {
+        view = BenchmarkBoards.load(board).getGameBoardView();
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restores {@link System#out}.
+     */
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    /**
+     * Renders the game board.
+     */
+    @Benchmark
+    public void output() {
+        view.output(useUnicodeChars);
+    }
+
+    /**
+     * Renders the game board after it is drawn once, which only compares the board against the previous frame since
+     * no cells change.
+     */
+    @Benchmark
+    public void outputDiff() {
+        view.outputDiff(useUnicodeChars);
+    }
+
+    /**
+     * Renders the part of the game board inside a viewport of the size of a typical terminal.
+     */
+    @Benchmark
+    public void outputViewport() {
+        view.outputViewport(useUnicodeChars, viewport);
+    }
+}
@@ -0,0 +1,190 @@
+package hk.ust.cse.comp3021.pa1;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An asynchronous pipeline which plays a game from a stream of commands, and publishes the rendered frames.
+ *
+ * <p>
+ * The pipeline subscribes to a {@link Flow.Publisher} of command lines, using the same commands as
+ * {@link InertiaTextGame}. It is the only writer of its {@link GameState}: Commands are applied one at a time in the
+ * order they are received, and each produces a frame containing the response and the rendered game, which is published
+ * to the subscribers of the pipeline. The first frame is published when the pipeline subscribes to its commands, so
+ * renderers should subscribe to the pipeline before that.
+ * </p>
+ * <p>
+ * Frames are published without blocking. If a subscriber falls behind by more than its buffer of frames, intermediate
+ * frames are dropped for that subscriber instead of stalling the processing of commands. The last frame, published when
+ * the game ends or the player quits, is never dropped. The frames are then completed, and the pipeline cancels its
+ * subscription to the commands.
+ * </p>
+ */
+public final class GamePipeline implements Flow.Processor<String, String> {
+
+    /**
+     * The default number of frames buffered for each subscriber.
+     */
+    public static final int DEFAULT_MAX_BUFFERED_FRAMES = 4;
+
+    /**
+     * The session which interprets the commands.
+     */
+    @NotNull
+    private final GameSession session;
+
+    /**
+     * Publisher of the rendered frames.
+     */
+    @NotNull
+    private final SubmissionPublisher<String> frames;
+
+    /**
+     * The number of frames dropped because a subscriber fell behind.
+     */
+    @NotNull
+    private final AtomicLong numDroppedFrames = new AtomicLong();
+
+    /**
+     * The subscription to the commands, or {@code null} if not subscribed yet.
+     */
+    @Nullable
+    private Flow.Subscription subscription = null;
+
+    /**
+     * Creates an instance which delivers frames using the common pool.
+     *
+     * @param gameState       The game to play. The pipeline must be the only writer of the game.
+     * @param useUnicodeChars Whether to render the game board using Unicode characters.
+     */
+    public GamePipeline(@NotNull final GameState gameState, final boolean useUnicodeChars) {
+        this(gameState, useUnicodeChars, ForkJoinPool.commonPool(), DEFAULT_MAX_BUFFERED_FRAMES);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param gameState         The game to play. The pipeline must be the only writer of the game.
+     * @param useUnicodeChars   Whether to render the game board using Unicode characters.
+     * @param executor          The executor to deliver frames to subscribers with.
+     * @param maxBufferedFrames The maximum number of frames buffered for each subscriber before frames are dropped.
+     * @throws IllegalArgumentException if {@code maxBufferedFrames} is not positive.
+     */
+    public GamePipeline(@NotNull final GameState gameState, final boolean useUnicodeChars,
+                        @NotNull final Executor executor, final int maxBufferedFrames) {
+        if (maxBufferedFrames <= 0) {
+            throw new IllegalArgumentException("Maximum number of buffered frames must be positive");
+        }
+
+        this.session = new GameSession(Objects.requireNonNull(gameState), useUnicodeChars);
+        this.frames = new SubmissionPublisher<>(Objects.requireNonNull(executor), maxBufferedFrames);
+    }
+
+    /**
+     * Adds a subscriber of the rendered frames.
+     *
+     * @param subscriber The subscriber to add.
+     */
+    @Override
+    public void subscribe(@NotNull final Flow.Subscriber<? super String> subscriber) {
+        frames.subscribe(subscriber);
+    }
+
+    /**
+     * Starts processing commands, and publishes the first frame.
+     *
+     * @param subscription The subscription to the commands.
+     * @throws IllegalStateException if the pipeline is already subscribed to commands.
+     */
+    @Override
+    public void onSubscribe(@NotNull final Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            throw new IllegalStateException("The pipeline is already subscribed to commands");
+        }
+        this.subscription = subscription;
+
+        final var frame = new StringBuilder();
+        session.start(frame);
+        publish(frame);
+        subscription.request(1);
+    }
+
+    /**
+     * Applies a command, and publishes the resulting frame.
+     *
+     * @param command The command line to apply.
+     */
+    @Override
+    public void onNext(@NotNull final String command) {
+        if (session.isFinished()) {
+            return;
+        }
+
+        final var frame = new StringBuilder();
+        session.handleLine(command, frame);
+        publish(frame);
+        Objects.requireNonNull(subscription).request(1);
+    }
+
+    /**
+     * Completes the frames exceptionally.
+     *
+     * @param throwable The error of the commands.
+     */
+    @Override
+    public void onError(@NotNull final Throwable throwable) {
+        frames.closeExceptionally(throwable);
+    }
+
+    /**
+     * Completes the frames.
+     */
+    @Override
+    public void onComplete() {
+        frames.close();
+    }
+
+    /**
+     * @return The number of frames dropped because a subscriber fell behind, summed over all subscribers.
+     */
+    public long getNumDroppedFrames() {
+        return numDroppedFrames.get();
+    }
+
+    /**
+     * @return Whether the game has ended or the player has quit.
+     */
+    public boolean isFinished() {
+        return frames.isClosed();
+    }
+
+    /**
+     * Publishes a frame, and completes the frames if the session is finished.
+     *
+     * @param frame The frame to publish.
+     */
+    private void publish(@NotNull final StringBuilder frame) {
+        if (session.isFinished()) {
+            if (frame.length() > 0) {
+                frames.submit(frame.toString());
+            }
+            frames.close();
+            Objects.requireNonNull(subscription).cancel();
+            return;
+        }
+
+        frames.offer(frame.toString(), (subscriber, dropped) -> {
+            numDroppedFrames.incrementAndGet();
+            return false;
+        });
+    }
+}
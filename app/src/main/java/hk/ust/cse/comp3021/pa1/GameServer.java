@@ -0,0 +1,462 @@
+package hk.ust.cse.comp3021.pa1;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.BinaryGameStateSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A server which hosts many concurrent games over TCP.
+ *
+ * <p>
+ * Each connection is a separate session playing its own copy of the level, using the same line-based commands as
+ * {@link InertiaTextGame} ({@code UP}, {@code DOWN}, {@code LEFT}, {@code RIGHT}, {@code UNDO} and {@code QUIT}). The
+ * output is encoded in UTF-8.
+ * </p>
+ * <p>
+ * All sessions are served by the thread calling {@link #run()} using non-blocking I/O, so that a session does not need
+ * a thread of its own. Input and output buffers are shared by all sessions; A session only keeps its game, a buffer
+ * for an incomplete line of input, and any output which the client has not yet accepted. While a client does not
+ * accept output, no further input is read from it.
+ * </p>
+ */
+public final class GameServer implements Closeable {
+
+    /**
+     * The maximum length of a line of input, which bounds the length of a batch of moves. Connections sending longer
+     * lines are closed.
+     */
+    public static final int MAX_LINE_LENGTH = 1 << 16;
+
+    /**
+     * The initial size of the buffer of an incomplete line, which is enough for any single command.
+     */
+    private static final int INITIAL_LINE_CAPACITY = 64;
+
+    /**
+     * The size of the shared buffers.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The level, serialized so that each session can restore its own copy.
+     */
+    @NotNull
+    private final ByteBuffer level;
+
+    /**
+     * Whether to output the game board using Unicode characters.
+     */
+    private final boolean useUnicodeChars;
+
+    @NotNull
+    private final Selector selector;
+
+    @NotNull
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * Buffer of the input read from a connection.
+     */
+    @NotNull
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Buffer of the output to a connection.
+     */
+    @NotNull
+    private final StringBuilder text = new StringBuilder(BUFFER_SIZE);
+
+    /**
+     * Buffer of the encoded output to a connection, grown when the output does not fit.
+     */
+    @NotNull
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    @NotNull
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    /**
+     * The number of open sessions.
+     */
+    private volatile int numSessions = 0;
+
+    /**
+     * Whether {@link #run()} has been called.
+     */
+    private boolean running = false;
+
+    /**
+     * Whether {@link #close()} has been called.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Creates an instance listening on the specified address.
+     *
+     * @param level           The level to play in each session.
+     * @param address         The address to listen on.
+     * @param useUnicodeChars Whether to output the game board using Unicode characters.
+     * @throws IOException if the server cannot listen on {@code address}.
+     */
+    public GameServer(@NotNull final GameState level, @NotNull final SocketAddress address,
+                      final boolean useUnicodeChars) throws IOException {
+        Objects.requireNonNull(level);
+        Objects.requireNonNull(address);
+
+        final var buffer = ByteBuffer.allocate(BinaryGameStateSerializer.sizeOf(level, false));
+        BinaryGameStateSerializer.writeTo(level, buffer, false);
+        this.level = buffer.flip().asReadOnlyBuffer();
+        this.useUnicodeChars = useUnicodeChars;
+
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (final IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The address which the server is listening on.
+     */
+    @NotNull
+    public SocketAddress getLocalAddress() {
+        try {
+            return serverChannel.getLocalAddress();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return The number of open sessions.
+     */
+    public int getNumSessions() {
+        return numSessions;
+    }
+
+    /**
+     * Serves all sessions until {@link #close()} is called.
+     *
+     * @throws IllegalStateException if the server is already running or closed.
+     */
+    public void run() {
+        synchronized (this) {
+            if (running || closed) {
+                throw new IllegalStateException("The server is already running or closed");
+            }
+            running = true;
+        }
+
+        try {
+            while (!closed) {
+                selector.select();
+                final var keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final var key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Stops the server and closes all sessions.
+     *
+     * <p>
+     * If the server is running, {@link #run()} returns shortly after this method is called.
+     * </p>
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (!running) {
+                release();
+                return;
+            }
+        }
+        selector.wakeup();
+    }
+
+    /**
+     * Closes the server and all connections.
+     */
+    private void release() {
+        if (selector.isOpen()) {
+            for (final var key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    closeConnection(key);
+                }
+            }
+        }
+        closeQuietly(serverChannel);
+        closeQuietly(selector);
+    }
+
+    /**
+     * Handles a ready connection, closing it on I/O errors.
+     *
+     * @param key The key of the connection.
+     */
+    private void handle(@NotNull final SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        try {
+            if (key.isWritable()) {
+                flush(key);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(key);
+            }
+        } catch (final IOException e) {
+            closeConnection(key);
+        }
+    }
+
+    /**
+     * Accepts a connection and starts its session.
+     *
+     * <p>
+     * Connections which cannot be accepted are dropped, so that the other sessions are not affected.
+     * </p>
+     */
+    private void accept() {
+        final SocketChannel channel;
+        final SelectionKey key;
+        try {
+            channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+        } catch (final IOException e) {
+            return;
+        }
+
+        final GameSession session;
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            session = new GameSession(BinaryGameStateSerializer.readFrom(level.duplicate()), useUnicodeChars);
+            key = channel.register(selector, SelectionKey.OP_READ, new Connection(session));
+        } catch (final IOException e) {
+            closeQuietly(channel);
+            return;
+        }
+        ++numSessions;
+
+        text.setLength(0);
+        session.start(text);
+        try {
+            send(key);
+        } catch (final IOException e) {
+            closeConnection(key);
+        }
+    }
+
+    /**
+     * Reads the input of a connection and handles each complete line.
+     *
+     * @param key The key of the connection.
+     */
+    private void read(@NotNull final SelectionKey key) throws IOException {
+        final var channel = (SocketChannel) key.channel();
+        final var connection = (Connection) key.attachment();
+
+        readBuffer.clear();
+        if (channel.read(readBuffer) < 0) {
+            closeConnection(key);
+            return;
+        }
+        readBuffer.flip();
+
+        text.setLength(0);
+        while (readBuffer.hasRemaining() && !connection.session.isFinished()) {
+            final var b = readBuffer.get();
+            if (b != '\n') {
+                if (connection.lineLength == connection.line.length) {
+                    if (connection.lineLength == MAX_LINE_LENGTH) {
+                        closeConnection(key);
+                        return;
+                    }
+                    connection.line = Arrays.copyOf(connection.line, connection.line.length * 2);
+                }
+                connection.line[connection.lineLength++] = b;
+                continue;
+            }
+
+            var length = connection.lineLength;
+            if (length > 0 && connection.line[length - 1] == '\r') {
+                --length;
+            }
+            connection.lineLength = 0;
+            connection.session.handleLine(new String(connection.line, 0, length, StandardCharsets.UTF_8), text);
+        }
+        send(key);
+    }
+
+    /**
+     * Sends {@link #text} to a connection, keeping the part which the client does not accept yet.
+     *
+     * @param key The key of the connection.
+     */
+    private void send(@NotNull final SelectionKey key) throws IOException {
+        final var channel = (SocketChannel) key.channel();
+        final var connection = (Connection) key.attachment();
+
+        encode();
+        writeBuffer.flip();
+        if (connection.pending == null) {
+            channel.write(writeBuffer);
+            if (writeBuffer.hasRemaining()) {
+                connection.pending = ByteBuffer.allocate(writeBuffer.remaining()).put(writeBuffer).flip();
+                key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+        } else {
+            final var pending = connection.pending;
+            connection.pending = ByteBuffer.allocate(pending.remaining() + writeBuffer.remaining())
+                    .put(pending)
+                    .put(writeBuffer)
+                    .flip();
+            return;
+        }
+
+        if (connection.session.isFinished()) {
+            closeConnection(key);
+        }
+    }
+
+    /**
+     * Sends the output which a connection has not accepted yet.
+     *
+     * @param key The key of the connection.
+     */
+    private void flush(@NotNull final SelectionKey key) throws IOException {
+        final var connection = (Connection) key.attachment();
+        final var pending = Objects.requireNonNull(connection.pending);
+
+        ((SocketChannel) key.channel()).write(pending);
+        if (pending.hasRemaining()) {
+            return;
+        }
+
+        connection.pending = null;
+        if (connection.session.isFinished()) {
+            closeConnection(key);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Encodes {@link #text} into {@link #writeBuffer}, growing the byte buffer if necessary.
+     */
+    private void encode() {
+        final var chars = CharBuffer.wrap(text);
+        writeBuffer.clear();
+        encoder.reset();
+
+        var result = encoder.encode(chars, writeBuffer, true);
+        while (result.isOverflow()) {
+            writeBuffer = ByteBuffer.allocate(writeBuffer.capacity() * 2).put(writeBuffer.flip());
+            result = encoder.encode(chars, writeBuffer, true);
+        }
+        encoder.flush(writeBuffer);
+    }
+
+    /**
+     * Closes a connection and ends its session.
+     *
+     * @param key The key of the connection.
+     */
+    private void closeConnection(@NotNull final SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        key.cancel();
+        closeQuietly(key.channel());
+        --numSessions;
+    }
+
+    private static void closeQuietly(@Nullable final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (final IOException ignored) {
+            // Nothing to do if a connection cannot be closed
+        }
+    }
+
+    /**
+     * State of a connection.
+     */
+    private static final class Connection {
+
+        /**
+         * The game played on this connection.
+         */
+        @NotNull
+        final GameSession session;
+
+        /**
+         * The incomplete line of input, grown up to {@link #MAX_LINE_LENGTH} bytes.
+         */
+        @NotNull
+        byte[] line = new byte[INITIAL_LINE_CAPACITY];
+
+        /**
+         * The length of the incomplete line of input.
+         */
+        int lineLength = 0;
+
+        /**
+         * The output which the client has not accepted yet, or {@code null} if all output is sent.
+         */
+        @Nullable
+        ByteBuffer pending = null;
+
+        Connection(@NotNull final GameSession session) {
+            this.session = session;
+        }
+    }
+}
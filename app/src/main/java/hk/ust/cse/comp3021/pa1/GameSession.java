@@ -0,0 +1,239 @@
+package hk.ust.cse.comp3021.pa1;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.controller.MoveBatch;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.model.MoveResult;
+import hk.ust.cse.comp3021.pa1.view.GameView;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A game played over a line-based text protocol, as in {@link InertiaTextGame}.
+ *
+ * <p>
+ * In addition to the commands of {@link InertiaTextGame}, a line consisting of more than one of the letters {@code U},
+ * {@code D}, {@code L} and {@code R} (e.g. {@code RRDLUU}) is applied as a batch of moves, as in
+ * {@link GameController#processMoves}, and the game is only rendered at the end of the batch.
+ * </p>
+ * <p>
+ * Unlike {@link InertiaTextGame}, a session does not read its input or write its output by itself. Instead, each line
+ * of input is passed to {@link #handleLine(String, StringBuilder)}, which appends the response to a buffer. This allows
+ * many sessions to be served by a single thread.
+ * </p>
+ */
+final class GameSession {
+
+    /**
+     * Prompt for the next move.
+     */
+    static final String MOVE_PROMPT = "Enter Your Move (UP/DOWN/LEFT/RIGHT/UNDO/QUIT): ";
+
+    /**
+     * Prompt to acknowledge a message.
+     */
+    static final String CONTINUE_PROMPT = "Press [ENTER] to continue...";
+
+    /**
+     * Controller to mutate the state of the game.
+     */
+    @NotNull
+    private final GameController controller;
+
+    /**
+     * View to inspect the state of the game.
+     */
+    @NotNull
+    private final GameView view;
+
+    /**
+     * Whether to output the game board using Unicode characters.
+     */
+    private final boolean useUnicodeChars;
+
+    /**
+     * Whether the next line only acknowledges a message.
+     */
+    private boolean waitingForContinue = false;
+
+    /**
+     * Whether the game has ended or the player has quit.
+     */
+    private boolean finished = false;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param gameState       The game to play in this session.
+     * @param useUnicodeChars Whether to output the game board using Unicode characters.
+     */
+    GameSession(@NotNull final GameState gameState, final boolean useUnicodeChars) {
+        Objects.requireNonNull(gameState);
+
+        this.controller = new GameController(gameState);
+        this.view = new GameView(gameState);
+        this.useUnicodeChars = useUnicodeChars;
+    }
+
+    /**
+     * Appends the output at the start of the session.
+     *
+     * @param out The buffer to append to.
+     */
+    void start(@NotNull final StringBuilder out) {
+        prompt(out);
+    }
+
+    /**
+     * Handles a line of input, and appends the response.
+     *
+     * @param line The line of input, without the line terminator.
+     * @param out  The buffer to append to.
+     * @throws IllegalStateException if the session is already finished.
+     */
+    void handleLine(@NotNull final String line, @NotNull final StringBuilder out) {
+        if (finished) {
+            throw new IllegalStateException("The session is already finished");
+        }
+
+        if (waitingForContinue) {
+            waitingForContinue = false;
+            prompt(out);
+            return;
+        }
+
+        if ("quit".startsWith(line.toLowerCase(Locale.ENGLISH))) {
+            finished = true;
+            return;
+        }
+
+        final var direction = InertiaTextGame.parseDirection(line);
+        if (direction == null) {
+            if ("undo".startsWith(line.toLowerCase(Locale.ENGLISH))) {
+                if (!controller.processUndo()) {
+                    appendLine(out, "No more steps to undo!");
+                }
+                prompt(out);
+                return;
+            }
+            if (isMoveString(line)) {
+                handleBatch(MoveBatch.parse(line), out);
+                return;
+            }
+
+            appendLine(out, "Invalid choice!");
+            waitForContinue(out);
+            return;
+        }
+
+        final var moveResult = controller.processMove(direction);
+        if (moveResult instanceof MoveResult.Invalid) {
+            appendLine(out, "Invalid move!");
+            waitForContinue(out);
+        } else if (moveResult instanceof MoveResult.Valid.Dead) {
+            appendLine(out, "You died!");
+            if (view.hasLost()) {
+                finish(out);
+            } else {
+                waitForContinue(out);
+            }
+        } else {
+            prompt(out);
+        }
+    }
+
+    /**
+     * Applies a batch of moves, and appends a summary of the batch followed by the state of the game, which is only
+     * rendered once for the whole batch.
+     *
+     * @param directions The directions of the moves.
+     * @param out        The buffer to append to.
+     */
+    private void handleBatch(@NotNull final List<Direction> directions, @NotNull final StringBuilder out) {
+        final var summary = controller.processMoves(directions, MoveBatch.InvalidMovePolicy.STOP);
+
+        appendLine(out, "Moves applied: " + summary.numProcessed() + "/" + directions.size()
+                + ", Gems collected: " + summary.numCollectedGems()
+                + ", Deaths: " + summary.numDeaths());
+        if (summary.outcome() == MoveBatch.Outcome.INVALID_MOVE) {
+            appendLine(out, "Invalid move at step " + (summary.firstInvalidIndex() + 1) + "!");
+        }
+        if (view.hasLost()) {
+            finish(out);
+        } else {
+            prompt(out);
+        }
+    }
+
+    /**
+     * @param line A line of input.
+     * @return Whether {@code line} is a sequence of more than one move, each given by the first letter of a direction,
+     * e.g. {@code RRDLUU}. A single letter is handled as a prefix of a direction instead.
+     */
+    private static boolean isMoveString(@NotNull final String line) {
+        if (line.length() < 2) {
+            return false;
+        }
+        for (int i = 0; i < line.length(); ++i) {
+            if ("UDLRudlr".indexOf(line.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the game has ended or the player has quit. No more input is accepted after the session is
+     * finished.
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Appends the state of the game and the prompt for the next move, or the result of the game if it has ended.
+     *
+     * @param out The buffer to append to.
+     */
+    private void prompt(@NotNull final StringBuilder out) {
+        if (view.hasWon()) {
+            finish(out);
+            return;
+        }
+
+        view.render(useUnicodeChars, out);
+        out.append(MOVE_PROMPT);
+    }
+
+    /**
+     * Appends the prompt to acknowledge a message.
+     *
+     * @param out The buffer to append to.
+     */
+    private void waitForContinue(@NotNull final StringBuilder out) {
+        appendLine(out, CONTINUE_PROMPT);
+        waitingForContinue = true;
+    }
+
+    /**
+     * Appends the result of the game, and finishes the session.
+     *
+     * @param out The buffer to append to.
+     */
+    private void finish(@NotNull final StringBuilder out) {
+        if (view.hasWon()) {
+            appendLine(out, "You win!");
+        } else if (view.hasLost()) {
+            appendLine(out, "You lost!");
+        }
+        finished = true;
+    }
+
+    private static void appendLine(@NotNull final StringBuilder out, @NotNull final String line) {
+        out.append(line).append(System.lineSeparator());
+    }
+}
@@ -4,6 +4,7 @@ import hk.ust.cse.comp3021.pa1.controller.GameController;
 import hk.ust.cse.comp3021.pa1.model.Direction;
 import hk.ust.cse.comp3021.pa1.model.GameState;
 import hk.ust.cse.comp3021.pa1.model.MoveResult;
+import hk.ust.cse.comp3021.pa1.view.FrameRenderer;
 import hk.ust.cse.comp3021.pa1.view.GameView;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -32,6 +33,11 @@ public class InertiaTextGame {
      */
     @NotNull
     private final GameView view;
+    /**
+     * Renderer to output the state of the game, or {@code null} to output using {@link #view}.
+     */
+    @Nullable
+    private final FrameRenderer frameRenderer;
 
     /**
      * Whether to output the game board using Unicode characters.
@@ -45,10 +51,24 @@ public class InertiaTextGame {
      * @param useUnicodeChars Whether to output the game board using Unicode characters.
      */
     public InertiaTextGame(@NotNull final GameState gameState, final boolean useUnicodeChars) {
+        this(gameState, useUnicodeChars, null);
+    }
+
+    /**
+     * Creates a new instance using the provided options.
+     *
+     * @param gameState       The initial game state to create a game from.
+     * @param useUnicodeChars Whether to output the game board using Unicode characters.
+     * @param frameRenderer   Renderer to output the state of the game, or {@code null} to output using
+     *                        {@link GameView#output(boolean)}.
+     */
+    public InertiaTextGame(@NotNull final GameState gameState, final boolean useUnicodeChars,
+                           @Nullable final FrameRenderer frameRenderer) {
         Objects.requireNonNull(gameState);
 
         this.controller = new GameController(gameState);
         this.view = new GameView(gameState);
+        this.frameRenderer = frameRenderer;
 
         this.useUnicodeChars = useUnicodeChars;
     }
@@ -58,7 +78,13 @@ public class InertiaTextGame {
      */
     public void run() {
         while (!view.hasWon()) {
-            view.output(useUnicodeChars);
+            if (frameRenderer != null) {
+                // Messages may be pending in System.out if the renderer writes to another stream
+                System.out.flush();
+                frameRenderer.render(useUnicodeChars);
+            } else {
+                view.output(useUnicodeChars);
+            }
 
             final var userInput = waitUserInput("Enter Your Move (UP/DOWN/LEFT/RIGHT/UNDO/QUIT): ", false);
             if ("quit".startsWith(userInput.toLowerCase(Locale.ENGLISH))) {
@@ -124,7 +150,7 @@ public class InertiaTextGame {
      * string.
      */
     @Nullable
-    private static Direction parseDirection(@NotNull final String input) {
+    static Direction parseDirection(@NotNull final String input) {
         Objects.requireNonNull(input);
 
         if (input.isBlank()) {
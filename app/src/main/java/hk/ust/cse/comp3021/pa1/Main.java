@@ -2,39 +2,262 @@ package hk.ust.cse.comp3021.pa1;
 
 import hk.ust.cse.comp3021.pa1.model.GameState;
 import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import hk.ust.cse.comp3021.pa1.util.ReplayVerifier;
+import hk.ust.cse.comp3021.pa1.view.FrameRenderer;
+import hk.ust.cse.comp3021.pa1.view.Viewport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.regex.Pattern;
 
 /**
  * The main class handling command-line options parsing.
  */
 public class Main {
 
+    /**
+     * The default scroll margin of the viewport.
+     */
+    private static final int DEFAULT_VIEWPORT_MARGIN = 2;
+
     /**
      * Main entry-point.
      *
      * @param args Arguments from the command-line.
      */
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.out.println("Usage: Main [--unicode] [GAME_FILE]");
+        var useUnicodeChars = false;
+        FrameRenderer.Mode renderMode = null;
+        int[] viewportSize = null;
+        var viewportMargin = DEFAULT_VIEWPORT_MARGIN;
+        var serverPort = -1;
+        var async = false;
+        Path replayLogs = null;
+        var replayFormat = ReplayVerifier.Format.CSV;
+        var validOptions = true;
+        var pathArgIdx = 0;
+        for (; pathArgIdx < args.length && args[pathArgIdx].startsWith("--"); ++pathArgIdx) {
+            final var arg = args[pathArgIdx];
+            if (arg.startsWith("--viewport=")) {
+                viewportSize = parseInts(arg.substring("--viewport=".length()), "x", 2);
+                validOptions &= viewportSize != null && viewportSize[0] > 0 && viewportSize[1] > 0;
+                continue;
+            } else if (arg.startsWith("--server=")) {
+                final var port = parseInts(arg.substring("--server=".length()), "x", 1);
+                validOptions &= port != null && port[0] <= 0xFFFF;
+                serverPort = port != null ? port[0] : -1;
+                continue;
+            } else if (arg.startsWith("--margin=")) {
+                final var margin = parseInts(arg.substring("--margin=".length()), "x", 1);
+                validOptions &= margin != null;
+                viewportMargin = margin != null ? margin[0] : DEFAULT_VIEWPORT_MARGIN;
+                continue;
+            } else if (arg.startsWith("--verify=")) {
+                replayLogs = Path.of(arg.substring("--verify=".length()));
+                continue;
+            }
+
+            switch (arg) {
+                case "--unicode" -> useUnicodeChars = true;
+                case "--async" -> async = true;
+                case "--frame" -> renderMode = FrameRenderer.Mode.FULL;
+                case "--diff" -> renderMode = FrameRenderer.Mode.DIFF;
+                case "--jsonl" -> replayFormat = ReplayVerifier.Format.JSONL;
+                default -> pathArgIdx = args.length;
+            }
+        }
+
+        validOptions &= viewportSize == null || renderMode != FrameRenderer.Mode.DIFF;
+        validOptions &= serverPort < 0 || (renderMode == null && viewportSize == null);
+        validOptions &= !async || (serverPort < 0 && renderMode == null && viewportSize == null);
+        validOptions &= replayLogs == null
+                || (!async && !useUnicodeChars && serverPort < 0 && renderMode == null && viewportSize == null);
+        validOptions &= replayLogs != null || replayFormat == ReplayVerifier.Format.CSV;
+        if (pathArgIdx != args.length - 1 || !validOptions) {
+            System.out.println("Usage: Main [--unicode] [--frame | --diff] [--viewport=ROWSxCOLS [--margin=N]] "
+                    + "[GAME_FILE]");
+            System.out.println("       Main [--unicode] --server=PORT [GAME_FILE]");
+            System.out.println("       Main [--unicode] --async [GAME_FILE]");
+            System.out.println("       Main --verify=LOG_FILE [--jsonl] [GAME_FILE]");
+            System.out.println();
+            System.out.println("  --unicode    Output the game board using Unicode characters");
+            System.out.println("  --frame      Output each frame to the terminal in a single write");
+            System.out.println("  --diff       As --frame, but only redraw the changed cells of the game board");
+            System.out.println("  --viewport   As --frame, but only output a window of the game board around the player");
+            System.out.println("  --margin     Minimum distance between the player and the edges of the viewport "
+                    + "(default: " + DEFAULT_VIEWPORT_MARGIN + ")");
+            System.out.println("  --server     Host a separate game for each TCP connection on PORT");
+            System.out.println("  --async      Read commands and output frames on separate threads");
+            System.out.println("  --verify     Replay the move logs in LOG_FILE and output whether their scores match");
+            System.out.println("  --jsonl      Output the results of --verify as JSON lines instead of CSV");
             System.out.println();
 
             System.exit(1);
         }
 
-        final var useUnicodeChars = args[0].equals("--unicode");
-        var pathArgIdx = useUnicodeChars ? 1 : 0;
-
         final GameState gameState;
         try {
             final var pathToLoad = Path.of(args[pathArgIdx]).toAbsolutePath();
             gameState = GameStateSerializer.loadFrom(pathToLoad);
         } catch (FileNotFoundException e) {
-            throw new RuntimeException("Cannot find file " + args[0] + " to load", e);
+            throw new RuntimeException("Cannot find file " + args[pathArgIdx] + " to load", e);
+        }
+
+        if (serverPort >= 0) {
+            try (var server = new GameServer(gameState, new InetSocketAddress(serverPort), useUnicodeChars)) {
+                System.out.println("Listening on " + server.getLocalAddress());
+                server.run();
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot listen on port " + serverPort, e);
+            }
+            return;
+        }
+
+        if (replayLogs != null) {
+            verifyReplays(gameState, replayLogs, replayFormat);
+            return;
+        }
+
+        if (async) {
+            runPipelined(gameState, useUnicodeChars);
+            return;
+        }
+
+        if (viewportSize != null && renderMode == null) {
+            renderMode = FrameRenderer.Mode.FULL;
+        }
+        final var frameRenderer = renderMode != null
+                ? new FrameRenderer(gameState, new FileOutputStream(FileDescriptor.out), renderMode)
+                : null;
+        if (frameRenderer != null && viewportSize != null) {
+            frameRenderer.setViewport(new Viewport(viewportSize[0], viewportSize[1], viewportMargin));
+        }
+        new InertiaTextGame(gameState, useUnicodeChars, frameRenderer).run();
+    }
+
+    /**
+     * Replays the move logs in a file using a {@link ReplayVerifier}, writing the results to {@link System#out} and
+     * the throughput to {@link System#err}.
+     *
+     * @param level  The level which the logs were played on.
+     * @param logs   The file of logs.
+     * @param format The format of the results.
+     */
+    private static void verifyReplays(@NotNull final GameState level, @NotNull final Path logs,
+                                      @NotNull final ReplayVerifier.Format format) {
+        try (var verifier = new ReplayVerifier(level);
+             var reader = Files.newBufferedReader(logs)) {
+            final var out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)));
+            final var report = verifier.verify(reader, out, format);
+            out.flush();
+
+            System.err.printf("Replayed %d logs (%d moves) in %.3f s: %.0f logs/s, %.0f moves/s%n",
+                    report.numLogs(), report.numMoves(), report.elapsedNanos() / 1e9, report.logsPerSecond(),
+                    report.movesPerSecond());
+            System.err.printf("Verified: %d, Mismatched: %d, Malformed: %d%n",
+                    report.numVerified(), report.numMismatched(), report.numMalformed());
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot verify logs in " + logs, e);
         }
+    }
+
+    /**
+     * Plays a game using a {@link GamePipeline}, reading commands from {@link System#in} on a separate thread.
+     *
+     * @param gameState       The game to play.
+     * @param useUnicodeChars Whether to output the game board using Unicode characters.
+     */
+    private static void runPipelined(@NotNull final GameState gameState, final boolean useUnicodeChars) {
+        final var pipeline = new GamePipeline(gameState, useUnicodeChars);
+        final var done = new CompletableFuture<Void>();
+        pipeline.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(final String frame) {
+                System.out.print(frame);
+                System.out.flush();
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
 
-        new InertiaTextGame(gameState, useUnicodeChars).run();
+        final var commands = new SubmissionPublisher<String>();
+        commands.subscribe(pipeline);
+
+        // The reader may block on the console after the game ends, so it must not keep the JVM alive
+        final var reader = new Thread(() -> {
+            try (var stdin = new BufferedReader(new InputStreamReader(System.in))) {
+                while (!pipeline.isFinished()) {
+                    final var line = stdin.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    commands.submit(line);
+                }
+                commands.close();
+            } catch (IOException e) {
+                commands.closeExceptionally(e);
+            }
+        }, "command-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        done.join();
+    }
+
+    /**
+     * Parses a list of non-negative integers.
+     *
+     * @param str       The string to parse.
+     * @param separator The separator between the integers.
+     * @param count     The expected number of integers.
+     * @return The parsed integers, or {@code null} if the string is not {@code count} non-negative integers separated
+     * by {@code separator}.
+     */
+    @Nullable
+    private static int[] parseInts(@NotNull final String str, @NotNull final String separator, final int count) {
+        final var parts = str.split(Pattern.quote(separator), -1);
+        if (parts.length != count) {
+            return null;
+        }
+
+        final var values = new int[count];
+        for (int i = 0; i < count; ++i) {
+            try {
+                values[i] = Integer.parseInt(parts[i]);
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+            if (values[i] < 0) {
+                return null;
+            }
+        }
+        return values;
     }
 }
@@ -2,10 +2,6 @@ package hk.ust.cse.comp3021.pa1.controller;
 
 import hk.ust.cse.comp3021.pa1.model.*;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Controller for {@link GameBoard}.
@@ -45,76 +41,64 @@ public class GameBoardController {
     @NotNull
     public MoveResult makeMove(@NotNull final Direction direction) {
         // TODO done
+        final MutableMoveResult result = new MutableMoveResult();
+        makeMove(direction, result);
+        return result.toMoveResult(this.gameBoard.getPackedBoard());
+    }
+
+    /**
+     * Moves the player in the given direction, writing the result into an existing {@link MutableMoveResult}.
+     *
+     * <p>
+     * This method has the same semantics as {@link GameBoardController#makeMove(Direction)}, but does not allocate a
+     * new result for every move.
+     * </p>
+     *
+     * @param direction Direction to move the player in.
+     * @param result    The instance to write the result of this action into.
+     */
+    public void makeMove(@NotNull final Direction direction, @NotNull final MutableMoveResult result) {
         if(this.gameBoard.getPlayer().getOwner() == null){
             throw new IllegalArgumentException("The player seems not on the game board!");
         }
+        final PackedBoard board = this.gameBoard.getPackedBoard();
+        final SlideTable slides = board.getSlideTable();
         final Position origPos = this.gameBoard.getPlayer().getOwner().getPosition();
-        //The immediate new position of the move.
-        Position newPos = origPos.offsetByOrNull(direction.getOffset(),
-                                                 this.gameBoard.getNumRows(),
-                                                 this.gameBoard.getNumCols());
+        final int origIndex = board.indexOf(origPos.row(), origPos.col());
+        //Look up where the slide ends
+        final int slide = slides.slide(origIndex, direction);
         //Invalid cases
-        if(newPos == null || this.gameBoard.getCell(newPos) instanceof Wall){
-            return new MoveResult.Invalid(origPos);
+        if(slide == SlideTable.NO_MOVE){
+            result.setInvalid(origIndex);
+            return;
         }
-        //Valid cases
-        List<Position> gems = new ArrayList<>();
-        List<Position> extralives = new ArrayList<>();
-        @Nullable Entity entityOnNewPos = null; //Stores the entity on the new cell
-        Position adjPos = origPos; //Keeps track of the last cell position
-
-        while(true){
-            //Termination#1: The new cell is out of bounds
-            if(newPos == null){
-                //Move the player on the board
-                ((EntityCell) this.gameBoard.getCell(origPos)).setEntity(null);
-                ((EntityCell) this.gameBoard.getCell(adjPos)).setEntity(this.gameBoard.getPlayer());
-                return new MoveResult.Valid.Alive(adjPos, origPos, gems, extralives);
-            }else {
-                if(this.gameBoard.getCell(newPos) instanceof EntityCell newEntityCell){
-                    entityOnNewPos = newEntityCell.getEntity();
-                }
-                //Termination#2: The new cell contains a mine --> valid dead move
-                if (entityOnNewPos instanceof Mine) {
-                    //give back all the collected items(gems, extralives)
-                    for(Position pGem : gems){
-                        ((EntityCell) this.gameBoard.getCell(pGem)).setEntity(new Gem());
-                    }
-                    for(Position pExtralives : extralives){
-                        ((EntityCell) this.gameBoard.getCell(pExtralives)).setEntity(new ExtraLife());
-                    }
-                    return new MoveResult.Valid.Dead(origPos, newPos);
-                }else if (this.gameBoard.getCell(newPos) instanceof Wall) {
-                    //Termination#3: The new cell is a Wall
-                    ((EntityCell) this.gameBoard.getCell(origPos)).setEntity(null);
-                    ((EntityCell) this.gameBoard.getCell(adjPos)).setEntity(this.gameBoard.getPlayer());
-                    return new MoveResult.Valid.Alive(adjPos, origPos, gems, extralives);
-                }else if (this.gameBoard.getCell(newPos) instanceof StopCell) {
-                    //Termination#4: The new cell is a stop cell
-                    ((EntityCell) this.gameBoard.getCell(origPos)).setEntity(null);
-                    //((EntityCell) this.gameBoard.getCell(newPos)).setEntity(this.gameBoard.getPlayer());
-                    ((StopCell) this.gameBoard.getCell(newPos)).setPlayer(this.gameBoard.getPlayer());
-                    return new MoveResult.Valid.Alive(newPos, origPos, gems, extralives);
-                }else{
-                //not terminate yet
-                    //picks up gems
-                    if (entityOnNewPos instanceof Gem) {
-                        //Remove the gem in the cell
-                        ((EntityCell) this.gameBoard.getCell(newPos)).setEntity(null);
-                        gems.add(newPos);
-                    }else if (entityOnNewPos instanceof ExtraLife) {
-                    //picks up extra lives
-                        //Remove the extra life in the cell
-                        ((EntityCell) this.gameBoard.getCell(newPos)).setEntity(null);
-                        extralives.add(newPos);
-                    }
-                    //empty cell (nothing to do)
-                }
-                //Update newPos and adjPos to check the next cell
-                adjPos = newPos;
-                newPos = newPos.offsetByOrNull(direction.getOffset(), this.gameBoard.getNumRows(), this.gameBoard.getNumCols());
+        //The slide ends on a mine --> valid dead move
+        //The board is not mutated, so nothing needs to be given back
+        if(SlideTable.isDead(slide)){
+            result.setDead(origIndex, SlideTable.cellOf(slide));
+            return;
+        }
+        //Valid alive case: picks up all gems and extra lives along the way
+        final int endIndex = SlideTable.cellOf(slide);
+        result.setAlive(origIndex, endIndex);
+        for(int i = slides.nextCollectible(origIndex, endIndex, direction); i >= 0;
+            i = slides.nextCollectible(i, endIndex, direction)){
+            if(board.getEntityKind(i) == PackedBoard.ENTITY_GEM){
+                result.addCollectedGem(i);
+            }else{
+                result.addCollectedExtraLife(i);
             }
         }
+
+        //Remove the collected items in the cells
+        for(int i = 0; i < result.getNumCollectedGems(); i++){
+            board.setEntityKind(result.getCollectedGem(i), PackedBoard.ENTITY_NONE);
+        }
+        for(int i = 0; i < result.getNumCollectedExtraLives(); i++){
+            board.setEntityKind(result.getCollectedExtraLife(i), PackedBoard.ENTITY_NONE);
+        }
+        //Move the player on the board
+        board.movePlayer(endIndex);
     }
 
     /**
@@ -130,17 +114,16 @@ public class GameBoardController {
         // TODO
         //Only when a valid alive move is made does the game board change
         if(prevMove instanceof MoveResult.Valid.Alive){
+            final PackedBoard board = this.gameBoard.getPackedBoard();
             Position OrigPos = ((MoveResult.Valid.Alive) prevMove).origPosition;
-            Position newPos = prevMove.newPosition;
             //restore the player's position
-            ((EntityCell) this.gameBoard.getCell(newPos)).setEntity(null);
-            ((EntityCell) this.gameBoard.getCell(OrigPos)).setEntity(this.gameBoard.getPlayer());
+            board.movePlayer(board.indexOf(OrigPos.row(), OrigPos.col()));
             //restore the picked up items
             for(Position pGem : ((MoveResult.Valid.Alive) prevMove).collectedGems){
-                ((EntityCell) this.gameBoard.getCell(pGem)).setEntity(new Gem());
+                board.setEntityKind(board.indexOf(pGem.row(), pGem.col()), PackedBoard.ENTITY_GEM);
             }
             for(Position pExtralives : ((MoveResult.Valid.Alive) prevMove).collectedExtraLives){
-                ((EntityCell) this.gameBoard.getCell(pExtralives)).setEntity(new ExtraLife());
+                board.setEntityKind(board.indexOf(pExtralives.row(), pExtralives.col()), PackedBoard.ENTITY_EXTRA_LIFE);
             }
         }
     }
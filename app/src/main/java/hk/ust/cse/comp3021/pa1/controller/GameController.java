@@ -3,6 +3,8 @@ package hk.ust.cse.comp3021.pa1.controller;
 import hk.ust.cse.comp3021.pa1.model.*;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Controller for {@link hk.ust.cse.comp3021.pa1.InertiaTextGame}.
@@ -16,6 +18,12 @@ public class GameController {
     @NotNull
     private final GameState gameState;
 
+    /**
+     * Controller of the game board managed by {@link GameController#gameState}.
+     */
+    @NotNull
+    private final GameBoardController gameBoardController;
+
     /**
      * Creates an instance.
      *
@@ -24,6 +32,7 @@ public class GameController {
     public GameController(@NotNull final GameState gameState) {
         // TODO done
         this.gameState = gameState;
+        this.gameBoardController = gameState.getGameBoardController();
     }
 
     /**
@@ -34,7 +43,7 @@ public class GameController {
      */
     public MoveResult processMove(@NotNull final Direction direction) {
         // TODO
-        MoveResult result = this.gameState.getGameBoardController().makeMove(direction);
+        MoveResult result = this.gameBoardController.makeMove(direction);
         if(result instanceof MoveResult.Valid.Dead){
             this.gameState.incrementNumMoves();
             this.gameState.decrementNumLives();
@@ -48,6 +57,94 @@ public class GameController {
         return result;
     }
 
+    /**
+     * Processes a Move action performed by the player, writing the result into an existing {@link MutableMoveResult}.
+     *
+     * <p>
+     * This method has the same semantics as {@link GameController#processMove(Direction)}, but does not allocate a
+     * {@link MoveResult}; Valid moves are pushed to the move stack directly from {@code result}.
+     * </p>
+     *
+     * @param direction The direction the player wants to move to.
+     * @param result    The instance to write the result of the action into.
+     */
+    public void processMove(@NotNull final Direction direction, @NotNull final MutableMoveResult result) {
+        this.gameBoardController.makeMove(direction, result);
+        if(result.getKind() == MutableMoveResult.Kind.DEAD){
+            this.gameState.incrementNumMoves();
+            this.gameState.decrementNumLives();
+            this.gameState.incrementNumDeaths();
+        }else if(result.getKind() == MutableMoveResult.Kind.ALIVE){
+            this.gameState.incrementNumMoves();
+            this.gameState.increaseNumLives(result.getNumCollectedExtraLives());
+            result.pushTo(this.gameState.getMoveStack(), this.gameState.getGameBoard().getPackedBoard());
+        }
+    }
+
+    /**
+     * Processes a sequence of Move actions performed by the player in one call.
+     *
+     * <p>
+     * The moves are processed by {@link GameController#processMove(Direction, MutableMoveResult)} using a single result
+     * holder. The batch stops early when the game is won or lost, or at the first invalid move if {@code policy} is
+     * {@link MoveBatch.InvalidMovePolicy#STOP}. Moves after the end of the batch are not processed.
+     * </p>
+     *
+     * @param directions The directions of the moves, in order.
+     * @param policy     What to do when a move is invalid.
+     * @return The summary of the batch.
+     */
+    @NotNull
+    public MoveBatch.Summary processMoves(@NotNull final List<Direction> directions,
+                                          @NotNull final MoveBatch.InvalidMovePolicy policy) {
+        Objects.requireNonNull(directions);
+        Objects.requireNonNull(policy);
+
+        final var result = new MutableMoveResult();
+
+        var outcome = this.gameState.hasWon() ? MoveBatch.Outcome.WON
+                : this.gameState.hasLost() ? MoveBatch.Outcome.LOST : MoveBatch.Outcome.COMPLETED;
+        int numProcessed = 0;
+        int numCollectedGems = 0;
+        int numCollectedExtraLives = 0;
+        int numDeaths = 0;
+        int firstInvalidIndex = -1;
+        while (outcome == MoveBatch.Outcome.COMPLETED && numProcessed < directions.size()) {
+            final var index = numProcessed++;
+            processMove(directions.get(index), result);
+
+            switch (result.getKind()) {
+                case INVALID -> {
+                    if (firstInvalidIndex < 0) {
+                        firstInvalidIndex = index;
+                    }
+                    if (policy == MoveBatch.InvalidMovePolicy.STOP) {
+                        outcome = MoveBatch.Outcome.INVALID_MOVE;
+                    }
+                }
+                case DEAD -> {
+                    ++numDeaths;
+                    if (this.gameState.hasLost()) {
+                        outcome = MoveBatch.Outcome.LOST;
+                    }
+                }
+                case ALIVE -> {
+                    numCollectedGems += result.getNumCollectedGems();
+                    numCollectedExtraLives += result.getNumCollectedExtraLives();
+                    if (this.gameState.hasWon()) {
+                        outcome = MoveBatch.Outcome.WON;
+                    }
+                }
+                default -> throw new IllegalStateException();
+            }
+        }
+
+        final var finalPosition =
+                Objects.requireNonNull(this.gameState.getGameBoard().getPlayer().getOwner()).getPosition();
+        return new MoveBatch.Summary(outcome, numProcessed, finalPosition, numCollectedGems, numCollectedExtraLives,
+                numDeaths, firstInvalidIndex);
+    }
+
     /**
      * Processes an Undo action performed by the player.
      *
@@ -61,7 +158,7 @@ public class GameController {
             //Note that prev can only be a Valid Alive move,
             //because everything pushed in the MoveStack is instance of MoveResult.Valid.Alive
             MoveResult prev = this.gameState.getMoveStack().pop();
-            this.gameState.getGameBoardController().undoMove(prev);
+            this.gameBoardController.undoMove(prev);
             this.gameState.decreaseNumLives(((MoveResult.Valid.Alive) prev).collectedExtraLives.size());
             return true;
         }
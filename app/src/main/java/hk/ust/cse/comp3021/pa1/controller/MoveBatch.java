@@ -0,0 +1,102 @@
+package hk.ust.cse.comp3021.pa1.controller;
+
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.Position;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Types for processing a sequence of moves in one call with
+ * {@link GameController#processMoves(List, InvalidMovePolicy)}.
+ *
+ * <p>
+ * Only a summary of the whole batch is returned, so that callers such as bots can submit long move sequences and
+ * render the game once at the end of the batch.
+ * </p>
+ */
+public final class MoveBatch {
+
+    /**
+     * What to do when a move in the batch is invalid.
+     */
+    public enum InvalidMovePolicy {
+        /**
+         * Stop the batch at the first invalid move.
+         */
+        STOP,
+        /**
+         * Skip invalid moves and continue with the next move.
+         */
+        SKIP
+    }
+
+    /**
+     * Why a batch ended.
+     */
+    public enum Outcome {
+        /**
+         * All moves were processed.
+         */
+        COMPLETED,
+        /**
+         * The game was won.
+         */
+        WON,
+        /**
+         * The game was lost.
+         */
+        LOST,
+        /**
+         * A move was invalid under {@link InvalidMovePolicy#STOP}.
+         */
+        INVALID_MOVE
+    }
+
+    /**
+     * Summary of a batch of moves.
+     *
+     * @param outcome                Why the batch ended.
+     * @param numProcessed           The number of moves processed, including invalid moves and the move which ended
+     *                               the batch.
+     * @param finalPosition          The position of the player after the batch.
+     * @param numCollectedGems       The number of gems collected during the batch.
+     * @param numCollectedExtraLives The number of extra lives collected during the batch.
+     * @param numDeaths              The number of deaths during the batch.
+     * @param firstInvalidIndex      The index of the first invalid move in the batch, or {@code -1} if no move
+     *                               processed was invalid.
+     */
+    public record Summary(@NotNull Outcome outcome,
+                          int numProcessed,
+                          @NotNull Position finalPosition,
+                          int numCollectedGems,
+                          int numCollectedExtraLives,
+                          int numDeaths,
+                          int firstInvalidIndex) {
+    }
+
+    private MoveBatch() {
+    }
+
+    /**
+     * Parses a string of moves, where each character is the first letter of a {@link Direction}, e.g. {@code "RRDLUU"}.
+     *
+     * @param moves The string to parse. Letters are case-insensitive.
+     * @return The directions of the moves, in order.
+     * @throws IllegalArgumentException if a character is not the first letter of a direction.
+     */
+    @NotNull
+    public static List<Direction> parse(@NotNull final CharSequence moves) {
+        final var directions = new Direction[moves.length()];
+        for (int i = 0; i < directions.length; ++i) {
+            directions[i] = switch (Character.toUpperCase(moves.charAt(i))) {
+                case 'U' -> Direction.UP;
+                case 'D' -> Direction.DOWN;
+                case 'L' -> Direction.LEFT;
+                case 'R' -> Direction.RIGHT;
+                default -> throw new IllegalArgumentException("Invalid move at index " + i + ": " + moves.charAt(i));
+            };
+        }
+        return List.of(directions);
+    }
+}
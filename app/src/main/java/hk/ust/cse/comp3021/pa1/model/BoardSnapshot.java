@@ -0,0 +1,252 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable view of a {@link PackedBoard} as it was when the snapshot was taken.
+ *
+ * <p>
+ * Taking a snapshot does not copy the board. Instead, the board is divided into chunks of whole rows, and a snapshot
+ * shares every chunk with the board until the chunk is changed. Right before a chunk is changed for the first time after
+ * a snapshot is taken, the board copies the chunk into the snapshot, so only the chunks which change are ever copied.
+ * </p>
+ * <p>
+ * When several snapshots of a board are taken, a chunk which has not changed between a snapshot and the next one is
+ * looked up in the next snapshot, so that each version of a chunk is only copied once. Reading a cell of an old
+ * snapshot may therefore visit every newer snapshot of the board.
+ * </p>
+ * <p>
+ * A snapshot reads the unchanged chunks from its board, so it must not be read while the board is being changed by
+ * another thread. Use {@link #toPackedBoard()} to obtain an independent copy instead.
+ * </p>
+ */
+public final class BoardSnapshot {
+
+    /**
+     * The board which this snapshot was taken from.
+     */
+    @NotNull
+    private final PackedBoard board;
+
+    /**
+     * The packed cells of {@link #board}, which are read for the chunks not copied into this snapshot.
+     */
+    @NotNull
+    private final ByteBuffer live;
+
+    private final int numRows;
+
+    private final int numCols;
+
+    /**
+     * The number of rows in each chunk.
+     */
+    private final int rowsPerChunk;
+
+    private final int numGems;
+
+    private final int numExtraLives;
+
+    private final long zobristHash;
+
+    /**
+     * Index of the cell containing the player, or {@code -1} if the board was not managed by a {@link GameBoard}.
+     */
+    private final int playerIndex;
+
+    /**
+     * The chunks which changed after this snapshot and before {@link #newer} was taken, indexed by chunk.
+     *
+     * <p>
+     * The array is allocated when the first chunk is copied; A {@code null} element means that the chunk did not
+     * change in that period.
+     * </p>
+     */
+    @Nullable
+    private byte[][] chunks = null;
+
+    /**
+     * The next snapshot taken from {@link #board}, or {@code null} if this is the latest snapshot.
+     */
+    @Nullable
+    private BoardSnapshot newer = null;
+
+    /**
+     * Creates an instance sharing all chunks with a board.
+     *
+     * @param board         The board to take the snapshot from.
+     * @param live          The packed cells of {@code board}.
+     * @param rowsPerChunk  The number of rows in each chunk.
+     * @param playerIndex   Index of the cell containing the player, or {@code -1} if there is no player.
+     */
+    BoardSnapshot(@NotNull final PackedBoard board, @NotNull final ByteBuffer live, final int rowsPerChunk,
+                  final int playerIndex) {
+        this.board = board;
+        this.live = live;
+        this.numRows = board.getNumRows();
+        this.numCols = board.getNumCols();
+        this.rowsPerChunk = rowsPerChunk;
+        this.numGems = board.getNumGems();
+        this.numExtraLives = board.getNumExtraLives();
+        this.zobristHash = board.getZobristHash();
+        this.playerIndex = playerIndex;
+    }
+
+    /**
+     * Links the next snapshot taken from the same board.
+     *
+     * @param newer The next snapshot.
+     */
+    void setNewer(@NotNull final BoardSnapshot newer) {
+        this.newer = newer;
+    }
+
+    /**
+     * Copies a chunk into this snapshot before it is changed, unless it has already been copied.
+     *
+     * @param chunk Index of the chunk which is about to change.
+     */
+    void preserve(final int chunk) {
+        if (chunks == null) {
+            chunks = new byte[(numRows + rowsPerChunk - 1) / rowsPerChunk][];
+        }
+        if (chunks[chunk] != null) {
+            return;
+        }
+
+        final var start = chunk * rowsPerChunk * numCols;
+        final var copy = new byte[Math.min(rowsPerChunk, numRows - chunk * rowsPerChunk) * numCols];
+        live.get(start, copy);
+        chunks[chunk] = copy;
+    }
+
+    /**
+     * @param chunk Index of a chunk.
+     * @return The contents of the chunk in this snapshot, or {@code null} if the chunk has not changed since this
+     * snapshot was taken.
+     */
+    @Nullable
+    byte[] findChunk(final int chunk) {
+        for (var snapshot = this; snapshot != null; snapshot = snapshot.newer) {
+            if (snapshot.chunks != null && snapshot.chunks[chunk] != null) {
+                return snapshot.chunks[chunk];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The board which this snapshot was taken from.
+     */
+    @NotNull
+    PackedBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * @return The number of rows in each chunk.
+     */
+    int getRowsPerChunk() {
+        return rowsPerChunk;
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The packed representation of the cell when this snapshot was taken.
+     */
+    public byte get(final int index) {
+        final var chunkSize = rowsPerChunk * numCols;
+        final var chunk = findChunk(index / chunkSize);
+        return chunk != null ? chunk[index % chunkSize] : live.get(index);
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The kind of the cell.
+     */
+    public int getCellKind(final int index) {
+        return PackedBoard.cellKindOf(get(index));
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The kind of the entity on the cell when this snapshot was taken.
+     */
+    public int getEntityKind(final int index) {
+        return PackedBoard.entityKindOf(get(index));
+    }
+
+    /**
+     * @return The number of rows of the board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The number of columns of the board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return The number of gems on the board when this snapshot was taken.
+     */
+    public int getNumGems() {
+        return numGems;
+    }
+
+    /**
+     * @return The number of extra lives on the board when this snapshot was taken.
+     */
+    public int getNumExtraLives() {
+        return numExtraLives;
+    }
+
+    /**
+     * @return The Zobrist hash of the board when this snapshot was taken.
+     * @see PackedBoard#getZobristHash()
+     */
+    public long getZobristHash() {
+        return zobristHash;
+    }
+
+    /**
+     * @return Index of the cell containing the player when this snapshot was taken, or {@code -1} if the board was not
+     * managed by a {@link GameBoard}.
+     */
+    public int getPlayerIndex() {
+        return playerIndex;
+    }
+
+    /**
+     * Copies this snapshot into a new, independent board.
+     *
+     * <p>
+     * Unlike loading a saved board, the copy is not validated again. Together with
+     * {@link GameBoard#fromValidatedPackedBoard(PackedBoard, int)}, this allows a snapshot to be turned into a new game
+     * board, e.g. to explore a branch of moves on another thread.
+     * </p>
+     *
+     * @return A new board with the contents of this snapshot.
+     */
+    @NotNull
+    public PackedBoard toPackedBoard() {
+        final var data = new byte[numRows * numCols];
+        final var chunkSize = rowsPerChunk * numCols;
+        for (int start = 0, chunk = 0; start < data.length; start += chunkSize, ++chunk) {
+            final var length = Math.min(chunkSize, data.length - start);
+            final var copy = findChunk(chunk);
+            if (copy != null) {
+                System.arraycopy(copy, 0, data, start, length);
+            } else {
+                live.get(start, data, start, length);
+            }
+        }
+        return PackedBoard.wrap(numRows, numCols, ByteBuffer.wrap(data), numGems, numExtraLives, zobristHash);
+    }
+}
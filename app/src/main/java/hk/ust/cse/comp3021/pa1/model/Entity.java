@@ -45,7 +45,10 @@ public abstract sealed class Entity implements BoardElement permits ExtraLife, G
     public final EntityCell setOwner(@Nullable final EntityCell owner) {
         // TODO
         var previousOwner = this.owner;
-        if(previousOwner != null) previousOwner.entity = null;
+        if(previousOwner != null){
+            previousOwner.entity = null;
+            previousOwner.onEntityChanged();
+        }
         this.owner = owner;
         return previousOwner;
     }
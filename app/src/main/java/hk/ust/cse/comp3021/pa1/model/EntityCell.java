@@ -27,6 +27,17 @@ public sealed class EntityCell extends Cell permits StopCell {
     @Nullable
     Entity entity = null;
 
+    /**
+     * The {@link PackedBoard} which this cell belongs to, or {@code null} if this cell does not belong to a board.
+     */
+    @Nullable
+    private PackedBoard packedBoard = null;
+
+    /**
+     * The index of this cell in {@link EntityCell#packedBoard}.
+     */
+    private int packedIndex = -1;
+
     /**
      * Creates an instance of {@link EntityCell} at the given game board position.
      *
@@ -83,6 +94,7 @@ public sealed class EntityCell extends Cell permits StopCell {
         if(newEntity != null){
             this.entity.setOwner(this);
         }
+        onEntityChanged();
         return previousEntity;
 
     }
@@ -96,6 +108,27 @@ public sealed class EntityCell extends Cell permits StopCell {
         return this.entity;
     }
 
+    /**
+     * Attaches this cell to a {@link PackedBoard}, so that changes to the entity of this cell are reflected in the
+     * board.
+     *
+     * @param board The board which this cell belongs to.
+     * @param index The index of this cell in {@code board}.
+     */
+    final void attach(@NotNull final PackedBoard board, final int index) {
+        this.packedBoard = board;
+        this.packedIndex = index;
+    }
+
+    /**
+     * Notifies the {@link PackedBoard} which this cell belongs to that the entity of this cell has changed.
+     */
+    final void onEntityChanged() {
+        if (packedBoard != null) {
+            packedBoard.onEntityChanged(packedIndex, entity);
+        }
+    }
+
     @Override
     public char toUnicodeChar() {
         return getEntity() != null ? getEntity().toUnicodeChar() : '.';
@@ -1,6 +1,10 @@
 package hk.ust.cse.comp3021.pa1.model;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The main game board of the game.
@@ -11,6 +15,11 @@ import org.jetbrains.annotations.NotNull;
  */
 public final class GameBoard {
 
+    /**
+     * Minimum number of cells for {@link GameBoard#fromPackedBoard(PackedBoard)} to validate the board in parallel.
+     */
+    public static final int PARALLEL_VALIDATION_THRESHOLD = 1 << 20;
+
     /**
      * Number of rows in the game board.
      */
@@ -21,10 +30,10 @@ public final class GameBoard {
     private final int numCols;
 
     /**
-     * 2D array representing each cell in the game board.
+     * Packed representation of each cell in the game board.
      */
     @NotNull
-    private final Cell[][] board;
+    private final PackedBoard board;
 
     /**
      * The instance of {@link Player} on this game board.
@@ -49,23 +58,45 @@ public final class GameBoard {
      */
     public GameBoard(final int numRows, final int numCols, @NotNull final Cell[][] cells) {
         // TODO done
-        //Incompatibility of game board size
-        if(numRows != cells.length || numCols != cells[0].length){
-            throw new IllegalArgumentException("Game board size does not match!");
-        }
+        this(pack(numRows, numCols, cells), null);
+    }
+
+    /**
+     * Creates an instance backed by the provided packed board.
+     *
+     * @param board The packed representation of the game board.
+     * @param pool  The pool to validate the board on, or {@code null} to validate the board on the calling thread.
+     * @throws IllegalArgumentException if any of the following are true:
+     *                                  <ul>
+     *                                      <li>There is no player or more than one player in {@code board}</li>
+     *                                      <li>There are no gems in {@code board}</li>
+     *                                      <li>There are some gems which cannot be reached by the player</li>
+     *                                  </ul>
+     */
+    private GameBoard(@NotNull final PackedBoard board, @Nullable final ForkJoinPool pool) {
+        final var numRows = board.getNumRows();
+        final var numCols = board.getNumCols();
+
         //Inspect the passed-in cells
         int numPlayers = 0;
         int numGems = 0;
-        Player target = null;
-        for(int r=0; r<numRows; r++){
-            for(int c=0; c<numCols; c++){
-                if(cells[r][c] instanceof EntityCell toEntityCell){
-                    if(toEntityCell.getEntity() instanceof Player) {
-                        numPlayers++;
-                        target = (Player) toEntityCell.getEntity();
-                    }
-                    if(toEntityCell.getEntity() instanceof Gem) numGems++;
+        int playerIndex = -1;
+        int reachable = -1;
+        if(pool != null){
+            //Count the players and gems while labelling the components of the board in parallel
+            final var result = ParallelBoardValidator.validate(board, pool);
+            numPlayers = result.numPlayers();
+            numGems = result.numGems();
+            playerIndex = result.playerIndex();
+            reachable = result.reachableGems();
+        }else{
+            for(int i=0; i<numRows*numCols; i++){
+                final var entityKind = board.getEntityKind(i);
+                if(entityKind == PackedBoard.ENTITY_PLAYER) {
+                    numPlayers++;
+                    playerIndex = i;
                 }
+                if(entityKind == PackedBoard.ENTITY_GEM) numGems++;
             }
         }
 
@@ -80,76 +111,227 @@ public final class GameBoard {
         //Assign values to the game board properties
         this.numRows = numRows;
         this.numCols = numCols;
-        this.board = cells;
-        this.player = target;
-
-        //Prepare for flood fill algorithm
-        char[][] label = label(cells);
-
-        if(this.player.getOwner() != null) floodfill(label,
-                                                     this.player.getOwner().getPosition().row(),
-                                                     this.player.getOwner().getPosition().col(),
-                                                     'P');
-        //Count the number of reachable gems
-        int reachable = numReachableGems(label, cells);
+        this.board = board;
+
+        //Count the number of reachable gems with an iterative flood fill
+        if(reachable < 0) reachable = numReachableGems(board, playerIndex);
         //There are unreachable gems on the game board
         if(reachable != numGems){
             throw new IllegalArgumentException("There are unreachable gems in the board! Reachable: " + reachable + " Total: " + numGems);
         }
 
+        this.player = board.bindPlayer(playerIndex);
     }
 
-    //count number of reachable gems
-    private int numReachableGems(char[][] label, Cell[][] cells){
-        int reachable=0;
-        for(int r=0; r<this.numRows; r++){
-            for(int c=0; c<this.numCols; c++){
-                if(label[r][c] == 'P' && ((EntityCell) cells[r][c]).getEntity() instanceof Gem){
-                    reachable++;
-                }
+    /**
+     * Creates an instance backed by the provided packed board.
+     *
+     * <p>
+     * Unlike {@link GameBoard#GameBoard(int, int, Cell[][])}, the {@link Cell} instances of the game board are only
+     * created when they are requested.
+     * </p>
+     * <p>
+     * Boards with at least {@link GameBoard#PARALLEL_VALIDATION_THRESHOLD} cells are validated in parallel on the
+     * common {@link ForkJoinPool}.
+     * </p>
+     *
+     * @param board The packed representation of the game board. The instance must not be used by another game board.
+     * @return A new game board backed by {@code board}.
+     * @throws IllegalArgumentException if any of the following are true:
+     *                                  <ul>
+     *                                      <li>There is no player or more than one player in {@code board}</li>
+     *                                      <li>There are no gems in {@code board}</li>
+     *                                      <li>There are some gems which cannot be reached by the player</li>
+     *                                  </ul>
+     */
+    @NotNull
+    public static GameBoard fromPackedBoard(@NotNull final PackedBoard board) {
+        final var numCells = (long) Objects.requireNonNull(board).getNumRows() * board.getNumCols();
+        final var pool = numCells >= PARALLEL_VALIDATION_THRESHOLD ? ForkJoinPool.commonPool() : null;
+        return new GameBoard(board, pool);
+    }
+
+    /**
+     * Creates an instance backed by a packed board which was already validated, e.g. when the board was saved.
+     *
+     * <p>
+     * Only the player cell and the number of gems are checked, so that the game board is created in constant time
+     * regardless of its size; Gem reachability is not checked again.
+     * </p>
+     *
+     * @param board       The packed representation of a valid game board. The instance must not be used by another
+     *                    game board.
+     * @param playerIndex Index of the cell containing the player in the packed representation.
+     * @return A new game board backed by {@code board}.
+     * @throws IllegalArgumentException if there is no player at {@code playerIndex}, or there are no gems in
+     *                                  {@code board}.
+     */
+    @NotNull
+    public static GameBoard fromValidatedPackedBoard(@NotNull final PackedBoard board, final int playerIndex) {
+        return new GameBoard(Objects.requireNonNull(board), playerIndex);
+    }
+
+    /**
+     * Creates an instance backed by the provided packed board, validating the board in parallel.
+     *
+     * <p>
+     * The board is split into horizontal stripes which are scanned on {@code pool}; See
+     * {@link GameBoard#fromPackedBoard(PackedBoard)} for the validation rules.
+     * </p>
+     *
+     * @param board The packed representation of the game board. The instance must not be used by another game board.
+     * @param pool  The pool to validate the board on.
+     * @return A new game board backed by {@code board}.
+     * @throws IllegalArgumentException if the board is invalid.
+     */
+    @NotNull
+    public static GameBoard fromPackedBoard(@NotNull final PackedBoard board, @NotNull final ForkJoinPool pool) {
+        return new GameBoard(Objects.requireNonNull(board), Objects.requireNonNull(pool));
+    }
+
+    //Trust the validation performed before the board was saved, and only check what is cheap to check
+    private GameBoard(@NotNull final PackedBoard board, final int playerIndex) {
+        final var numCells = board.getNumRows() * board.getNumCols();
+        if(playerIndex < 0 || playerIndex >= numCells
+                || board.getEntityKind(playerIndex) != PackedBoard.ENTITY_PLAYER){
+            throw new IllegalArgumentException("There is no player at index " + playerIndex + "!");
+        }else if(board.getNumGems() == 0){
+            throw new IllegalArgumentException("There are no gems in the game board!");
+        }
+
+        this.numRows = board.getNumRows();
+        this.numCols = board.getNumCols();
+        this.board = board;
+        this.player = board.bindPlayer(playerIndex);
+    }
+
+    //Pack the passed-in cells
+    private static PackedBoard pack(final int numRows, final int numCols, final Cell[][] cells){
+        //Incompatibility of game board size
+        if(numRows != cells.length || numCols != cells[0].length){
+            throw new IllegalArgumentException("Game board size does not match!");
+        }
+        return new PackedBoard(numRows, numCols, cells);
+    }
+
+    /**
+     * Counts the gems which can be reached from a cell, without creating a game board.
+     *
+     * <p>
+     * This is the same check performed by {@link GameBoard#fromPackedBoard(PackedBoard)}, so that a board can be
+     * validated without binding its player, e.g. when many level files are only checked for validity.
+     * </p>
+     *
+     * @param board The packed representation of the game board.
+     * @param start Index of the cell to start from, usually the cell of the player.
+     * @return The number of gems in the cells connected to {@code start} via non-wall cells.
+     * @throws IllegalArgumentException if {@code start} is out of bounds.
+     */
+    public static int countReachableGems(@NotNull final PackedBoard board, final int start) {
+        if (start < 0 || start >= Objects.requireNonNull(board).getNumRows() * board.getNumCols()) {
+            throw new IllegalArgumentException("Cell index out of bounds: " + start);
+        }
+        return numReachableGems(board, start);
+    }
+
+    //count number of gems reachable from the given cell
+    //Cells are visited in breadth-first order, so large open boards do not overflow the stack
+    private static int numReachableGems(PackedBoard board, int start){
+        final int numRows = board.getNumRows();
+        final int numCols = board.getNumCols();
+        final int numCells = numRows * numCols;
+        //1 bit per cell, set once the cell has been queued
+        final long[] visited = new long[(numCells + Long.SIZE - 1) / Long.SIZE];
+        final IntQueue queue = new IntQueue();
+
+        visit(board, visited, queue, start);
+        int reachable = 0;
+        while(!queue.isEmpty()){
+            final int index = queue.poll();
+            if(board.getEntityKind(index) == PackedBoard.ENTITY_GEM){
+                reachable++;
             }
+            //try to move in each direction
+            final int r = index / numCols;
+            final int c = index % numCols;
+            if(r > 0) visit(board, visited, queue, index - numCols);
+            if(c > 0) visit(board, visited, queue, index - 1);
+            if(c < numCols - 1) visit(board, visited, queue, index + 1);
+            if(r < numRows - 1) visit(board, visited, queue, index + numCols);
         }
         return reachable;
     }
 
-    //Label the cells with a "color"
-    private char[][] label(Cell[][] cells){
-        //character version of the game board
-        char[][] labeledBoard = new char[numRows][numCols];
-
-        for(int r=0; r<numRows; r++){
-            for(int c=0; c<numCols; c++){
-                if(cells[r][c] instanceof Wall){
-                    labeledBoard[r][c] = 'W'; //Wall cells
-                }else{
-                    labeledBoard[r][c] = 'O'; //Other cells
-                }
-            }
+    //queue a cell if it is not a wall and has not been visited
+    private static void visit(PackedBoard board, long[] visited, IntQueue queue, int index){
+        final long mask = 1L << index;
+        if((visited[index / Long.SIZE] & mask) != 0 || board.getCellKind(index) == PackedBoard.CELL_WALL){
+            return;
         }
-        return labeledBoard;
+        visited[index / Long.SIZE] |= mask;
+        queue.add(index);
     }
 
-    private void floodfill(char[][] cells, int rowCoor, int colCoor, char newLabel){
+    /**
+     * A growable first-in-first-out queue of {@code int}s, backed by a circular array.
+     */
+    private static final class IntQueue {
+
+        /**
+         * Initial capacity of the queue.
+         */
+        private static final int INITIAL_CAPACITY = 64;
 
-        //4 possible move directions
-        int[] row = {-1, 0, 0, 1};
-        int[] col = {0, -1, 1, 0};
-        char target = cells[rowCoor][colCoor];
-        //Terminate
-        if (target == newLabel) {
-            return;
+        /**
+         * Elements of the queue. The length is always a power of two.
+         */
+        private int[] elements = new int[INITIAL_CAPACITY];
+
+        /**
+         * Index of the first element in {@link IntQueue#elements}.
+         */
+        private int head = 0;
+
+        /**
+         * Number of elements in the queue.
+         */
+        private int size = 0;
+
+        /**
+         * @return Whether the queue is empty.
+         */
+        boolean isEmpty() {
+            return size == 0;
         }
-        cells[rowCoor][colCoor] = newLabel;
-        //try to move in each direction
-        for (int i=0; i<4; i++) {
-            int newRow = rowCoor+row[i];
-            int newCol = colCoor+col[i];
-            //if the next cell is still reachable
-            if (newRow >= 0 && newRow < cells.length
-                && newCol >= 0 && newCol < cells[0].length
-                && cells[newRow][newCol] == target){
-                floodfill(cells, rowCoor+row[i], colCoor+col[i], newLabel);
+
+        /**
+         * Adds an element to the end of the queue.
+         *
+         * @param value The element to add.
+         */
+        void add(final int value) {
+            if (size == elements.length) {
+                final var grown = new int[elements.length * 2];
+                final var firstPart = elements.length - head;
+                System.arraycopy(elements, head, grown, 0, firstPart);
+                System.arraycopy(elements, 0, grown, firstPart, head);
+                elements = grown;
+                head = 0;
             }
+            elements[(head + size) & (elements.length - 1)] = value;
+            ++size;
+        }
+
+        /**
+         * Removes the element at the front of the queue.
+         *
+         * @return The removed element.
+         */
+        int poll() {
+            final var value = elements[head];
+            head = (head + 1) & (elements.length - 1);
+            --size;
+            return value;
         }
     }
 
@@ -163,7 +345,7 @@ public final class GameBoard {
     @NotNull
     public Cell[] getRow(final int r) {
         // TODO done
-        return this.board[r];
+        return this.board.getRow(r);
     }
 
     /**
@@ -178,7 +360,7 @@ public final class GameBoard {
         // TODO done
         Cell[] colToReturn = new Cell[numRows];
         for(int i=0; i<numRows; i++){
-            colToReturn[i] = this.board[i][c];
+            colToReturn[i] = this.board.getCell(i, c);
         }
         return colToReturn;
     }
@@ -193,7 +375,7 @@ public final class GameBoard {
     @NotNull
     public Cell getCell(final int r, final int c) {
         // TODO done
-        return this.board[r][c];
+        return this.board.getCell(r, c);
     }
 
     /**
@@ -205,7 +387,7 @@ public final class GameBoard {
     @NotNull
     public Cell getCell(@NotNull final Position position) {
         // TODO done
-        return this.board[position.row()][position.col()];
+        return this.board.getCell(position.row(), position.col());
     }
 
     /**
@@ -223,7 +405,7 @@ public final class GameBoard {
     @NotNull
     public EntityCell getEntityCell(final int r, final int c) {
         // TODO done(Q: What would be the value of entity once a Cell obj is converted to EntityCell obj?)
-        Cell asCell = this.board[r][c];
+        Cell asCell = this.board.getCell(r, c);
         if(!(asCell instanceof EntityCell asEntityCell))
             throw new IllegalArgumentException("The given position is not an instance of EntityCell!");
         return asEntityCell;
@@ -243,7 +425,7 @@ public final class GameBoard {
     @NotNull
     public EntityCell getEntityCell(@NotNull final Position position) {
         // TODO
-        Cell asCell = this.board[position.row()][position.col()];
+        Cell asCell = this.board.getCell(position.row(), position.col());
         EntityCell asEntityCell = (EntityCell) asCell;
         if(asEntityCell.entity == null){
             throw new IllegalArgumentException("The given position is not an instance of EntityCell!");
@@ -281,17 +463,50 @@ public final class GameBoard {
      */
     public int getNumGems() {
         // TODO done
-        int numOfGems = 0;
-
-        for(int r=0; r<numRows; r++){
-            for(int c=0; c<numCols; c++){
-                if(this.board[r][c] instanceof EntityCell current){
-                    if(current.getEntity() instanceof Gem){
-                        numOfGems++;
-                    }
-                }
-            }
-        }
-        return numOfGems;
+        return this.board.getNumGems();
+    }
+
+    /**
+     * Returns the Zobrist hash of this game board.
+     *
+     * <p>
+     * The hash covers every cell and entity on the game board, including the position of the player, and is kept up to
+     * date as the game board is mutated. Game boards with the same size and contents always have the same hash.
+     * </p>
+     *
+     * @return The Zobrist hash of this game board.
+     */
+    public long getZobristHash() {
+        return this.board.getZobristHash();
+    }
+
+    /**
+     * @return The packed representation of this game board.
+     */
+    @NotNull
+    public PackedBoard getPackedBoard() {
+        return this.board;
+    }
+
+    /**
+     * Takes a copy-on-write snapshot of this game board in constant time.
+     *
+     * @return An immutable view of the current contents of this game board.
+     * @see PackedBoard#snapshot()
+     */
+    @NotNull
+    public BoardSnapshot snapshot() {
+        return this.board.snapshot();
+    }
+
+    /**
+     * Reverts this game board, including the position of the player, to the contents of a snapshot.
+     *
+     * @param snapshot A snapshot taken from this game board by {@link #snapshot()}.
+     * @throws IllegalArgumentException if {@code snapshot} was taken from another game board.
+     * @see PackedBoard#restore(BoardSnapshot)
+     */
+    public void restore(@NotNull final BoardSnapshot snapshot) {
+        this.board.restore(snapshot);
     }
 }
@@ -4,6 +4,8 @@ import hk.ust.cse.comp3021.pa1.controller.GameBoardController;
 import hk.ust.cse.comp3021.pa1.view.GameBoardView;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
+
 /**
  * Class for tracking the state of multiple game components.
  */
@@ -80,6 +82,64 @@ public class GameState {
         this.initialNumOfGems = gameBoard.getNumGems();
     }
 
+    /**
+     * Creates an instance with the specified number of gems initially on the game board.
+     *
+     * @param gameBoard        The game board to be managed by this instance.
+     * @param numLives         Number of lives the player has, or {@link #UNLIMITED_LIVES}.
+     * @param initialNumOfGems The number of gems initially on the game board.
+     */
+    private GameState(@NotNull final GameBoard gameBoard, final int numLives, final int initialNumOfGems) {
+        this.gameBoard = gameBoard;
+        this.numLives = numLives;
+        this.initialNumOfGems = initialNumOfGems;
+    }
+
+    /**
+     * Restores a saved game.
+     *
+     * <p>
+     * Unlike the public constructors, the counters of the game are carried over instead of starting from zero, so that
+     * the score of the restored game is the same as the score of the saved game.
+     * </p>
+     *
+     * @param gameBoard        The current game board of the saved game.
+     * @param numLives         Number of lives the player has. If the value is negative, treat as if the player has an
+     *                         unlimited number of lives.
+     * @param numMoves         The number of moves performed by the player.
+     * @param numDeaths        The number of deaths of the player.
+     * @param numUndos         The number of moves undone by the player.
+     * @param initialNumOfGems The number of gems initially on the game board.
+     * @param moves            The moves which can be undone, from the earliest to the latest move.
+     * @return The restored game.
+     * @throws IllegalArgumentException if any counter is negative, or if there are fewer initial gems than remaining
+     *                                  gems.
+     */
+    @NotNull
+    public static GameState restore(@NotNull final GameBoard gameBoard,
+                                    final int numLives,
+                                    final int numMoves,
+                                    final int numDeaths,
+                                    final int numUndos,
+                                    final int initialNumOfGems,
+                                    @NotNull final List<MoveResult> moves) {
+        if (numMoves < 0 || numDeaths < 0 || numUndos < 0) {
+            throw new IllegalArgumentException("Counters of a game must not be negative");
+        }
+        if (initialNumOfGems < gameBoard.getNumGems()) {
+            throw new IllegalArgumentException("Initial number of gems must not be less than the remaining gems");
+        }
+
+        final var gameState = new GameState(gameBoard, numLives < 0 ? UNLIMITED_LIVES : numLives, initialNumOfGems);
+        gameState.numMoves = numMoves;
+        gameState.numDeaths = numDeaths;
+        for (final var move : moves) {
+            gameState.moveStack.push(move);
+        }
+        gameState.moveStack.setPopCount(numUndos);
+        return gameState;
+    }
+
     /**
      * Checks whether the game has been won.
      *
@@ -228,6 +288,13 @@ public class GameState {
         return this.gameBoard.getNumGems();
     }
 
+    /**
+     * @return The number of gems initially on the game board.
+     */
+    public int getInitialNumGems() {
+        return this.initialNumOfGems;
+    }
+
     /**
      * <p>
      * At any point of the game, the score should be computed using the following formula:
@@ -253,6 +320,20 @@ public class GameState {
         return currentScore;
     }
 
+    /**
+     * Returns the Zobrist hash of the managed game board.
+     *
+     * <p>
+     * The hash only identifies the contents of the game board; The number of lives, moves and deaths are not included.
+     * </p>
+     *
+     * @return The Zobrist hash of the managed game board.
+     * @see GameBoard#getZobristHash()
+     */
+    public long getZobristHash() {
+        return this.gameBoard.getZobristHash();
+    }
+
     /**
      * @return A controller of the managed game board for mutation.
      */
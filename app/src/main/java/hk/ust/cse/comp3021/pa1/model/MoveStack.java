@@ -1,9 +1,13 @@
 package hk.ust.cse.comp3021.pa1.model;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * A {@link java.util.Stack}-like data structure to track all valid moves made by a player.
@@ -11,11 +15,79 @@ import java.util.List;
  * <p>A stack is a data structure which enforces Last-In First-Out (LIFO) ordering of its elements.</p>
  *
  * <p>You can read more about stacks <a href="https://en.wikipedia.org/wiki/Stack_(abstract_data_type)">here</a>.</p>
+ *
+ * <p>
+ * Moves are not kept as {@link MoveResult} instances. Instead, each move is encoded into a growable byte array as the
+ * new position of the player, followed by the original position and the positions of the collected entities, each as
+ * the difference from the previous position in variable-length integers. Since the player and the entities it collects
+ * are on the same row or column, most moves take a few bytes. Moves are decoded when they are popped, peeked or read
+ * from {@link #getMoves()}; The latest pushed instance is kept until it is popped, so that it is returned as is.
+ * </p>
  */
 public class MoveStack {
 
+    /**
+     * Initial capacity of the encoded moves, in bytes.
+     */
+    private static final int INITIAL_ARENA_CAPACITY = 64;
+
+    /**
+     * Initial capacity of the offsets of the moves.
+     */
+    private static final int INITIAL_MOVE_CAPACITY = 16;
+
+    /**
+     * Maximum number of bytes of a variable-length {@code int}.
+     */
+    private static final int MAX_VARINT_LENGTH = 5;
+
+    /**
+     * The encoded moves, from the bottom to the top of the stack.
+     */
     @NotNull
-    private final List<MoveResult> moves = new ArrayList<>();
+    private byte[] arena = new byte[INITIAL_ARENA_CAPACITY];
+
+    /**
+     * Number of valid bytes in {@link #arena}.
+     */
+    private int arenaSize = 0;
+
+    /**
+     * Offset of each move in {@link #arena}.
+     */
+    @NotNull
+    private int[] offsets = new int[INITIAL_MOVE_CAPACITY];
+
+    /**
+     * Number of moves in this stack.
+     */
+    private int size = 0;
+
+    /**
+     * The instance of the move at the top of the stack, or {@code null} if it has to be decoded.
+     */
+    @Nullable
+    private MoveResult top = null;
+
+    /**
+     * The row of the player before the move being encoded.
+     */
+    private int origRow;
+
+    /**
+     * The column of the player before the move being encoded.
+     */
+    private int origCol;
+
+    /**
+     * The row of the previous position written by {@link #writePosition(int, int)}.
+     */
+    private int prevRow;
+
+    /**
+     * The column of the previous position written by {@link #writePosition(int, int)}.
+     */
+    private int prevCol;
 
     private int popCount = 0;
 
@@ -32,8 +104,12 @@ public class MoveStack {
     public void push(@NotNull final MoveResult move) {
         // TODO done
         //First handle the valid alive moves
-        if(move instanceof MoveResult.Valid.Alive){
-            moves.add(move);
+        if(move instanceof MoveResult.Valid.Alive alive){
+            beginMove(alive.newPosition.row(), alive.newPosition.col(),
+                    alive.origPosition.row(), alive.origPosition.col());
+            writePositions(alive.collectedGems);
+            writePositions(alive.collectedExtraLives);
+            top = move;
         }else if(move instanceof MoveResult.Invalid){
         //TODO: Handle other type of moves by throwing exceptions?
             throw new IllegalArgumentException("Invalid move!");
@@ -42,12 +118,44 @@ public class MoveStack {
         }
     }
 
+    /**
+     * Pushes a move held in a {@link MutableMoveResult}, without creating a {@link MoveResult}.
+     *
+     * @param move  The move to push into this stack.
+     * @param board The board which the move is performed on.
+     * @throws IllegalArgumentException if {@code move} is not a valid move where the player is alive.
+     */
+    void push(@NotNull final MutableMoveResult move, @NotNull final PackedBoard board) {
+        if (move.getKind() != MutableMoveResult.Kind.ALIVE) {
+            throw new IllegalArgumentException(move.getKind() == MutableMoveResult.Kind.DEAD
+                    ? "You died!" : "Invalid move!");
+        }
+
+        final var numCols = board.getNumCols();
+        beginMove(move.getNewCell() / numCols, move.getNewCell() % numCols,
+                move.getOrigCell() / numCols, move.getOrigCell() % numCols);
+
+        final var numGems = move.getNumCollectedGems();
+        writeVarint(numGems);
+        for (int i = 0; i < numGems; ++i) {
+            writePosition(move.getCollectedGem(i) / numCols, move.getCollectedGem(i) % numCols);
+        }
+
+        final var numExtraLives = move.getNumCollectedExtraLives();
+        resetPosition(origRow, origCol);
+        writeVarint(numExtraLives);
+        for (int i = 0; i < numExtraLives; ++i) {
+            writePosition(move.getCollectedExtraLife(i) / numCols, move.getCollectedExtraLife(i) % numCols);
+        }
+        top = null;
+    }
+
     /**
      * @return Whether the stack is currently empty.
      */
     public boolean isEmpty() {
         // TODO done
-        return moves.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -58,11 +166,13 @@ public class MoveStack {
     @NotNull
     public MoveResult pop() {
         // TODO done
-        if(!moves.isEmpty()){
-            var top = moves.get(moves.size()-1);
-            moves.remove(moves.size()-1);
+        if(size > 0){
+            final var move = peek();
+            --size;
+            arenaSize = offsets[size];
+            top = null;
             this.popCount++;
-            return top;
+            return move;
         }else{
             throw new IllegalArgumentException("No moves have been performed yet!");
         }
@@ -76,6 +186,27 @@ public class MoveStack {
         return this.popCount;
     }
 
+    /**
+     * Overwrites the number of {@link MoveStack#pop} calls invoked, when restoring a saved game.
+     *
+     * @param popCount The number of {@link MoveStack#pop} calls invoked.
+     */
+    void setPopCount(final int popCount) {
+        if (popCount < 0) {
+            throw new IllegalArgumentException("Pop count must not be negative");
+        }
+        this.popCount = popCount;
+    }
+
+    /**
+     * @return An unmodifiable view of all moves in this stack, from the bottom to the top of the stack. Each move is
+     * decoded when it is read from the view.
+     */
+    @NotNull
+    public List<MoveResult> getMoves() {
+        return new MoveList();
+    }
+
     /**
      * Peeks the topmost of the element of the stack.
      *
@@ -90,10 +221,187 @@ public class MoveStack {
     @NotNull
     public MoveResult peek() {
         // TODO done
-        if(!moves.isEmpty()){
-            return moves.get(moves.size()-1);
+        if(size > 0){
+            if (top == null) {
+                top = decode(size - 1);
+            }
+            return top;
         }else{
             throw new IllegalArgumentException("No moves have been performed yet!");
         }
     }
+
+    /**
+     * Starts encoding a new move at the end of {@link #arena}.
+     *
+     * @param newRow  The row of the player after the move.
+     * @param newCol  The column of the player after the move.
+     * @param origRow The row of the player before the move.
+     * @param origCol The column of the player before the move.
+     */
+    private void beginMove(final int newRow, final int newCol, final int origRow, final int origCol) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[size++] = arenaSize;
+
+        writeVarint(newRow);
+        writeVarint(newCol);
+        resetPosition(newRow, newCol);
+        writePosition(origRow, origCol);
+        this.origRow = origRow;
+        this.origCol = origCol;
+    }
+
+    /**
+     * Encodes the number of positions in a list followed by each position, relative to the previous position and
+     * starting from the original position of the player.
+     *
+     * @param positions The positions to encode.
+     */
+    private void writePositions(@NotNull final List<Position> positions) {
+        resetPosition(origRow, origCol);
+        writeVarint(positions.size());
+        for (final var position : positions) {
+            writePosition(position.row(), position.col());
+        }
+    }
+
+    /**
+     * Sets the position which the next position is encoded relative to.
+     *
+     * @param row The row of the position.
+     * @param col The column of the position.
+     */
+    private void resetPosition(final int row, final int col) {
+        prevRow = row;
+        prevCol = col;
+    }
+
+    /**
+     * Encodes a position relative to the previous position.
+     *
+     * @param row The row of the position.
+     * @param col The column of the position.
+     */
+    private void writePosition(final int row, final int col) {
+        writeVarint(zigZag(row - prevRow));
+        writeVarint(zigZag(col - prevCol));
+        resetPosition(row, col);
+    }
+
+    /**
+     * Encodes a non-negative {@code int} in 7-bit groups, least significant group first.
+     *
+     * @param value The value to encode.
+     */
+    private void writeVarint(final int value) {
+        if (arenaSize + MAX_VARINT_LENGTH > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + MAX_VARINT_LENGTH));
+        }
+
+        var remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            arena[arenaSize++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        arena[arenaSize++] = (byte) remaining;
+    }
+
+    /**
+     * @param value A signed value.
+     * @return {@code value} mapped to a non-negative value, so that values of small magnitude have short encodings.
+     */
+    private static int zigZag(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Decodes a move.
+     *
+     * @param move Index of the move.
+     * @return The decoded move.
+     */
+    @NotNull
+    private MoveResult decode(final int move) {
+        final var reader = new Reader(offsets[move]);
+        final var newRow = reader.readVarint();
+        final var newCol = reader.readVarint();
+        final var origRow = newRow + reader.readSignedVarint();
+        final var origCol = newCol + reader.readSignedVarint();
+        final var collectedGems = reader.readPositions(origRow, origCol);
+        final var collectedExtraLives = reader.readPositions(origRow, origCol);
+        return new MoveResult.Valid.Alive(new Position(newRow, newCol), new Position(origRow, origCol),
+                collectedGems, collectedExtraLives);
+    }
+
+    /**
+     * Decoder of the moves in {@link #arena}.
+     */
+    private final class Reader {
+
+        /**
+         * Offset of the next byte to read.
+         */
+        private int offset;
+
+        Reader(final int offset) {
+            this.offset = offset;
+        }
+
+        int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = arena[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int readSignedVarint() {
+            final var value = readVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * @param row The row of the position which the first position is relative to.
+         * @param col The column of the position which the first position is relative to.
+         * @return The decoded positions.
+         */
+        @NotNull
+        List<Position> readPositions(final int row, final int col) {
+            final var count = readVarint();
+            final var positions = new ArrayList<Position>(count);
+            var prevRow = row;
+            var prevCol = col;
+            for (int i = 0; i < count; ++i) {
+                prevRow += readSignedVarint();
+                prevCol += readSignedVarint();
+                positions.add(new Position(prevRow, prevCol));
+            }
+            return positions;
+        }
+    }
+
+    /**
+     * Unmodifiable view of the moves in this stack.
+     */
+    private final class MoveList extends AbstractList<MoveResult> implements RandomAccess {
+
+        @Override
+        public MoveResult get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return index == size - 1 ? peek() : decode(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -0,0 +1,277 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A mutable and reusable counterpart of {@link MoveResult}.
+ *
+ * <p>
+ * Instead of allocating a new {@link MoveResult} for every move, the result of a move is written into an instance of
+ * this class. Cells are identified by their index in the {@link PackedBoard} of the game board (i.e.
+ * {@code row * numCols + col}), and the positions of collected gems and extra lives are stored in primitive buffers
+ * which are only grown when necessary.
+ * </p>
+ */
+public final class MutableMoveResult {
+
+    /**
+     * The kind of result of a move.
+     */
+    public enum Kind {
+        /**
+         * Same as {@link MoveResult.Invalid}.
+         */
+        INVALID,
+        /**
+         * Same as {@link MoveResult.Valid.Alive}.
+         */
+        ALIVE,
+        /**
+         * Same as {@link MoveResult.Valid.Dead}.
+         */
+        DEAD
+    }
+
+    /**
+     * Initial capacity of the buffers of collected entities.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The kind of result of the move.
+     */
+    @NotNull
+    private Kind kind = Kind.INVALID;
+
+    /**
+     * Index of the cell of the player before the move.
+     */
+    private int origCell = -1;
+
+    /**
+     * Index of the cell of the player after the move.
+     */
+    private int newCell = -1;
+
+    /**
+     * Index of the cell of the mine which the player dies from, or {@code -1} if the player did not die.
+     */
+    private int mineCell = -1;
+
+    /**
+     * Indices of the cells of the gems collected in the move.
+     */
+    @NotNull
+    private int[] collectedGems = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of valid elements in {@link #collectedGems}.
+     */
+    private int numCollectedGems = 0;
+
+    /**
+     * Indices of the cells of the extra lives collected in the move.
+     */
+    @NotNull
+    private int[] collectedExtraLives = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of valid elements in {@link #collectedExtraLives}.
+     */
+    private int numCollectedExtraLives = 0;
+
+    /**
+     * Sets this result to an invalid move.
+     *
+     * @param cell Index of the cell of the player, which is unchanged by the move.
+     */
+    public void setInvalid(final int cell) {
+        set(Kind.INVALID, cell, cell, -1);
+    }
+
+    /**
+     * Sets this result to a valid move where the player has died.
+     *
+     * @param cell     Index of the cell of the player, which is unchanged by the move.
+     * @param mineCell Index of the cell of the mine which the player encounters and dies from.
+     */
+    public void setDead(final int cell, final int mineCell) {
+        set(Kind.DEAD, cell, cell, mineCell);
+    }
+
+    /**
+     * Sets this result to a valid move where the player is alive.
+     *
+     * <p>
+     * The collected gems and extra lives are cleared; Use {@link #addCollectedGem(int)} and
+     * {@link #addCollectedExtraLife(int)} to add them.
+     * </p>
+     *
+     * @param origCell Index of the cell of the player before the move.
+     * @param newCell  Index of the cell of the player after the move.
+     */
+    public void setAlive(final int origCell, final int newCell) {
+        set(Kind.ALIVE, origCell, newCell, -1);
+    }
+
+    /**
+     * Adds a gem collected in this move.
+     *
+     * @param cell Index of the cell of the gem.
+     */
+    public void addCollectedGem(final int cell) {
+        if (numCollectedGems == collectedGems.length) {
+            collectedGems = Arrays.copyOf(collectedGems, collectedGems.length * 2);
+        }
+        collectedGems[numCollectedGems++] = cell;
+    }
+
+    /**
+     * Adds an extra life collected in this move.
+     *
+     * @param cell Index of the cell of the extra life.
+     */
+    public void addCollectedExtraLife(final int cell) {
+        if (numCollectedExtraLives == collectedExtraLives.length) {
+            collectedExtraLives = Arrays.copyOf(collectedExtraLives, collectedExtraLives.length * 2);
+        }
+        collectedExtraLives[numCollectedExtraLives++] = cell;
+    }
+
+    /**
+     * @return The kind of result of the move.
+     */
+    @NotNull
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return Index of the cell of the player before the move.
+     */
+    public int getOrigCell() {
+        return origCell;
+    }
+
+    /**
+     * @return Index of the cell of the player after the move.
+     */
+    public int getNewCell() {
+        return newCell;
+    }
+
+    /**
+     * @return Index of the cell of the mine which the player dies from, or {@code -1} if the player did not die.
+     */
+    public int getMineCell() {
+        return mineCell;
+    }
+
+    /**
+     * @return The number of gems collected in the move.
+     */
+    public int getNumCollectedGems() {
+        return numCollectedGems;
+    }
+
+    /**
+     * @param i Index of the collected gem, in the order which the gems are collected.
+     * @return Index of the cell of the {@code i}-th collected gem.
+     * @throws IndexOutOfBoundsException if {@code i} is not less than {@link #getNumCollectedGems()}.
+     */
+    public int getCollectedGem(final int i) {
+        if (i >= numCollectedGems) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return collectedGems[i];
+    }
+
+    /**
+     * @return The number of extra lives collected in the move.
+     */
+    public int getNumCollectedExtraLives() {
+        return numCollectedExtraLives;
+    }
+
+    /**
+     * @param i Index of the collected extra life, in the order which the extra lives are collected.
+     * @return Index of the cell of the {@code i}-th collected extra life.
+     * @throws IndexOutOfBoundsException if {@code i} is not less than {@link #getNumCollectedExtraLives()}.
+     */
+    public int getCollectedExtraLife(final int i) {
+        if (i >= numCollectedExtraLives) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return collectedExtraLives[i];
+    }
+
+    /**
+     * Converts this result into an equivalent instance of {@link MoveResult}.
+     *
+     * @param board The board which the move is performed on.
+     * @return An instance of {@link MoveResult} representing the same result as this instance.
+     */
+    @NotNull
+    public MoveResult toMoveResult(@NotNull final PackedBoard board) {
+        final var newPosition = board.positionOf(newCell);
+        return switch (kind) {
+            case INVALID -> new MoveResult.Invalid(newPosition);
+            case DEAD -> new MoveResult.Valid.Dead(newPosition, board.positionOf(mineCell));
+            case ALIVE -> new MoveResult.Valid.Alive(
+                    newPosition,
+                    board.positionOf(origCell),
+                    toPositions(board, collectedGems, numCollectedGems),
+                    toPositions(board, collectedExtraLives, numCollectedExtraLives)
+            );
+        };
+    }
+
+    /**
+     * Pushes this result to a move stack, without creating an equivalent instance of {@link MoveResult}.
+     *
+     * @param moveStack The move stack to push to.
+     * @param board     The board which the move is performed on.
+     * @throws IllegalArgumentException if this result is not a valid move where the player is alive, as in
+     *                                  {@link MoveStack#push(MoveResult)}.
+     */
+    public void pushTo(@NotNull final MoveStack moveStack, @NotNull final PackedBoard board) {
+        moveStack.push(this, board);
+    }
+
+    /**
+     * @param board The board which the cells belong to.
+     * @param cells Buffer of cell indices.
+     * @param size  Number of valid elements in {@code cells}.
+     * @return A list of {@link Position} of the cells.
+     */
+    @NotNull
+    private static List<Position> toPositions(@NotNull final PackedBoard board, @NotNull final int[] cells,
+                                              final int size) {
+        final var positions = new ArrayList<Position>(size);
+        for (int i = 0; i < size; ++i) {
+            positions.add(board.positionOf(cells[i]));
+        }
+        return positions;
+    }
+
+    /**
+     * Resets this result.
+     *
+     * @param newKind     The kind of result of the move.
+     * @param newOrigCell Index of the cell of the player before the move.
+     * @param newNewCell  Index of the cell of the player after the move.
+     * @param newMineCell Index of the cell of the mine which the player dies from.
+     */
+    private void set(@NotNull final Kind newKind, final int newOrigCell, final int newNewCell, final int newMineCell) {
+        this.kind = newKind;
+        this.origCell = newOrigCell;
+        this.newCell = newNewCell;
+        this.mineCell = newMineCell;
+        this.numCollectedGems = 0;
+        this.numCollectedExtraLives = 0;
+    }
+}
@@ -0,0 +1,892 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A packed representation of all cells and entities of a {@link GameBoard}.
+ *
+ * <p>
+ * Each cell is stored as a single {@code byte} in a flat buffer, where the cell at row {@code r} and column {@code c}
+ * is stored at index {@code r * numCols + c}. The lowest two bits of each byte represent the kind of the cell (one of
+ * {@link #CELL_EMPTY}, {@link #CELL_STOP} or {@link #CELL_WALL}), and the next three bits represent the kind of the
+ * entity on the cell (one of {@link #ENTITY_NONE}, {@link #ENTITY_GEM}, {@link #ENTITY_EXTRA_LIFE},
+ * {@link #ENTITY_MINE} or {@link #ENTITY_PLAYER}).
+ * </p>
+ * <p>
+ * The buffer is either a heap array or a caller-provided {@link ByteBuffer} such as a memory-mapped file; See
+ * {@link #wrap(int, int, ByteBuffer, int, int, long)}.
+ * </p>
+ * <p>
+ * {@link Cell} and {@link Entity} instances are only created when they are requested via {@link #getCell(int, int)}.
+ * Once created, these instances are kept in sync with the packed representation, i.e. changes made via
+ * {@link EntityCell#setEntity(Entity)} are reflected in this instance, and changes made via this instance are
+ * reflected in the created cells.
+ * </p>
+ * <p>
+ * {@link #snapshot()} takes an immutable {@link BoardSnapshot} of the board in constant time, and
+ * {@link #restore(BoardSnapshot)} reverts the board to a snapshot by only rewriting the chunks of rows which changed.
+ * </p>
+ */
+public final class PackedBoard {
+
+    /**
+     * Cell kind representing an {@link EntityCell}.
+     */
+    public static final int CELL_EMPTY = 0;
+    /**
+     * Cell kind representing a {@link StopCell}.
+     */
+    public static final int CELL_STOP = 1;
+    /**
+     * Cell kind representing a {@link Wall}.
+     */
+    public static final int CELL_WALL = 2;
+
+    /**
+     * Entity kind representing the absence of an entity.
+     */
+    public static final int ENTITY_NONE = 0;
+    /**
+     * Entity kind representing a {@link Gem}.
+     */
+    public static final int ENTITY_GEM = 1;
+    /**
+     * Entity kind representing an {@link ExtraLife}.
+     */
+    public static final int ENTITY_EXTRA_LIFE = 2;
+    /**
+     * Entity kind representing a {@link Mine}.
+     */
+    public static final int ENTITY_MINE = 3;
+    /**
+     * Entity kind representing a {@link Player}.
+     */
+    public static final int ENTITY_PLAYER = 4;
+
+    /**
+     * Bit mask of the cell kind in a packed cell.
+     */
+    private static final int CELL_MASK = 0b11;
+    /**
+     * Number of bits to shift a packed cell by to obtain the entity kind.
+     */
+    private static final int ENTITY_SHIFT = 2;
+    /**
+     * Bit mask of the entity kind after shifting a packed cell by {@link #ENTITY_SHIFT}.
+     */
+    private static final int ENTITY_MASK = 0b111;
+
+    /**
+     * Whether to verify the live entity counts against a full rescan of the board whenever they are queried.
+     *
+     * <p>
+     * This is intended for testing only, and can be enabled by setting the system property
+     * {@code hk.ust.cse.comp3021.pa1.checkBoardConsistency} to {@code true}.
+     * </p>
+     */
+    private static final boolean CHECK_CONSISTENCY =
+            Boolean.getBoolean("hk.ust.cse.comp3021.pa1.checkBoardConsistency");
+
+    /**
+     * Seed of the Zobrist keys, shared by all boards so that equal boards have equal hashes.
+     */
+    private static final long ZOBRIST_SEED = 0x3021_C0DE_5EED_1EAFL;
+
+    /**
+     * The approximate number of cells in each chunk of a {@link BoardSnapshot}. Chunks always consist of whole rows.
+     */
+    private static final int SNAPSHOT_CHUNK_SIZE = 4096;
+
+    /**
+     * Number of rows in the board.
+     */
+    private final int numRows;
+    /**
+     * Number of columns in the board.
+     */
+    private final int numCols;
+
+    /**
+     * The packed cells of the board, indexed from {@code 0}.
+     */
+    @NotNull
+    private final ByteBuffer data;
+
+    /**
+     * Number of cells in the board.
+     */
+    private final int numCells;
+
+    /**
+     * {@link Cell} instances created from this board, indexed by row and column.
+     *
+     * <p>
+     * Rows are allocated on first access; A {@code null} element means that the cell has not been requested yet.
+     * </p>
+     */
+    @Nullable
+    private Cell[][] cells;
+
+    /**
+     * The player on this board, or {@code null} if this board is not yet managed by a {@link GameBoard}.
+     */
+    @Nullable
+    private Player player = null;
+
+    /**
+     * The slide table of this board, or {@code null} if it has not been requested yet.
+     */
+    @Nullable
+    private SlideTable slideTable = null;
+
+    /**
+     * The number of gems currently on the board.
+     */
+    private int numGems = 0;
+
+    /**
+     * The number of extra lives currently on the board.
+     */
+    private int numExtraLives = 0;
+
+    /**
+     * The running Zobrist hash of the board, i.e. the XOR of {@link #zobristKey(int, byte)} over all cells.
+     */
+    private long zobristHash = 0;
+
+    /**
+     * The latest snapshot of this board, or {@code null} if no snapshot has been taken.
+     *
+     * <p>
+     * The snapshot is weakly referenced, so that chunks are no longer copied once all snapshots are discarded. Older
+     * snapshots keep the newer snapshots reachable.
+     * </p>
+     */
+    @Nullable
+    private WeakReference<BoardSnapshot> latestSnapshot = null;
+
+    /**
+     * Whether the board has changed since the latest snapshot was taken.
+     */
+    private boolean changedSinceSnapshot = false;
+
+    /**
+     * Creates an instance backed by the provided packed cells.
+     *
+     * <p>
+     * The array is used directly without copying; The caller should not modify the array after creating this
+     * instance.
+     * </p>
+     *
+     * @param numRows The number of rows of the board.
+     * @param numCols The number of columns of the board.
+     * @param data    The packed cells of the board, as encoded by {@link #pack(int, int)}.
+     * @throws IllegalArgumentException if the length of {@code data} is not {@code numRows * numCols}.
+     */
+    public PackedBoard(final int numRows, final int numCols, @NotNull final byte[] data) {
+        Objects.requireNonNull(data);
+
+        if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols != data.length) {
+            throw new IllegalArgumentException("Game board size does not match!");
+        }
+
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numCells = data.length;
+        this.data = ByteBuffer.wrap(data);
+        this.cells = null;
+
+        for (int i = 0; i < numCells; ++i) {
+            countEntity(entityKindOf(data[i]), 1);
+            zobristHash ^= zobristKey(i, data[i]);
+        }
+    }
+
+    /**
+     * Creates an instance backed by the provided buffer, with precomputed entity counts and hash.
+     *
+     * @param numRows       The number of rows of the board.
+     * @param numCols       The number of columns of the board.
+     * @param data          The packed cells of the board, starting from index {@code 0}.
+     * @param numGems       The number of gems in {@code data}.
+     * @param numExtraLives The number of extra lives in {@code data}.
+     * @param zobristHash   The Zobrist hash of {@code data}.
+     */
+    private PackedBoard(final int numRows,
+                        final int numCols,
+                        @NotNull final ByteBuffer data,
+                        final int numGems,
+                        final int numExtraLives,
+                        final long zobristHash) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numCells = numRows * numCols;
+        this.data = data;
+        this.cells = null;
+        this.numGems = numGems;
+        this.numExtraLives = numExtraLives;
+        this.zobristHash = zobristHash;
+    }
+
+    /**
+     * Creates an instance which packs the provided cells.
+     *
+     * <p>
+     * The provided cells will be used as the {@link Cell} instances of this board. They are not kept in sync with this
+     * instance until {@link #bindPlayer(int)} is called.
+     * </p>
+     *
+     * @param numRows The number of rows of the board.
+     * @param numCols The number of columns of the board.
+     * @param cells   The cells of the board.
+     */
+    PackedBoard(final int numRows, final int numCols, @NotNull final Cell[][] cells) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.numCells = numRows * numCols;
+        this.data = ByteBuffer.allocate(numCells);
+        this.cells = cells;
+
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                final var packedCell = pack(cells[r][c]);
+                data.put(indexOf(r, c), packedCell);
+                countEntity(entityKindOf(packedCell), 1);
+                zobristHash ^= zobristKey(indexOf(r, c), packedCell);
+            }
+        }
+    }
+
+    /**
+     * Creates an instance backed directly by the provided buffer, without scanning its contents.
+     *
+     * <p>
+     * This allows a board to be opened in constant time regardless of its size, e.g. from a memory-mapped file. The
+     * buffer is used without copying, and moves on the board write to the buffer. The caller is responsible for
+     * providing the entity counts and hash of the buffer, which are normally computed when the board was saved.
+     * </p>
+     *
+     * @param numRows       The number of rows of the board.
+     * @param numCols       The number of columns of the board.
+     * @param data          The packed cells of the board, from the position to the limit of the buffer.
+     * @param numGems       The number of gems in {@code data}.
+     * @param numExtraLives The number of extra lives in {@code data}.
+     * @param zobristHash   The Zobrist hash of {@code data}, as returned by {@link #getZobristHash()}.
+     * @return A new instance backed by {@code data}.
+     * @throws IllegalArgumentException if the remaining bytes of {@code data} is not {@code numRows * numCols}, if
+     *                                  {@code data} is read-only, or if any count is negative.
+     */
+    @NotNull
+    public static PackedBoard wrap(final int numRows,
+                                   final int numCols,
+                                   @NotNull final ByteBuffer data,
+                                   final int numGems,
+                                   final int numExtraLives,
+                                   final long zobristHash) {
+        Objects.requireNonNull(data);
+
+        if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols != data.remaining()) {
+            throw new IllegalArgumentException("Game board size does not match!");
+        }
+        if (data.isReadOnly()) {
+            throw new IllegalArgumentException("Packed board must be writable!");
+        }
+        if (numGems < 0 || numExtraLives < 0) {
+            throw new IllegalArgumentException("Entity counts must not be negative!");
+        }
+
+        return new PackedBoard(numRows, numCols, data.slice(), numGems, numExtraLives, zobristHash);
+    }
+
+    /**
+     * Packs a cell kind and an entity kind into a single {@code byte}.
+     *
+     * @param cellKind   The kind of the cell.
+     * @param entityKind The kind of the entity on the cell.
+     * @return The packed representation of the cell.
+     */
+    public static byte pack(final int cellKind, final int entityKind) {
+        return (byte) ((entityKind << ENTITY_SHIFT) | cellKind);
+    }
+
+    /**
+     * @param packedCell A packed cell.
+     * @return The cell kind of {@code packedCell}.
+     */
+    public static int cellKindOf(final byte packedCell) {
+        return packedCell & CELL_MASK;
+    }
+
+    /**
+     * @param packedCell A packed cell.
+     * @return The entity kind of {@code packedCell}.
+     */
+    public static int entityKindOf(final byte packedCell) {
+        return (packedCell >> ENTITY_SHIFT) & ENTITY_MASK;
+    }
+
+    /**
+     * Computes the Zobrist key of a cell.
+     *
+     * <p>
+     * Keys are derived from the index and contents of the cell by a 64-bit mixing function instead of being looked up
+     * from a table, so that large boards do not need a key table several times larger than the board itself. An empty
+     * cell without an entity has a key of {@code 0}.
+     * </p>
+     *
+     * @param index      Index of the cell in the packed representation.
+     * @param packedCell The packed representation of the cell.
+     * @return The pseudo-random 64-bit key of the cell.
+     */
+    public static long zobristKey(final int index, final byte packedCell) {
+        if (packedCell == 0) {
+            return 0;
+        }
+
+        // SplitMix64 finalizer
+        var z = ZOBRIST_SEED + (((long) index << 8) | (packedCell & 0xFF)) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param cell The cell to pack.
+     * @return The packed representation of {@code cell}.
+     */
+    private static byte pack(@NotNull final Cell cell) {
+        if (cell instanceof Wall) {
+            return pack(CELL_WALL, ENTITY_NONE);
+        }
+
+        final var entityCell = (EntityCell) cell;
+        return pack(entityCell instanceof StopCell ? CELL_STOP : CELL_EMPTY, entityKindOf(entityCell.getEntity()));
+    }
+
+    /**
+     * @param entity The entity.
+     * @return The entity kind of {@code entity}.
+     */
+    private static int entityKindOf(@Nullable final Entity entity) {
+        if (entity instanceof Gem) {
+            return ENTITY_GEM;
+        } else if (entity instanceof ExtraLife) {
+            return ENTITY_EXTRA_LIFE;
+        } else if (entity instanceof Mine) {
+            return ENTITY_MINE;
+        } else if (entity instanceof Player) {
+            return ENTITY_PLAYER;
+        }
+        return ENTITY_NONE;
+    }
+
+    /**
+     * @return The number of rows of this board.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The number of columns of this board.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return The number of gems currently on this board.
+     * @throws IllegalStateException if consistency checking is enabled, and the live count does not match the actual
+     *                               number of gems on the board.
+     */
+    public int getNumGems() {
+        if (CHECK_CONSISTENCY) {
+            checkCount(ENTITY_GEM, numGems);
+        }
+        return numGems;
+    }
+
+    /**
+     * @return The number of extra lives currently on this board.
+     * @throws IllegalStateException if consistency checking is enabled, and the live count does not match the actual
+     *                               number of extra lives on the board.
+     */
+    public int getNumExtraLives() {
+        if (CHECK_CONSISTENCY) {
+            checkCount(ENTITY_EXTRA_LIFE, numExtraLives);
+        }
+        return numExtraLives;
+    }
+
+    /**
+     * Returns the Zobrist hash of this board.
+     *
+     * <p>
+     * The hash is the XOR of {@link #zobristKey(int, byte)} over all cells, and is updated incrementally whenever a
+     * cell changes. Boards with the same size and contents always have the same hash.
+     * </p>
+     *
+     * @return The Zobrist hash of this board.
+     * @throws IllegalStateException if consistency checking is enabled, and the running hash does not match the hash
+     *                               computed from scratch.
+     */
+    public long getZobristHash() {
+        if (CHECK_CONSISTENCY) {
+            long expected = 0;
+            for (int i = 0; i < numCells; ++i) {
+                expected ^= zobristKey(i, data.get(i));
+            }
+            if (expected != zobristHash) {
+                throw new IllegalStateException("Running Zobrist hash is out of sync with the board");
+            }
+        }
+        return zobristHash;
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return Whether the specified location is within this board.
+     */
+    public boolean isInBounds(final int r, final int c) {
+        return r >= 0 && r < numRows && c >= 0 && c < numCols;
+    }
+
+    /**
+     * @param r Row index.
+     * @param c Column index.
+     * @return The index of the specified location in the packed representation.
+     */
+    public int indexOf(final int r, final int c) {
+        return r * numCols + c;
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The {@link Position} of the cell.
+     */
+    @NotNull
+    public Position positionOf(final int index) {
+        return new Position(index / numCols, index % numCols);
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The packed representation of the cell.
+     */
+    public byte get(final int index) {
+        return data.get(index);
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The kind of the cell.
+     */
+    public int getCellKind(final int index) {
+        return cellKindOf(data.get(index));
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return The kind of the entity on the cell.
+     */
+    public int getEntityKind(final int index) {
+        return entityKindOf(data.get(index));
+    }
+
+    /**
+     * Replaces the entity on a cell with a new entity of the specified kind.
+     *
+     * <p>
+     * If the {@link Cell} instance of the cell has been created, the entity of the instance is replaced as well.
+     * </p>
+     *
+     * @param index      Index of the cell in the packed representation.
+     * @param entityKind The kind of the new entity. Must not be {@link #ENTITY_PLAYER}; Use {@link #movePlayer(int)}
+     *                   to move the player instead.
+     * @throws IllegalArgumentException if {@code entityKind} is {@link #ENTITY_PLAYER}, or the entity cannot be
+     *                                  placed on the cell.
+     */
+    public void setEntityKind(final int index, final int entityKind) {
+        if (entityKind == ENTITY_PLAYER) {
+            throw new IllegalArgumentException("Use movePlayer to move the player!");
+        }
+
+        final var cellKind = getCellKind(index);
+        if (cellKind == CELL_WALL || (cellKind == CELL_STOP && entityKind != ENTITY_NONE)) {
+            throw new IllegalArgumentException("Cannot place entity on the given cell!");
+        }
+
+        final var cell = getCreatedCell(index);
+        if (cell instanceof EntityCell entityCell) {
+            entityCell.setEntity(createEntity(entityKind));
+        } else {
+            write(index, pack(cellKind, entityKind));
+        }
+    }
+
+    /**
+     * Moves the player to the specified cell.
+     *
+     * @param index Index of the cell in the packed representation.
+     */
+    public void movePlayer(final int index) {
+        final var p = Objects.requireNonNull(player, "The board is not managed by a game board!");
+        final var r = index / numCols;
+        final var c = index % numCols;
+
+        ((EntityCell) getCell(r, c)).setEntity(p);
+    }
+
+    /**
+     * Returns the slide table of this board, creating it if necessary.
+     *
+     * <p>
+     * The returned table is kept up-to-date with all subsequent changes to this board.
+     * </p>
+     *
+     * @return The slide table of this board.
+     */
+    @NotNull
+    public SlideTable getSlideTable() {
+        if (slideTable == null) {
+            slideTable = new SlideTable(this);
+        }
+        return slideTable;
+    }
+
+    /**
+     * Returns the {@link Cell} instance of a cell, creating it if necessary.
+     *
+     * @param r Row index.
+     * @param c Column index.
+     * @return The {@link Cell} instance at the specified location.
+     */
+    @NotNull
+    public Cell getCell(final int r, final int c) {
+        final var row = getCellRow(r);
+        var cell = row[c];
+        if (cell == null) {
+            cell = createCell(r, c);
+            row[c] = cell;
+        }
+        return cell;
+    }
+
+    /**
+     * Returns the {@link Cell} instances of a row, creating them if necessary.
+     *
+     * @param r Row index.
+     * @return 1D array representing the row.
+     */
+    @NotNull
+    public Cell[] getRow(final int r) {
+        final var row = getCellRow(r);
+        for (int c = 0; c < numCols; ++c) {
+            if (row[c] == null) {
+                row[c] = createCell(r, c);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Takes a snapshot of this board.
+     *
+     * <p>
+     * The board is not copied when the snapshot is taken; Instead, each chunk of rows is copied into the snapshot right
+     * before it is first changed. If the board has not changed since the latest snapshot, the latest snapshot is
+     * returned.
+     * </p>
+     *
+     * @return An immutable view of the current contents of this board.
+     */
+    @NotNull
+    public BoardSnapshot snapshot() {
+        final var latest = latestSnapshot != null ? latestSnapshot.get() : null;
+        if (latest != null && !changedSinceSnapshot) {
+            return latest;
+        }
+
+        final var snapshot = new BoardSnapshot(this, data, Math.max(1, SNAPSHOT_CHUNK_SIZE / numCols),
+                getPlayerIndex());
+        if (latest != null) {
+            latest.setNewer(snapshot);
+        }
+        latestSnapshot = new WeakReference<>(snapshot);
+        changedSinceSnapshot = false;
+        return snapshot;
+    }
+
+    /**
+     * Reverts this board to the contents of a snapshot.
+     *
+     * <p>
+     * Only the chunks which changed since the snapshot was taken are compared, and only the cells which differ are
+     * rewritten. The created {@link Cell} instances, the live entity counts, the Zobrist hash and the slide table are
+     * updated as if the changes were undone one cell at a time. Other state of a game, such as the counters of a
+     * {@link GameState}, is not part of the board and is not reverted.
+     * </p>
+     *
+     * @param snapshot A snapshot taken from this board by {@link #snapshot()}.
+     * @throws IllegalArgumentException if {@code snapshot} was taken from another board.
+     */
+    public void restore(@NotNull final BoardSnapshot snapshot) {
+        if (Objects.requireNonNull(snapshot).getBoard() != this) {
+            throw new IllegalArgumentException("The snapshot was not taken from this board!");
+        }
+
+        final var playerIndex = snapshot.getPlayerIndex();
+        if (player != null && playerIndex >= 0 && playerIndex != getPlayerIndex()) {
+            movePlayer(playerIndex);
+        }
+
+        final var chunkSize = snapshot.getRowsPerChunk() * numCols;
+        for (int start = 0, chunk = 0; start < numCells; start += chunkSize, ++chunk) {
+            final var copy = snapshot.findChunk(chunk);
+            if (copy == null) {
+                continue;
+            }
+
+            final var length = Math.min(chunkSize, numCells - start);
+            for (int i = 0; i < length; ++i) {
+                if (data.get(start + i) != copy[i]) {
+                    setEntityKind(start + i, entityKindOf(copy[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Index of the cell containing the player, or {@code -1} if this board is not managed by a
+     * {@link GameBoard}.
+     */
+    private int getPlayerIndex() {
+        final var owner = player != null ? player.getOwner() : null;
+        if (owner == null) {
+            return -1;
+        }
+        final var position = owner.getPosition();
+        return indexOf(position.row(), position.col());
+    }
+
+    /**
+     * Binds this board to the player at the specified cell.
+     *
+     * <p>
+     * After this method returns, all created {@link EntityCell} instances of this board are kept in sync with the
+     * packed representation.
+     * </p>
+     *
+     * @param index Index of the cell containing the player in the packed representation.
+     * @return The player on this board.
+     * @throws IllegalStateException if this board is already bound to a player.
+     */
+    @NotNull
+    Player bindPlayer(final int index) {
+        if (player != null) {
+            throw new IllegalStateException("The board is already managed by another game board!");
+        }
+
+        final var r = index / numCols;
+        final var c = index % numCols;
+
+        final var existingCell = cells != null && cells[r] != null ? cells[r][c] : null;
+        if (existingCell != null) {
+            player = (Player) Objects.requireNonNull(((EntityCell) existingCell).getEntity());
+        } else {
+            player = new Player();
+        }
+
+        if (cells != null) {
+            for (int i = 0; i < cells.length; ++i) {
+                final var row = cells[i];
+                if (row == null) {
+                    continue;
+                }
+                for (int j = 0; j < row.length; ++j) {
+                    if (row[j] instanceof EntityCell entityCell) {
+                        entityCell.attach(this, indexOf(i, j));
+                    }
+                }
+            }
+        }
+
+        getCell(r, c);
+        return player;
+    }
+
+    /**
+     * Updates the packed representation of a cell after the entity of its {@link EntityCell} instance is changed.
+     *
+     * @param index  Index of the cell in the packed representation.
+     * @param entity The new entity of the cell.
+     */
+    void onEntityChanged(final int index, @Nullable final Entity entity) {
+        write(index, pack(getCellKind(index), entityKindOf(entity)));
+    }
+
+    /**
+     * Replaces the packed representation of a cell, updating the live entity counts, the Zobrist hash and the slide
+     * table accordingly.
+     *
+     * @param index      Index of the cell in the packed representation.
+     * @param packedCell The new packed representation of the cell.
+     */
+    private void write(final int index, final byte packedCell) {
+        final var oldPackedCell = data.get(index);
+        final var oldEntityKind = entityKindOf(oldPackedCell);
+        final var newEntityKind = entityKindOf(packedCell);
+
+        countEntity(oldEntityKind, -1);
+        countEntity(newEntityKind, 1);
+        zobristHash ^= zobristKey(index, oldPackedCell) ^ zobristKey(index, packedCell);
+        if (latestSnapshot != null) {
+            preserveChunk(index);
+        }
+        data.put(index, packedCell);
+
+        if (slideTable != null && oldEntityKind != newEntityKind) {
+            slideTable.onEntityChanged(index, oldEntityKind, newEntityKind);
+        }
+    }
+
+    /**
+     * Copies the chunk containing a cell into the latest snapshot before the cell is changed.
+     *
+     * @param index Index of the cell which is about to change.
+     */
+    private void preserveChunk(final int index) {
+        final var latest = Objects.requireNonNull(latestSnapshot).get();
+        if (latest == null) {
+            latestSnapshot = null;
+            return;
+        }
+
+        latest.preserve(index / (latest.getRowsPerChunk() * numCols));
+        changedSinceSnapshot = true;
+    }
+
+    /**
+     * Adjusts the live count of an entity kind.
+     *
+     * @param entityKind The kind of entity.
+     * @param delta      The amount to adjust the count by.
+     */
+    private void countEntity(final int entityKind, final int delta) {
+        if (entityKind == ENTITY_GEM) {
+            numGems += delta;
+        } else if (entityKind == ENTITY_EXTRA_LIFE) {
+            numExtraLives += delta;
+        }
+    }
+
+    /**
+     * Checks a live entity count against a full rescan of the packed cells and the created {@link Cell} instances.
+     *
+     * @param entityKind The kind of entity to count.
+     * @param liveCount  The live count of the entity kind.
+     * @throws IllegalStateException if the live count does not match the rescan.
+     */
+    private void checkCount(final int entityKind, final int liveCount) {
+        int packedCount = 0;
+        for (int i = 0; i < numCells; ++i) {
+            if (entityKindOf(data.get(i)) == entityKind) {
+                ++packedCount;
+            }
+        }
+        if (packedCount != liveCount) {
+            throw new IllegalStateException("Live count of entity kind " + entityKind + " is " + liveCount
+                    + ", but the board contains " + packedCount);
+        }
+
+        if (cells == null) {
+            return;
+        }
+        for (int i = 0; i < cells.length; ++i) {
+            final var row = cells[i];
+            if (row == null) {
+                continue;
+            }
+            for (int j = 0; j < row.length; ++j) {
+                if (row[j] instanceof EntityCell entityCell
+                        && entityKindOf(entityCell.getEntity()) != getEntityKind(indexOf(i, j))) {
+                    throw new IllegalStateException("Cell at (" + i + ", " + j + ") is out of sync with the board");
+                }
+            }
+        }
+    }
+
+    /**
+     * @param r Row index.
+     * @return The array holding the {@link Cell} instances of the row.
+     */
+    @NotNull
+    private Cell[] getCellRow(final int r) {
+        if (cells == null) {
+            cells = new Cell[numRows][];
+        }
+        if (cells[r] == null) {
+            cells[r] = new Cell[numCols];
+        }
+        return cells[r];
+    }
+
+    /**
+     * @param index Index of the cell in the packed representation.
+     * @return The {@link Cell} instance of the cell if it has been created, otherwise {@code null}.
+     */
+    @Nullable
+    private Cell getCreatedCell(final int index) {
+        if (cells == null) {
+            return null;
+        }
+        final var row = cells[index / numCols];
+        return row != null ? row[index % numCols] : null;
+    }
+
+    /**
+     * Creates the {@link Cell} instance of a cell from its packed representation.
+     *
+     * @param r Row index.
+     * @param c Column index.
+     * @return The new {@link Cell} instance.
+     */
+    @NotNull
+    private Cell createCell(final int r, final int c) {
+        final var index = indexOf(r, c);
+        final var position = new Position(r, c);
+        final var cellKind = getCellKind(index);
+        if (cellKind == CELL_WALL) {
+            return new Wall(position);
+        }
+
+        final var entity = createEntity(getEntityKind(index));
+        final var cell = cellKind == CELL_STOP ? new StopCell(position, entity) : new EntityCell(position, entity);
+        if (player != null) {
+            cell.attach(this, index);
+        }
+        return cell;
+    }
+
+    /**
+     * @param entityKind The kind of entity.
+     * @return A new {@link Entity} instance of the given kind, or {@code null} if {@code entityKind} is
+     * {@link #ENTITY_NONE}.
+     */
+    @Nullable
+    private Entity createEntity(final int entityKind) {
+        return switch (entityKind) {
+            case ENTITY_GEM -> new Gem();
+            case ENTITY_EXTRA_LIFE -> new ExtraLife();
+            case ENTITY_MINE -> new Mine();
+            case ENTITY_PLAYER -> player;
+            default -> null;
+        };
+    }
+}
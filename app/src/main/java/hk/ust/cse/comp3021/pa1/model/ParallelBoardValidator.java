@@ -0,0 +1,382 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Validates a {@link PackedBoard} in parallel.
+ *
+ * <p>
+ * The board is split into horizontal stripes, which are scanned in parallel on a {@link ForkJoinPool}. Each stripe
+ * splits its rows into runs of horizontally adjacent non-wall cells, counts the players and gems in each run, and
+ * joins runs of adjacent rows which touch each other using a union-find. The components of neighboring stripes are
+ * then merged by joining the runs along the stripe boundaries, so that the number of gems reachable from the player
+ * can be summed over the runs in the same component as the player.
+ * </p>
+ */
+final class ParallelBoardValidator {
+
+    /**
+     * Number of stripes to create per worker thread, so that uneven stripes can be balanced by work-stealing.
+     */
+    private static final int STRIPES_PER_THREAD = 4;
+
+    /**
+     * The result of validating a board.
+     *
+     * @param numPlayers    The number of players on the board.
+     * @param numGems       The number of gems on the board.
+     * @param playerIndex   Index of the cell of the last player found on the board, or {@code -1} if there are no
+     *                      players.
+     * @param reachableGems The number of gems reachable from {@code playerIndex}.
+     */
+    record Result(int numPlayers, int numGems, int playerIndex, int reachableGems) {
+    }
+
+    private ParallelBoardValidator() {
+    }
+
+    /**
+     * Validates a board.
+     *
+     * @param board The board to validate.
+     * @param pool  The pool to scan the stripes of the board on.
+     * @return The result of the validation.
+     */
+    @NotNull
+    static Result validate(@NotNull final PackedBoard board, @NotNull final ForkJoinPool pool) {
+        final var numRows = board.getNumRows();
+        final var numStripes = Math.max(1, Math.min(numRows, pool.getParallelism() * STRIPES_PER_THREAD));
+        final var rowsPerStripe = (numRows + numStripes - 1) / numStripes;
+
+        final var stripes = new Stripe[(numRows + rowsPerStripe - 1) / rowsPerStripe];
+        pool.invoke(new ScanTask(board, stripes, rowsPerStripe, 0, stripes.length));
+
+        // Assign global run IDs, and combine the union-finds of all stripes
+        final var runOffsets = new int[stripes.length + 1];
+        for (int i = 0; i < stripes.length; ++i) {
+            runOffsets[i + 1] = runOffsets[i] + stripes[i].numRuns;
+        }
+        final var parent = new int[runOffsets[stripes.length]];
+        final var runGems = new int[parent.length];
+
+        int numPlayers = 0;
+        int numGems = 0;
+        int playerIndex = -1;
+        int playerRun = -1;
+        for (int i = 0; i < stripes.length; ++i) {
+            final var stripe = stripes[i];
+            for (int run = 0; run < stripe.numRuns; ++run) {
+                parent[runOffsets[i] + run] = runOffsets[i] + stripe.find(run);
+            }
+            System.arraycopy(stripe.runGems, 0, runGems, runOffsets[i], stripe.numRuns);
+
+            numPlayers += stripe.numPlayers;
+            numGems += stripe.numGems;
+            if (stripe.playerRun >= 0) {
+                playerIndex = stripe.playerIndex;
+                playerRun = runOffsets[i] + stripe.playerRun;
+            }
+        }
+
+        // Merge the components along the stripe boundaries
+        for (int i = 1; i < stripes.length; ++i) {
+            final var upper = stripes[i - 1];
+            final var upperOffset = runOffsets[i - 1];
+            final var lowerOffset = runOffsets[i];
+            upper.forEachOverlap(upper.numRows - 1, stripes[i], 0,
+                    (a, b) -> union(parent, upperOffset + a, lowerOffset + b));
+        }
+
+        int reachableGems = 0;
+        if (playerRun >= 0) {
+            final var playerRoot = find(parent, playerRun);
+            for (int run = 0; run < parent.length; ++run) {
+                if (runGems[run] != 0 && find(parent, run) == playerRoot) {
+                    reachableGems += runGems[run];
+                }
+            }
+        }
+
+        return new Result(numPlayers, numGems, playerIndex, reachableGems);
+    }
+
+    /**
+     * Finds the root of an element in a union-find, compressing the path along the way.
+     *
+     * @param parent  The parent of each element.
+     * @param element The element.
+     * @return The root of {@code element}.
+     */
+    private static int find(@NotNull final int[] parent, final int element) {
+        var root = element;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+
+        var current = element;
+        while (parent[current] != root) {
+            final var next = parent[current];
+            parent[current] = root;
+            current = next;
+        }
+        return root;
+    }
+
+    /**
+     * Joins the sets of two elements in a union-find.
+     *
+     * @param parent The parent of each element.
+     * @param a      The first element.
+     * @param b      The second element.
+     */
+    private static void union(@NotNull final int[] parent, final int a, final int b) {
+        final var rootA = find(parent, a);
+        final var rootB = find(parent, b);
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+
+    /**
+     * Callback for a pair of runs which touch each other.
+     */
+    @FunctionalInterface
+    private interface OverlapConsumer {
+
+        /**
+         * @param a Index of the run in the upper row.
+         * @param b Index of the run in the lower row.
+         */
+        void accept(int a, int b);
+    }
+
+    /**
+     * Task which scans a range of stripes, splitting the range in half until a single stripe is left.
+     */
+    @SuppressWarnings("serial")
+    private static final class ScanTask extends RecursiveAction {
+
+        /**
+         * The board being validated.
+         */
+        @NotNull
+        private final PackedBoard board;
+        /**
+         * The scanned stripes.
+         */
+        @NotNull
+        private final Stripe[] stripes;
+        /**
+         * The number of rows in each stripe.
+         */
+        private final int rowsPerStripe;
+        /**
+         * Index of the first stripe to scan.
+         */
+        private final int from;
+        /**
+         * Index after the last stripe to scan.
+         */
+        private final int to;
+
+        /**
+         * @param board         The board being validated.
+         * @param stripes       The array to store the scanned stripes into.
+         * @param rowsPerStripe The number of rows in each stripe.
+         * @param from          Index of the first stripe to scan.
+         * @param to            Index after the last stripe to scan.
+         */
+        ScanTask(@NotNull final PackedBoard board, @NotNull final Stripe[] stripes, final int rowsPerStripe,
+                 final int from, final int to) {
+            this.board = board;
+            this.stripes = stripes;
+            this.rowsPerStripe = rowsPerStripe;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                final var firstRow = from * rowsPerStripe;
+                final var lastRow = Math.min(firstRow + rowsPerStripe, board.getNumRows());
+                stripes[from] = new Stripe(board, firstRow, lastRow);
+                return;
+            }
+
+            final var mid = (from + to) >>> 1;
+            invokeAll(new ScanTask(board, stripes, rowsPerStripe, from, mid),
+                    new ScanTask(board, stripes, rowsPerStripe, mid, to));
+        }
+    }
+
+    /**
+     * The runs of non-wall cells in a horizontal stripe of a board.
+     */
+    private static final class Stripe {
+
+        /**
+         * The number of rows in this stripe.
+         */
+        private final int numRows;
+        /**
+         * Index of the first run of each row, followed by the total number of runs. The runs of row {@code r} are
+         * therefore {@code rowOffsets[r]} (inclusive) to {@code rowOffsets[r + 1]} (exclusive).
+         */
+        @NotNull
+        private final int[] rowOffsets;
+        /**
+         * The number of runs in this stripe.
+         */
+        private int numRuns = 0;
+        /**
+         * Column of the first cell of each run.
+         */
+        @NotNull
+        private int[] runStart;
+        /**
+         * Column of the last cell of each run.
+         */
+        @NotNull
+        private int[] runEnd;
+        /**
+         * The number of gems in each run.
+         */
+        @NotNull
+        private int[] runGems;
+        /**
+         * The parent of each run in the union-find of this stripe.
+         */
+        @NotNull
+        private int[] parent;
+        /**
+         * The number of players in this stripe.
+         */
+        private int numPlayers = 0;
+        /**
+         * The number of gems in this stripe.
+         */
+        private int numGems = 0;
+        /**
+         * Index of the cell of the last player found in this stripe.
+         */
+        private int playerIndex = -1;
+        /**
+         * The run containing {@link #playerIndex}, or {@code -1} if there are no players in this stripe.
+         */
+        private int playerRun = -1;
+
+        /**
+         * Scans a stripe of a board.
+         *
+         * @param board    The board to scan.
+         * @param firstRow The first row of the stripe.
+         * @param lastRow  The row after the last row of the stripe.
+         */
+        Stripe(@NotNull final PackedBoard board, final int firstRow, final int lastRow) {
+            this.numRows = lastRow - firstRow;
+            this.rowOffsets = new int[numRows + 1];
+
+            final var initialCapacity = Math.max(16, numRows);
+            this.runStart = new int[initialCapacity];
+            this.runEnd = new int[initialCapacity];
+            this.runGems = new int[initialCapacity];
+            this.parent = new int[initialCapacity];
+
+            final var numCols = board.getNumCols();
+            for (int r = 0; r < numRows; ++r) {
+                int run = -1;
+                for (int c = 0; c < numCols; ++c) {
+                    final var index = board.indexOf(firstRow + r, c);
+                    if (board.getCellKind(index) == PackedBoard.CELL_WALL) {
+                        run = -1;
+                        continue;
+                    }
+                    if (run < 0) {
+                        run = addRun(c);
+                    }
+                    runEnd[run] = c;
+
+                    final var entityKind = board.getEntityKind(index);
+                    if (entityKind == PackedBoard.ENTITY_GEM) {
+                        ++runGems[run];
+                        ++numGems;
+                    } else if (entityKind == PackedBoard.ENTITY_PLAYER) {
+                        ++numPlayers;
+                        playerIndex = index;
+                        playerRun = run;
+                    }
+                }
+                rowOffsets[r + 1] = numRuns;
+
+                if (r > 0) {
+                    forEachOverlap(r - 1, this, r, (a, b) -> union(parent, a, b));
+                }
+            }
+        }
+
+        /**
+         * Adds a new run.
+         *
+         * @param start Column of the first cell of the run.
+         * @return Index of the new run.
+         */
+        private int addRun(final int start) {
+            if (numRuns == runStart.length) {
+                final var capacity = runStart.length * 2;
+                runStart = Arrays.copyOf(runStart, capacity);
+                runEnd = Arrays.copyOf(runEnd, capacity);
+                runGems = Arrays.copyOf(runGems, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+            }
+
+            final var run = numRuns++;
+            runStart[run] = start;
+            runEnd[run] = start;
+            runGems[run] = 0;
+            parent[run] = run;
+            return run;
+        }
+
+        /**
+         * @param run Index of a run.
+         * @return The root of the run in the union-find of this stripe.
+         */
+        int find(final int run) {
+            return ParallelBoardValidator.find(parent, run);
+        }
+
+        /**
+         * Finds all pairs of runs in a row of this stripe and a row of another stripe which touch each other.
+         *
+         * @param row        The row in this stripe, relative to the first row of this stripe.
+         * @param other      The other stripe.
+         * @param otherRow   The row in {@code other}, relative to the first row of {@code other}.
+         * @param onOverlap  Callback for each pair of touching runs.
+         */
+        void forEachOverlap(final int row, @NotNull final Stripe other, final int otherRow,
+                            @NotNull final OverlapConsumer onOverlap) {
+            var a = rowOffsets[row];
+            final var aEnd = rowOffsets[row + 1];
+            var b = other.rowOffsets[otherRow];
+            final var bEnd = other.rowOffsets[otherRow + 1];
+
+            while (a < aEnd && b < bEnd) {
+                if (runEnd[a] >= other.runStart[b] && other.runEnd[b] >= runStart[a]) {
+                    onOverlap.accept(a, b);
+                }
+                if (runEnd[a] < other.runEnd[b]) {
+                    ++a;
+                } else {
+                    ++b;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+
+/**
+ * Precomputed slide destinations of a {@link PackedBoard}.
+ *
+ * <p>
+ * For every cell and {@link Direction}, this table stores where the {@link Player} stops when sliding from the cell in
+ * the direction, i.e. the cell before a wall or the edge of the board, the first {@link StopCell}, or the first
+ * {@link Mine} along the way. Since gems and extra lives never stop a slide, the destinations only need to be
+ * recomputed when a mine is added to or removed from the board.
+ * </p>
+ * <p>
+ * The collectible cells (gems and extra lives) along a slide are tracked by one bitset ordered by rows and one ordered
+ * by columns, so that the collectibles between the start and the destination of a slide can be enumerated without
+ * visiting the empty cells in between. These bitsets are patched whenever a collectible is picked up or restored.
+ * </p>
+ * <p>
+ * Slide results are encoded as a single {@code int}: {@link #NO_MOVE} if the slide is invalid, a positive value for a
+ * slide which ends alive, and a negative value for a slide which ends on a mine. Use {@link #isAlive(int)},
+ * {@link #isDead(int)} and {@link #cellOf(int)} to decode a result.
+ * </p>
+ */
+public final class SlideTable {
+
+    /**
+     * Slide result representing an invalid move.
+     */
+    public static final int NO_MOVE = 0;
+
+    /**
+     * The board which this table is computed from.
+     */
+    @NotNull
+    private final PackedBoard board;
+
+    /**
+     * Encoded slide results, indexed by {@link Direction#ordinal()} and then by the first cell entered by the slide.
+     *
+     * <p>
+     * Each array is allocated on first use, and an element of {@link #NO_MOVE} means that the result has not been
+     * computed yet.
+     * </p>
+     */
+    @NotNull
+    private final int[][] ends = new int[Direction.values().length][];
+
+    /**
+     * Collectible cells, indexed by {@code row * numCols + col}.
+     */
+    @NotNull
+    private final BitSet rowCollectibles = new BitSet();
+
+    /**
+     * Collectible cells, indexed by {@code col * numRows + row}.
+     */
+    @NotNull
+    private final BitSet colCollectibles = new BitSet();
+
+    /**
+     * Creates the slide table of a board.
+     *
+     * @param board The board to compute slides on.
+     */
+    SlideTable(@NotNull final PackedBoard board) {
+        this.board = board;
+
+        final var numRows = board.getNumRows();
+        final var numCols = board.getNumCols();
+        for (int r = 0; r < numRows; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                if (isCollectible(board.getEntityKind(board.indexOf(r, c)))) {
+                    rowCollectibles.set(r * numCols + c);
+                    colCollectibles.set(c * numRows + r);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param result An encoded slide result.
+     * @return Whether the slide is valid and the player is alive afterwards.
+     */
+    public static boolean isAlive(final int result) {
+        return result > 0;
+    }
+
+    /**
+     * @param result An encoded slide result.
+     * @return Whether the slide is valid but the player runs into a mine.
+     */
+    public static boolean isDead(final int result) {
+        return result < 0;
+    }
+
+    /**
+     * @param result An encoded slide result which is not {@link #NO_MOVE}.
+     * @return The index of the destination cell if the slide is alive, or the index of the mine if the slide is dead.
+     */
+    public static int cellOf(final int result) {
+        return result > 0 ? result - 1 : -result - 1;
+    }
+
+    /**
+     * @param entityKind The kind of entity.
+     * @return Whether the entity is picked up when the player slides over it.
+     */
+    private static boolean isCollectible(final int entityKind) {
+        return entityKind == PackedBoard.ENTITY_GEM || entityKind == PackedBoard.ENTITY_EXTRA_LIFE;
+    }
+
+    /**
+     * Computes where the player stops when sliding from a cell.
+     *
+     * @param index     Index of the starting cell in the packed representation.
+     * @param direction The direction to slide in.
+     * @return The encoded result of the slide.
+     */
+    public int slide(final int index, @NotNull final Direction direction) {
+        final var r = index / board.getNumCols() + direction.getRowOffset();
+        final var c = index % board.getNumCols() + direction.getColOffset();
+        if (!board.isInBounds(r, c)) {
+            return NO_MOVE;
+        }
+
+        final var first = board.indexOf(r, c);
+        if (board.getCellKind(first) == PackedBoard.CELL_WALL) {
+            return NO_MOVE;
+        }
+
+        var table = ends[direction.ordinal()];
+        if (table == null) {
+            table = new int[board.getNumRows() * board.getNumCols()];
+            ends[direction.ordinal()] = table;
+        }
+        if (table[first] == NO_MOVE) {
+            fill(table, first, direction);
+        }
+        return table[first];
+    }
+
+    /**
+     * Finds the next collectible cell along a slide.
+     *
+     * @param index     Index of the current cell along the slide. This cell itself is not considered.
+     * @param end       Index of the destination cell of the slide.
+     * @param direction The direction of the slide.
+     * @return Index of the next collectible cell after {@code index} and up to {@code end} (inclusive), or {@code -1}
+     * if there are no more collectible cells.
+     */
+    public int nextCollectible(final int index, final int end, @NotNull final Direction direction) {
+        final var numRows = board.getNumRows();
+        final var numCols = board.getNumCols();
+
+        final int next;
+        switch (direction) {
+            case RIGHT:
+                next = rowCollectibles.nextSetBit(index + 1);
+                return next >= 0 && next <= end ? next : -1;
+            case LEFT:
+                next = rowCollectibles.previousSetBit(index - 1);
+                return next >= end ? next : -1;
+            case DOWN:
+                next = colCollectibles.nextSetBit(toColMajor(index) + 1);
+                return next >= 0 && next <= toColMajor(end) ? (next % numRows) * numCols + next / numRows : -1;
+            case UP:
+                next = colCollectibles.previousSetBit(toColMajor(index) - 1);
+                return next >= toColMajor(end) ? (next % numRows) * numCols + next / numRows : -1;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Patches this table after the entity on a cell is changed.
+     *
+     * @param index         Index of the cell in the packed representation.
+     * @param oldEntityKind The kind of the previous entity on the cell.
+     * @param newEntityKind The kind of the new entity on the cell.
+     */
+    void onEntityChanged(final int index, final int oldEntityKind, final int newEntityKind) {
+        if (oldEntityKind == PackedBoard.ENTITY_MINE || newEntityKind == PackedBoard.ENTITY_MINE) {
+            for (int i = 0; i < ends.length; ++i) {
+                ends[i] = null;
+            }
+        }
+
+        final var collectible = isCollectible(newEntityKind);
+        if (collectible != isCollectible(oldEntityKind)) {
+            rowCollectibles.set(index, collectible);
+            colCollectibles.set(toColMajor(index), collectible);
+        }
+    }
+
+    /**
+     * @param index Index of a cell in the packed representation.
+     * @return Index of the cell when ordered by columns.
+     */
+    private int toColMajor(final int index) {
+        return (index % board.getNumCols()) * board.getNumRows() + index / board.getNumCols();
+    }
+
+    /**
+     * Computes the result of a slide entering a cell, and stores the result for every cell along the way.
+     *
+     * <p>
+     * Every cell entered by the slide shares the same result, so each cell is only visited once per direction.
+     * </p>
+     *
+     * @param table     The results of the direction.
+     * @param first     Index of the first cell entered by the slide.
+     * @param direction The direction of the slide.
+     */
+    private void fill(@NotNull final int[] table, final int first, @NotNull final Direction direction) {
+        final var dRow = direction.getRowOffset();
+        final var dCol = direction.getColOffset();
+        final var step = dRow * board.getNumCols() + dCol;
+
+        var r = first / board.getNumCols();
+        var c = first % board.getNumCols();
+        var index = first;
+        int result;
+        while (true) {
+            if (table[index] != NO_MOVE) {
+                result = table[index];
+                break;
+            }
+            if (board.getEntityKind(index) == PackedBoard.ENTITY_MINE) {
+                result = -(index + 1);
+                break;
+            }
+            if (board.getCellKind(index) == PackedBoard.CELL_STOP) {
+                result = index + 1;
+                break;
+            }
+
+            r += dRow;
+            c += dCol;
+            if (!board.isInBounds(r, c) || board.getCellKind(index + step) == PackedBoard.CELL_WALL) {
+                result = index + 1;
+                break;
+            }
+            index += step;
+        }
+
+        for (int i = first; i != index; i += step) {
+            table[i] = result;
+        }
+        table[index] = result;
+    }
+}
@@ -50,6 +50,7 @@ public final class StopCell extends EntityCell {
             if(newEntity != null){
                 this.entity.setOwner(this);
             }
+            onEntityChanged();
             return previousEntity;
         }
     }
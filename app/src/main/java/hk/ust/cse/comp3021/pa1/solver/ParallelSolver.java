@@ -0,0 +1,243 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parallel counterpart of {@link Solver}.
+ *
+ * <p>
+ * The search is level-synchronous: All states at the same distance from the initial state form a frontier, which is
+ * split into ranges and expanded by a {@link ForkJoinPool}. Successor states are deduplicated by a
+ * {@link StripedStateSet} shared by all workers, and the search stops after the first level containing a winning state.
+ * Since every level is fully expanded before the next one, the solution has the same number of moves as the one found
+ * by {@link Solver}, although the moves themselves may differ when there are several shortest solutions.
+ * </p>
+ */
+public final class ParallelSolver {
+
+    /**
+     * Maximum number of frontier states expanded by a single task without splitting.
+     */
+    private static final int SPLIT_THRESHOLD = 512;
+
+    /**
+     * Whether the game has already been lost.
+     */
+    private final boolean lost;
+
+    /**
+     * The move graph of the game board.
+     */
+    @NotNull
+    private final SolverBoard board;
+
+    /**
+     * The pool to expand the frontiers on.
+     */
+    @NotNull
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a solver for the current state of a game.
+     *
+     * <p>
+     * The game itself is not modified by the solver, and later changes to the game are not seen by the solver.
+     * </p>
+     *
+     * @param gameState The game to solve.
+     * @param pool      The pool to run the search on.
+     */
+    public ParallelSolver(@NotNull final GameState gameState, @NotNull final ForkJoinPool pool) {
+        this.lost = gameState.hasLost();
+        this.board = new SolverBoard(gameState.getGameBoard());
+        this.pool = pool;
+    }
+
+    /**
+     * Finds a shortest sequence of moves which collects all gems.
+     *
+     * @return The solution of the game.
+     */
+    @NotNull
+    public Solution solve() {
+        final var startTime = System.nanoTime();
+        if (lost) {
+            return new Solution(null, 0, Duration.ofNanos(System.nanoTime() - startTime));
+        }
+
+        final var numGems = board.getNumGems();
+        final var numWords = (numGems + Long.SIZE - 1) / Long.SIZE;
+        final var visited = new StripedStateSet(numWords);
+
+        final var gems = new long[numWords];
+        for (int gem = 0; gem < numGems; ++gem) {
+            gems[gem / Long.SIZE] |= 1L << gem;
+        }
+        visited.add(0, gems);
+        if (numGems == 0) {
+            return new Solution(List.of(), visited.size(), Duration.ofNanos(System.nanoTime() - startTime));
+        }
+
+        final var levels = new ArrayList<StateList>();
+        var frontier = new StateList(numWords);
+        frontier.add(0, gems, -1, -1);
+        levels.add(frontier);
+
+        while (frontier.size() > 0) {
+            final var chunks = new ConcurrentLinkedQueue<StateList>();
+            final var found = new AtomicBoolean(false);
+            final var task = new ExpandTask(frontier, 0, frontier.size(), visited, chunks, found);
+            if (frontier.size() > SPLIT_THRESHOLD) {
+                pool.invoke(task);
+            } else {
+                // Small frontiers are not worth handing over to the pool
+                task.invoke();
+            }
+
+            final var next = new StateList(numWords);
+            for (final var chunk : chunks) {
+                next.addAll(chunk);
+            }
+            levels.add(next);
+            frontier = next;
+
+            if (found.get()) {
+                for (int i = 0; i < next.size(); ++i) {
+                    next.getGems(i, gems);
+                    if (Solver.isEmpty(gems)) {
+                        final var elapsedTime = Duration.ofNanos(System.nanoTime() - startTime);
+                        return new Solution(reconstruct(levels, i), visited.size(), elapsedTime);
+                    }
+                }
+            }
+        }
+
+        return new Solution(null, visited.size(), Duration.ofNanos(System.nanoTime() - startTime));
+    }
+
+    /**
+     * Reconstructs the moves leading to a state in the last level.
+     *
+     * @param levels The frontiers of each level of the search.
+     * @param goal   Index of the final state in the last level.
+     * @return The moves from the initial state to {@code goal}.
+     */
+    @NotNull
+    private static List<Direction> reconstruct(@NotNull final List<StateList> levels, final int goal) {
+        final var directions = Direction.values();
+        final var moves = new ArrayList<Direction>();
+        var index = goal;
+        for (int level = levels.size() - 1; level > 0; --level) {
+            moves.add(directions[levels.get(level).getMove(index)]);
+            index = levels.get(level).getParent(index);
+        }
+        Collections.reverse(moves);
+        return moves;
+    }
+
+    /**
+     * Task which expands a range of states in a frontier.
+     */
+    @SuppressWarnings("serial")
+    private final class ExpandTask extends RecursiveAction {
+
+        /**
+         * The frontier being expanded.
+         */
+        @NotNull
+        private final StateList frontier;
+        /**
+         * Index of the first state to expand.
+         */
+        private final int from;
+        /**
+         * Index after the last state to expand.
+         */
+        private final int to;
+        /**
+         * All states visited so far.
+         */
+        @NotNull
+        private final StripedStateSet visited;
+        /**
+         * Newly discovered states, collected from every task.
+         */
+        @NotNull
+        private final ConcurrentLinkedQueue<StateList> chunks;
+        /**
+         * Whether a winning state has been discovered in this level.
+         */
+        @NotNull
+        private final AtomicBoolean found;
+
+        /**
+         * @param frontier The frontier being expanded.
+         * @param from     Index of the first state to expand.
+         * @param to       Index after the last state to expand.
+         * @param visited  All states visited so far.
+         * @param chunks   The queue to add newly discovered states to.
+         * @param found    Flag to set when a winning state is discovered.
+         */
+        ExpandTask(@NotNull final StateList frontier, final int from, final int to,
+                   @NotNull final StripedStateSet visited, @NotNull final ConcurrentLinkedQueue<StateList> chunks,
+                   @NotNull final AtomicBoolean found) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.visited = visited;
+            this.chunks = chunks;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                final var mid = (from + to) >>> 1;
+                invokeAll(new ExpandTask(frontier, from, mid, visited, chunks, found),
+                        new ExpandTask(frontier, mid, to, visited, chunks, found));
+                return;
+            }
+
+            final var numWords = (board.getNumGems() + Long.SIZE - 1) / Long.SIZE;
+            final var gems = new long[numWords];
+            final var next = new long[numWords];
+            final var chunk = new StateList(numWords);
+            // Once a winning state is found, the rest of the level is not needed
+            for (int i = from; i < to && !found.get(); ++i) {
+                final var position = frontier.getPosition(i);
+                frontier.getGems(i, gems);
+
+                for (int direction = 0; direction < SolverBoard.NUM_DIRECTIONS; ++direction) {
+                    final var target = board.getTarget(position, direction);
+                    if (target == SolverBoard.NO_TRANSITION) {
+                        continue;
+                    }
+
+                    System.arraycopy(gems, 0, next, 0, numWords);
+                    board.collect(position, direction, next);
+                    if (visited.add(target, next)) {
+                        chunk.add(target, next, i, direction);
+                        if (Solver.isEmpty(next)) {
+                            found.set(true);
+                        }
+                    }
+                }
+            }
+
+            if (chunk.size() > 0) {
+                chunks.add(chunk);
+            }
+        }
+    }
+}
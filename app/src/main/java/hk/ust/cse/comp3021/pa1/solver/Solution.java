@@ -0,0 +1,81 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The result of solving a game, together with statistics of the search.
+ */
+public final class Solution {
+
+    /**
+     * The moves of the solution, or {@code null} if the game cannot be won.
+     */
+    @Nullable
+    private final List<Direction> moves;
+
+    /**
+     * The number of distinct states visited during the search.
+     */
+    private final long numExploredStates;
+
+    /**
+     * The time spent on the search.
+     */
+    @NotNull
+    private final Duration elapsedTime;
+
+    /**
+     * Creates an instance.
+     *
+     * @param moves             The moves of the solution, or {@code null} if the game cannot be won.
+     * @param numExploredStates The number of distinct states visited during the search.
+     * @param elapsedTime       The time spent on the search.
+     */
+    public Solution(@Nullable final List<Direction> moves, final long numExploredStates,
+                    @NotNull final Duration elapsedTime) {
+        this.moves = moves != null ? List.copyOf(moves) : null;
+        this.numExploredStates = numExploredStates;
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * @return Whether the game can be won.
+     */
+    public boolean isSolvable() {
+        return moves != null;
+    }
+
+    /**
+     * @return A shortest sequence of moves which collects all gems, or {@code null} if the game cannot be won.
+     */
+    @Nullable
+    public List<Direction> getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return The number of distinct states visited during the search.
+     */
+    public long getNumExploredStates() {
+        return numExploredStates;
+    }
+
+    /**
+     * @return The time spent on the search.
+     */
+    @NotNull
+    public Duration getElapsedTime() {
+        return elapsedTime;
+    }
+
+    @Override
+    public String toString() {
+        return (moves != null ? moves.size() + " moves " + moves : "No solution")
+                + " (" + numExploredStates + " states explored in " + elapsedTime.toMillis() + " ms)";
+    }
+}
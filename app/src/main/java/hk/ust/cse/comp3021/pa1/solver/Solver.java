@@ -0,0 +1,136 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Headless solver which finds a shortest sequence of moves that wins a game.
+ *
+ * <p>
+ * The solver performs a breadth-first search using the same movement rules as
+ * {@link hk.ust.cse.comp3021.pa1.controller.GameBoardController#makeMove(Direction)}: The player slides until hitting a
+ * wall, the edge of the board or a stop cell, picking up every gem along the way, and dies when sliding into a mine.
+ * Each search state is the position of the player plus a bitset of the gems which remain on the board.
+ * </p>
+ * <p>
+ * Moves into a mine are never part of a shortest solution, since they consume a life without changing the board or
+ * the position of the player. As a result, the number of lives and the extra lives on the board do not affect which
+ * states are reachable, and are not tracked by the search.
+ * </p>
+ */
+public final class Solver {
+
+    /**
+     * Whether the game has already been lost.
+     */
+    private final boolean lost;
+
+    /**
+     * The move graph of the game board.
+     */
+    @NotNull
+    private final SolverBoard board;
+
+    /**
+     * Creates a solver for the current state of a game.
+     *
+     * <p>
+     * The game itself is not modified by the solver, and later changes to the game are not seen by the solver.
+     * </p>
+     *
+     * @param gameState The game to solve.
+     */
+    public Solver(@NotNull final GameState gameState) {
+        this.lost = gameState.hasLost();
+        this.board = new SolverBoard(gameState.getGameBoard());
+    }
+
+    /**
+     * Finds a shortest sequence of moves which collects all gems.
+     *
+     * @return The solution of the game.
+     */
+    @NotNull
+    public Solution solve() {
+        final var startTime = System.nanoTime();
+        if (lost) {
+            return new Solution(null, 0, Duration.ofNanos(System.nanoTime() - startTime));
+        }
+
+        final var numGems = board.getNumGems();
+        final var numWords = (numGems + Long.SIZE - 1) / Long.SIZE;
+        final var states = new StateSet(numWords);
+
+        final var gems = new long[numWords];
+        for (int gem = 0; gem < numGems; ++gem) {
+            gems[gem / Long.SIZE] |= 1L << gem;
+        }
+        states.add(0, gems, -1, -1);
+        if (numGems == 0) {
+            return new Solution(List.of(), states.size(), Duration.ofNanos(System.nanoTime() - startTime));
+        }
+
+        // State IDs are assigned in insertion order, so the set itself doubles as the BFS queue
+        final var next = new long[numWords];
+        int goal = -1;
+        for (int id = 0; id < states.size() && goal < 0; ++id) {
+            final var position = states.getPosition(id);
+            states.getGems(id, gems);
+
+            for (int direction = 0; direction < SolverBoard.NUM_DIRECTIONS; ++direction) {
+                final var target = board.getTarget(position, direction);
+                if (target == SolverBoard.NO_TRANSITION) {
+                    continue;
+                }
+
+                System.arraycopy(gems, 0, next, 0, numWords);
+                board.collect(position, direction, next);
+                final var added = states.add(target, next, id, direction);
+                if (added >= 0 && isEmpty(next)) {
+                    goal = added;
+                    break;
+                }
+            }
+        }
+
+        final var elapsedTime = Duration.ofNanos(System.nanoTime() - startTime);
+        return new Solution(goal >= 0 ? reconstruct(states, goal) : null, states.size(), elapsedTime);
+    }
+
+    /**
+     * @param gems A bitset of remaining gems.
+     * @return Whether there are no remaining gems.
+     */
+    static boolean isEmpty(@NotNull final long[] gems) {
+        for (final var word : gems) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reconstructs the moves leading to a state.
+     *
+     * @param states The visited states.
+     * @param goal   The ID of the final state.
+     * @return The moves from the initial state to {@code goal}.
+     */
+    @NotNull
+    static List<Direction> reconstruct(@NotNull final StateSet states, final int goal) {
+        final var directions = Direction.values();
+        final var moves = new ArrayList<Direction>();
+        for (int id = goal; states.getParent(id) >= 0; id = states.getParent(id)) {
+            moves.add(directions[states.getMove(id)]);
+        }
+        Collections.reverse(moves);
+        return moves;
+    }
+}
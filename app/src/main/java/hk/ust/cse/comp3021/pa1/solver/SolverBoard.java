@@ -0,0 +1,200 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.PackedBoard;
+import hk.ust.cse.comp3021.pa1.model.Position;
+import hk.ust.cse.comp3021.pa1.model.SlideTable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Immutable move graph of a game board, as seen by the {@link Solver}.
+ *
+ * <p>
+ * Since walls, stop cells and mines never change during a game, the destination of every slide can be computed once
+ * upfront. Only the positions which the player can reach are numbered, and for each of these positions and each
+ * {@link Direction}, this class stores the position where the player stops and the gems which lie along the slide.
+ * </p>
+ * <p>
+ * Slides which are invalid or which end on a mine are not part of the graph: Neither of them changes the game board or
+ * the position of the player, so they never appear in a shortest solution.
+ * </p>
+ */
+final class SolverBoard {
+
+    /**
+     * Target of a slide which is invalid or kills the player.
+     */
+    static final int NO_TRANSITION = -1;
+
+    /**
+     * Number of directions the player can move in.
+     */
+    static final int NUM_DIRECTIONS = Direction.values().length;
+
+    /**
+     * Number of gems on the game board.
+     */
+    private final int numGems;
+
+    /**
+     * Cell index of each position, i.e. {@code row * numCols + col}.
+     */
+    @NotNull
+    private final int[] cells;
+
+    /**
+     * The position where each slide ends, indexed by {@code position * NUM_DIRECTIONS + direction.ordinal()}.
+     */
+    @NotNull
+    private final int[] targets;
+
+    /**
+     * Offsets into {@link #collectedGems} for each slide, with the same indexing as {@link #targets}.
+     */
+    @NotNull
+    private final int[] collectedOffsets;
+
+    /**
+     * The gems along each slide, by gem ID.
+     */
+    @NotNull
+    private final int[] collectedGems;
+
+    /**
+     * Builds the move graph of a game board.
+     *
+     * <p>
+     * The game board itself is not modified; Slides are computed on a private copy of its packed representation.
+     * </p>
+     *
+     * @param gameBoard The game board to build the graph from.
+     */
+    SolverBoard(@NotNull final GameBoard gameBoard) {
+        final var source = gameBoard.getPackedBoard();
+        final var numCells = source.getNumRows() * source.getNumCols();
+        final var data = new byte[numCells];
+        for (int i = 0; i < numCells; ++i) {
+            data[i] = source.get(i);
+        }
+        final var board = new PackedBoard(source.getNumRows(), source.getNumCols(), data);
+        final var slides = board.getSlideTable();
+
+        // Number the gems on the board
+        final var gemIds = new int[numCells];
+        var gems = 0;
+        for (int i = 0; i < numCells; ++i) {
+            gemIds[i] = board.getEntityKind(i) == PackedBoard.ENTITY_GEM ? gems++ : -1;
+        }
+        this.numGems = gems;
+
+        // Number the reachable positions in breadth-first order, starting from the player
+        final var positionIds = new int[numCells];
+        Arrays.fill(positionIds, -1);
+        final var player = gameBoard.getPlayer().getOwner();
+        if (player == null) {
+            throw new IllegalArgumentException("The player seems not on the game board!");
+        }
+        final Position start = player.getPosition();
+
+        var positions = new int[16];
+        var numPositions = 0;
+        var transitions = new int[16 * NUM_DIRECTIONS];
+        var offsets = new int[16 * NUM_DIRECTIONS + 1];
+        var collected = new int[16];
+
+        positions[numPositions++] = board.indexOf(start.row(), start.col());
+        positionIds[positions[0]] = 0;
+        for (int id = 0; id < numPositions; ++id) {
+            final var cell = positions[id];
+            for (final var direction : Direction.values()) {
+                final var slot = id * NUM_DIRECTIONS + direction.ordinal();
+                final var slide = slides.slide(cell, direction);
+                var numCollected = offsets[slot];
+                if (!SlideTable.isAlive(slide)) {
+                    transitions[slot] = NO_TRANSITION;
+                    offsets[slot + 1] = numCollected;
+                    continue;
+                }
+
+                final var end = SlideTable.cellOf(slide);
+                for (int i = slides.nextCollectible(cell, end, direction); i >= 0;
+                     i = slides.nextCollectible(i, end, direction)) {
+                    if (gemIds[i] < 0) {
+                        continue;
+                    }
+                    if (numCollected == collected.length) {
+                        collected = Arrays.copyOf(collected, collected.length * 2);
+                    }
+                    collected[numCollected++] = gemIds[i];
+                }
+                offsets[slot + 1] = numCollected;
+
+                if (positionIds[end] < 0) {
+                    if (numPositions == positions.length) {
+                        positions = Arrays.copyOf(positions, positions.length * 2);
+                        transitions = Arrays.copyOf(transitions, positions.length * NUM_DIRECTIONS);
+                        offsets = Arrays.copyOf(offsets, positions.length * NUM_DIRECTIONS + 1);
+                    }
+                    positionIds[end] = numPositions;
+                    positions[numPositions++] = end;
+                }
+                transitions[slot] = positionIds[end];
+            }
+        }
+
+        this.cells = Arrays.copyOf(positions, numPositions);
+        this.targets = Arrays.copyOf(transitions, numPositions * NUM_DIRECTIONS);
+        this.collectedOffsets = Arrays.copyOf(offsets, numPositions * NUM_DIRECTIONS + 1);
+        this.collectedGems = Arrays.copyOf(collected, collectedOffsets[numPositions * NUM_DIRECTIONS]);
+    }
+
+    /**
+     * @return The number of gems on the game board.
+     */
+    int getNumGems() {
+        return numGems;
+    }
+
+    /**
+     * @return The number of positions reachable by the player.
+     */
+    int getNumPositions() {
+        return cells.length;
+    }
+
+    /**
+     * @param position A position ID. The starting position of the player is always {@code 0}.
+     * @return Cell index of the position in the packed representation of the game board.
+     */
+    int getCell(final int position) {
+        return cells[position];
+    }
+
+    /**
+     * @param position  A position ID.
+     * @param direction Ordinal of the direction to slide in.
+     * @return The position ID where the slide ends, or {@link #NO_TRANSITION} if the slide is invalid or kills the
+     * player.
+     */
+    int getTarget(final int position, final int direction) {
+        return targets[position * NUM_DIRECTIONS + direction];
+    }
+
+    /**
+     * Removes the gems collected along a slide from a set of remaining gems.
+     *
+     * @param position  A position ID.
+     * @param direction Ordinal of the direction to slide in.
+     * @param gems      Bitset of remaining gems, indexed by gem ID.
+     */
+    void collect(final int position, final int direction, @NotNull final long[] gems) {
+        final var slot = position * NUM_DIRECTIONS + direction;
+        for (int i = collectedOffsets[slot]; i < collectedOffsets[slot + 1]; ++i) {
+            final var gem = collectedGems[i];
+            gems[gem / Long.SIZE] &= ~(1L << gem);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Command-line tool which measures the speedup of {@link ParallelSolver} over {@link Solver} for each number of
+ * threads.
+ */
+public final class SolverSpeedup {
+
+    /**
+     * Number of times each solver is run; The fastest run is reported.
+     */
+    private static final int NUM_RUNS = 3;
+
+    private SolverSpeedup() {
+    }
+
+    /**
+     * Main entry-point.
+     *
+     * @param args Arguments from the command-line.
+     * @throws FileNotFoundException if the game file does not exist.
+     */
+    public static void main(final String[] args) throws FileNotFoundException {
+        if (args.length < 1) {
+            System.out.println("Usage: SolverSpeedup [GAME_FILE] [MAX_THREADS]");
+            System.out.println();
+
+            System.exit(1);
+        }
+
+        final var gameState = GameStateSerializer.loadFrom(Path.of(args[0]).toAbsolutePath());
+        final var maxThreads = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        final var sequential = fastest(() -> new Solver(gameState).solve());
+        report("sequential", sequential, sequential);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final var pool = new ForkJoinPool(threads);
+            try {
+                final var parallel = fastest(() -> new ParallelSolver(gameState, pool).solve());
+                if (numMoves(parallel) != numMoves(sequential)) {
+                    throw new IllegalStateException("Parallel solver found " + numMoves(parallel)
+                            + " moves, but the sequential solver found " + numMoves(sequential));
+                }
+                report(threads + " threads", parallel, sequential);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Runs a solver several times.
+     *
+     * @param solver The solver to run.
+     * @return The solution of the fastest run.
+     */
+    @NotNull
+    private static Solution fastest(@NotNull final Supplier<Solution> solver) {
+        var best = solver.get();
+        for (int i = 1; i < NUM_RUNS; ++i) {
+            final var solution = solver.get();
+            if (solution.getElapsedTime().compareTo(best.getElapsedTime()) < 0) {
+                best = solution;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param solution A solution.
+     * @return The number of moves of the solution, or {@code -1} if there is no solution.
+     */
+    private static int numMoves(@NotNull final Solution solution) {
+        final var moves = solution.getMoves();
+        return moves != null ? moves.size() : -1;
+    }
+
+    /**
+     * Prints the statistics of a solution.
+     *
+     * @param name     Name of the solver.
+     * @param solution The solution found by the solver.
+     * @param baseline The solution found by the sequential solver.
+     */
+    private static void report(@NotNull final String name, @NotNull final Solution solution,
+                               @NotNull final Solution baseline) {
+        final var nanos = Math.max(1, solution.getElapsedTime().toNanos());
+        final var speedup = (double) baseline.getElapsedTime().toNanos() / nanos;
+        System.out.printf(Locale.ENGLISH, "%-12s %8.2f ms  %5.2fx  moves=%d  states=%d%n", name, nanos / 1e6,
+                speedup, numMoves(solution), solution.getNumExploredStates());
+    }
+}
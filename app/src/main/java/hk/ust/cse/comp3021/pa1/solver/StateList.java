@@ -0,0 +1,154 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of search states, together with the state and move which reached each of them.
+ *
+ * <p>
+ * States are stored back-to-back in a single {@code long} arena in the same layout as {@link StateSet}, without the
+ * hash index.
+ * </p>
+ */
+final class StateList {
+
+    /**
+     * Initial number of states which can be stored without growing.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Number of {@code long} words in the bitset of each state.
+     */
+    private final int numWords;
+
+    /**
+     * Number of {@code long}s occupied by each state in {@link #arena}.
+     */
+    private final int stride;
+
+    /**
+     * Position ID followed by the bitset of remaining gems, for each state.
+     */
+    @NotNull
+    private long[] arena;
+
+    /**
+     * Index of the state in the previous list which reached each state, or {@code -1} if there is none.
+     */
+    @NotNull
+    private int[] parents;
+
+    /**
+     * Ordinal of the {@link hk.ust.cse.comp3021.pa1.model.Direction} which reached each state.
+     */
+    @NotNull
+    private byte[] moves;
+
+    /**
+     * The number of states in this list.
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param numWords Number of {@code long} words in the bitset of each state.
+     */
+    StateList(final int numWords) {
+        this.numWords = numWords;
+        this.stride = numWords + 1;
+        this.arena = new long[INITIAL_CAPACITY * stride];
+        this.parents = new int[INITIAL_CAPACITY];
+        this.moves = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return The number of states in this list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a state.
+     *
+     * @param position The position ID of the state.
+     * @param gems     The bitset of remaining gems of the state.
+     * @param parent   Index of the state in the previous list which this state is reached from.
+     * @param move     Ordinal of the direction which this state is reached by.
+     */
+    void add(final int position, @NotNull final long[] gems, final int parent, final int move) {
+        ensureCapacity(size + 1);
+        final var base = size * stride;
+        arena[base] = position;
+        System.arraycopy(gems, 0, arena, base + 1, numWords);
+        parents[size] = parent;
+        moves[size] = (byte) move;
+        ++size;
+    }
+
+    /**
+     * Appends all states of another list.
+     *
+     * @param other The list to append.
+     */
+    void addAll(@NotNull final StateList other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.arena, 0, arena, size * stride, other.size * stride);
+        System.arraycopy(other.parents, 0, parents, size, other.size);
+        System.arraycopy(other.moves, 0, moves, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * @param index Index of a state.
+     * @return The position ID of the state.
+     */
+    int getPosition(final int index) {
+        return (int) arena[index * stride];
+    }
+
+    /**
+     * Copies the bitset of remaining gems of a state.
+     *
+     * @param index Index of a state.
+     * @param gems  The array to copy the bitset into.
+     */
+    void getGems(final int index, @NotNull final long[] gems) {
+        System.arraycopy(arena, index * stride + 1, gems, 0, numWords);
+    }
+
+    /**
+     * @param index Index of a state.
+     * @return Index of the state in the previous list which reached the state.
+     */
+    int getParent(final int index) {
+        return parents[index];
+    }
+
+    /**
+     * @param index Index of a state.
+     * @return Ordinal of the direction which reached the state.
+     */
+    int getMove(final int index) {
+        return moves[index];
+    }
+
+    /**
+     * Grows the backing arrays to hold at least the given number of states.
+     *
+     * @param capacity The required number of states.
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= parents.length) {
+            return;
+        }
+        final var newCapacity = Math.max(capacity, parents.length * 2);
+        arena = Arrays.copyOf(arena, newCapacity * stride);
+        parents = Arrays.copyOf(parents, newCapacity);
+        moves = Arrays.copyOf(moves, newCapacity);
+    }
+}
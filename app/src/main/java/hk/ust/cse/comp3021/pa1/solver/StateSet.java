@@ -0,0 +1,226 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * An insertion-ordered set of search states.
+ *
+ * <p>
+ * A state consists of a position ID and a bitset of remaining gems. States are stored back-to-back in a single
+ * {@code long} arena and identified by their insertion order, together with the state and move which first reached
+ * them, so that a path can be reconstructed without allocating an object per state.
+ * </p>
+ */
+final class StateSet {
+
+    /**
+     * Initial number of states which can be stored without growing.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /**
+     * Number of {@code long} words in the bitset of each state.
+     */
+    private final int numWords;
+
+    /**
+     * Number of {@code long}s occupied by each state in {@link #arena}.
+     */
+    private final int stride;
+
+    /**
+     * Position ID followed by the bitset of remaining gems, for each state.
+     */
+    @NotNull
+    private long[] arena;
+
+    /**
+     * The state which first reached each state, or {@code -1} for the initial state.
+     */
+    @NotNull
+    private int[] parents;
+
+    /**
+     * Ordinal of the {@link hk.ust.cse.comp3021.pa1.model.Direction} which first reached each state.
+     */
+    @NotNull
+    private byte[] moves;
+
+    /**
+     * Open-addressing hash table of state IDs plus one, where {@code 0} represents an empty slot.
+     */
+    @NotNull
+    private int[] table;
+
+    /**
+     * The number of states in this set.
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty set.
+     *
+     * @param numWords Number of {@code long} words in the bitset of each state.
+     */
+    StateSet(final int numWords) {
+        this(numWords, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set.
+     *
+     * @param numWords        Number of {@code long} words in the bitset of each state.
+     * @param initialCapacity Number of states which can be stored without growing. Must be a power of two.
+     */
+    StateSet(final int numWords, final int initialCapacity) {
+        this.numWords = numWords;
+        this.stride = numWords + 1;
+        this.arena = new long[initialCapacity * stride];
+        this.parents = new int[initialCapacity];
+        this.moves = new byte[initialCapacity];
+        this.table = new int[initialCapacity * 2];
+    }
+
+    /**
+     * @return The number of states in this set.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds a state if it is not already in this set.
+     *
+     * @param position The position ID of the state.
+     * @param gems     The bitset of remaining gems of the state.
+     * @param parent   The state which this state is reached from.
+     * @param move     Ordinal of the direction which this state is reached by.
+     * @return The ID of the new state, or {@code -1} if the state is already in this set.
+     */
+    int add(final int position, @NotNull final long[] gems, final int parent, final int move) {
+        final var hash = hash(position, gems);
+        final var mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final var existing = table[slot] - 1;
+            if (existing < 0) {
+                break;
+            }
+            if (matches(existing, position, gems)) {
+                return -1;
+            }
+        }
+
+        if (size == parents.length) {
+            grow();
+        }
+        final var id = size++;
+        final var base = id * stride;
+        arena[base] = position;
+        System.arraycopy(gems, 0, arena, base + 1, numWords);
+        parents[id] = parent;
+        moves[id] = (byte) move;
+        insert(id, hash);
+        return id;
+    }
+
+    /**
+     * @param id A state ID.
+     * @return The position ID of the state.
+     */
+    int getPosition(final int id) {
+        return (int) arena[id * stride];
+    }
+
+    /**
+     * Copies the bitset of remaining gems of a state.
+     *
+     * @param id   A state ID.
+     * @param gems The array to copy the bitset into.
+     */
+    void getGems(final int id, @NotNull final long[] gems) {
+        System.arraycopy(arena, id * stride + 1, gems, 0, numWords);
+    }
+
+    /**
+     * @param id A state ID.
+     * @return The state which first reached the state, or {@code -1} for the initial state.
+     */
+    int getParent(final int id) {
+        return parents[id];
+    }
+
+    /**
+     * @param id A state ID.
+     * @return Ordinal of the direction which first reached the state.
+     */
+    int getMove(final int id) {
+        return moves[id];
+    }
+
+    /**
+     * @param id       A state ID.
+     * @param position A position ID.
+     * @param gems     A bitset of remaining gems.
+     * @return Whether the state is equal to the given position and bitset.
+     */
+    private boolean matches(final int id, final int position, @NotNull final long[] gems) {
+        final var base = id * stride;
+        if (arena[base] != position) {
+            return false;
+        }
+        for (int i = 0; i < numWords; ++i) {
+            if (arena[base + 1 + i] != gems[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param position A position ID.
+     * @param gems     A bitset of remaining gems.
+     * @return The hash code of the state.
+     */
+    static int hash(final int position, @NotNull final long[] gems) {
+        long h = position * 0x9E3779B97F4A7C15L;
+        for (final var word : gems) {
+            h = (h ^ word) * 0xBF58476D1CE4E5B9L;
+        }
+        h ^= h >>> 31;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Inserts a state into the hash table, which must have a free slot.
+     *
+     * @param id   The state ID.
+     * @param hash The hash code of the state.
+     */
+    private void insert(final int id, final int hash) {
+        final var mask = table.length - 1;
+        var slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    /**
+     * Doubles the capacity of this set, keeping the hash table at most half full.
+     */
+    private void grow() {
+        final var capacity = parents.length * 2;
+        arena = Arrays.copyOf(arena, capacity * stride);
+        parents = Arrays.copyOf(parents, capacity);
+        moves = Arrays.copyOf(moves, capacity);
+
+        table = new int[capacity * 2];
+        final var gems = new long[numWords];
+        for (int id = 0; id < size; ++id) {
+            getGems(id, gems);
+            insert(id, hash(getPosition(id), gems));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A thread-safe set of search states, split into independently locked stripes.
+ *
+ * <p>
+ * Each stripe is a {@link StateSet} guarded by its own monitor. The stripe of a state is chosen by the high bits of its
+ * hash, while the slot within the stripe is chosen by the low bits, so that threads adding different states rarely
+ * contend on the same lock.
+ * </p>
+ */
+final class StripedStateSet {
+
+    /**
+     * Number of bits of the hash used to select a stripe.
+     */
+    private static final int STRIPE_BITS = 6;
+
+    /**
+     * Initial capacity of each stripe, kept small so that easy puzzles do not pay for large tables.
+     */
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    /**
+     * The stripes of this set.
+     */
+    @NotNull
+    private final StateSet[] stripes = new StateSet[1 << STRIPE_BITS];
+
+    /**
+     * Creates an empty set.
+     *
+     * @param numWords Number of {@code long} words in the bitset of each state.
+     */
+    StripedStateSet(final int numWords) {
+        for (int i = 0; i < stripes.length; ++i) {
+            stripes[i] = new StateSet(numWords, INITIAL_STRIPE_CAPACITY);
+        }
+    }
+
+    /**
+     * Adds a state if it is not already in this set.
+     *
+     * @param position The position ID of the state.
+     * @param gems     The bitset of remaining gems of the state.
+     * @return Whether the state was added, i.e. it was not already in this set.
+     */
+    boolean add(final int position, @NotNull final long[] gems) {
+        final var stripe = stripes[StateSet.hash(position, gems) >>> (Integer.SIZE - STRIPE_BITS)];
+        synchronized (stripe) {
+            return stripe.add(position, gems, -1, 0) >= 0;
+        }
+    }
+
+    /**
+     * @return The number of states in this set.
+     */
+    long size() {
+        long size = 0;
+        for (final var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+}
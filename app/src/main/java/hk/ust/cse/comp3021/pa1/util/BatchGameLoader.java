@@ -0,0 +1,356 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipException;
+
+/**
+ * Loads or validates many game files in parallel.
+ *
+ * <p>
+ * Files are parsed and validated on a fixed number of worker threads owned by the loader. At most twice as many files
+ * as there are workers are in flight at any time, so that the results are streamed out as they complete instead of
+ * being held in memory until every file is loaded. Results are returned in the order in which they complete, which
+ * may differ from the order of the input files.
+ * </p>
+ * <p>
+ * Every file produces exactly one {@link Result}: Either the loaded game, a summary of the validated board, or a
+ * {@link GameFileException} describing why the file is invalid. Errors are never thrown out of the result stream.
+ * </p>
+ */
+public final class BatchGameLoader implements AutoCloseable {
+
+    /**
+     * What to do with each file.
+     */
+    public enum Mode {
+        /**
+         * Load each file into a {@link GameState}, as in {@link GameStateSerializer#loadFrom(Path)}.
+         */
+        LOAD,
+        /**
+         * Only check whether each file is valid, without creating a {@link GameBoard} or {@link GameState} for text
+         * files.
+         */
+        VALIDATE
+    }
+
+    /**
+     * The result of loading or validating a single file.
+     */
+    public sealed interface Result {
+
+        /**
+         * @return The file which this result is for.
+         */
+        @NotNull
+        Path file();
+    }
+
+    /**
+     * The result of a file loaded in {@link Mode#LOAD}.
+     *
+     * @param file      The file which was loaded.
+     * @param gameState The game loaded from the file.
+     */
+    public record Loaded(@NotNull Path file, @NotNull GameState gameState) implements Result {
+    }
+
+    /**
+     * The result of a valid file in {@link Mode#VALIDATE}.
+     *
+     * @param file    The file which was validated.
+     * @param numRows The number of rows of the board.
+     * @param numCols The number of columns of the board.
+     * @param numGems The number of gems on the board.
+     */
+    public record Validated(@NotNull Path file, int numRows, int numCols, int numGems) implements Result {
+    }
+
+    /**
+     * The result of an invalid file.
+     *
+     * @param file  The file which is invalid.
+     * @param error The reason why the file is invalid.
+     */
+    public record Failed(@NotNull Path file, @NotNull GameFileException error) implements Result {
+    }
+
+    /**
+     * The worker threads.
+     */
+    @NotNull
+    private final ExecutorService executor;
+
+    /**
+     * Maximum number of files in flight at any time.
+     */
+    private final int maxInFlight;
+
+    /**
+     * Parser of each worker thread, so that its read buffer is reused across files.
+     */
+    @NotNull
+    private final ThreadLocal<StreamingGameStateParser> parsers = ThreadLocal.withInitial(StreamingGameStateParser::new);
+
+    /**
+     * Creates an instance with one worker per available processor.
+     */
+    public BatchGameLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param parallelism The number of worker threads.
+     * @throws IllegalArgumentException if {@code parallelism} is not positive.
+     */
+    public BatchGameLoader(final int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        final var threadId = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final var thread = new Thread(runnable, "batch-game-loader-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = 2 * parallelism;
+    }
+
+    /**
+     * Loads or validates all game files directly inside a directory.
+     *
+     * <p>
+     * Files whose name ends with {@code .game} or {@code .game.gz} are processed; Other files and subdirectories are
+     * ignored.
+     * </p>
+     *
+     * @param directory The directory containing the game files.
+     * @param mode      What to do with each file.
+     * @return The results of all files, in the order in which they complete. The stream must be closed after use.
+     * @throws FileNotFoundException if {@code directory} is not a directory.
+     */
+    @NotNull
+    public Stream<Result> loadDirectory(@NotNull final Path directory, @NotNull final Mode mode)
+            throws FileNotFoundException {
+        Objects.requireNonNull(directory);
+
+        if (!Files.isDirectory(directory)) {
+            throw new FileNotFoundException(directory.toString());
+        }
+
+        final Stream<Path> files;
+        try {
+            files = Files.list(directory);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+        return load(files.filter(BatchGameLoader::isGameFile).sorted(), mode);
+    }
+
+    /**
+     * Loads or validates game files.
+     *
+     * @param files The files to process. The stream is consumed lazily as results are taken, and closed when the
+     *              returned stream is closed.
+     * @param mode  What to do with each file.
+     * @return The results of all files, in the order in which they complete. Closing the stream cancels the files
+     * which are still in flight.
+     */
+    @NotNull
+    public Stream<Result> load(@NotNull final Stream<Path> files, @NotNull final Mode mode) {
+        Objects.requireNonNull(files);
+        Objects.requireNonNull(mode);
+
+        final var results = new ResultIterator(files.iterator(), mode);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    results.cancel();
+                    files.close();
+                });
+    }
+
+    /**
+     * Stops the worker threads after the files in flight are processed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param file The path of a file.
+     * @return Whether {@code file} is a level or save file, possibly compressed.
+     */
+    private static boolean isGameFile(@NotNull final Path file) {
+        final var fileName = file.getFileName().toString();
+        return Files.isRegularFile(file) && (fileName.endsWith(".game") || fileName.endsWith(".game.gz"));
+    }
+
+    /**
+     * Loads or validates a single file.
+     *
+     * @param file The file to process.
+     * @param mode What to do with the file.
+     * @return The result of the file.
+     */
+    @NotNull
+    private Result process(@NotNull final Path file, @NotNull final Mode mode) {
+        try (var channel = GameFiles.openForRead(file)) {
+            final var in = ChannelBuffer.reading(channel);
+            if (BinaryGameStateSerializer.hasMagic(in.peek(BinaryGameStateSerializer.magicLength()))) {
+                // Saved games are validated by restoring them
+                final var gameState = BinaryGameStateSerializer.readFrom(in);
+                final var gameBoard = gameState.getGameBoard();
+                return mode == Mode.LOAD
+                        ? new Loaded(file, gameState)
+                        : new Validated(file, gameBoard.getNumRows(), gameBoard.getNumCols(), gameState.getNumGems());
+            }
+
+            final var parsed = parsers.get().parseBoard(in);
+            final var board = parsed.board();
+            validate(parsed);
+            if (mode == Mode.VALIDATE) {
+                return new Validated(file, board.getNumRows(), board.getNumCols(), board.getNumGems());
+            }
+
+            final var gameBoard = GameBoard.fromValidatedPackedBoard(board, parsed.playerIndex());
+            final var numLives = parsed.numLives();
+            return new Loaded(file, numLives < 0 ? new GameState(gameBoard) : new GameState(gameBoard, numLives));
+        } catch (final GameFileException e) {
+            return new Failed(file, e);
+        } catch (final ZipException | EOFException e) {
+            return new Failed(file, new GameFileException(GameFileException.Kind.MALFORMED, -1, -1,
+                    "Compressed game file is corrupted or truncated", e));
+        } catch (final IllegalArgumentException e) {
+            return new Failed(file, new GameFileException(GameFileException.Kind.MALFORMED, -1, -1,
+                    Objects.requireNonNullElse(e.getMessage(), e.toString()), e));
+        } catch (final IOException e) {
+            return new Failed(file, new GameFileException(GameFileException.Kind.IO_ERROR, -1, -1, e.toString(), e));
+        }
+    }
+
+    /**
+     * Validates a parsed board with the same rules as {@link GameBoard#fromPackedBoard}.
+     *
+     * @param parsed The board to validate.
+     * @throws GameFileException if the board is invalid.
+     */
+    private static void validate(@NotNull final StreamingGameStateParser.ParsedBoard parsed) {
+        final var board = parsed.board();
+        if (parsed.playerIndex() < 0) {
+            throw new GameFileException(GameFileException.Kind.PLAYER_COUNT, -1, -1,
+                    "Invalid number of players! Number of players: 0");
+        }
+        if (board.getNumGems() == 0) {
+            throw new GameFileException(GameFileException.Kind.NO_GEMS, -1, -1,
+                    "There are no gems in the game board!");
+        }
+        final var reachable = GameBoard.countReachableGems(board, parsed.playerIndex());
+        if (reachable != board.getNumGems()) {
+            throw new GameFileException(GameFileException.Kind.UNREACHABLE_GEMS, -1, -1,
+                    "There are unreachable gems in the board! Reachable: " + reachable
+                            + " Total: " + board.getNumGems());
+        }
+    }
+
+    /**
+     * Iterator over the results of a batch, which keeps up to {@link #maxInFlight} files in flight.
+     */
+    private final class ResultIterator implements Iterator<Result> {
+
+        /**
+         * The files which are not submitted yet.
+         */
+        @NotNull
+        private final Iterator<Path> files;
+
+        /**
+         * What to do with each file.
+         */
+        @NotNull
+        private final Mode mode;
+
+        /**
+         * Queue of the completed files.
+         */
+        @NotNull
+        private final CompletionService<Result> completed = new ExecutorCompletionService<>(executor);
+
+        /**
+         * The files in flight.
+         */
+        @NotNull
+        private final Set<Future<Result>> inFlight = new HashSet<>();
+
+        ResultIterator(@NotNull final Iterator<Path> files, @NotNull final Mode mode) {
+            this.files = files;
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (inFlight.size() < maxInFlight && files.hasNext()) {
+                final var file = files.next();
+                inFlight.add(completed.submit(() -> process(file, mode)));
+            }
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                final var future = completed.take();
+                inFlight.remove(future);
+                return future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("Interrupted while waiting for game files");
+            } catch (final ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        /**
+         * Cancels all files in flight.
+         */
+        void cancel() {
+            for (final var future : inFlight) {
+                future.cancel(true);
+            }
+            inFlight.clear();
+        }
+    }
+}
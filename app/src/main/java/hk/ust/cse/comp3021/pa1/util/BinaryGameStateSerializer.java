@@ -0,0 +1,682 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serializer for converting between a compact binary file and a {@link GameState}.
+ *
+ * <p>
+ * All values are stored in big-endian order. A file consists of:
+ * </p>
+ * <ol>
+ * <li>The magic bytes {@code 0x89 'I' 'N' 'R'}, followed by the format version and a flags byte.</li>
+ * <li>The number of rows, columns and lives ({@code -1} for unlimited lives), followed by the number of moves,
+ * deaths and undos, and the number of gems initially on the board, each as an {@code int}.</li>
+ * <li>If {@link #FLAG_BYTE_CELLS} is set, a summary of the board holding the number of gems, number of extra lives and
+ * index of the player as {@code int}s, followed by the Zobrist hash of the board as a {@code long}.</li>
+ * <li>The cells of the board in row-major order. Cells are packed as 4 bits per cell with the first cell in the high
+ * bits of each byte, or if {@link #FLAG_BYTE_CELLS} is set, stored as one byte per cell exactly as in
+ * {@link PackedBoard}, so that the board can be backed by the file directly (see
+ * {@link MappedGameStateSerializer}).</li>
+ * <li>If {@link #FLAG_MOVE_LOG} is set, the number of moves in the {@link MoveStack}, followed by each move from the
+ * earliest to the latest as the original cell, new cell, and the counts and cells of the collected gems and extra
+ * lives. Cells are stored as indices into the packed board.</li>
+ * </ol>
+ *
+ * <p>
+ * Unlike the text format used by {@link GameStateSerializer}, the counters and the move stack of the game are
+ * preserved, and gems or extra lives on stop cells are not turned into ordinary cells.
+ * </p>
+ * <p>
+ * Files are streamed through a fixed-size buffer when written, and when read by
+ * {@link GameStateSerializer#loadFrom(Path)}. Files may additionally be compressed with gzip; The compressed stream
+ * contains the format above unchanged.
+ * </p>
+ */
+public final class BinaryGameStateSerializer {
+
+    /**
+     * The current version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Flag indicating that the move log follows the cells of the board.
+     */
+    private static final int FLAG_MOVE_LOG = 0b1;
+
+    /**
+     * Flag indicating that the cells are stored as one byte per cell, preceded by a summary of the board.
+     */
+    private static final int FLAG_BYTE_CELLS = 0b10;
+
+    /**
+     * Size of the board summary in bytes, i.e. three {@code int} fields and one {@code long} field.
+     */
+    private static final int SUMMARY_SIZE = 3 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * Magic bytes at the start of every binary file.
+     *
+     * <p>
+     * The first byte is not printable, so that binary files are never mistaken as text files and vice versa.
+     * </p>
+     */
+    private static final byte[] MAGIC = {(byte) 0x89, 'I', 'N', 'R'};
+
+    /**
+     * Size of the header in bytes, i.e. the magic bytes, version, flags and seven {@code int} fields.
+     */
+    private static final int HEADER_SIZE = MAGIC.length + 2 + 7 * Integer.BYTES;
+
+    /**
+     * Number of cell kinds which can hold an entity.
+     */
+    private static final int NUM_ENTITY_KINDS = PackedBoard.ENTITY_PLAYER + 1;
+
+    /**
+     * The 4-bit code of a wall. Codes below this value are {@code cellKind * NUM_ENTITY_KINDS + entityKind}.
+     */
+    private static final int WALL_CODE = PackedBoard.CELL_WALL * NUM_ENTITY_KINDS;
+
+    private BinaryGameStateSerializer() {
+    }
+
+    /**
+     * Serializes the specified {@link GameState} object to the output file.
+     *
+     * <p>
+     * The file is compressed with gzip if its name ends with {@code .gz}.
+     * </p>
+     *
+     * @param gameState      The game state instance to write to the file.
+     * @param outputFile     The file to write to.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @return {@code outputFile}.
+     * @throws FileAlreadyExistsException if a file or directory already exists with the same path as
+     *                                    {@code outputFile}.
+     */
+    @NotNull
+    public static Path writeTo(@NotNull final GameState gameState,
+                               @NotNull final Path outputFile,
+                               final boolean includeMoveLog) throws FileAlreadyExistsException {
+        return writeTo(gameState, outputFile, includeMoveLog, false);
+    }
+
+    /**
+     * Serializes the specified {@link GameState} object to the output file.
+     *
+     * @param gameState      The game state instance to write to the file.
+     * @param outputFile     The file to write to.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @param byteCells      Whether to store one byte per cell instead of 4 bits per cell.
+     * @return {@code outputFile}.
+     * @throws FileAlreadyExistsException if a file or directory already exists with the same path as
+     *                                    {@code outputFile}.
+     */
+    @NotNull
+    static Path writeTo(@NotNull final GameState gameState,
+                        @NotNull final Path outputFile,
+                        final boolean includeMoveLog,
+                        final boolean byteCells) throws FileAlreadyExistsException {
+        Objects.requireNonNull(gameState);
+        Objects.requireNonNull(outputFile);
+
+        if (Files.exists(outputFile)) {
+            throw new FileAlreadyExistsException(outputFile.toString());
+        }
+
+        try (var channel = GameFiles.openForWrite(outputFile)) {
+            final var out = ChannelBuffer.writing(channel);
+            write(gameState, out, includeMoveLog, byteCells);
+            out.flush();
+        } catch (final FileAlreadyExistsException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+        return outputFile;
+    }
+
+    /**
+     * Computes the number of bytes needed to serialize a game.
+     *
+     * @param gameState      The game state to serialize.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @return The number of bytes written by {@link #writeTo(GameState, ByteBuffer, boolean)}.
+     */
+    public static int sizeOf(@NotNull final GameState gameState, final boolean includeMoveLog) {
+        return sizeOf(gameState, includeMoveLog, false);
+    }
+
+    /**
+     * Computes the number of bytes needed to serialize a game.
+     *
+     * @param gameState      The game state to serialize.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @param byteCells      Whether to store one byte per cell instead of 4 bits per cell.
+     * @return The number of bytes written by {@link #writeTo(GameState, ByteBuffer, boolean, boolean)}.
+     */
+    static int sizeOf(@NotNull final GameState gameState, final boolean includeMoveLog, final boolean byteCells) {
+        final var board = gameState.getGameBoard().getPackedBoard();
+        final var numCells = board.getNumRows() * board.getNumCols();
+
+        var size = HEADER_SIZE + (byteCells ? SUMMARY_SIZE + numCells : (numCells + 1) / 2);
+        if (includeMoveLog) {
+            size += Integer.BYTES;
+            for (final var move : gameState.getMoveStack().getMoves()) {
+                final var alive = (MoveResult.Valid.Alive) move;
+                size += Integer.BYTES * (4 + alive.collectedGems.size() + alive.collectedExtraLives.size());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Serializes the specified {@link GameState} object into the provided {@link ByteBuffer}.
+     *
+     * @param gameState      The game state to serialize.
+     * @param buffer         The buffer to write the serialized game state to, starting from its position.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @throws java.nio.BufferOverflowException if {@code buffer} has fewer remaining bytes than
+     *                                          {@link #sizeOf(GameState, boolean)}.
+     */
+    public static void writeTo(@NotNull final GameState gameState,
+                               @NotNull final ByteBuffer buffer,
+                               final boolean includeMoveLog) {
+        writeTo(gameState, buffer, includeMoveLog, false);
+    }
+
+    /**
+     * Serializes the specified {@link GameState} object into the provided {@link ByteBuffer}.
+     *
+     * @param gameState      The game state to serialize.
+     * @param buffer         The buffer to write the serialized game state to, starting from its position.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @param byteCells      Whether to store one byte per cell instead of 4 bits per cell.
+     */
+    static void writeTo(@NotNull final GameState gameState,
+                        @NotNull final ByteBuffer buffer,
+                        final boolean includeMoveLog,
+                        final boolean byteCells) {
+        Objects.requireNonNull(gameState);
+        Objects.requireNonNull(buffer);
+
+        try {
+            write(gameState, ChannelBuffer.of(buffer), includeMoveLog, byteCells);
+        } catch (final IOException e) {
+            // Unreachable, as no channel is written to
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Implementation of {@link #writeTo(GameState, ByteBuffer, boolean, boolean)}, which also streams the serialized
+     * game state to a channel.
+     *
+     * @param gameState      The game state to serialize.
+     * @param out            The buffer to write the serialized game state to.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @param byteCells      Whether to store one byte per cell instead of 4 bits per cell.
+     * @throws IOException If an I/O error occurred while writing to the channel of {@code out}.
+     */
+    private static void write(@NotNull final GameState gameState,
+                              @NotNull final ChannelBuffer out,
+                              final boolean includeMoveLog,
+                              final boolean byteCells) throws IOException {
+        final var board = gameState.getGameBoard().getPackedBoard();
+        final var numCells = board.getNumRows() * board.getNumCols();
+
+        out.require(HEADER_SIZE)
+                .put(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) ((includeMoveLog ? FLAG_MOVE_LOG : 0) | (byteCells ? FLAG_BYTE_CELLS : 0)))
+                .putInt(board.getNumRows())
+                .putInt(board.getNumCols())
+                .putInt(gameState.hasUnlimitedLives() ? GameState.UNLIMITED_LIVES : gameState.getNumLives())
+                .putInt(gameState.getNumMoves())
+                .putInt(gameState.getNumDeaths())
+                .putInt(gameState.getMoveStack().getPopCount())
+                .putInt(gameState.getInitialNumGems());
+
+        if (byteCells) {
+            final var player = gameState.getGameBoard().getPlayer().getOwner();
+            out.require(SUMMARY_SIZE)
+                    .putInt(board.getNumGems())
+                    .putInt(board.getNumExtraLives())
+                    .putInt(indexOf(board, Objects.requireNonNull(player).getPosition()))
+                    .putLong(board.getZobristHash());
+            for (int i = 0; i < numCells; ++i) {
+                out.require(1).put(board.get(i));
+            }
+        } else {
+            for (int i = 0; i < numCells; i += 2) {
+                final var high = toCellCode(board.get(i));
+                final var low = i + 1 < numCells ? toCellCode(board.get(i + 1)) : 0;
+                out.require(1).put((byte) ((high << 4) | low));
+            }
+        }
+
+        if (includeMoveLog) {
+            final var moves = gameState.getMoveStack().getMoves();
+            out.require(Integer.BYTES).putInt(moves.size());
+            for (final var move : moves) {
+                final var alive = (MoveResult.Valid.Alive) move;
+                out.require(2 * Integer.BYTES)
+                        .putInt(indexOf(board, alive.origPosition))
+                        .putInt(indexOf(board, alive.newPosition));
+                putPositions(out, board, alive.collectedGems);
+                putPositions(out, board, alive.collectedExtraLives);
+            }
+        }
+    }
+
+    /**
+     * Creates a {@link GameState} instance by reading from the {@link ByteBuffer}.
+     *
+     * @param buffer The buffer providing the serialized version of the game state, starting from its position. The
+     *               position of the buffer is advanced past the serialized game state.
+     * @return An instance of {@link GameState} created from deserializing {@code buffer}.
+     * @throws IllegalArgumentException if {@code buffer} does not contain a valid serialized game state.
+     */
+    @NotNull
+    public static GameState readFrom(@NotNull final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+
+        try {
+            return readFrom(ChannelBuffer.of(buffer));
+        } catch (final IOException e) {
+            // Unreachable, as no channel is read from
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a {@link GameState} instance by reading from the {@link ChannelBuffer}.
+     *
+     * @param in The buffer providing the serialized version of the game state.
+     * @return An instance of {@link GameState} created from deserializing {@code in}.
+     * @throws IOException              If an I/O error occurred while reading from the channel of {@code in}.
+     * @throws IllegalArgumentException if {@code in} does not contain a valid serialized game state.
+     */
+    @NotNull
+    static GameState readFrom(@NotNull final ChannelBuffer in) throws IOException {
+        try {
+            return readGameState(in);
+        } catch (final BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary game file is truncated", e);
+        }
+    }
+
+    /**
+     * Checks whether a buffer starts with the magic bytes of the binary format.
+     *
+     * @param buffer The buffer to check, starting from its position. The position of the buffer is not modified.
+     * @return Whether {@code buffer} starts with the magic bytes.
+     */
+    static boolean hasMagic(@NotNull final ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; ++i) {
+            if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of magic bytes at the start of every binary file.
+     */
+    static int magicLength() {
+        return MAGIC.length;
+    }
+
+    /**
+     * The header of a binary file, including the board summary if present.
+     *
+     * @param flags          The flags of the file.
+     * @param numRows        The number of rows of the board.
+     * @param numCols        The number of columns of the board.
+     * @param numLives       The number of lives, or {@link GameState#UNLIMITED_LIVES}.
+     * @param numMoves       The number of moves performed by the player.
+     * @param numDeaths      The number of deaths of the player.
+     * @param numUndos       The number of moves undone by the player.
+     * @param initialNumGems The number of gems initially on the board.
+     * @param numGems        The number of gems on the board, or {@code -1} if there is no board summary.
+     * @param numExtraLives  The number of extra lives on the board, or {@code -1} if there is no board summary.
+     * @param playerIndex    Index of the player in the packed board, or {@code -1} if there is no board summary.
+     * @param zobristHash    The Zobrist hash of the board, or {@code 0} if there is no board summary.
+     */
+    record Header(int flags,
+                  int numRows,
+                  int numCols,
+                  int numLives,
+                  int numMoves,
+                  int numDeaths,
+                  int numUndos,
+                  int initialNumGems,
+                  int numGems,
+                  int numExtraLives,
+                  int playerIndex,
+                  long zobristHash) {
+
+        /**
+         * @return Whether the cells are stored as one byte per cell.
+         */
+        boolean hasByteCells() {
+            return (flags & FLAG_BYTE_CELLS) != 0;
+        }
+
+        /**
+         * @return Whether the move log follows the cells.
+         */
+        boolean hasMoveLog() {
+            return (flags & FLAG_MOVE_LOG) != 0;
+        }
+
+        /**
+         * @return The number of cells of the board.
+         */
+        int numCells() {
+            return numRows * numCols;
+        }
+
+        /**
+         * Restores the game described by this header.
+         *
+         * @param gameBoard The game board read from the file.
+         * @param moves     The moves read from the move log.
+         * @return The restored game.
+         */
+        @NotNull
+        GameState restore(@NotNull final GameBoard gameBoard, @NotNull final List<MoveResult> moves) {
+            return GameState.restore(gameBoard, numLives, numMoves, numDeaths, numUndos, initialNumGems, moves);
+        }
+    }
+
+    /**
+     * Reads the header of a binary file, including the board summary if present.
+     *
+     * @param buffer The buffer to read from, starting from its position. The position of the buffer is advanced to
+     *               the first cell.
+     * @return The header of the file.
+     * @throws IllegalArgumentException if {@code buffer} does not start with a valid header.
+     * @throws BufferUnderflowException if {@code buffer} ends before the header.
+     */
+    @NotNull
+    static Header readHeader(@NotNull final ByteBuffer buffer) {
+        try {
+            return readHeader(ChannelBuffer.of(buffer));
+        } catch (final IOException e) {
+            // Unreachable, as no channel is read from
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the header of a binary file, including the board summary if present.
+     *
+     * @param in The buffer to read from. It is advanced to the first cell.
+     * @return The header of the file.
+     * @throws IOException              If an I/O error occurred while reading from the channel of {@code in}.
+     * @throws IllegalArgumentException if {@code in} does not start with a valid header.
+     * @throws BufferUnderflowException if {@code in} ends before the header.
+     */
+    @NotNull
+    private static Header readHeader(@NotNull final ChannelBuffer in) throws IOException {
+        if (!hasMagic(in.peek(MAGIC.length))) {
+            throw new IllegalArgumentException("Not a binary game file");
+        }
+        final var buffer = in.require(HEADER_SIZE);
+        buffer.position(buffer.position() + MAGIC.length);
+
+        final var version = Byte.toUnsignedInt(buffer.get());
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary game file version: " + version);
+        }
+        final var flags = Byte.toUnsignedInt(buffer.get());
+        if ((flags & ~(FLAG_MOVE_LOG | FLAG_BYTE_CELLS)) != 0) {
+            throw new IllegalArgumentException("Unknown flags in binary game file: " + flags);
+        }
+
+        final var numRows = buffer.getInt();
+        final var numCols = buffer.getInt();
+        final var numLives = buffer.getInt();
+        final var numMoves = buffer.getInt();
+        final var numDeaths = buffer.getInt();
+        final var numUndos = buffer.getInt();
+        final var initialNumGems = buffer.getInt();
+
+        if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid board size: " + numRows + "x" + numCols);
+        }
+
+        if ((flags & FLAG_BYTE_CELLS) == 0) {
+            return new Header(flags, numRows, numCols, numLives, numMoves, numDeaths, numUndos, initialNumGems,
+                    -1, -1, -1, 0);
+        }
+        final var summary = in.require(SUMMARY_SIZE);
+        return new Header(flags, numRows, numCols, numLives, numMoves, numDeaths, numUndos, initialNumGems,
+                summary.getInt(), summary.getInt(), summary.getInt(), summary.getLong());
+    }
+
+    /**
+     * Reads the move log of a binary file.
+     *
+     * @param buffer The buffer to read from, starting from the number of logged moves.
+     * @param board  The board which the moves are performed on.
+     * @return The logged moves, from the earliest to the latest move.
+     * @throws IllegalArgumentException if the move log is invalid.
+     * @throws BufferUnderflowException if {@code buffer} ends before the move log.
+     */
+    @NotNull
+    static List<MoveResult> readMoveLog(@NotNull final ByteBuffer buffer, @NotNull final PackedBoard board) {
+        try {
+            return readMoveLog(ChannelBuffer.of(buffer), board);
+        } catch (final IOException e) {
+            // Unreachable, as no channel is read from
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the move log of a binary file.
+     *
+     * @param in    The buffer to read from, starting from the number of logged moves.
+     * @param board The board which the moves are performed on.
+     * @return The logged moves, from the earliest to the latest move.
+     * @throws IOException              If an I/O error occurred while reading from the channel of {@code in}.
+     * @throws IllegalArgumentException if the move log is invalid.
+     * @throws BufferUnderflowException if {@code in} ends before the move log.
+     */
+    @NotNull
+    private static List<MoveResult> readMoveLog(@NotNull final ChannelBuffer in, @NotNull final PackedBoard board)
+            throws IOException {
+        final var numLoggedMoves = in.require(Integer.BYTES).getInt();
+        if (numLoggedMoves < 0) {
+            throw new IllegalArgumentException("Invalid number of logged moves: " + numLoggedMoves);
+        }
+
+        final List<MoveResult> moves = new ArrayList<>();
+        for (int i = 0; i < numLoggedMoves; ++i) {
+            final var origPosition = getPosition(in, board);
+            final var newPosition = getPosition(in, board);
+            final var collectedGems = getPositions(in, board);
+            final var collectedExtraLives = getPositions(in, board);
+            moves.add(new MoveResult.Valid.Alive(newPosition, origPosition, collectedGems, collectedExtraLives));
+        }
+        return moves;
+    }
+
+    /**
+     * Implementation of {@link #readFrom(ChannelBuffer)}.
+     *
+     * @param in The buffer providing the serialized version of the game state.
+     * @return An instance of {@link GameState} created from deserializing {@code in}.
+     * @throws IOException              If an I/O error occurred while reading from the channel of {@code in}.
+     * @throws BufferUnderflowException if {@code in} ends before the serialized game state.
+     */
+    @NotNull
+    private static GameState readGameState(@NotNull final ChannelBuffer in) throws IOException {
+        final var header = readHeader(in);
+        final var numCells = header.numCells();
+        if (in.endsBefore(header.hasByteCells() ? numCells : (numCells + 1L) / 2)) {
+            throw new BufferUnderflowException();
+        }
+
+        final var data = new byte[numCells];
+        if (header.hasByteCells()) {
+            for (int i = 0; i < numCells; ) {
+                final var buffer = in.require(1);
+                final var length = Math.min(buffer.remaining(), numCells - i);
+                buffer.get(data, i, length);
+                i += length;
+            }
+            for (final var packedCell : data) {
+                checkPackedCell(packedCell);
+            }
+        } else {
+            for (int i = 0; i < numCells; i += 2) {
+                final var codes = Byte.toUnsignedInt(in.require(1).get());
+                data[i] = fromCellCode(codes >>> 4);
+                if (i + 1 < numCells) {
+                    data[i + 1] = fromCellCode(codes & 0xF);
+                }
+            }
+        }
+        final var packedBoard = new PackedBoard(header.numRows(), header.numCols(), data);
+
+        final var moves = header.hasMoveLog() ? readMoveLog(in, packedBoard) : List.<MoveResult>of();
+        return header.restore(GameBoard.fromPackedBoard(packedBoard), moves);
+    }
+
+    /**
+     * Checks that a byte read from a file is a valid packed cell.
+     *
+     * @param packedCell The byte to check.
+     * @throws IllegalArgumentException if {@code packedCell} is not a valid packed cell.
+     */
+    static void checkPackedCell(final byte packedCell) {
+        final var cellKind = PackedBoard.cellKindOf(packedCell);
+        final var entityKind = PackedBoard.entityKindOf(packedCell);
+        if (PackedBoard.pack(cellKind, entityKind) != packedCell
+                || cellKind > PackedBoard.CELL_WALL
+                || entityKind > PackedBoard.ENTITY_PLAYER
+                || (cellKind == PackedBoard.CELL_WALL && entityKind != PackedBoard.ENTITY_NONE)) {
+            throw new IllegalArgumentException("Unknown packed cell: " + packedCell);
+        }
+    }
+
+    /**
+     * Converts a packed cell to its 4-bit code.
+     *
+     * @param cell The packed cell, as stored in {@link PackedBoard}.
+     * @return The 4-bit code of {@code cell}.
+     */
+    private static int toCellCode(final byte cell) {
+        final var cellKind = PackedBoard.cellKindOf(cell);
+        if (cellKind == PackedBoard.CELL_WALL) {
+            return WALL_CODE;
+        }
+        return cellKind * NUM_ENTITY_KINDS + PackedBoard.entityKindOf(cell);
+    }
+
+    /**
+     * Converts a 4-bit code to its packed cell.
+     *
+     * @param code The 4-bit code of a cell.
+     * @return The packed cell represented by {@code code}, as stored in {@link PackedBoard}.
+     * @throws IllegalArgumentException if {@code code} is not a known code of a cell.
+     */
+    private static byte fromCellCode(final int code) {
+        if (code == WALL_CODE) {
+            return PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+        }
+        if (code > WALL_CODE) {
+            throw new IllegalArgumentException("Unknown cell code: " + code);
+        }
+        return PackedBoard.pack(code / NUM_ENTITY_KINDS, code % NUM_ENTITY_KINDS);
+    }
+
+    /**
+     * @param board    The board which the position belongs to.
+     * @param position A position on the board.
+     * @return The index of {@code position} in {@code board}.
+     */
+    private static int indexOf(@NotNull final PackedBoard board, @NotNull final Position position) {
+        return board.indexOf(position.row(), position.col());
+    }
+
+    /**
+     * Writes the number of positions, followed by the index of each position.
+     *
+     * @param out       The buffer to write to.
+     * @param board     The board which the positions belong to.
+     * @param positions The positions to write.
+     * @throws IOException If an I/O error occurred while writing to the channel of {@code out}.
+     */
+    private static void putPositions(@NotNull final ChannelBuffer out,
+                                     @NotNull final PackedBoard board,
+                                     @NotNull final List<Position> positions) throws IOException {
+        out.require(Integer.BYTES).putInt(positions.size());
+        for (final var position : positions) {
+            out.require(Integer.BYTES).putInt(indexOf(board, position));
+        }
+    }
+
+    /**
+     * Reads the index of a cell.
+     *
+     * @param in    The buffer to read from.
+     * @param board The board which the cell belongs to.
+     * @return The position of the cell.
+     * @throws IOException              If an I/O error occurred while reading from the channel of {@code in}.
+     * @throws IllegalArgumentException if the index is out of bounds.
+     */
+    @NotNull
+    private static Position getPosition(@NotNull final ChannelBuffer in, @NotNull final PackedBoard board)
+            throws IOException {
+        final var index = in.require(Integer.BYTES).getInt();
+        if (index < 0 || index >= board.getNumRows() * board.getNumCols()) {
+            throw new IllegalArgumentException("Cell index out of bounds: " + index);
+        }
+        return board.positionOf(index);
+    }
+
+    /**
+     * Reads the number of positions, followed by the index of each position.
+     *
+     * @param in    The buffer to read from.
+     * @param board The board which the positions belong to.
+     * @return The positions which are read.
+     * @throws IOException              If an I/O error occurred while reading from the channel of {@code in}.
+     * @throws IllegalArgumentException if there are more positions than cells on the board.
+     */
+    @NotNull
+    private static List<Position> getPositions(@NotNull final ChannelBuffer in, @NotNull final PackedBoard board)
+            throws IOException {
+        final var size = in.require(Integer.BYTES).getInt();
+        if (size < 0 || size > board.getNumRows() * board.getNumCols() || in.endsBefore((long) size * Integer.BYTES)) {
+            throw new IllegalArgumentException("Invalid number of positions: " + size);
+        }
+        final var positions = new ArrayList<Position>(size);
+        for (int i = 0; i < size; ++i) {
+            positions.add(getPosition(in, board));
+        }
+        return List.copyOf(positions);
+    }
+}
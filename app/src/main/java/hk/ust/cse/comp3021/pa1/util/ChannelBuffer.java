@@ -0,0 +1,203 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * A {@link ByteBuffer} which is refilled from a source channel, or drained to a sink channel, on demand.
+ *
+ * <p>
+ * Values are read and written directly on the buffer returned by {@link #require(int)}, so that the same code can
+ * serialize a game into memory or stream it through a fixed-size buffer. An instance created by
+ * {@link #of(ByteBuffer)} has no channel, in which case the buffer is used as is and no I/O is ever performed.
+ * </p>
+ * <p>
+ * When reading, the instance is itself a {@link ReadableByteChannel} which returns the buffered bytes before the rest
+ * of the source, so that bytes which are peeked to detect the format of a file can be handed to another parser.
+ * </p>
+ */
+final class ChannelBuffer implements ReadableByteChannel {
+
+    /**
+     * Default capacity of the buffer in bytes.
+     */
+    static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * The buffer holding the bytes which are read but not yet consumed, or written but not yet drained.
+     */
+    @NotNull
+    private final ByteBuffer buffer;
+
+    /**
+     * The channel to refill {@link #buffer} from, or {@code null} if the instance is not reading from a channel.
+     */
+    @Nullable
+    private final ReadableByteChannel source;
+
+    /**
+     * The channel to drain {@link #buffer} to, or {@code null} if the instance is not writing to a channel.
+     */
+    @Nullable
+    private final WritableByteChannel sink;
+
+    /**
+     * Whether {@link #source} has reached the end of the stream.
+     */
+    private boolean endOfStream;
+
+    private ChannelBuffer(@NotNull final ByteBuffer buffer,
+                          @Nullable final ReadableByteChannel source,
+                          @Nullable final WritableByteChannel sink) {
+        this.buffer = buffer;
+        this.source = source;
+        this.sink = sink;
+    }
+
+    /**
+     * @param buffer The buffer to read from or write to, starting from its position.
+     * @return An instance using {@code buffer} directly without any channel.
+     */
+    @NotNull
+    static ChannelBuffer of(@NotNull final ByteBuffer buffer) {
+        return new ChannelBuffer(Objects.requireNonNull(buffer), null, null);
+    }
+
+    /**
+     * @param source The channel to read from.
+     * @return An instance reading from {@code source} through a buffer of {@link #DEFAULT_CAPACITY} bytes.
+     */
+    @NotNull
+    static ChannelBuffer reading(@NotNull final ReadableByteChannel source) {
+        return new ChannelBuffer(ByteBuffer.allocate(DEFAULT_CAPACITY).flip(), Objects.requireNonNull(source), null);
+    }
+
+    /**
+     * @param sink The channel to write to.
+     * @return An instance writing to {@code sink} through a buffer of {@link #DEFAULT_CAPACITY} bytes. The caller must
+     * call {@link #flush()} after the last write.
+     */
+    @NotNull
+    static ChannelBuffer writing(@NotNull final WritableByteChannel sink) {
+        return new ChannelBuffer(ByteBuffer.allocate(DEFAULT_CAPACITY), null, Objects.requireNonNull(sink));
+    }
+
+    /**
+     * Makes at least {@code n} bytes available in the buffer, refilling it from the source or draining it to the sink
+     * if necessary.
+     *
+     * @param n The number of bytes to read or write, which must not exceed {@link #DEFAULT_CAPACITY} when a channel is
+     *          used.
+     * @return The buffer, positioned at the next byte to read or write.
+     * @throws IOException              If an I/O error occurred while reading from or writing to the channel.
+     * @throws BufferUnderflowException if the source ends before {@code n} bytes.
+     */
+    @NotNull
+    ByteBuffer require(final int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return buffer;
+        }
+        if (sink != null) {
+            flush();
+        } else if (fill(n) < n) {
+            throw new BufferUnderflowException();
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads ahead up to {@code n} bytes without consuming them.
+     *
+     * @param n The number of bytes to read ahead.
+     * @return The buffer, positioned at the next byte to read. It has fewer than {@code n} remaining bytes only if the
+     * source ends before {@code n} bytes.
+     * @throws IOException If an I/O error occurred while reading from the source.
+     */
+    @NotNull
+    ByteBuffer peek(final int n) throws IOException {
+        if (buffer.remaining() < n) {
+            fill(n);
+        }
+        return buffer;
+    }
+
+    /**
+     * @param n The number of bytes to be read.
+     * @return Whether the data is known to end before {@code n} more bytes, i.e. there is no source to refill the
+     * buffer from and fewer than {@code n} bytes remain in the buffer.
+     */
+    boolean endsBefore(final long n) {
+        return source == null && sink == null && buffer.remaining() < n;
+    }
+
+    /**
+     * Drains all buffered bytes to the sink. Does nothing if the instance is not writing to a channel.
+     *
+     * @throws IOException If an I/O error occurred while writing to the sink.
+     */
+    void flush() throws IOException {
+        if (sink == null) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            sink.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Refills the buffer from the source until it holds at least {@code n} bytes or the source ends.
+     *
+     * @param n The number of bytes needed.
+     * @return The number of bytes remaining in the buffer.
+     * @throws IOException If an I/O error occurred while reading from the source.
+     */
+    private int fill(final int n) throws IOException {
+        if (source == null) {
+            return buffer.remaining();
+        }
+        buffer.compact();
+        while (buffer.position() < n && !endOfStream) {
+            if (source.read(buffer) < 0) {
+                endOfStream = true;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining();
+    }
+
+    @Override
+    public int read(@NotNull final ByteBuffer dst) throws IOException {
+        if (buffer.hasRemaining()) {
+            final var n = Math.min(buffer.remaining(), dst.remaining());
+            dst.put(dst.position(), buffer, buffer.position(), n);
+            dst.position(dst.position() + n);
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+        if (source == null || endOfStream) {
+            return -1;
+        }
+        return source.read(dst);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return source == null || source.isOpen();
+    }
+
+    /**
+     * Does nothing; The source or sink is owned and closed by the caller.
+     */
+    @Override
+    public void close() {
+    }
+}
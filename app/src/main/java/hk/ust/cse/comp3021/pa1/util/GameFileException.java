@@ -0,0 +1,117 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Exception thrown when a game file is malformed or does not describe a valid game board.
+ *
+ * <p>
+ * In addition to the message, the exception carries the kind of the error and, where known, the location of the
+ * error in the file, so that callers such as {@link BatchGameLoader} can report errors without parsing the message.
+ * </p>
+ */
+public class GameFileException extends IllegalArgumentException {
+
+    /**
+     * The kind of error in a game file.
+     */
+    public enum Kind {
+        /**
+         * The file does not follow the file format, e.g. a malformed header or a row of the wrong length.
+         */
+        MALFORMED,
+        /**
+         * A character in the board does not represent any cell.
+         */
+        UNKNOWN_CELL,
+        /**
+         * There is no player or more than one player on the board.
+         */
+        PLAYER_COUNT,
+        /**
+         * There are no gems on the board.
+         */
+        NO_GEMS,
+        /**
+         * Some gems cannot be reached by the player.
+         */
+        UNREACHABLE_GEMS,
+        /**
+         * The file cannot be read.
+         */
+        IO_ERROR
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The kind of the error.
+     */
+    @NotNull
+    private final Kind kind;
+
+    /**
+     * The line number of the error starting from {@code 1}, or {@code -1} if unknown.
+     */
+    private final int line;
+
+    /**
+     * The column of the error starting from {@code 0}, or {@code -1} if unknown.
+     */
+    private final int column;
+
+    /**
+     * Creates an instance.
+     *
+     * @param kind    The kind of the error.
+     * @param line    The line number of the error starting from {@code 1}, or {@code -1} if unknown.
+     * @param column  The column of the error starting from {@code 0}, or {@code -1} if unknown.
+     * @param message The description of the error.
+     */
+    public GameFileException(@NotNull final Kind kind, final int line, final int column,
+                             @NotNull final String message) {
+        this(kind, line, column, message, null);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param kind    The kind of the error.
+     * @param line    The line number of the error starting from {@code 1}, or {@code -1} if unknown.
+     * @param column  The column of the error starting from {@code 0}, or {@code -1} if unknown.
+     * @param message The description of the error.
+     * @param cause   The cause of the error, or {@code null} if there is none.
+     */
+    public GameFileException(@NotNull final Kind kind, final int line, final int column,
+                             @NotNull final String message, @Nullable final Throwable cause) {
+        super(message, cause);
+        this.kind = Objects.requireNonNull(kind);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * @return The kind of the error.
+     */
+    @NotNull
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The line number of the error starting from {@code 1}, or {@code -1} if unknown.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return The column of the error starting from {@code 0}, or {@code -1} if unknown.
+     */
+    public int getColumn() {
+        return column;
+    }
+}
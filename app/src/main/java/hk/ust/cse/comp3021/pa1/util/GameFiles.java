@@ -0,0 +1,113 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opens game files for reading and writing, compressing them transparently.
+ *
+ * <p>
+ * Files whose name ends with {@link #COMPRESSED_SUFFIX} are written with gzip framing, which applies to both the text
+ * and the binary format. When reading, compressed files are detected from their first bytes regardless of their name.
+ * Data is compressed and decompressed as it is streamed, so the whole file is never held in memory.
+ * </p>
+ */
+final class GameFiles {
+
+    /**
+     * Suffix of the names of files which are compressed when written.
+     */
+    static final String COMPRESSED_SUFFIX = ".gz";
+
+    /**
+     * Size of the buffer used by the compressor and decompressor in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Magic bytes at the start of every gzip file.
+     */
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+
+    private GameFiles() {
+    }
+
+    /**
+     * @param file The path of a file.
+     * @return Whether {@code file} is compressed when written.
+     */
+    static boolean isCompressed(@NotNull final Path file) {
+        final var fileName = file.getFileName();
+        return fileName != null && fileName.toString().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * Creates a new file for writing, compressing its content if {@link #isCompressed(Path)}.
+     *
+     * @param file The file to create.
+     * @return The channel to write the uncompressed content of the file to. Closing the channel finishes the
+     * compressed stream.
+     * @throws java.nio.file.FileAlreadyExistsException if {@code file} already exists.
+     * @throws IOException                              If an I/O error occurred while creating {@code file}.
+     */
+    @NotNull
+    static WritableByteChannel openForWrite(@NotNull final Path file) throws IOException {
+        final var channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        if (!isCompressed(file)) {
+            return channel;
+        }
+        try {
+            return Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file for reading, decompressing its content if it starts with the gzip magic bytes.
+     *
+     * @param file The file to open.
+     * @return The channel to read the uncompressed content of the file from.
+     * @throws IOException If an I/O error occurred while opening {@code file}, or if {@code file} is compressed but
+     *                     its header is corrupted.
+     */
+    @NotNull
+    static ReadableByteChannel openForRead(@NotNull final Path file) throws IOException {
+        final var channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (!hasGzipMagic(channel)) {
+                return channel;
+            }
+            return Channels.newChannel(new GZIPInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param channel The channel to check. Its position is not modified.
+     * @return Whether the content of {@code channel} starts with the gzip magic bytes.
+     * @throws IOException If an I/O error occurred while reading from {@code channel}.
+     */
+    private static boolean hasGzipMagic(@NotNull final FileChannel channel) throws IOException {
+        final var magic = ByteBuffer.allocate(GZIP_MAGIC.length);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) {
+                break;
+            }
+        }
+        return magic.flip().equals(ByteBuffer.wrap(GZIP_MAGIC));
+    }
+}
@@ -0,0 +1,591 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of a game, so that a game can be saved after every action in constant time.
+ *
+ * <p>
+ * Instead of rewriting the whole board on every save, each move and undo performed via {@link #getController()} is
+ * appended to the journal as a one-byte record holding the kind of action, its direction and its outcome. A full
+ * snapshot of the game in the format of {@link BinaryGameStateSerializer} is appended every
+ * {@code snapshotInterval} records, which bounds the number of records replayed on recovery. Records are written to
+ * the file as soon as they are appended, but the file is only forced to the storage device every
+ * {@code syncInterval} records, on every snapshot, and when the journal is closed.
+ * </p>
+ * <p>
+ * A journal file consists of the magic bytes {@code 0x89 'I' 'N' 'J'} and the format version, followed by records:
+ * </p>
+ * <ul>
+ * <li>A move, stored as {@code 0x10 | outcome << 2 | direction}, where the outcome is {@code 0} if the player is
+ * alive and {@code 1} if the player died. Invalid moves are not recorded, as they do not change the game.</li>
+ * <li>An undo, stored as {@code 0x20}. Undos when there is no move to undo are not recorded.</li>
+ * <li>A snapshot, stored as {@code 0x30}, followed by the size of the snapshot as an {@code int}, the snapshot
+ * including its move log, and the CRC-32 of the snapshot as an {@code int}.</li>
+ * </ul>
+ * <p>
+ * On recovery, the game is restored from the latest snapshot and the records after it are replayed. The journal ends
+ * at the first incomplete or corrupted record, which is expected after a crash while a record was being written.
+ * </p>
+ */
+public final class GameJournal implements Closeable {
+
+    /**
+     * Default number of records between two snapshots.
+     */
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 1024;
+
+    /**
+     * Default number of records between two calls to {@link FileChannel#force(boolean)}.
+     */
+    public static final int DEFAULT_SYNC_INTERVAL = 32;
+
+    /**
+     * The current version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Magic bytes at the start of every journal file.
+     */
+    private static final byte[] MAGIC = {(byte) 0x89, 'I', 'N', 'J'};
+
+    /**
+     * Size of the file header in bytes, i.e. the magic bytes and the version.
+     */
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+
+    /**
+     * Record type of a move, stored in the high bits of the record.
+     */
+    private static final int RECORD_MOVE = 0x10;
+
+    /**
+     * Record type of an undo, stored in the high bits of the record.
+     */
+    private static final int RECORD_UNDO = 0x20;
+
+    /**
+     * Record type of a snapshot, stored in the high bits of the record.
+     */
+    private static final int RECORD_SNAPSHOT = 0x30;
+
+    /**
+     * Bit of a move record indicating that the player died.
+     */
+    private static final int OUTCOME_DEAD = 0b100;
+
+    /**
+     * Mask of the direction of a move record.
+     */
+    private static final int DIRECTION_MASK = 0b11;
+
+    /**
+     * The file being appended to.
+     */
+    @NotNull
+    private final FileChannel channel;
+
+    /**
+     * The game recorded by this journal.
+     */
+    @NotNull
+    private final GameState gameState;
+
+    /**
+     * The controller which records every action into this journal.
+     */
+    @NotNull
+    private final GameController controller;
+
+    /**
+     * Number of records between two snapshots.
+     */
+    private final int snapshotInterval;
+
+    /**
+     * Number of records between two calls to {@link FileChannel#force(boolean)}.
+     */
+    private final int syncInterval;
+
+    /**
+     * Reusable buffer for writing a single record.
+     */
+    @NotNull
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(1);
+
+    /**
+     * Number of records appended since the latest snapshot.
+     */
+    private int numRecordsSinceSnapshot = 0;
+
+    /**
+     * Number of records appended since the file was last forced to the storage device.
+     */
+    private int numRecordsSinceSync = 0;
+
+    private GameJournal(@NotNull final FileChannel channel,
+                        @NotNull final GameState gameState,
+                        final int snapshotInterval,
+                        final int syncInterval) {
+        this.channel = channel;
+        this.gameState = gameState;
+        this.controller = new RecordingController(gameState);
+        this.snapshotInterval = snapshotInterval;
+        this.syncInterval = syncInterval;
+    }
+
+    /**
+     * Creates a new journal file with the default intervals, starting from a snapshot of the game.
+     *
+     * @param journalFile The file to create.
+     * @param gameState   The game to record.
+     * @return The journal recording {@code gameState}.
+     * @throws FileAlreadyExistsException if a file or directory already exists with the same path as
+     *                                    {@code journalFile}.
+     */
+    @NotNull
+    public static GameJournal create(@NotNull final Path journalFile, @NotNull final GameState gameState)
+            throws FileAlreadyExistsException {
+        return create(journalFile, gameState, DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Creates a new journal file, starting from a snapshot of the game.
+     *
+     * @param journalFile      The file to create.
+     * @param gameState        The game to record.
+     * @param snapshotInterval Number of records between two snapshots.
+     * @param syncInterval     Number of records between two calls to {@link FileChannel#force(boolean)}.
+     * @return The journal recording {@code gameState}.
+     * @throws FileAlreadyExistsException if a file or directory already exists with the same path as
+     *                                    {@code journalFile}.
+     * @throws IllegalArgumentException   if any interval is not positive.
+     */
+    @NotNull
+    public static GameJournal create(@NotNull final Path journalFile,
+                                     @NotNull final GameState gameState,
+                                     final int snapshotInterval,
+                                     final int syncInterval) throws FileAlreadyExistsException {
+        Objects.requireNonNull(journalFile);
+        Objects.requireNonNull(gameState);
+        checkIntervals(snapshotInterval, syncInterval);
+
+        if (Files.exists(journalFile)) {
+            throw new FileAlreadyExistsException(journalFile.toString());
+        }
+
+        try {
+            final var channel = FileChannel.open(journalFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            final var journal = new GameJournal(channel, gameState, snapshotInterval, syncInterval);
+            journal.write(ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).put((byte) VERSION).flip());
+            journal.snapshot();
+            return journal;
+        } catch (final FileAlreadyExistsException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Opens an existing journal file with the default intervals, and continues recording the recovered game.
+     *
+     * @param journalFile The file to open.
+     * @return The journal recording the game recovered from {@code journalFile}.
+     * @throws FileNotFoundException    if {@code journalFile} does not exist.
+     * @throws IllegalArgumentException if {@code journalFile} is not a valid journal file.
+     * @see #open(Path, int, int)
+     */
+    @NotNull
+    public static GameJournal open(@NotNull final Path journalFile) throws FileNotFoundException {
+        return open(journalFile, DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Opens an existing journal file, and continues recording the recovered game.
+     *
+     * <p>
+     * The game is recovered as in {@link #recover(Path)}. Any incomplete or corrupted record at the end of the file is
+     * discarded before new records are appended.
+     * </p>
+     *
+     * @param journalFile      The file to open.
+     * @param snapshotInterval Number of records between two snapshots.
+     * @param syncInterval     Number of records between two calls to {@link FileChannel#force(boolean)}.
+     * @return The journal recording the game recovered from {@code journalFile}.
+     * @throws FileNotFoundException    if {@code journalFile} does not exist.
+     * @throws IllegalArgumentException if {@code journalFile} is not a valid journal file, or if any interval is not
+     *                                  positive.
+     */
+    @NotNull
+    public static GameJournal open(@NotNull final Path journalFile,
+                                   final int snapshotInterval,
+                                   final int syncInterval) throws FileNotFoundException {
+        Objects.requireNonNull(journalFile);
+        checkIntervals(snapshotInterval, syncInterval);
+
+        if (!Files.isRegularFile(journalFile)) {
+            throw new FileNotFoundException(journalFile.toString());
+        }
+
+        try {
+            final var channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                final var recovered = recover(channel);
+                channel.truncate(recovered.end).position(recovered.end);
+                final var journal = new GameJournal(channel, recovered.gameState, snapshotInterval, syncInterval);
+                journal.numRecordsSinceSnapshot = recovered.numRecordsSinceSnapshot;
+                return journal;
+            } catch (final IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Recovers the game recorded in a journal file, without modifying the file.
+     *
+     * @param journalFile The file to read from.
+     * @return The game restored from the latest snapshot, with all subsequent records replayed.
+     * @throws FileNotFoundException    if {@code journalFile} does not exist.
+     * @throws IllegalArgumentException if {@code journalFile} is not a valid journal file.
+     */
+    @NotNull
+    public static GameState recover(@NotNull final Path journalFile) throws FileNotFoundException {
+        Objects.requireNonNull(journalFile);
+
+        if (!Files.isRegularFile(journalFile)) {
+            throw new FileNotFoundException(journalFile.toString());
+        }
+
+        try (var channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            return recover(channel).gameState;
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return The game recorded by this journal.
+     */
+    @NotNull
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * @return The controller of {@link #getGameState()}, which records every move and undo into this journal.
+     */
+    @NotNull
+    public GameController getController() {
+        return controller;
+    }
+
+    /**
+     * Appends a snapshot of the game, so that the records before it are not replayed on recovery.
+     *
+     * <p>
+     * The file is forced to the storage device after the snapshot is written.
+     * </p>
+     */
+    public void snapshot() {
+        final var size = BinaryGameStateSerializer.sizeOf(gameState, true);
+        final var buffer = ByteBuffer.allocate(1 + Integer.BYTES + size + Integer.BYTES);
+        buffer.put((byte) RECORD_SNAPSHOT).putInt(size);
+        BinaryGameStateSerializer.writeTo(gameState, buffer, true);
+
+        final var crc = new CRC32();
+        crc.update(buffer.array(), 1 + Integer.BYTES, size);
+        buffer.putInt((int) crc.getValue());
+
+        write(buffer.flip());
+        numRecordsSinceSnapshot = 0;
+        sync();
+    }
+
+    /**
+     * Forces all appended records to the storage device.
+     */
+    public void sync() {
+        try {
+            channel.force(false);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+        numRecordsSinceSync = 0;
+    }
+
+    /**
+     * Forces all appended records to the storage device, and closes the file.
+     *
+     * @throws IOException If an I/O error occurred while closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Appends a single-byte record, followed by a snapshot or a sync if either is due.
+     *
+     * @param record The record to append.
+     */
+    private void append(final int record) {
+        write(recordBuffer.clear().put((byte) record).flip());
+
+        if (++numRecordsSinceSnapshot >= snapshotInterval) {
+            snapshot();
+        } else if (++numRecordsSinceSync >= syncInterval) {
+            sync();
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of a buffer to the end of the file.
+     *
+     * @param buffer The bytes to write.
+     */
+    private void write(@NotNull final ByteBuffer buffer) {
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param snapshotInterval Number of records between two snapshots.
+     * @param syncInterval     Number of records between two calls to {@link FileChannel#force(boolean)}.
+     * @throws IllegalArgumentException if any interval is not positive.
+     */
+    private static void checkIntervals(final int snapshotInterval, final int syncInterval) {
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        if (syncInterval <= 0) {
+            throw new IllegalArgumentException("Sync interval must be positive");
+        }
+    }
+
+    /**
+     * The result of recovering a journal file.
+     *
+     * @param gameState               The recovered game.
+     * @param end                     The offset in the file after the last valid record.
+     * @param numRecordsSinceSnapshot Number of records after the latest snapshot.
+     */
+    private record Recovered(@NotNull GameState gameState, long end, int numRecordsSinceSnapshot) {
+    }
+
+    /**
+     * Recovers the game recorded in a journal file.
+     *
+     * <p>
+     * The file is scanned once. Only the latest valid snapshot and the records after it are kept in memory, and the
+     * game is restored and replayed after the end of the journal is found.
+     * </p>
+     *
+     * @param channel The journal file, positioned at its start.
+     * @return The recovered game.
+     * @throws IOException              If an I/O error occurred while reading from {@code channel}.
+     * @throws IllegalArgumentException if {@code channel} is not a valid journal file.
+     */
+    @NotNull
+    private static Recovered recover(@NotNull final FileChannel channel) throws IOException {
+        final var in = ChannelBuffer.reading(channel);
+        final var header = in.peek(HEADER_SIZE);
+        if (header.remaining() < HEADER_SIZE || !header.slice(header.position(), MAGIC.length).equals(
+                ByteBuffer.wrap(MAGIC))) {
+            throw new IllegalArgumentException("Not a game journal file");
+        }
+        header.position(header.position() + MAGIC.length);
+        final var version = Byte.toUnsignedInt(header.get());
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported game journal version: " + version);
+        }
+
+        final var fileSize = channel.size();
+        long offset = HEADER_SIZE;
+        byte[] snapshot = null;
+        final var records = new ByteArrayOutputStream();
+
+        while (true) {
+            final var next = in.peek(1);
+            if (!next.hasRemaining()) {
+                break;
+            }
+            final var record = Byte.toUnsignedInt(next.get(next.position()));
+            if ((record & 0xF0) == RECORD_SNAPSHOT) {
+                final var payload = readSnapshot(in, fileSize - offset);
+                if (payload == null) {
+                    break;
+                }
+                snapshot = payload;
+                records.reset();
+                offset += 1 + Integer.BYTES + payload.length + Integer.BYTES;
+            } else if (isMove(record) || record == RECORD_UNDO) {
+                in.require(1).get();
+                records.write(record);
+                ++offset;
+            } else {
+                break;
+            }
+        }
+
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Game journal does not contain any snapshot");
+        }
+        final var gameState = BinaryGameStateSerializer.readFrom(ByteBuffer.wrap(snapshot));
+        replay(gameState, records.toByteArray());
+        return new Recovered(gameState, offset, records.size());
+    }
+
+    /**
+     * Reads a snapshot record.
+     *
+     * @param in        The buffer to read from, positioned at the snapshot record.
+     * @param available The number of bytes from the snapshot record to the end of the file.
+     * @return The snapshot, or {@code null} if the snapshot is incomplete or corrupted.
+     * @throws IOException If an I/O error occurred while reading from the channel of {@code in}.
+     */
+    @Nullable
+    private static byte[] readSnapshot(@NotNull final ChannelBuffer in, final long available) throws IOException {
+        try {
+            final var header = in.require(1 + Integer.BYTES);
+            header.get();
+            final var size = header.getInt();
+            // A torn record may hold any size, which must not be allocated before the CRC is checked
+            if (size <= 0 || 1L + Integer.BYTES + size + Integer.BYTES > available) {
+                return null;
+            }
+
+            final var payload = new byte[size];
+            for (int i = 0; i < size; ) {
+                final var buffer = in.require(1);
+                final var length = Math.min(buffer.remaining(), size - i);
+                buffer.get(payload, i, length);
+                i += length;
+            }
+
+            final var crc = new CRC32();
+            crc.update(payload);
+            if (in.require(Integer.BYTES).getInt() != (int) crc.getValue()) {
+                return null;
+            }
+            return payload;
+        } catch (final BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replays records on a game.
+     *
+     * @param gameState The game to replay on.
+     * @param records   The records to replay.
+     * @throws IllegalArgumentException if any move has a different outcome from its record, or any undo fails.
+     */
+    private static void replay(@NotNull final GameState gameState, @NotNull final byte[] records) {
+        final var controller = new GameController(gameState);
+        final var directions = Direction.values();
+
+        for (int i = 0; i < records.length; ++i) {
+            final var record = Byte.toUnsignedInt(records[i]);
+            if (record == RECORD_UNDO) {
+                if (!controller.processUndo()) {
+                    throw new IllegalArgumentException("Journal record " + i + " undoes a move which does not exist");
+                }
+                continue;
+            }
+
+            final var result = controller.processMove(directions[record & DIRECTION_MASK]);
+            final var expectDead = (record & OUTCOME_DEAD) != 0;
+            if (expectDead ? !(result instanceof MoveResult.Valid.Dead) : !(result instanceof MoveResult.Valid.Alive)) {
+                throw new IllegalArgumentException("Journal record " + i + " does not match the game");
+            }
+        }
+    }
+
+    /**
+     * @param record A record read from a journal file.
+     * @return Whether {@code record} is a move record.
+     */
+    private static boolean isMove(final int record) {
+        return (record & ~(OUTCOME_DEAD | DIRECTION_MASK)) == RECORD_MOVE;
+    }
+
+    /**
+     * @param direction The direction of the move.
+     * @param dead      Whether the player died.
+     * @return The record of the move.
+     */
+    private static int moveRecord(@NotNull final Direction direction, final boolean dead) {
+        return RECORD_MOVE | (dead ? OUTCOME_DEAD : 0) | direction.ordinal();
+    }
+
+    /**
+     * Controller which appends every move and undo to the journal after it is processed.
+     */
+    private final class RecordingController extends GameController {
+
+        RecordingController(@NotNull final GameState gameState) {
+            super(gameState);
+        }
+
+        @Override
+        public MoveResult processMove(@NotNull final Direction direction) {
+            final var result = super.processMove(direction);
+            if (result instanceof MoveResult.Valid) {
+                append(moveRecord(direction, result instanceof MoveResult.Valid.Dead));
+            }
+            return result;
+        }
+
+        @Override
+        public void processMove(@NotNull final Direction direction, @NotNull final MutableMoveResult result) {
+            super.processMove(direction, result);
+            if (result.getKind() != MutableMoveResult.Kind.INVALID) {
+                append(moveRecord(direction, result.getKind() == MutableMoveResult.Kind.DEAD));
+            }
+        }
+
+        @Override
+        public boolean processUndo() {
+            final var undone = super.processUndo();
+            if (undone) {
+                append(RECORD_UNDO);
+            }
+            return undone;
+        }
+    }
+}
@@ -5,12 +5,16 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.zip.ZipException;
 
 /**
  * Serializer for converting between a serialized file and a {@link GameState}.
@@ -23,6 +27,10 @@ public final class GameStateSerializer {
     /**
      * Serializes the specified {@link GameState} object to the output file.
      *
+     * <p>
+     * The file is compressed with gzip if its name ends with {@code .gz}, e.g. {@code level.game.gz}.
+     * </p>
+     *
      * @param gameState  The game state instance to write to the file.
      * @param outputFile The file to write to.
      * @return {@code outputFile}.
@@ -39,8 +47,11 @@ public final class GameStateSerializer {
             throw new FileAlreadyExistsException(outputFile.toString());
         }
 
-        try (var writer = Files.newBufferedWriter(outputFile)) {
+        try (var writer = new BufferedWriter(Channels.newWriter(GameFiles.openForWrite(outputFile),
+                StandardCharsets.UTF_8))) {
             writeTo(gameState, writer);
+        } catch (final FileAlreadyExistsException e) {
+            throw e;
         } catch (final IOException e) {
             throw new RuntimeException(e);
         }
@@ -71,11 +82,10 @@ public final class GameStateSerializer {
         }
         writer.newLine();
 
-        for (int r = 0; r < gameState.getGameBoard().getNumRows(); ++r) {
-            final var row = gameState.getGameBoard().getRow(r);
-
-            for (final var cell : row) {
-                writer.write(toCellChar(cell));
+        final var board = gameState.getGameBoard().getPackedBoard();
+        for (int r = 0; r < board.getNumRows(); ++r) {
+            for (int c = 0; c < board.getNumCols(); ++c) {
+                writer.write(toCellChar(board.get(board.indexOf(r, c))));
             }
             writer.newLine();
         }
@@ -84,9 +94,17 @@ public final class GameStateSerializer {
     /**
      * Loads an input file and deserializes it into a {@link GameState} instance.
      *
+     * <p>
+     * Both the text format written by {@link #writeTo(GameState, Path)} and the binary format written by
+     * {@link BinaryGameStateSerializer} are accepted, either uncompressed or compressed with gzip; The compression and
+     * format are detected from the first bytes of the file. The file is decoded as it is read, so that it is never
+     * held in memory as a whole.
+     * </p>
+     *
      * @param inputFile The input file to read from.
      * @return An instance of {@link GameState} created from deserializing {@code inputFile}.
-     * @throws FileNotFoundException if {@code inputFile} does not exist.
+     * @throws FileNotFoundException    if {@code inputFile} does not exist.
+     * @throws IllegalArgumentException if {@code inputFile} is not a valid game file, or is compressed but corrupted.
      */
     @NotNull
     public static GameState loadFrom(@NotNull final Path inputFile)
@@ -97,9 +115,15 @@ public final class GameStateSerializer {
             throw new FileNotFoundException(inputFile.toString());
         }
 
-        try (var reader = Files.newBufferedReader(inputFile)) {
-            return loadFrom(reader);
-        } catch (IOException e) {
+        try (var channel = GameFiles.openForRead(inputFile)) {
+            final var in = ChannelBuffer.reading(channel);
+            if (BinaryGameStateSerializer.hasMagic(in.peek(BinaryGameStateSerializer.magicLength()))) {
+                return BinaryGameStateSerializer.readFrom(in);
+            }
+            return new StreamingGameStateParser().parse(in);
+        } catch (final ZipException | EOFException e) {
+            throw new IllegalArgumentException("Compressed game file is corrupted or truncated: " + inputFile, e);
+        } catch (final IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -128,75 +152,66 @@ public final class GameStateSerializer {
             }
         }
 
-        final var board = new Cell[numRows][numCols];
+        final var board = new byte[numRows * numCols];
         for (int r = 0; r < numRows; r++) {
             final var line = reader.readLine();
             for (int c = 0; c < numCols; ++c) {
-                board[r][c] = fromCellChar(line.charAt(c), new Position(r, c));
+                board[r * numCols + c] = fromCellChar(line.charAt(c));
             }
         }
 
-        final var gameBoard = new GameBoard(numRows, numCols, board);
+        final var gameBoard = GameBoard.fromPackedBoard(new PackedBoard(numRows, numCols, board));
         return numLives < 0 ? new GameState(gameBoard) : new GameState(gameBoard, numLives);
     }
 
     /**
-     * Converts an instance of {@link Cell} to its serialized character representation.
+     * Converts a packed cell to its serialized character representation.
      *
-     * @param cell The instance of cell to serialize.
+     * @param cell The packed cell to serialize, as stored in {@link PackedBoard}.
      * @return A {@code char} representing {@code cell}.
      */
-    private static char toCellChar(@NotNull final Cell cell) {
-        Objects.requireNonNull(cell);
-
-        if (cell instanceof Wall) {
+    private static char toCellChar(final byte cell) {
+        if (PackedBoard.cellKindOf(cell) == PackedBoard.CELL_WALL) {
             return 'W';
         }
 
-        final var cellWithEntity = (EntityCell) cell;
-
         // Entity takes precedence over the cell
         // We can infer the type of cell from the entity anyways
-        final var entity = cellWithEntity.getEntity();
-        if (entity instanceof ExtraLife) {
-            return 'L';
-        }
-        if (entity instanceof Gem) {
-            return 'G';
-        }
-        if (entity instanceof Mine) {
-            return 'M';
-        }
-        if (entity instanceof Player) {
-            return 'P';
+        switch (PackedBoard.entityKindOf(cell)) {
+            case PackedBoard.ENTITY_EXTRA_LIFE:
+                return 'L';
+            case PackedBoard.ENTITY_GEM:
+                return 'G';
+            case PackedBoard.ENTITY_MINE:
+                return 'M';
+            case PackedBoard.ENTITY_PLAYER:
+                return 'P';
+            default:
+                break;
         }
 
-        if (cellWithEntity instanceof StopCell) {
+        if (PackedBoard.cellKindOf(cell) == PackedBoard.CELL_STOP) {
             return 'S';
         }
         return '.';
     }
 
     /**
-     * Converts the serialized character representation of a {@link Cell} to an instance.
+     * Converts the serialized character representation of a {@link Cell} to its packed representation.
      *
-     * @param c        The character representing a cell.
-     * @param position The position of the cell on the game board.
-     * @return An instance of {@link Cell} which is represented by {@code c}.
+     * @param c The character representing a cell.
+     * @return The packed cell which is represented by {@code c}, as stored in {@link PackedBoard}.
      * @throws IllegalArgumentException if {@code c} is not a known representation of a cell.
      */
-    @NotNull
-    private static Cell fromCellChar(final char c, @NotNull final Position position) {
-        Objects.requireNonNull(position);
-
+    static byte fromCellChar(final char c) {
         return switch (c) {
-            case 'W' -> new Wall(position);
-            case 'L' -> new EntityCell(position, new ExtraLife());
-            case 'G' -> new EntityCell(position, new Gem());
-            case 'M' -> new EntityCell(position, new Mine());
-            case 'P' -> new StopCell(position, new Player());
-            case 'S' -> new StopCell(position);
-            case '.' -> new EntityCell(position);
+            case 'W' -> PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+            case 'L' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+            case 'G' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+            case 'M' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+            case 'P' -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+            case 'S' -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+            case '.' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
             default -> throw new IllegalArgumentException("Unknown cell representation: " + c);
         };
     }
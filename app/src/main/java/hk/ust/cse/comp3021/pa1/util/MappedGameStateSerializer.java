@@ -0,0 +1,190 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.model.MoveResult;
+import hk.ust.cse.comp3021.pa1.model.PackedBoard;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serializer for game files which are opened by memory-mapping them.
+ *
+ * <p>
+ * Files written by this class use the binary format of {@link BinaryGameStateSerializer} with one byte per cell, so
+ * that the {@link PackedBoard} of a loaded game is backed directly by the mapped file instead of a copy on the heap.
+ * The file is mapped privately, so moves made in the loaded game are never written back to the file.
+ * </p>
+ * <p>
+ * The board is not validated again when it is loaded; The entity counts and player location are taken from the
+ * summary written together with the board. To detect corrupted or edited files, the mapped cells are scanned once
+ * in place, and the summary is rejected unless it matches the cells, without copying the board to the heap. Unlike
+ * {@link GameBoard#fromPackedBoard(PackedBoard)}, the scan does not check that every gem is reachable, since the
+ * board was validated before it was written. {@link hk.ust.cse.comp3021.pa1.model.Cell} instances are only created
+ * when they are requested via {@link GameBoard#getCell(int, int)}.
+ * </p>
+ */
+public final class MappedGameStateSerializer {
+
+    private MappedGameStateSerializer() {
+    }
+
+    /**
+     * Serializes the specified {@link GameState} object to an output file which can be memory-mapped.
+     *
+     * @param gameState      The game state instance to write to the file.
+     * @param outputFile     The file to write to.
+     * @param includeMoveLog Whether to include the moves which can be undone.
+     * @return {@code outputFile}.
+     * @throws FileAlreadyExistsException if a file or directory already exists with the same path as
+     *                                    {@code outputFile}.
+     */
+    @NotNull
+    public static Path writeTo(@NotNull final GameState gameState,
+                               @NotNull final Path outputFile,
+                               final boolean includeMoveLog) throws FileAlreadyExistsException {
+        return BinaryGameStateSerializer.writeTo(gameState, outputFile, includeMoveLog, true);
+    }
+
+    /**
+     * Loads an input file by memory-mapping it.
+     *
+     * <p>
+     * Files which are not written by {@link #writeTo(GameState, Path, boolean)}, including compressed files, are still
+     * accepted, but are decoded into a copy on the heap as in {@link GameStateSerializer#loadFrom(Path)}. This also
+     * applies when the file cannot be opened for writing, which is required by the operating system to map a file
+     * privately.
+     * </p>
+     *
+     * @param inputFile The input file to read from.
+     * @return An instance of {@link GameState} created from deserializing {@code inputFile}.
+     * @throws FileNotFoundException    if {@code inputFile} does not exist.
+     * @throws IllegalArgumentException if {@code inputFile} is not a valid game file.
+     */
+    @NotNull
+    public static GameState loadFrom(@NotNull final Path inputFile) throws FileNotFoundException {
+        Objects.requireNonNull(inputFile);
+
+        if (!Files.isRegularFile(inputFile)) {
+            throw new FileNotFoundException(inputFile.toString());
+        }
+
+        final MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(inputFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Game file is too large to be mapped: " + inputFile);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size());
+        } catch (final AccessDeniedException e) {
+            return GameStateSerializer.loadFrom(inputFile);
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (!BinaryGameStateSerializer.hasMagic(buffer)) {
+            return GameStateSerializer.loadFrom(inputFile);
+        }
+
+        try {
+            final var header = BinaryGameStateSerializer.readHeader(buffer);
+            if (!header.hasByteCells()) {
+                return BinaryGameStateSerializer.readFrom(buffer.rewind());
+            }
+            return loadMapped(buffer, header);
+        } catch (final BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary game file is truncated", e);
+        }
+    }
+
+    /**
+     * Creates a {@link GameState} instance backed by a mapped file with one byte per cell.
+     *
+     * @param buffer The mapped file, positioned at the first cell.
+     * @param header The header of the file.
+     * @return An instance of {@link GameState} backed by {@code buffer}.
+     * @throws BufferUnderflowException if {@code buffer} ends before the serialized game state.
+     * @throws IllegalArgumentException if the cells do not match the summary in {@code header}.
+     */
+    @NotNull
+    private static GameState loadMapped(@NotNull final MappedByteBuffer buffer,
+                                        @NotNull final BinaryGameStateSerializer.Header header) {
+        final var numCells = header.numCells();
+        if (buffer.remaining() < numCells) {
+            throw new BufferUnderflowException();
+        }
+
+        final var cells = buffer.slice(buffer.position(), numCells);
+        buffer.position(buffer.position() + numCells);
+        checkCells(cells, header);
+        final var board = PackedBoard.wrap(
+                header.numRows(),
+                header.numCols(),
+                cells,
+                header.numGems(),
+                header.numExtraLives(),
+                header.zobristHash()
+        );
+
+        final var moves = header.hasMoveLog()
+                ? BinaryGameStateSerializer.readMoveLog(buffer, board)
+                : List.<MoveResult>of();
+        return header.restore(GameBoard.fromValidatedPackedBoard(board, header.playerIndex()), moves);
+    }
+
+    /**
+     * Checks the mapped cells of a file against the summary in its header, reading each cell once in place.
+     *
+     * @param cells  The mapped cells.
+     * @param header The header of the file.
+     * @throws IllegalArgumentException if any cell is not a valid packed cell, or the entity counts, the location of
+     *                                  the player or the Zobrist hash in {@code header} do not match the cells.
+     */
+    private static void checkCells(@NotNull final ByteBuffer cells,
+                                   @NotNull final BinaryGameStateSerializer.Header header) {
+        int numGems = 0;
+        int numExtraLives = 0;
+        int numPlayers = 0;
+        long zobristHash = 0;
+        for (int i = 0; i < cells.limit(); ++i) {
+            final var packedCell = cells.get(i);
+            BinaryGameStateSerializer.checkPackedCell(packedCell);
+
+            final var entityKind = PackedBoard.entityKindOf(packedCell);
+            if (entityKind == PackedBoard.ENTITY_GEM) {
+                ++numGems;
+            } else if (entityKind == PackedBoard.ENTITY_EXTRA_LIFE) {
+                ++numExtraLives;
+            } else if (entityKind == PackedBoard.ENTITY_PLAYER) {
+                if (i != header.playerIndex()) {
+                    throw new IllegalArgumentException("Player is not at the location in the game file summary");
+                }
+                ++numPlayers;
+            }
+            zobristHash ^= PackedBoard.zobristKey(i, packedCell);
+        }
+
+        if (numPlayers != 1) {
+            throw new IllegalArgumentException("Game board has no player");
+        }
+        if (numGems != header.numGems() || numExtraLives != header.numExtraLives()) {
+            throw new IllegalArgumentException("Entity counts do not match the game file summary");
+        }
+        if (zobristHash != header.zobristHash()) {
+            throw new IllegalArgumentException("Zobrist hash does not match the game file summary");
+        }
+    }
+}
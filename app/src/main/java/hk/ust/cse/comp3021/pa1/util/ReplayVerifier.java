@@ -0,0 +1,555 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.model.MutableMoveResult;
+import hk.ust.cse.comp3021.pa1.model.PackedBoard;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays logs of player moves against a level and checks the scores claimed by the logs.
+ *
+ * <p>
+ * The level is captured once when the verifier is created. Each log is replayed on its own copy of the level, which is
+ * created by copying the packed cells of the level without parsing or validating the level again.
+ * </p>
+ * <p>
+ * Logs are replayed on a fixed number of worker threads owned by the verifier. Lines of logs are handed to the workers
+ * in chunks, and each worker formats the results of its chunk, so that the calling thread only reads the logs and
+ * writes the results. At most twice as many chunks as there are workers are in flight at any time, so that results are
+ * streamed out as they complete instead of being held in memory until every log is replayed. Results are written in the
+ * order in which their chunks complete, which may differ from the order of the logs.
+ * </p>
+ */
+public final class ReplayVerifier implements AutoCloseable {
+
+    /**
+     * The header line of a file of logs, which is skipped if present.
+     *
+     * <p>
+     * Each line of a file of logs contains the comma-separated fields of a {@link MoveLog}: The identifier of the log,
+     * the moves, the claimed score, and whether the game is claimed to be won ({@code true} or {@code false}), e.g.
+     * {@code game-1,RRDLUU,42,true}. Blank lines and lines starting with {@code #} are also skipped.
+     * </p>
+     */
+    public static final String LOG_HEADER = "id,moves,score,won";
+
+    /**
+     * The character representing an undo in the moves of a log.
+     */
+    public static final char UNDO = 'Z';
+
+    /**
+     * The number of lines of logs in each chunk handed to a worker.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    /**
+     * Format of the results.
+     */
+    public enum Format {
+        /**
+         * Comma-separated values, with a header line.
+         */
+        CSV,
+        /**
+         * One JSON object per line.
+         */
+        JSONL
+    }
+
+    /**
+     * The outcome of replaying a log.
+     */
+    public enum Status {
+        /**
+         * The final score and win status match the claims of the log.
+         */
+        VERIFIED,
+        /**
+         * The final score or win status does not match the claims of the log.
+         */
+        MISMATCH,
+        /**
+         * The log could not be parsed.
+         */
+        MALFORMED
+    }
+
+    /**
+     * A log of player moves.
+     *
+     * @param id           The identifier of the log. Must not contain commas.
+     * @param moves        The moves of the player, each given by the first letter of a {@link Direction}, or
+     *                     {@link #UNDO} for an undo. Letters are case-insensitive.
+     * @param claimedScore The score claimed at the end of the moves.
+     * @param claimedWon   Whether the game is claimed to be won at the end of the moves.
+     */
+    public record MoveLog(@NotNull String id, @NotNull String moves, int claimedScore, boolean claimedWon) {
+
+        /**
+         * Parses a line of a file of logs.
+         *
+         * @param line The line to parse, as described in {@link #LOG_HEADER}.
+         * @return The parsed log.
+         * @throws IllegalArgumentException if the line is not a valid log.
+         */
+        @NotNull
+        public static MoveLog parse(@NotNull final String line) {
+            final var fields = line.split(",", -1);
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Expected 4 fields but got " + fields.length);
+            }
+
+            final var moves = fields[1].strip();
+            for (int i = 0; i < moves.length(); ++i) {
+                if (Character.toUpperCase(moves.charAt(i)) != UNDO && toDirection(moves.charAt(i)) == null) {
+                    throw new IllegalArgumentException("Invalid move at index " + i + ": " + moves.charAt(i));
+                }
+            }
+
+            final int claimedScore;
+            try {
+                claimedScore = Integer.parseInt(fields[2].strip());
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid score: " + fields[2], e);
+            }
+
+            final var won = fields[3].strip();
+            if (!won.equalsIgnoreCase("true") && !won.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("Invalid win status: " + fields[3]);
+            }
+            return new MoveLog(fields[0].strip(), moves, claimedScore, Boolean.parseBoolean(won));
+        }
+    }
+
+    /**
+     * The result of replaying a log.
+     *
+     * @param id           The identifier of the log.
+     * @param status       The outcome of the replay.
+     * @param numMoves     The number of moves replayed, including undos and invalid moves. Moves after the game is
+     *                     won or lost are not replayed.
+     * @param score        The final score of the replay.
+     * @param won          Whether the game is won at the end of the replay.
+     * @param claimedScore The score claimed by the log.
+     * @param claimedWon   Whether the game is claimed to be won by the log.
+     * @param error        Why the log is malformed, or {@code null} if the log was replayed.
+     */
+    public record Result(@NotNull String id,
+                         @NotNull Status status,
+                         int numMoves,
+                         int score,
+                         boolean won,
+                         int claimedScore,
+                         boolean claimedWon,
+                         @Nullable String error) {
+    }
+
+    /**
+     * Summary of a run of {@link #verify(BufferedReader, Writer, Format)}.
+     *
+     * @param numLogs       The number of logs processed.
+     * @param numVerified   The number of logs whose claims match the replay.
+     * @param numMismatched The number of logs whose claims do not match the replay.
+     * @param numMalformed  The number of logs which could not be parsed.
+     * @param numMoves      The total number of moves replayed.
+     * @param elapsedNanos  The time taken, in nanoseconds.
+     */
+    public record Report(long numLogs,
+                         long numVerified,
+                         long numMismatched,
+                         long numMalformed,
+                         long numMoves,
+                         long elapsedNanos) {
+
+        /**
+         * @return The number of logs processed per second.
+         */
+        public double logsPerSecond() {
+            return elapsedNanos == 0 ? 0 : numLogs * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @return The number of moves replayed per second.
+         */
+        public double movesPerSecond() {
+            return elapsedNanos == 0 ? 0 : numMoves * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * The packed cells of the level, copied for each replay.
+     */
+    @NotNull
+    private final byte[] cells;
+
+    private final int numRows;
+
+    private final int numCols;
+
+    private final int numGems;
+
+    private final int numExtraLives;
+
+    private final long zobristHash;
+
+    /**
+     * Index of the cell containing the player.
+     */
+    private final int playerIndex;
+
+    /**
+     * The number of lives at the start of the level, or {@link GameState#UNLIMITED_LIVES}.
+     */
+    private final int numLives;
+
+    /**
+     * The worker threads.
+     */
+    @NotNull
+    private final ExecutorService executor;
+
+    /**
+     * Maximum number of chunks in flight at any time.
+     */
+    private final int maxInFlight;
+
+    /**
+     * Creates an instance with one worker per available processor.
+     *
+     * @param level The level to replay the logs on. The current board and number of lives of the game are used as the
+     *              start of each replay, and the other counters of the game start from zero.
+     */
+    public ReplayVerifier(@NotNull final GameState level) {
+        this(level, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param level       The level to replay the logs on. The current board and number of lives of the game are used
+     *                    as the start of each replay, and the other counters of the game start from zero.
+     * @param parallelism The number of worker threads.
+     * @throws IllegalArgumentException if {@code parallelism} is not positive.
+     */
+    public ReplayVerifier(@NotNull final GameState level, final int parallelism) {
+        Objects.requireNonNull(level);
+
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        final var gameBoard = level.getGameBoard();
+        final var board = gameBoard.getPackedBoard();
+        this.numRows = board.getNumRows();
+        this.numCols = board.getNumCols();
+        this.cells = new byte[numRows * numCols];
+        for (int i = 0; i < cells.length; ++i) {
+            cells[i] = board.get(i);
+        }
+        this.numGems = board.getNumGems();
+        this.numExtraLives = board.getNumExtraLives();
+        this.zobristHash = board.getZobristHash();
+        final var player = Objects.requireNonNull(gameBoard.getPlayer().getOwner()).getPosition();
+        this.playerIndex = board.indexOf(player.row(), player.col());
+        this.numLives = level.hasUnlimitedLives() ? GameState.UNLIMITED_LIVES : level.getNumLives();
+
+        final var threadId = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final var thread = new Thread(runnable, "replay-verifier-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlight = 2 * parallelism;
+    }
+
+    /**
+     * Replays a single log on the calling thread.
+     *
+     * @param log The log to replay.
+     * @return The result of the replay.
+     */
+    @NotNull
+    public Result replay(@NotNull final MoveLog log) {
+        return replay(log, new MutableMoveResult());
+    }
+
+    /**
+     * Replays all logs read from a file of logs, and writes the result of each log.
+     *
+     * @param logs   The logs to replay, one per line as described in {@link #LOG_HEADER}.
+     * @param out    The writer to write the results to. The writer is not flushed or closed.
+     * @param format The format of the results.
+     * @return The summary of the run.
+     * @throws IOException if the logs cannot be read or the results cannot be written.
+     */
+    @NotNull
+    public Report verify(@NotNull final BufferedReader logs, @NotNull final Writer out, @NotNull final Format format)
+            throws IOException {
+        Objects.requireNonNull(logs);
+        Objects.requireNonNull(out);
+        Objects.requireNonNull(format);
+
+        final var startTime = System.nanoTime();
+        if (format == Format.CSV) {
+            out.write("id,status,num_moves,score,won,claimed_score,claimed_won,error");
+            out.write(System.lineSeparator());
+        }
+
+        final CompletionService<Chunk> completed = new ExecutorCompletionService<>(executor);
+        final var inFlight = new ArrayList<Future<Chunk>>(maxInFlight);
+        final var total = new Chunk();
+        try {
+            var endOfLogs = false;
+            while (!endOfLogs || !inFlight.isEmpty()) {
+                while (!endOfLogs && inFlight.size() < maxInFlight) {
+                    final var lines = readChunk(logs);
+                    endOfLogs = lines.size() < CHUNK_SIZE;
+                    if (!lines.isEmpty()) {
+                        inFlight.add(completed.submit(() -> process(lines, format)));
+                    }
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+
+                final var future = completed.take();
+                inFlight.remove(future);
+                final var chunk = future.get();
+                out.append(chunk.text);
+                total.add(chunk);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while replaying logs");
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            for (final var future : inFlight) {
+                future.cancel(true);
+            }
+        }
+
+        return new Report(total.numVerified + total.numMismatched + total.numMalformed, total.numVerified,
+                total.numMismatched, total.numMalformed, total.numMoves, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stops the worker threads after the chunks in flight are processed.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Reads up to {@link #CHUNK_SIZE} lines of logs, skipping the header, comments and blank lines.
+     *
+     * @param logs The reader of the logs.
+     * @return The lines read. Fewer than {@link #CHUNK_SIZE} lines are only returned at the end of the logs.
+     */
+    @NotNull
+    private static List<String> readChunk(@NotNull final BufferedReader logs) throws IOException {
+        final var lines = new ArrayList<String>(CHUNK_SIZE);
+        while (lines.size() < CHUNK_SIZE) {
+            final var line = logs.readLine();
+            if (line == null) {
+                break;
+            }
+            if (!line.isBlank() && !line.startsWith("#") && !line.equals(LOG_HEADER)) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Replays and formats a chunk of logs.
+     *
+     * @param lines  The lines of logs.
+     * @param format The format of the results.
+     * @return The formatted results and the counts of the chunk.
+     */
+    @NotNull
+    private Chunk process(@NotNull final List<String> lines, @NotNull final Format format) {
+        final var chunk = new Chunk();
+        final var moveResult = new MutableMoveResult();
+        for (final var line : lines) {
+            Result result;
+            try {
+                result = replay(MoveLog.parse(line), moveResult);
+            } catch (final IllegalArgumentException e) {
+                final var comma = line.indexOf(',');
+                result = new Result(comma < 0 ? line : line.substring(0, comma), Status.MALFORMED, 0, 0, false, 0,
+                        false, e.getMessage());
+            }
+
+            switch (result.status()) {
+                case VERIFIED -> ++chunk.numVerified;
+                case MISMATCH -> ++chunk.numMismatched;
+                case MALFORMED -> ++chunk.numMalformed;
+                default -> throw new IllegalStateException();
+            }
+            chunk.numMoves += result.numMoves();
+            if (format == Format.CSV) {
+                appendCsv(result, chunk.text);
+            } else {
+                appendJson(result, chunk.text);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Replays a log on a new copy of the level.
+     *
+     * @param log        The log to replay.
+     * @param moveResult The instance to write the result of each move into.
+     * @return The result of the replay.
+     */
+    @NotNull
+    private Result replay(@NotNull final MoveLog log, @NotNull final MutableMoveResult moveResult) {
+        final var gameState = newGameState();
+        final var controller = new GameController(gameState);
+
+        final var moves = log.moves();
+        int numMoves = 0;
+        while (numMoves < moves.length() && !gameState.hasWon() && !gameState.hasLost()) {
+            final var move = moves.charAt(numMoves);
+            final var direction = toDirection(move);
+            if (direction != null) {
+                controller.processMove(direction, moveResult);
+            } else if (Character.toUpperCase(move) == UNDO) {
+                controller.processUndo();
+            } else {
+                throw new IllegalArgumentException("Invalid move at index " + numMoves + ": " + move);
+            }
+            ++numMoves;
+        }
+
+        final var score = gameState.getScore();
+        final var won = gameState.hasWon();
+        final var status = score == log.claimedScore() && won == log.claimedWon() ? Status.VERIFIED : Status.MISMATCH;
+        return new Result(log.id(), status, numMoves, score, won, log.claimedScore(), log.claimedWon(), null);
+    }
+
+    /**
+     * @return A new game on a copy of the level.
+     */
+    @NotNull
+    private GameState newGameState() {
+        final var board = PackedBoard.wrap(numRows, numCols, ByteBuffer.wrap(cells.clone()), numGems, numExtraLives,
+                zobristHash);
+        final var gameBoard = GameBoard.fromValidatedPackedBoard(board, playerIndex);
+        return numLives < 0 ? new GameState(gameBoard) : new GameState(gameBoard, numLives);
+    }
+
+    /**
+     * @param move A character of the moves of a log.
+     * @return The direction whose first letter is {@code move}, or {@code null} if there is none.
+     */
+    @Nullable
+    private static Direction toDirection(final char move) {
+        return switch (Character.toUpperCase(move)) {
+            case 'U' -> Direction.UP;
+            case 'D' -> Direction.DOWN;
+            case 'L' -> Direction.LEFT;
+            case 'R' -> Direction.RIGHT;
+            default -> null;
+        };
+    }
+
+    private static void appendCsv(@NotNull final Result result, @NotNull final StringBuilder out) {
+        out.append(result.id()).append(',')
+                .append(result.status()).append(',')
+                .append(result.numMoves()).append(',')
+                .append(result.score()).append(',')
+                .append(result.won()).append(',')
+                .append(result.claimedScore()).append(',')
+                .append(result.claimedWon()).append(',');
+        if (result.error() != null) {
+            out.append('"').append(result.error().replace("\"", "\"\"")).append('"');
+        }
+        out.append(System.lineSeparator());
+    }
+
+    private static void appendJson(@NotNull final Result result, @NotNull final StringBuilder out) {
+        out.append("{\"id\":");
+        appendJsonString(result.id(), out);
+        out.append(",\"status\":\"").append(result.status())
+                .append("\",\"numMoves\":").append(result.numMoves())
+                .append(",\"score\":").append(result.score())
+                .append(",\"won\":").append(result.won())
+                .append(",\"claimedScore\":").append(result.claimedScore())
+                .append(",\"claimedWon\":").append(result.claimedWon());
+        if (result.error() != null) {
+            out.append(",\"error\":");
+            appendJsonString(result.error(), out);
+        }
+        out.append('}').append(System.lineSeparator());
+    }
+
+    private static void appendJsonString(@NotNull final String str, @NotNull final StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < str.length(); ++i) {
+            final var c = str.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * The formatted results and the counts of a chunk of logs.
+     */
+    private static final class Chunk {
+
+        @NotNull
+        final StringBuilder text = new StringBuilder();
+
+        long numVerified = 0;
+
+        long numMismatched = 0;
+
+        long numMalformed = 0;
+
+        long numMoves = 0;
+
+        /**
+         * Adds the counts of another chunk to this chunk.
+         *
+         * @param other The chunk to add.
+         */
+        void add(@NotNull final Chunk other) {
+            numVerified += other.numVerified;
+            numMismatched += other.numMismatched;
+            numMalformed += other.numMalformed;
+            numMoves += other.numMoves;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.model.PackedBoard;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * Parser for the text format of {@link GameStateSerializer}, which decodes a {@link ReadableByteChannel} directly into
+ * a {@link PackedBoard}.
+ *
+ * <p>
+ * The channel is read through a single reusable buffer, and each byte is decoded into the packed board as soon as it
+ * is read; No {@link String} is created per line and no {@link hk.ust.cse.comp3021.pa1.model.Position} is created per
+ * cell. The number of players, gems and extra lives and the Zobrist hash of the board are computed while reading, so
+ * that a second player is reported as soon as it is read, and the board does not need to be scanned again before the
+ * reachability of gems is validated.
+ * </p>
+ * <p>
+ * Rows may be terminated by {@code \n}, {@code \r\n} or {@code \r}, and the last row does not need to be terminated.
+ * Blank lines after the last row are ignored. Errors are reported as {@link IllegalArgumentException} with the line
+ * number in the file, and the row and column of the cell for errors in the board; Errors in the file itself are
+ * reported as {@link GameFileException}.
+ * </p>
+ * <p>
+ * An instance can be reused to parse multiple files, but must not be used by multiple threads at the same time.
+ * </p>
+ */
+public final class StreamingGameStateParser {
+
+    /**
+     * Default size of the read buffer in bytes.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Value in {@link #CELL_TABLE} for a byte which does not represent a cell.
+     */
+    private static final byte NOT_A_CELL = -1;
+
+    /**
+     * Packed cell represented by each byte, or {@link #NOT_A_CELL}.
+     */
+    private static final byte[] CELL_TABLE = new byte[256];
+
+    static {
+        for (int i = 0; i < CELL_TABLE.length; ++i) {
+            try {
+                CELL_TABLE[i] = GameStateSerializer.fromCellChar((char) i);
+            } catch (final IllegalArgumentException e) {
+                CELL_TABLE[i] = NOT_A_CELL;
+            }
+        }
+    }
+
+    /**
+     * The reusable read buffer.
+     */
+    @NotNull
+    private final ByteBuffer buffer;
+
+    /**
+     * The channel being parsed.
+     */
+    private ReadableByteChannel channel;
+
+    /**
+     * Whether {@link #channel} has reached the end of the stream.
+     */
+    private boolean endOfStream;
+
+    /**
+     * The line number of the next byte, starting from {@code 1}.
+     */
+    private int lineNumber;
+
+    /**
+     * Creates an instance with a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+     */
+    public StreamingGameStateParser() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param bufferSize The size of the read buffer in bytes.
+     * @throws IllegalArgumentException if {@code bufferSize} is not positive.
+     */
+    public StreamingGameStateParser(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Parses a game from the channel.
+     *
+     * @param channel The channel providing the serialized version of the game state. It is read until the end of the
+     *                stream.
+     * @return An instance of {@link GameState} created from deserializing {@code channel}.
+     * @throws IOException              If an I/O error occurred while reading from {@code channel}.
+     * @throws IllegalArgumentException if the content of {@code channel} is malformed, or does not describe a valid
+     *                                  game board.
+     * @apiNote The caller is responsible for closing {@code channel}.
+     */
+    @NotNull
+    public GameState parse(@NotNull final ReadableByteChannel channel) throws IOException {
+        final var parsed = parseBoard(channel);
+        final var gameBoard = GameBoard.fromPackedBoard(parsed.board());
+        return parsed.numLives() < 0 ? new GameState(gameBoard) : new GameState(gameBoard, parsed.numLives());
+    }
+
+    /**
+     * A board parsed from a file, which is not validated yet.
+     *
+     * @param board       The packed representation of the board.
+     * @param numLives    The number of lives, or {@code -1} for unlimited lives.
+     * @param playerIndex Index of the cell of the player, or {@code -1} if there is no player.
+     */
+    record ParsedBoard(@NotNull PackedBoard board, int numLives, int playerIndex) {
+    }
+
+    /**
+     * Parses a board from the channel, without validating the board or creating a {@link GameBoard}.
+     *
+     * <p>
+     * Errors in the format of the file, unknown cells and second players are still reported while parsing.
+     * </p>
+     *
+     * @param channel The channel providing the serialized version of the game state. It is read until the end of the
+     *                stream.
+     * @return The parsed board.
+     * @throws IOException       If an I/O error occurred while reading from {@code channel}.
+     * @throws GameFileException if the content of {@code channel} is malformed.
+     */
+    @NotNull
+    ParsedBoard parseBoard(@NotNull final ReadableByteChannel channel) throws IOException {
+        this.channel = Objects.requireNonNull(channel);
+        this.endOfStream = false;
+        this.lineNumber = 1;
+        buffer.clear().flip();
+
+        try {
+            return parseBoard();
+        } finally {
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Implementation of {@link #parseBoard(ReadableByteChannel)}.
+     *
+     * @return The parsed board.
+     * @throws IOException If an I/O error occurred while reading from {@link #channel}.
+     */
+    @NotNull
+    private ParsedBoard parseBoard() throws IOException {
+        final var numRows = parseHeaderLine("number of rows", false);
+        final var numCols = parseHeaderLine("number of columns", false);
+        final var numLives = parseHeaderLine("number of lives", true);
+
+        if (numRows <= 0 || numCols <= 0 || (long) numRows * numCols > Integer.MAX_VALUE) {
+            throw new GameFileException(GameFileException.Kind.MALFORMED, -1, -1,
+                    "Invalid board size: " + numRows + "x" + numCols);
+        }
+
+        final var data = new byte[numRows * numCols];
+        int numGems = 0;
+        int numExtraLives = 0;
+        int playerIndex = -1;
+        long zobristHash = 0;
+
+        for (int r = 0; r < numRows; ++r) {
+            final var rowStart = r * numCols;
+            int c = 0;
+            while (true) {
+                final var b = next();
+                if (b < 0 || b == '\n' || b == '\r') {
+                    if (c < numCols) {
+                        throw error(GameFileException.Kind.MALFORMED, r, c,
+                                "Row has " + c + " cells, but expected " + numCols);
+                    }
+                    endLine(b);
+                    break;
+                }
+                if (c == numCols) {
+                    throw error(GameFileException.Kind.MALFORMED, r, c, "Row has more than " + numCols + " cells");
+                }
+
+                final var packedCell = CELL_TABLE[b];
+                if (packedCell == NOT_A_CELL) {
+                    throw error(GameFileException.Kind.UNKNOWN_CELL, r, c, "Unknown cell representation: " + (char) b);
+                }
+
+                final var index = rowStart + c;
+                switch (PackedBoard.entityKindOf(packedCell)) {
+                    case PackedBoard.ENTITY_GEM -> ++numGems;
+                    case PackedBoard.ENTITY_EXTRA_LIFE -> ++numExtraLives;
+                    case PackedBoard.ENTITY_PLAYER -> {
+                        if (playerIndex >= 0) {
+                            throw error(GameFileException.Kind.PLAYER_COUNT, r, c,
+                                    "Second player found; The first player is at row "
+                                    + playerIndex / numCols + ", column " + playerIndex % numCols);
+                        }
+                        playerIndex = index;
+                    }
+                    default -> {
+                    }
+                }
+                data[index] = packedCell;
+                zobristHash ^= PackedBoard.zobristKey(index, packedCell);
+                ++c;
+            }
+        }
+
+        // Only blank lines may follow the board
+        for (int b = next(); b >= 0; b = next()) {
+            if (b != '\n' && b != '\r' && b != ' ' && b != '\t') {
+                throw new GameFileException(GameFileException.Kind.MALFORMED, lineNumber, -1,
+                        "Line " + lineNumber + ": Unexpected content after the board");
+            }
+            if (b == '\n' || b == '\r') {
+                endLine(b);
+            }
+        }
+
+        final var packedBoard = PackedBoard.wrap(numRows, numCols, ByteBuffer.wrap(data), numGems, numExtraLives,
+                zobristHash);
+        return new ParsedBoard(packedBoard, numLives, playerIndex);
+    }
+
+    /**
+     * Parses a line containing a single integer.
+     *
+     * @param name       The name of the value, used in error messages.
+     * @param allowBlank Whether the line may be blank, in which case {@code -1} is returned.
+     * @return The parsed integer.
+     * @throws IOException If an I/O error occurred while reading from {@link #channel}.
+     */
+    private int parseHeaderLine(@NotNull final String name, final boolean allowBlank) throws IOException {
+        final var line = lineNumber;
+        long value = 0;
+        boolean negative = false;
+        int numDigits = 0;
+        int column = 0;
+        boolean blank = true;
+
+        while (true) {
+            final var b = next();
+            if (b < 0 || b == '\n' || b == '\r') {
+                endLine(b);
+                break;
+            }
+
+            if (b == ' ' || b == '\t') {
+                if (!blank) {
+                    throw headerError(name, line, column);
+                }
+            } else if ((b == '-' || b == '+') && blank) {
+                negative = b == '-';
+                blank = false;
+            } else if (b >= '0' && b <= '9') {
+                blank = false;
+                value = value * 10 + (b - '0');
+                if (++numDigits > 10 || value > (long) Integer.MAX_VALUE + 1) {
+                    throw new GameFileException(GameFileException.Kind.MALFORMED, line, -1,
+                            "Line " + line + ": The " + name + " is too large");
+                }
+            } else {
+                throw headerError(name, line, column);
+            }
+            ++column;
+        }
+
+        if (numDigits == 0) {
+            if (blank && allowBlank) {
+                return -1;
+            }
+            throw new GameFileException(GameFileException.Kind.MALFORMED, line, -1, "Line " + line + ": Missing " + name);
+        }
+        final var signed = negative ? -value : value;
+        if (signed > Integer.MAX_VALUE) {
+            throw new GameFileException(GameFileException.Kind.MALFORMED, line, -1,
+                    "Line " + line + ": The " + name + " is too large");
+        }
+        return (int) signed;
+    }
+
+    /**
+     * @param name   The name of the value in the header line.
+     * @param line   The line number of the header line.
+     * @param column The column of the malformed character, starting from {@code 0}.
+     * @return The exception to throw for a malformed header line.
+     */
+    @NotNull
+    private static GameFileException headerError(@NotNull final String name, final int line, final int column) {
+        return new GameFileException(GameFileException.Kind.MALFORMED, line, column,
+                "Line " + line + ", column " + column + ": Malformed " + name);
+    }
+
+    /**
+     * @param kind    The kind of the error.
+     * @param r       Row of the malformed cell.
+     * @param c       Column of the malformed cell.
+     * @param message The description of the error.
+     * @return The exception to throw for a malformed row of the board.
+     */
+    @NotNull
+    private GameFileException error(@NotNull final GameFileException.Kind kind,
+                                    final int r,
+                                    final int c,
+                                    @NotNull final String message) {
+        return new GameFileException(kind, lineNumber, c,
+                "Line " + lineNumber + " (row " + r + ", column " + c + "): " + message);
+    }
+
+    /**
+     * Consumes the end of a line.
+     *
+     * @param b The byte which ended the line, or {@code -1} if the line ended at the end of the stream.
+     * @throws IOException If an I/O error occurred while reading from {@link #channel}.
+     */
+    private void endLine(final int b) throws IOException {
+        if (b < 0) {
+            return;
+        }
+        if (b == '\r' && peek() == '\n') {
+            next();
+        }
+        ++lineNumber;
+    }
+
+    /**
+     * @return The next byte of the channel as an unsigned value, or {@code -1} at the end of the stream.
+     * @throws IOException If an I/O error occurred while reading from {@link #channel}.
+     */
+    private int next() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return Byte.toUnsignedInt(buffer.get());
+    }
+
+    /**
+     * @return The next byte of the channel as an unsigned value without consuming it, or {@code -1} at the end of the
+     * stream.
+     * @throws IOException If an I/O error occurred while reading from {@link #channel}.
+     */
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return Byte.toUnsignedInt(buffer.get(buffer.position()));
+    }
+
+    /**
+     * Refills the buffer from the channel.
+     *
+     * @return Whether any byte is available in the buffer.
+     * @throws IOException If an I/O error occurred while reading from {@link #channel}.
+     */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int numRead = 0;
+        while (!endOfStream && numRead == 0) {
+            numRead = channel.read(buffer);
+            if (numRead < 0) {
+                endOfStream = true;
+            }
+        }
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+}
@@ -0,0 +1,64 @@
+package hk.ust.cse.comp3021.pa1.view;
+
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Characters of packed cells, so that a board can be rendered without creating its {@link Cell} instances.
+ *
+ * <p>
+ * The characters are taken from the {@link BoardElement} implementations, so they always match
+ * {@link Cell#toASCIIChar()} and {@link Cell#toUnicodeChar()} of the same cell.
+ * </p>
+ */
+final class CellChars {
+
+    /**
+     * ASCII character of each packed cell, indexed by the unsigned value of the packed cell.
+     */
+    private static final char[] ASCII_CHARS = new char[256];
+
+    /**
+     * Unicode character of each packed cell, indexed by the unsigned value of the packed cell.
+     */
+    private static final char[] UNICODE_CHARS = new char[256];
+
+    static {
+        final var position = new Position(0, 0);
+        final BoardElement[] entities = {null, new Gem(), new ExtraLife(), new Mine(), new Player()};
+        final BoardElement wall = new Wall(position);
+        final BoardElement stop = new StopCell(position);
+        final BoardElement empty = new EntityCell(position);
+
+        for (int cellKind = PackedBoard.CELL_EMPTY; cellKind <= PackedBoard.CELL_WALL; ++cellKind) {
+            for (int entityKind = PackedBoard.ENTITY_NONE; entityKind <= PackedBoard.ENTITY_PLAYER; ++entityKind) {
+                final BoardElement element;
+                if (cellKind == PackedBoard.CELL_WALL) {
+                    element = wall;
+                } else if (entityKind != PackedBoard.ENTITY_NONE) {
+                    // Entity takes precedence over the cell, as in EntityCell and StopCell
+                    element = entities[entityKind];
+                } else {
+                    element = cellKind == PackedBoard.CELL_STOP ? stop : empty;
+                }
+
+                final var index = Byte.toUnsignedInt(PackedBoard.pack(cellKind, entityKind));
+                ASCII_CHARS[index] = element.toASCIIChar();
+                UNICODE_CHARS[index] = element.toUnicodeChar();
+            }
+        }
+    }
+
+    private CellChars() {
+    }
+
+    /**
+     * @param useUnicodeChars Whether to return the Unicode characters instead of the ASCII characters.
+     * @return The character of each packed cell, indexed by the unsigned value of the packed cell. The array must not
+     * be modified.
+     */
+    @NotNull
+    static char[] table(final boolean useUnicodeChars) {
+        return useUnicodeChars ? UNICODE_CHARS : ASCII_CHARS;
+    }
+}
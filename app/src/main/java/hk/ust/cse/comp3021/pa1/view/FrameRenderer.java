@@ -0,0 +1,176 @@
+package hk.ust.cse.comp3021.pa1.view;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Objects;
+
+/**
+ * Renders frames of a game, each written to an output stream in a single write.
+ *
+ * <p>
+ * Each frame consists of the game board followed by the statistics of the game, in the same format as
+ * {@link GameView#output(boolean)}. The frame is composed in a buffer and encoded into a byte buffer, both of which are
+ * reused across frames, and then written with a single call to {@link OutputStream#write(byte[], int, int)}.
+ * Writing to an unbuffered stream such as a {@link java.io.FileOutputStream} of {@link java.io.FileDescriptor#out}
+ * therefore costs one system call per frame.
+ * </p>
+ */
+public final class FrameRenderer {
+
+    /**
+     * How the game board is drawn in each frame.
+     */
+    public enum Mode {
+        /**
+         * Draw the whole board in every frame, as in {@link GameBoardView#output(boolean)}.
+         */
+        FULL,
+        /**
+         * Only redraw the cells which changed since the previous frame, as in {@link GameBoardView#outputDiff(boolean)}.
+         */
+        DIFF
+    }
+
+    /**
+     * The initial capacity of the frame buffers.
+     */
+    private static final int INITIAL_CAPACITY = 4096;
+
+    @NotNull
+    private final GameView view;
+
+    @NotNull
+    private final OutputStream out;
+
+    @NotNull
+    private final Mode mode;
+
+    /**
+     * The viewport of the board to render, or {@code null} to render the whole board.
+     */
+    @Nullable
+    private Viewport viewport = null;
+
+    /**
+     * Buffer of the characters of the frame being rendered.
+     */
+    @NotNull
+    private final StringBuilder frame = new StringBuilder(INITIAL_CAPACITY);
+
+    /**
+     * Encoder of the characters of the frame.
+     */
+    @NotNull
+    private final CharsetEncoder encoder;
+
+    /**
+     * Buffer of the encoded frame, grown when a frame does not fit.
+     */
+    @NotNull
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Creates an instance which encodes frames using the default charset.
+     *
+     * @param gameState The game to render.
+     * @param out       The stream to write the frames to.
+     * @param mode      How the game board is drawn in each frame.
+     */
+    public FrameRenderer(@NotNull final GameState gameState, @NotNull final OutputStream out,
+                         @NotNull final Mode mode) {
+        this(gameState, out, mode, Charset.defaultCharset());
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param gameState The game to render.
+     * @param out       The stream to write the frames to.
+     * @param mode      How the game board is drawn in each frame.
+     * @param charset   The charset to encode the frames with. Characters which cannot be encoded are replaced.
+     */
+    public FrameRenderer(@NotNull final GameState gameState, @NotNull final OutputStream out,
+                         @NotNull final Mode mode, @NotNull final Charset charset) {
+        this.view = new GameView(Objects.requireNonNull(gameState));
+        this.out = Objects.requireNonNull(out);
+        this.mode = Objects.requireNonNull(mode);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Sets the viewport of the board to render in each frame.
+     *
+     * <p>
+     * When a viewport is set, each frame only contains the part of the board inside the viewport, as in
+     * {@link GameBoardView#outputViewport(boolean, Viewport)}.
+     * </p>
+     *
+     * @param viewport The viewport to render, or {@code null} to render the whole board.
+     * @throws IllegalStateException if a viewport is set on a renderer in {@link Mode#DIFF}.
+     */
+    public void setViewport(@Nullable final Viewport viewport) {
+        if (viewport != null && mode == Mode.DIFF) {
+            throw new IllegalStateException("Viewports are not supported in diff mode");
+        }
+        this.viewport = viewport;
+    }
+
+    /**
+     * Renders the current state of the game and writes it to the output stream.
+     *
+     * @param useUnicodeChars If {@code true}, renders the board elements using Unicode characters (as opposed to ASCII
+     *                        characters).
+     */
+    public void render(final boolean useUnicodeChars) {
+        frame.setLength(0);
+        view.render(useUnicodeChars, mode == Mode.DIFF, viewport, frame);
+        encode();
+
+        try {
+            out.write(bytes.array(), 0, bytes.position());
+            out.flush();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Encodes {@link #frame} into {@link #bytes}, growing the byte buffer if necessary.
+     */
+    private void encode() {
+        final var chars = CharBuffer.wrap(frame);
+        bytes.clear();
+        encoder.reset();
+
+        // Malformed and unmappable characters are replaced, so the only results are underflow and overflow
+        var result = encoder.encode(chars, bytes, true);
+        while (result.isOverflow()) {
+            grow();
+            result = encoder.encode(chars, bytes, true);
+        }
+        result = encoder.flush(bytes);
+        while (result.isOverflow()) {
+            grow();
+            result = encoder.flush(bytes);
+        }
+    }
+
+    /**
+     * Doubles the capacity of {@link #bytes}, keeping its content.
+     */
+    private void grow() {
+        bytes.flip();
+        bytes = ByteBuffer.allocate(bytes.capacity() * 2).put(bytes);
+    }
+}
@@ -2,7 +2,9 @@ package hk.ust.cse.comp3021.pa1.view;
 
 import hk.ust.cse.comp3021.pa1.model.GameBoard;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.nio.charset.Charset;
 import java.util.Objects;
 
 /**
@@ -10,9 +12,32 @@ import java.util.Objects;
  */
 public class GameBoardView {
 
+    /**
+     * The ANSI Control Sequence Introducer.
+     */
+    private static final String CSI = "\u001B[";
+
     @NotNull
     private final GameBoard gameBoard;
 
+    /**
+     * The characters of the frame last drawn by {@link #outputDiff(boolean)} in row-major order, or {@code null} if no
+     * frame is drawn yet.
+     */
+    @Nullable
+    private char[] previousFrame = null;
+
+    /**
+     * Whether {@link #previousFrame} is drawn using Unicode characters.
+     */
+    private boolean previousUseUnicodeChars = false;
+
+    /**
+     * Buffer of the frame being drawn by {@link #outputDiff(boolean)}, reused across frames.
+     */
+    @NotNull
+    private final StringBuilder frameBuffer = new StringBuilder();
+
     /**
      * Creates a view of the provided game board.
      *
@@ -29,14 +54,156 @@ public class GameBoardView {
      *                        characters).
      */
     public void output(final boolean useUnicodeChars) {
-        for (int r = 0; r < gameBoard.getNumRows(); ++r) {
-            for (int c = 0; c < gameBoard.getNumCols(); ++c) {
-                final var cell = gameBoard.getCell(r, c);
-                final var ch = useUnicodeChars ? cell.toUnicodeChar() : cell.toASCIIChar();
+        final var out = new StringBuilder();
+        render(useUnicodeChars, out);
+        System.out.print(out);
+    }
+
+    /**
+     * Appends the textual representation of the game board, with each row followed by a line separator.
+     *
+     * @param useUnicodeChars If {@code true}, appends the board elements using Unicode characters.
+     * @param out             The buffer to append to.
+     */
+    void render(final boolean useUnicodeChars, @NotNull final StringBuilder out) {
+        final var board = gameBoard.getPackedBoard();
+        final var chars = CellChars.table(useUnicodeChars);
+
+        int index = 0;
+        for (int r = 0; r < board.getNumRows(); ++r) {
+            for (int c = 0; c < board.getNumCols(); ++c) {
+                out.append(chars[Byte.toUnsignedInt(board.get(index++))]);
+            }
+            out.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Outputs the part of the game board inside a viewport to {@link System#out}.
+     *
+     * <p>
+     * The viewport is first scrolled to follow the player, and then only the cells inside the viewport are read from the
+     * board, so that the cost of this method depends on the size of the viewport instead of the size of the board.
+     * </p>
+     *
+     * @param useUnicodeChars If {@code true}, outputs the board elements using Unicode characters (as opposed to ASCII
+     *                        characters).
+     * @param viewport        The viewport to output.
+     */
+    public void outputViewport(final boolean useUnicodeChars, @NotNull final Viewport viewport) {
+        final var out = new StringBuilder();
+        renderViewport(useUnicodeChars, viewport, out);
+        System.out.print(out);
+    }
+
+    /**
+     * Scrolls a viewport to follow the player, and appends the part of the game board inside the viewport, with each
+     * row followed by a line separator.
+     *
+     * @param useUnicodeChars If {@code true}, appends the board elements using Unicode characters.
+     * @param viewport        The viewport to append.
+     * @param out             The buffer to append to.
+     */
+    void renderViewport(final boolean useUnicodeChars, @NotNull final Viewport viewport,
+                        @NotNull final StringBuilder out) {
+        viewport.follow(gameBoard);
+
+        final var board = gameBoard.getPackedBoard();
+        final var chars = CellChars.table(useUnicodeChars);
+        final var top = viewport.getTop();
+        final var left = viewport.getLeft();
+        final var bottom = Math.min(top + viewport.getNumRows(), board.getNumRows());
+        final var right = Math.min(left + viewport.getNumCols(), board.getNumCols());
 
-                System.out.print(ch);
+        for (int r = top; r < bottom; ++r) {
+            final var rowStart = board.indexOf(r, 0);
+            for (int c = left; c < right; ++c) {
+                out.append(chars[Byte.toUnsignedInt(board.get(rowStart + c))]);
             }
-            System.out.println();
+            out.append(System.lineSeparator());
         }
     }
+
+    /**
+     * Outputs the game board to {@link System#out}, only redrawing the cells which changed since the last call.
+     *
+     * <p>
+     * The first call clears the terminal and draws the whole board at its top-left corner. Subsequent calls move the
+     * cursor to each changed cell using ANSI escape sequences and redraw only that cell, so that a move which changes a
+     * handful of cells writes a handful of bytes regardless of the size of the board. After drawing, the cursor is
+     * placed on the line below the board, and the rest of the terminal is cleared. Each frame is written to
+     * {@link System#out} in a single write.
+     * </p>
+     * <p>
+     * The terminal must support ANSI escape sequences, and nothing other than the lines after the board should be
+     * written to the terminal between calls.
+     * </p>
+     *
+     * @param useUnicodeChars If {@code true}, outputs the board elements using Unicode characters (as opposed to ASCII
+     *                        characters).
+     */
+    public void outputDiff(final boolean useUnicodeChars) {
+        frameBuffer.setLength(0);
+        renderDiff(useUnicodeChars, frameBuffer);
+
+        final var bytes = frameBuffer.toString().getBytes(Charset.defaultCharset());
+        System.out.write(bytes, 0, bytes.length);
+        System.out.flush();
+    }
+
+    /**
+     * Forgets the last frame drawn by {@link #outputDiff(boolean)}, so that the next call redraws the whole board.
+     *
+     * <p>
+     * This should be called if the terminal is written to by other means, e.g. after printing a message.
+     * </p>
+     */
+    public void invalidate() {
+        previousFrame = null;
+    }
+
+    /**
+     * Appends the escape sequences and characters which update the last drawn frame to the current game board.
+     *
+     * @param useUnicodeChars If {@code true}, draws the board elements using Unicode characters.
+     * @param out             The buffer to append to.
+     */
+    void renderDiff(final boolean useUnicodeChars, @NotNull final StringBuilder out) {
+        final var board = gameBoard.getPackedBoard();
+        final var numRows = board.getNumRows();
+        final var numCols = board.getNumCols();
+        final var chars = CellChars.table(useUnicodeChars);
+
+        final var redraw = previousFrame == null || previousUseUnicodeChars != useUnicodeChars;
+        if (redraw) {
+            previousFrame = new char[numRows * numCols];
+            previousUseUnicodeChars = useUnicodeChars;
+            out.append(CSI).append("2J").append(CSI).append('H');
+        }
+
+        final var frame = previousFrame;
+        for (int r = 0; r < numRows; ++r) {
+            // Column which the cursor is at if it is on this row, or -1 if the cursor must be moved
+            int cursorCol = redraw ? 0 : -1;
+            for (int c = 0; c < numCols; ++c) {
+                final var index = r * numCols + c;
+                final var ch = chars[Byte.toUnsignedInt(board.get(index))];
+                if (!redraw && frame[index] == ch) {
+                    continue;
+                }
+
+                frame[index] = ch;
+                if (cursorCol != c) {
+                    out.append(CSI).append(r + 1).append(';').append(c + 1).append('H');
+                }
+                out.append(ch);
+                cursorCol = c + 1;
+            }
+            if (redraw) {
+                out.append(System.lineSeparator());
+            }
+        }
+
+        out.append(CSI).append(numRows + 1).append(";1H").append(CSI).append('J');
+    }
 }
@@ -2,6 +2,7 @@ package hk.ust.cse.comp3021.pa1.view;
 
 import hk.ust.cse.comp3021.pa1.model.GameState;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 
@@ -47,17 +48,53 @@ public class GameView {
      *                        characters).
      */
     public void output(final boolean useUnicodeChars) {
-        gameBoardView.output(useUnicodeChars);
+        final var out = new StringBuilder();
+        render(useUnicodeChars, false, null, out);
+        System.out.print(out);
+    }
+
+    /**
+     * Appends the current state of the game, in the same format as {@link #output(boolean)}.
+     *
+     * @param useUnicodeChars If {@code true}, appends the board elements using Unicode characters (as opposed to ASCII
+     *                        characters).
+     * @param out             The buffer to append to.
+     */
+    public void render(final boolean useUnicodeChars, @NotNull final StringBuilder out) {
+        render(useUnicodeChars, false, null, Objects.requireNonNull(out));
+    }
+
+    /**
+     * Appends the current state of the game, in the same format as {@link #output(boolean)}.
+     *
+     * @param useUnicodeChars If {@code true}, appends the board elements using Unicode characters.
+     * @param diff            If {@code true}, appends the board as in {@link GameBoardView#outputDiff(boolean)}
+     *                        instead of in full.
+     * @param viewport        If not {@code null}, only appends the part of the board inside this viewport, as in
+     *                        {@link GameBoardView#outputViewport(boolean, Viewport)}. Must be {@code null} if
+     *                        {@code diff} is {@code true}.
+     * @param out             The buffer to append to.
+     */
+    void render(final boolean useUnicodeChars, final boolean diff, @Nullable final Viewport viewport,
+                @NotNull final StringBuilder out) {
+        if (viewport != null) {
+            gameBoardView.renderViewport(useUnicodeChars, viewport, out);
+        } else if (diff) {
+            gameBoardView.renderDiff(useUnicodeChars, out);
+        } else {
+            gameBoardView.render(useUnicodeChars, out);
+        }
 
-        System.out.println();
-        System.out.println("Number of Gems  : " + gameState.getNumGems());
-        System.out.println("Number of Moves : " + gameState.getNumMoves());
-        System.out.println("Number of Undoes: " + gameState.getMoveStack().getPopCount());
+        final var newLine = System.lineSeparator();
+        out.append(newLine);
+        out.append("Number of Gems  : ").append(gameState.getNumGems()).append(newLine);
+        out.append("Number of Moves : ").append(gameState.getNumMoves()).append(newLine);
+        out.append("Number of Undoes: ").append(gameState.getMoveStack().getPopCount()).append(newLine);
         if (!gameState.hasUnlimitedLives()) {
-            System.out.println("Number of Lives : " + gameState.getNumLives());
+            out.append("Number of Lives : ").append(gameState.getNumLives()).append(newLine);
         }
-        System.out.println("Number of Deaths: " + gameState.getNumDeaths());
-        System.out.println();
-        System.out.println("Score           : " + gameState.getScore());
+        out.append("Number of Deaths: ").append(gameState.getNumDeaths()).append(newLine);
+        out.append(newLine);
+        out.append("Score           : ").append(gameState.getScore()).append(newLine);
     }
 }
@@ -0,0 +1,144 @@
+package hk.ust.cse.comp3021.pa1.view;
+
+import hk.ust.cse.comp3021.pa1.model.GameBoard;
+import hk.ust.cse.comp3021.pa1.model.Position;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A window of a game board which follows the player.
+ *
+ * <p>
+ * The window is initially centered on the player. Afterwards, the window only scrolls when the player comes within the
+ * scroll margin of an edge of the window, and then by just enough to keep the player at the margin. The window never
+ * extends beyond the board; If the board is smaller than the window along an axis, the whole board is shown along that
+ * axis.
+ * </p>
+ */
+public final class Viewport {
+
+    /**
+     * The maximum number of rows shown.
+     */
+    private final int numRows;
+
+    /**
+     * The maximum number of columns shown.
+     */
+    private final int numCols;
+
+    /**
+     * The minimum number of rows or columns kept between the player and the edges of the window.
+     */
+    private final int margin;
+
+    /**
+     * The first row shown, or {@code -1} if the window is not placed yet.
+     */
+    private int top = -1;
+
+    /**
+     * The first column shown, or {@code -1} if the window is not placed yet.
+     */
+    private int left = -1;
+
+    /**
+     * Creates an instance.
+     *
+     * @param numRows The maximum number of rows shown.
+     * @param numCols The maximum number of columns shown.
+     * @param margin  The minimum number of rows or columns kept between the player and the edges of the window, unless
+     *                the window is at the edge of the board. Margins larger than half of the window are reduced to half
+     *                of the window.
+     * @throws IllegalArgumentException if {@code numRows} or {@code numCols} is not positive, or {@code margin} is
+     *                                  negative.
+     */
+    public Viewport(final int numRows, final int numCols, final int margin) {
+        if (numRows <= 0 || numCols <= 0) {
+            throw new IllegalArgumentException("Viewport size must be positive");
+        }
+        if (margin < 0) {
+            throw new IllegalArgumentException("Scroll margin must not be negative");
+        }
+
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.margin = margin;
+    }
+
+    /**
+     * Scrolls the window so that the player of a game board is within the margins.
+     *
+     * @param gameBoard The game board to show.
+     */
+    void follow(@NotNull final GameBoard gameBoard) {
+        final Position player = Objects.requireNonNull(gameBoard.getPlayer().getOwner()).getPosition();
+
+        top = scroll(top, player.row(), numRows, gameBoard.getNumRows());
+        left = scroll(left, player.col(), numCols, gameBoard.getNumCols());
+    }
+
+    /**
+     * Computes the new start of the window along an axis.
+     *
+     * @param start     The current start of the window, or {@code -1} if the window is not placed yet.
+     * @param player    The coordinate of the player.
+     * @param size      The maximum size of the window.
+     * @param boardSize The size of the board.
+     * @return The new start of the window.
+     */
+    private int scroll(final int start, final int player, final int size, final int boardSize) {
+        if (boardSize <= size) {
+            return 0;
+        }
+
+        final var effectiveMargin = Math.min(margin, (size - 1) / 2);
+        int newStart;
+        if (start < 0) {
+            newStart = player - size / 2;
+        } else if (player < start + effectiveMargin) {
+            newStart = player - effectiveMargin;
+        } else if (player > start + size - 1 - effectiveMargin) {
+            newStart = player - size + 1 + effectiveMargin;
+        } else {
+            newStart = start;
+        }
+        return Math.max(0, Math.min(newStart, boardSize - size));
+    }
+
+    /**
+     * @return The first row shown. Only valid after {@link #follow(GameBoard)}.
+     */
+    int getTop() {
+        return top;
+    }
+
+    /**
+     * @return The first column shown. Only valid after {@link #follow(GameBoard)}.
+     */
+    int getLeft() {
+        return left;
+    }
+
+    /**
+     * @return The maximum number of rows shown.
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return The maximum number of columns shown.
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return The minimum number of rows or columns kept between the player and the edges of the window.
+     */
+    public int getMargin() {
+        return margin;
+    }
+}
@@ -0,0 +1,174 @@
+package hk.ust.cse.comp3021.pa1;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.createGameState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GamePipelineTest {
+
+    // PMG
+    // ..S
+    private static final String LEVEL = "2\n3\n2\nPMG\n..S\n";
+
+    /**
+     * Subscriber which collects all frames, optionally blocking on each frame until released.
+     */
+    private static final class CollectingSubscriber implements Flow.Subscriber<String> {
+
+        final List<String> frames = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final CountDownLatch release;
+
+        CollectingSubscriber(final CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final String frame) {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            frames.add(frame);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Pipeline - Same As Session")
+    void testSameAsSession() throws Exception {
+        final var commands = List.of("DOWN", "jump", "", "UNDO", "DOWN", "RIGHT", "UP", "LEFT");
+
+        final var expected = new ArrayList<String>();
+        final var session = new GameSession(createGameState(LEVEL), false);
+        final var frame = new StringBuilder();
+        session.start(frame);
+        expected.add(frame.toString());
+        for (final var command : commands) {
+            if (session.isFinished()) {
+                break;
+            }
+            frame.setLength(0);
+            session.handleLine(command, frame);
+            expected.add(frame.toString());
+        }
+
+        // Buffer all frames, so that none are dropped however the subscriber is scheduled
+        final var pipeline = new GamePipeline(createGameState(LEVEL), false,
+                ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+        final var subscriber = new CollectingSubscriber(new CountDownLatch(0));
+        pipeline.subscribe(subscriber);
+        try (var publisher = new SubmissionPublisher<String>()) {
+            publisher.subscribe(pipeline);
+            commands.forEach(publisher::submit);
+
+            subscriber.done.get(5, TimeUnit.SECONDS);
+            assertEquals(expected, subscriber.frames);
+            assertTrue(pipeline.isFinished());
+            assertEquals(0, pipeline.getNumDroppedFrames());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Pipeline - Slow Subscriber Drops Frames")
+    void testSlowSubscriber() throws Exception {
+        final var executor = Executors.newCachedThreadPool();
+        try {
+            final var pipeline = new GamePipeline(createGameState(LEVEL), false, executor, 1);
+            final var release = new CountDownLatch(1);
+            final var slow = new CollectingSubscriber(release);
+            pipeline.subscribe(slow);
+
+            final var numUndoes = 100;
+            try (var publisher = new SubmissionPublisher<String>(executor, Flow.defaultBufferSize())) {
+                publisher.subscribe(pipeline);
+                for (int i = 0; i < numUndoes; ++i) {
+                    publisher.submit("UNDO");
+                }
+
+                // Commands keep being processed while the subscriber is blocked
+                final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (pipeline.getNumDroppedFrames() < numUndoes - 2 && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertTrue(pipeline.getNumDroppedFrames() >= numUndoes - 2);
+
+                publisher.submit("QUIT");
+                release.countDown();
+                slow.done.get(5, TimeUnit.SECONDS);
+            }
+
+            assertTrue(slow.frames.size() < numUndoes);
+            assertEquals(numUndoes + 1, slow.frames.size() + pipeline.getNumDroppedFrames());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Pipeline - Invalid Arguments")
+    void testInvalidArguments() throws IOException {
+        final var gameState = createGameState(LEVEL);
+        assertThrows(IllegalArgumentException.class,
+                () -> new GamePipeline(gameState, false, Runnable::run, 0));
+
+        final var pipeline = new GamePipeline(gameState, false);
+        final var cancelled = new boolean[2];
+        final var requested = new long[2];
+        for (int i = 0; i < 2; ++i) {
+            final var index = i;
+            final var subscription = new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    requested[index] += n;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled[index] = true;
+                }
+            };
+
+            if (i == 0) {
+                pipeline.onSubscribe(subscription);
+            } else {
+                assertThrows(IllegalStateException.class, () -> pipeline.onSubscribe(subscription));
+            }
+        }
+        assertArrayEquals(new long[]{1, 0}, requested);
+        assertArrayEquals(new boolean[]{false, true}, cancelled);
+    }
+}
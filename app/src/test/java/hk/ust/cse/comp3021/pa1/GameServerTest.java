@@ -0,0 +1,137 @@
+package hk.ust.cse.comp3021.pa1;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.createGameState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameServerTest {
+
+    // PMG
+    // ..S
+    private static final String LEVEL = "2\n3\n2\nPMG\n..S\n";
+
+    private GameServer server = null;
+    private Thread serverThread = null;
+
+    private void startServer() throws IOException {
+        server = new GameServer(createGameState(LEVEL),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), false);
+        serverThread = new Thread(server::run, "game-server-test");
+        serverThread.start();
+    }
+
+    private Socket connect() throws IOException {
+        final var socket = new Socket();
+        socket.connect(server.getLocalAddress());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    /**
+     * Reads from a socket until the output ends with the specified string or the connection is closed.
+     */
+    private static String readUntil(final Socket socket, final String suffix) throws IOException {
+        final InputStream in = socket.getInputStream();
+        final var out = new StringBuilder();
+        final var buffer = new byte[1024];
+        while (!out.toString().endsWith(suffix)) {
+            final var n = in.read(buffer);
+            if (n < 0) {
+                break;
+            }
+            out.append(new String(buffer, 0, n, StandardCharsets.UTF_8));
+        }
+        return out.toString();
+    }
+
+    private static void send(final Socket socket, final String line) throws IOException {
+        final OutputStream out = socket.getOutputStream();
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void awaitNumSessions(final int expected) throws InterruptedException {
+        final var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (server.getNumSessions() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, server.getNumSessions());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (server != null) {
+            server.close();
+            serverThread.join(5000);
+            assertFalse(serverThread.isAlive());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Server - Independent Sessions")
+    void testIndependentSessions() throws IOException, InterruptedException {
+        startServer();
+
+        try (var first = connect(); var second = connect()) {
+            assertTrue(readUntil(first, GameSession.MOVE_PROMPT).contains("Number of Moves : 0"));
+            assertTrue(readUntil(second, GameSession.MOVE_PROMPT).contains("Number of Moves : 0"));
+            awaitNumSessions(2);
+
+            // Commands may be split across packets, and may be terminated by CRLF
+            send(first, "DO");
+            send(first, "WN\r\n");
+            assertTrue(readUntil(first, GameSession.MOVE_PROMPT).contains("Number of Moves : 1"));
+
+            send(second, "RIGHT\n");
+            assertTrue(readUntil(second, GameSession.CONTINUE_PROMPT + System.lineSeparator()).startsWith("You died!"));
+
+            // Several commands in one packet are handled in order
+            send(first, "RIGHT\nUP\n");
+            assertTrue(readUntil(first, "You win!" + System.lineSeparator()).contains("Number of Moves : 2"));
+            assertEquals(-1, first.getInputStream().read());
+            awaitNumSessions(1);
+
+            send(second, "\nquit\n");
+            assertTrue(readUntil(second, GameSession.MOVE_PROMPT).contains("Number of Deaths: 1"));
+            assertEquals(-1, second.getInputStream().read());
+            awaitNumSessions(0);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Server - Close")
+    void testClose() throws IOException, InterruptedException {
+        startServer();
+
+        try (var client = connect()) {
+            readUntil(client, GameSession.MOVE_PROMPT);
+
+            send(client, "x".repeat(GameServer.MAX_LINE_LENGTH + 1));
+            assertEquals(-1, client.getInputStream().read());
+        }
+
+        try (var client = connect()) {
+            readUntil(client, GameSession.MOVE_PROMPT);
+            server.close();
+            serverThread.join(5000);
+            assertFalse(serverThread.isAlive());
+            assertEquals(-1, client.getInputStream().read());
+        }
+        assertThrows(IllegalStateException.class, server::run);
+    }
+}
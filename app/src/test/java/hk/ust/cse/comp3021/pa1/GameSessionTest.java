@@ -0,0 +1,127 @@
+package hk.ust.cse.comp3021.pa1;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.BinaryGameStateSerializer;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.createGameState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSessionTest {
+
+    private static final String NL = System.lineSeparator();
+
+    // PMG
+    // ..S
+    private static final String LEVEL = "2\n3\n2\nPMG\n..S\n";
+
+    private static String handle(final GameSession session, final String line) {
+        final var out = new StringBuilder();
+        session.handleLine(line, out);
+        return out.toString();
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Session - Moves and Undoes")
+    void testMovesAndUndoes() throws IOException {
+        final var session = new GameSession(createGameState(LEVEL), false);
+        final var start = new StringBuilder();
+        session.start(start);
+        assertTrue(start.toString().startsWith("@X*" + NL + "..#" + NL));
+        assertTrue(start.toString().contains("Number of Moves : 0"));
+        assertTrue(start.toString().endsWith(GameSession.MOVE_PROMPT));
+
+        final var moved = handle(session, "d");
+        assertTrue(moved.startsWith("#X*" + NL + "@.#" + NL));
+        assertTrue(moved.contains("Number of Moves : 1"));
+        assertTrue(moved.endsWith(GameSession.MOVE_PROMPT));
+
+        assertEquals("Invalid move!" + NL + GameSession.CONTINUE_PROMPT + NL, handle(session, "DOWN"));
+        assertTrue(handle(session, "").endsWith(GameSession.MOVE_PROMPT));
+
+        final var undone = handle(session, "UNDO");
+        assertTrue(undone.contains("Number of Undoes: 1"));
+        assertTrue(handle(session, "u").startsWith("Invalid move!"));
+        handle(session, "");
+        assertTrue(handle(session, "undo").startsWith("No more steps to undo!" + NL));
+
+        assertEquals("Invalid choice!" + NL + GameSession.CONTINUE_PROMPT + NL, handle(session, "jump"));
+        assertFalse(session.isFinished());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Session - End of Game")
+    void testEndOfGame() throws IOException {
+        final var won = new GameSession(createGameState(LEVEL), false);
+        handle(won, "DOWN");
+        handle(won, "RIGHT");
+        assertEquals("You win!" + NL, handle(won, "UP"));
+        assertTrue(won.isFinished());
+        assertThrows(IllegalStateException.class, () -> handle(won, "UP"));
+
+        final var lost = new GameSession(createGameState(LEVEL), false);
+        assertEquals("You died!" + NL + GameSession.CONTINUE_PROMPT + NL, handle(lost, "RIGHT"));
+        assertTrue(handle(lost, "").contains("Number of Lives : 1"));
+        assertEquals("You died!" + NL + "You lost!" + NL, handle(lost, "RIGHT"));
+        assertTrue(lost.isFinished());
+
+        final var quit = new GameSession(createGameState(LEVEL), false);
+        assertEquals("", handle(quit, "q"));
+        assertTrue(quit.isFinished());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Session - Batch of Moves")
+    void testBatch() throws IOException {
+        final var session = new GameSession(createGameState(LEVEL), false);
+        final var invalid = handle(session, "DD");
+        assertTrue(invalid.startsWith("Moves applied: 2/2, Gems collected: 0, Deaths: 0" + NL
+                + "Invalid move at step 2!" + NL + "#X*" + NL + "@.#" + NL));
+        assertTrue(invalid.contains("Number of Moves : 1"));
+        assertTrue(invalid.endsWith(GameSession.MOVE_PROMPT));
+
+        assertEquals("Moves applied: 2/3, Gems collected: 1, Deaths: 0" + NL + "You win!" + NL,
+                handle(session, "rUd"));
+        assertTrue(session.isFinished());
+
+        final var lost = new GameSession(createGameState(LEVEL), false);
+        assertEquals("Moves applied: 2/3, Gems collected: 0, Deaths: 2" + NL + "You lost!" + NL,
+                handle(lost, "RRD"));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Session - Memory Per Session")
+    void testMemoryPerSession() throws IOException {
+        // Sessions are created from a serialized level, as in GameServer
+        final var level = createGameState(LEVEL);
+        final var buffer = ByteBuffer.allocate(BinaryGameStateSerializer.sizeOf(level, false));
+        BinaryGameStateSerializer.writeTo(level, buffer, false);
+        buffer.flip();
+
+        final var memory = ManagementFactory.getMemoryMXBean();
+        final var sessions = new GameSession[2000];
+        System.gc();
+        final var before = memory.getHeapMemoryUsage().getUsed();
+        for (int i = 0; i < sessions.length; ++i) {
+            sessions[i] = new GameSession(BinaryGameStateSerializer.readFrom(buffer.duplicate()), false);
+            handle(sessions[i], "DOWN");
+        }
+        System.gc();
+        final var after = memory.getHeapMemoryUsage().getUsed();
+
+        final var bytesPerSession = (after - before) / sessions.length;
+        assertTrue(bytesPerSession < 16 * 1024, "Heap per session: " + bytesPerSession + " bytes");
+        assertFalse(sessions[sessions.length - 1].isFinished());
+    }
+}
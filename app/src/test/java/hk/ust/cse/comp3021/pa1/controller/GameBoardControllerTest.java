@@ -40,9 +40,10 @@ public class GameBoardControllerTest {
         final var clazz = GameBoardController.class;
         final var publicMethods = ReflectionUtils.getPublicInstanceMethods(clazz);
 
-        assertEquals(2, publicMethods.length);
+        assertEquals(3, publicMethods.length);
 
         assertDoesNotThrow(() -> clazz.getMethod("makeMove", Direction.class));
+        assertDoesNotThrow(() -> clazz.getMethod("makeMove", Direction.class, MutableMoveResult.class));
         assertDoesNotThrow(() -> clazz.getMethod("undoMove", MoveResult.class));
     }
 
@@ -12,6 +12,8 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -42,9 +44,11 @@ public class GameControllerTest {
         final var clazz = GameController.class;
         final var publicMethods = ReflectionUtils.getPublicInstanceMethods(clazz);
 
-        assertEquals(2, publicMethods.length);
+        assertEquals(4, publicMethods.length);
 
         assertDoesNotThrow(() -> clazz.getMethod("processMove", Direction.class));
+        assertDoesNotThrow(() -> clazz.getMethod("processMove", Direction.class, MutableMoveResult.class));
+        assertDoesNotThrow(() -> clazz.getMethod("processMoves", List.class, MoveBatch.InvalidMovePolicy.class));
         assertDoesNotThrow(() -> clazz.getMethod("processUndo"));
     }
 
@@ -494,6 +498,67 @@ public class GameControllerTest {
         assertEquals(0, gameState.getNumDeaths());
     }
 
+    // P.*L#
+    // X....
+    // *....
+    @Test
+    @Tag("provided")
+    @DisplayName("Make Move - Reusable Result Matches MoveResult")
+    void testMutableMoveResultMatchesMoveResult() {
+        final Supplier<GameState> creator = () -> new GameState(
+                GameBoardUtils.createGameBoard(3, 5, (pos) -> {
+                    if (pos.equals(new Position(0, 0))) {
+                        return new EntityCell(pos, new Player());
+                    } else if (pos.equals(new Position(0, 2)) || pos.equals(new Position(2, 0))) {
+                        return new EntityCell(pos, new Gem());
+                    } else if (pos.equals(new Position(0, 3))) {
+                        return new EntityCell(pos, new ExtraLife());
+                    } else if (pos.equals(new Position(0, 4))) {
+                        return new StopCell(pos);
+                    } else if (pos.equals(new Position(1, 0))) {
+                        return new EntityCell(pos, new Mine());
+                    } else {
+                        return new EntityCell(pos);
+                    }
+                }), 3);
+        final var expectedState = creator.get();
+        final var expectedController = new GameController(expectedState);
+        gameState = creator.get();
+        controller = new GameController(gameState);
+
+        final var result = new MutableMoveResult();
+        final var moves = new Direction[]{
+                Direction.UP, Direction.DOWN, Direction.RIGHT, Direction.DOWN, Direction.LEFT
+        };
+        for (final var direction : moves) {
+            final var expected = expectedController.processMove(direction);
+            controller.processMove(direction, result);
+
+            final var actual = result.toMoveResult(gameState.getGameBoard().getPackedBoard());
+            assertEquals(expected.getClass(), actual.getClass(), "Mismatch for " + direction);
+            assertEquals(expected.newPosition, actual.newPosition);
+            if (expected instanceof MoveResult.Valid.Alive expectedAlive) {
+                final var actualAlive = (MoveResult.Valid.Alive) actual;
+                assertEquals(expectedAlive.origPosition, actualAlive.origPosition);
+                assertEquals(expectedAlive.collectedGems, actualAlive.collectedGems);
+                assertEquals(expectedAlive.collectedExtraLives, actualAlive.collectedExtraLives);
+            } else if (expected instanceof MoveResult.Valid.Dead expectedDead) {
+                assertEquals(expectedDead.minePosition, ((MoveResult.Valid.Dead) actual).minePosition);
+                assertEquals(MutableMoveResult.Kind.DEAD, result.getKind());
+            }
+
+            assertEquals(expectedState.getNumGems(), gameState.getNumGems());
+            assertEquals(expectedState.getNumLives(), gameState.getNumLives());
+            assertEquals(expectedState.getNumMoves(), gameState.getNumMoves());
+            assertEquals(expectedState.getNumDeaths(), gameState.getNumDeaths());
+            assertEquals(expectedState.getScore(), gameState.getScore());
+        }
+
+        assertTrue(gameState.hasWon());
+        assertTrue(controller.processUndo());
+        assertEquals(1, gameState.getNumGems());
+    }
+
     @AfterEach
     void tearDown() {
         controller = null;
@@ -0,0 +1,120 @@
+package hk.ust.cse.comp3021.pa1.controller;
+
+import hk.ust.cse.comp3021.pa1.model.*;
+import hk.ust.cse.comp3021.pa1.util.GameBoardUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveBatchTest {
+
+    // PX*
+    // ..S
+    // L.*
+    private static GameState createGameState(final int numLives) {
+        final var gameBoard = GameBoardUtils.createGameBoard(3, 3, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 1))) {
+                return new EntityCell(pos, new Mine());
+            } else if (pos.equals(new Position(0, 2)) || pos.equals(new Position(2, 2))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(new Position(1, 2))) {
+                return new StopCell(pos);
+            } else if (pos.equals(new Position(2, 0))) {
+                return new EntityCell(pos, new ExtraLife());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        return numLives < 0 ? new GameState(gameBoard) : new GameState(gameBoard, numLives);
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch - Stops on Win")
+    void testWin() {
+        final var gameState = createGameState(-1);
+        final var summary = new GameController(gameState).processMoves(MoveBatch.parse("DRUUL"),
+                MoveBatch.InvalidMovePolicy.STOP);
+
+        assertEquals(new MoveBatch.Summary(MoveBatch.Outcome.WON, 4, new Position(0, 2), 2, 1, 0, -1), summary);
+        assertTrue(gameState.hasWon());
+        assertEquals(4, gameState.getNumMoves());
+        assertEquals(4, gameState.getMoveStack().getMoves().size());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch - Invalid Move Policy")
+    void testInvalidMovePolicy() {
+        final var stopped = createGameState(-1);
+        assertEquals(new MoveBatch.Summary(MoveBatch.Outcome.INVALID_MOVE, 2, new Position(2, 0), 0, 1, 0, 1),
+                new GameController(stopped).processMoves(MoveBatch.parse("DLRUU"),
+                        MoveBatch.InvalidMovePolicy.STOP));
+        assertEquals(1, stopped.getNumMoves());
+
+        final var skipped = createGameState(-1);
+        assertEquals(new MoveBatch.Summary(MoveBatch.Outcome.WON, 5, new Position(0, 2), 2, 1, 0, 1),
+                new GameController(skipped).processMoves(MoveBatch.parse("DLRUU"),
+                        MoveBatch.InvalidMovePolicy.SKIP));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch - Deaths")
+    void testDeaths() {
+        final var lost = createGameState(1);
+        assertEquals(new MoveBatch.Summary(MoveBatch.Outcome.LOST, 1, new Position(0, 0), 0, 0, 1, -1),
+                new GameController(lost).processMoves(MoveBatch.parse("RD"), MoveBatch.InvalidMovePolicy.STOP));
+        assertTrue(lost.hasLost());
+
+        final var survived = createGameState(2);
+        assertEquals(new MoveBatch.Summary(MoveBatch.Outcome.COMPLETED, 2, new Position(2, 0), 0, 1, 1, -1),
+                new GameController(survived).processMoves(MoveBatch.parse("RD"), MoveBatch.InvalidMovePolicy.STOP));
+        assertEquals(2, survived.getNumLives());
+
+        // A game which has already ended does not process any move
+        assertEquals(new MoveBatch.Summary(MoveBatch.Outcome.LOST, 0, new Position(0, 0), 0, 0, 0, -1),
+                new GameController(lost).processMoves(List.of(Direction.DOWN), MoveBatch.InvalidMovePolicy.STOP));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch - Same As Single Moves")
+    void testSameAsSingleMoves() {
+        final var directions = MoveBatch.parse("rdDrUlUu");
+        final var batched = createGameState(3);
+        new GameController(batched).processMoves(directions, MoveBatch.InvalidMovePolicy.SKIP);
+
+        final var single = createGameState(3);
+        final var controller = new GameController(single);
+        for (final var direction : directions) {
+            if (single.hasWon() || single.hasLost()) {
+                break;
+            }
+            controller.processMove(direction);
+        }
+
+        assertEquals(single.getNumMoves(), batched.getNumMoves());
+        assertEquals(single.getNumDeaths(), batched.getNumDeaths());
+        assertEquals(single.getNumLives(), batched.getNumLives());
+        assertEquals(single.getNumGems(), batched.getNumGems());
+        assertEquals(single.getMoveStack().getMoves().size(), batched.getMoveStack().getMoves().size());
+        assertEquals(single.getZobristHash(), batched.getZobristHash());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch - Parse Moves")
+    void testParse() {
+        assertEquals(List.of(Direction.UP, Direction.DOWN, Direction.LEFT, Direction.RIGHT, Direction.RIGHT),
+                MoveBatch.parse("UdLrR"));
+        assertEquals(List.of(), MoveBatch.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse("UDX"));
+    }
+}
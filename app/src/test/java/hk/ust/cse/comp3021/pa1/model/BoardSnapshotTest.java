@@ -0,0 +1,154 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardSnapshotTest {
+
+    private static final int ROWS = 200;
+    private static final int COLS = 64;
+
+    private static GameBoard createGameBoard(final Random random) {
+        final var data = new byte[ROWS * COLS];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = switch (random.nextInt(20)) {
+                case 0, 1 -> PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+                case 2, 3, 4 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+                case 5 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+                case 6 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+                case 7, 8 -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+                default -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+            };
+        }
+        final var playerIndex = ROWS / 2 * COLS + COLS / 2;
+        data[playerIndex] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        return GameBoard.fromValidatedPackedBoard(new PackedBoard(ROWS, COLS, data), playerIndex);
+    }
+
+    private static byte[] contentsOf(final PackedBoard board) {
+        final var contents = new byte[board.getNumRows() * board.getNumCols()];
+        for (int i = 0; i < contents.length; ++i) {
+            contents[i] = board.get(i);
+        }
+        return contents;
+    }
+
+    private static byte[] contentsOf(final BoardSnapshot snapshot) {
+        final var contents = new byte[snapshot.getNumRows() * snapshot.getNumCols()];
+        for (int i = 0; i < contents.length; ++i) {
+            contents[i] = snapshot.get(i);
+        }
+        return contents;
+    }
+
+    private static void playRandomMoves(final GameController controller, final Random random, final int numMoves) {
+        final var directions = Direction.values();
+        for (int i = 0; i < numMoves; ++i) {
+            controller.processMove(directions[random.nextInt(directions.length)]);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Snapshot - Snapshots Are Unaffected by Later Moves")
+    void testSnapshotsUnaffectedByMoves() {
+        final var random = new Random(3021);
+        final var gameBoard = createGameBoard(random);
+        final var board = gameBoard.getPackedBoard();
+        final var controller = new GameController(new GameState(gameBoard));
+
+        final var snapshots = new ArrayList<BoardSnapshot>();
+        final var expected = new ArrayList<byte[]>();
+        final var expectedGems = new ArrayList<Integer>();
+        final var expectedHashes = new ArrayList<Long>();
+        for (int round = 0; round < 20; ++round) {
+            snapshots.add(board.snapshot());
+            expected.add(contentsOf(board));
+            expectedGems.add(board.getNumGems());
+            expectedHashes.add(board.getZobristHash());
+            playRandomMoves(controller, random, 10);
+        }
+
+        for (int i = 0; i < snapshots.size(); ++i) {
+            final var snapshot = snapshots.get(i);
+            assertArrayEquals(expected.get(i), contentsOf(snapshot), "Snapshot " + i);
+            assertArrayEquals(expected.get(i), contentsOf(snapshot.toPackedBoard()), "Snapshot " + i);
+            assertEquals(expectedGems.get(i), snapshot.getNumGems());
+            assertEquals(expectedHashes.get(i), snapshot.getZobristHash());
+            assertEquals(PackedBoard.ENTITY_PLAYER, snapshot.getEntityKind(snapshot.getPlayerIndex()));
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Snapshot - Unchanged Board Reuses Snapshot")
+    void testUnchangedBoardReusesSnapshot() {
+        final var random = new Random(42);
+        final var gameBoard = createGameBoard(random);
+        final var board = gameBoard.getPackedBoard();
+
+        final var snapshot = board.snapshot();
+        assertSame(snapshot, board.snapshot());
+
+        playRandomMoves(new GameController(new GameState(gameBoard)), random, 10);
+        assertNotEquals(snapshot.getZobristHash(), board.getZobristHash());
+        assertNotSame(snapshot, board.snapshot());
+
+        final var otherBoard = createGameBoard(new Random(42)).getPackedBoard();
+        assertThrows(IllegalArgumentException.class, () -> otherBoard.restore(snapshot));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Snapshot - Restoring Reverts the Board")
+    void testRestore() {
+        final var random = new Random(1234);
+        final var gameBoard = createGameBoard(random);
+        final var board = gameBoard.getPackedBoard();
+        final var controller = new GameController(new GameState(gameBoard));
+
+        playRandomMoves(controller, random, 5);
+        final var snapshot = gameBoard.snapshot();
+        final var expected = contentsOf(board);
+        final var expectedPosition = gameBoard.getPlayer().getOwner().getPosition();
+        final var expectedGems = board.getNumGems();
+        final var expectedHash = board.getZobristHash();
+
+        // Explore a branch, take a newer snapshot in the middle of it, and revert to the older snapshot
+        playRandomMoves(controller, random, 30);
+        board.snapshot();
+        playRandomMoves(controller, random, 30);
+        gameBoard.restore(snapshot);
+
+        assertArrayEquals(expected, contentsOf(board));
+        assertEquals(expectedPosition, gameBoard.getPlayer().getOwner().getPosition());
+        assertEquals(expectedGems, board.getNumGems());
+        assertEquals(expectedHash, board.getZobristHash());
+        for (int r = 0; r < ROWS; ++r) {
+            for (int c = 0; c < COLS; ++c) {
+                final var cell = gameBoard.getCell(r, c);
+                if (cell instanceof EntityCell entityCell) {
+                    final var entity = entityCell.getEntity();
+                    final var kind = board.getEntityKind(board.indexOf(r, c));
+                    assertEquals(kind == PackedBoard.ENTITY_NONE, entity == null, "(" + r + ", " + c + ")");
+                }
+            }
+        }
+
+        // The restored board plays the same as a fresh copy of the snapshot
+        final var copy = GameBoard.fromValidatedPackedBoard(snapshot.toPackedBoard(), snapshot.getPlayerIndex());
+        final var copyController = new GameController(new GameState(copy));
+        final var seed = random.nextLong();
+        playRandomMoves(controller, new Random(seed), 50);
+        playRandomMoves(copyController, new Random(seed), 50);
+        assertArrayEquals(contentsOf(copy.getPackedBoard()), contentsOf(board));
+        assertEquals(copy.getZobristHash(), board.getZobristHash());
+    }
+}
@@ -7,6 +7,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GameBoardTest {
@@ -32,7 +35,7 @@ public class GameBoardTest {
         final var clazz = GameBoard.class;
         final var publicMethods = ReflectionUtils.getPublicInstanceMethods(clazz);
 
-        assertEquals(10, publicMethods.length);
+        assertEquals(14, publicMethods.length);
 
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getRow", int.class));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getCol", int.class));
@@ -44,6 +47,10 @@ public class GameBoardTest {
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getNumCols"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getPlayer"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getNumGems"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("getPackedBoard"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("getZobristHash"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("snapshot"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("restore", BoardSnapshot.class));
     }
 
     @Test
@@ -180,6 +187,117 @@ public class GameBoardTest {
         assertThrows(IllegalArgumentException.class, () -> gameBoard = new GameBoard(rows, cols, cells));
     }
 
+    @Test
+    @Tag("provided")
+    @DisplayName("Instance Creation - Large Open Board")
+    void testGameBoardCreationLargeOpenBoard() {
+        final var rows = 1500;
+        final var cols = 1500;
+        final var data = new byte[rows * cols];
+        data[0] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        data[rows * cols - 1] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+
+        assertDoesNotThrow(() -> gameBoard = GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+        assertEquals(1, gameBoard.getNumGems());
+
+        // Wall off the gem
+        final var walledData = data.clone();
+        walledData[rows * cols - 2] = PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+        walledData[(rows - 1) * cols - 1] = PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+
+        final var e = assertThrows(IllegalArgumentException.class,
+                () -> GameBoard.fromPackedBoard(new PackedBoard(rows, cols, walledData)));
+        assertEquals("There are unreachable gems in the board! Reachable: 0 Total: 1", e.getMessage());
+    }
+
+    private static String validationOutcome(final int rows, final int cols, final byte[] data,
+                                            final ForkJoinPool pool) {
+        try {
+            final var board = new PackedBoard(rows, cols, data.clone());
+            final var created = pool != null
+                    ? GameBoard.fromPackedBoard(board, pool)
+                    : GameBoard.fromPackedBoard(board);
+            return "Gems: " + created.getNumGems();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Instance Creation - Parallel Validation Matches Sequential")
+    void testGameBoardCreationParallelValidation() {
+        final var random = new Random(3021);
+        final var pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 200; ++round) {
+                final var rows = 1 + random.nextInt(40);
+                final var cols = 1 + random.nextInt(40);
+                final var data = new byte[rows * cols];
+                for (int i = 0; i < data.length; ++i) {
+                    data[i] = switch (random.nextInt(10)) {
+                        case 0, 1, 2, 3 -> PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+                        case 4 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+                        case 5 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+                        case 6 -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+                        default -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+                    };
+                }
+                final var numPlayers = round % 10 == 0 ? 2 : 1;
+                for (int i = 0; i < numPlayers; ++i) {
+                    data[random.nextInt(data.length)] = PackedBoard.pack(PackedBoard.CELL_STOP,
+                            PackedBoard.ENTITY_PLAYER);
+                }
+
+                assertEquals(validationOutcome(rows, cols, data, null), validationOutcome(rows, cols, data, pool),
+                        "Mismatch for round=" + round);
+            }
+
+            final var noGems = new byte[]{
+                    PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER),
+                    PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE),
+            };
+            assertEquals("There are no gems in the game board!", validationOutcome(1, 2, noGems, pool));
+
+            final var noPlayers = new byte[]{PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM)};
+            assertEquals("Invalid number of players! Number of players: 0", validationOutcome(1, 1, noPlayers, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Instance Creation - Large Open Board in Parallel")
+    void testGameBoardCreationLargeOpenBoardParallel() {
+        final var rows = 1500;
+        final var cols = 1500;
+        final var data = new byte[rows * cols];
+        // Snake-shaped corridor crossing every stripe boundary, with the only gem at the far end
+        for (int r = 1; r < rows; r += 2) {
+            for (int c = 0; c < cols; ++c) {
+                data[r * cols + c] = PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+            }
+            final var gap = (r / 2) % 2 == 0 ? cols - 1 : 0;
+            data[r * cols + gap] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+        }
+        data[0] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        data[(rows - 2) * cols + cols / 2] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+
+        assertTrue(rows * cols >= GameBoard.PARALLEL_VALIDATION_THRESHOLD);
+        assertDoesNotThrow(() -> gameBoard = GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+        assertEquals(1, gameBoard.getNumGems());
+
+        // Close the gap leading to the last corridor
+        final var walledData = data.clone();
+        final var lastGap = (rows - 3) * cols + (((rows - 3) / 2) % 2 == 0 ? cols - 1 : 0);
+        walledData[lastGap] = PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+
+        final var e = assertThrows(IllegalArgumentException.class,
+                () -> GameBoard.fromPackedBoard(new PackedBoard(rows, cols, walledData)));
+        assertEquals("There are unreachable gems in the board! Reachable: 0 Total: 1", e.getMessage());
+    }
+
     @Test
     @Tag("provided")
     @DisplayName("Get Cell - int-overload")
@@ -36,7 +36,7 @@ public class GameStateTest {
         final var clazz = GameState.class;
         final var publicMethods = ReflectionUtils.getPublicInstanceMethods(clazz);
 
-        assertEquals(17, publicMethods.length);
+        assertEquals(19, publicMethods.length);
 
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("hasWon"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("hasLost"));
@@ -55,6 +55,8 @@ public class GameStateTest {
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getGameBoardView"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getGameBoard"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getMoveStack"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("getZobristHash"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("getInitialNumGems"));
     }
 
     @Test
@@ -3,6 +3,10 @@ package hk.ust.cse.comp3021.pa1.model;
 import hk.ust.cse.comp3021.pa1.util.ReflectionUtils;
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class MoveStackTest {
@@ -33,13 +37,14 @@ public class MoveStackTest {
         final var clazz = MoveStack.class;
         final var publicMethods = ReflectionUtils.getPublicInstanceMethods(clazz);
 
-        assertEquals(5, publicMethods.length);
+        assertEquals(6, publicMethods.length);
 
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("push", MoveResult.class));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("isEmpty"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("pop"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("getPopCount"));
         assertDoesNotThrow(() -> clazz.getDeclaredMethod("peek"));
+        assertDoesNotThrow(() -> clazz.getDeclaredMethod("getMoves"));
     }
 
     @Test
@@ -93,6 +98,74 @@ public class MoveStackTest {
         assertEquals(1, moveStack.getPopCount());
     }
 
+    private static void assertSameMove(final MoveResult expected, final MoveResult actual) {
+        final var expectedAlive = (MoveResult.Valid.Alive) expected;
+        final var actualAlive = (MoveResult.Valid.Alive) actual;
+        assertEquals(expectedAlive.newPosition, actualAlive.newPosition);
+        assertEquals(expectedAlive.origPosition, actualAlive.origPosition);
+        assertEquals(expectedAlive.collectedGems, actualAlive.collectedGems);
+        assertEquals(expectedAlive.collectedExtraLives, actualAlive.collectedExtraLives);
+    }
+
+    private static List<Position> randomPositions(final Random random, final int count) {
+        final var positions = new ArrayList<Position>(count);
+        for (int i = 0; i < count; ++i) {
+            positions.add(new Position(random.nextInt(1 << (1 + random.nextInt(20))), random.nextInt(300)));
+        }
+        return positions;
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Encoded Moves Round Trip")
+    void testEncodedRoundTrip() {
+        final var random = new Random(3021);
+        final var pushed = new ArrayList<MoveResult>();
+        for (int i = 0; i < 1000; ++i) {
+            final var positions = randomPositions(random, 2);
+            final var move = new MoveResult.Valid.Alive(positions.get(0), positions.get(1),
+                    randomPositions(random, random.nextInt(4)), randomPositions(random, random.nextInt(3)));
+            moveStack.push(move);
+            pushed.add(move);
+        }
+
+        final var moves = moveStack.getMoves();
+        assertEquals(pushed.size(), moves.size());
+        for (int i = 0; i < pushed.size(); ++i) {
+            assertSameMove(pushed.get(i), moves.get(i));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> moves.remove(0));
+
+        for (int i = pushed.size() - 1; i >= 0; --i) {
+            assertSameMove(pushed.get(i), moveStack.peek());
+            assertSameMove(pushed.get(i), moveStack.pop());
+        }
+        assertTrue(moveStack.isEmpty());
+        assertEquals(pushed.size(), moveStack.getPopCount());
+        assertThrows(IllegalArgumentException.class, () -> moveStack.pop());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Push Mutable Result")
+    void testPushMutableResult() {
+        final var board = new PackedBoard(4, 5, new byte[20]);
+        final var result = new MutableMoveResult();
+        result.setAlive(board.indexOf(3, 4), board.indexOf(0, 4));
+        result.addCollectedGem(board.indexOf(1, 4));
+        result.addCollectedExtraLife(board.indexOf(2, 4));
+        result.addCollectedGem(board.indexOf(3, 4));
+
+        result.pushTo(moveStack, board);
+        assertSameMove(result.toMoveResult(board), moveStack.peek());
+
+        result.setDead(board.indexOf(0, 0), board.indexOf(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> result.pushTo(moveStack, board));
+        result.setInvalid(board.indexOf(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> result.pushTo(moveStack, board));
+        assertEquals(1, moveStack.getMoves().size());
+    }
+
     @AfterEach
     void tearDown() {
         moveStack = null;
@@ -0,0 +1,294 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import hk.ust.cse.comp3021.pa1.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBoardTest {
+
+    private GameBoard gameBoard;
+
+    // P.*
+    // SWL
+    // X..
+    private static PackedBoard createPackedBoard() {
+        final var data = new byte[]{
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM),
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE),
+                PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE),
+        };
+        return new PackedBoard(3, 3, data);
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Pack - Round Trip")
+    void testPackRoundTrip() {
+        for (final var cellKind : new int[]{PackedBoard.CELL_EMPTY, PackedBoard.CELL_STOP, PackedBoard.CELL_WALL}) {
+            for (int entityKind = PackedBoard.ENTITY_NONE; entityKind <= PackedBoard.ENTITY_PLAYER; ++entityKind) {
+                final var packed = PackedBoard.pack(cellKind, entityKind);
+
+                assertEquals(cellKind, PackedBoard.cellKindOf(packed));
+                assertEquals(entityKind, PackedBoard.entityKindOf(packed));
+            }
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Instance Creation - Bad Size")
+    void testCreationBadSize() {
+        assertThrows(IllegalArgumentException.class, () -> new PackedBoard(3, 3, new byte[8]));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Game Board - Lazily Created Cells")
+    void testLazyCells() {
+        gameBoard = GameBoard.fromPackedBoard(createPackedBoard());
+
+        assertEquals(3, gameBoard.getNumRows());
+        assertEquals(3, gameBoard.getNumCols());
+        assertEquals(1, gameBoard.getNumGems());
+
+        assertTrue(gameBoard.getCell(0, 0) instanceof StopCell);
+        assertSame(gameBoard.getPlayer(), gameBoard.getEntityCell(0, 0).getEntity());
+        assertSame(gameBoard.getCell(0, 0), gameBoard.getPlayer().getOwner());
+
+        assertTrue(gameBoard.getCell(0, 2) instanceof EntityCell);
+        assertTrue(gameBoard.getEntityCell(0, 2).getEntity() instanceof Gem);
+        assertSame(gameBoard.getCell(0, 2), gameBoard.getCell(new Position(0, 2)));
+
+        assertTrue(gameBoard.getCell(1, 0) instanceof StopCell);
+        assertTrue(gameBoard.getCell(1, 1) instanceof Wall);
+        assertTrue(gameBoard.getEntityCell(1, 2).getEntity() instanceof ExtraLife);
+        assertTrue(gameBoard.getEntityCell(2, 0).getEntity() instanceof Mine);
+        assertEquals(new Position(2, 1), gameBoard.getCell(2, 1).getPosition());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Game Board - Cells Write Through")
+    void testCellWriteThrough() {
+        final var packedBoard = createPackedBoard();
+        gameBoard = GameBoard.fromPackedBoard(packedBoard);
+
+        gameBoard.getEntityCell(0, 2).setEntity(null);
+
+        assertEquals(PackedBoard.ENTITY_NONE, packedBoard.getEntityKind(packedBoard.indexOf(0, 2)));
+        assertEquals(0, gameBoard.getNumGems());
+
+        gameBoard.getEntityCell(0, 1).setEntity(gameBoard.getPlayer());
+
+        assertEquals(PackedBoard.ENTITY_NONE, packedBoard.getEntityKind(packedBoard.indexOf(0, 0)));
+        assertEquals(PackedBoard.ENTITY_PLAYER, packedBoard.getEntityKind(packedBoard.indexOf(0, 1)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Game Board - Packed Changes Reflected in Cells")
+    void testPackedChangesReflected() {
+        final var packedBoard = createPackedBoard();
+        gameBoard = GameBoard.fromPackedBoard(packedBoard);
+
+        final var gemCell = gameBoard.getEntityCell(0, 2);
+        packedBoard.setEntityKind(packedBoard.indexOf(0, 2), PackedBoard.ENTITY_NONE);
+        assertNull(gemCell.getEntity());
+
+        packedBoard.setEntityKind(packedBoard.indexOf(0, 2), PackedBoard.ENTITY_GEM);
+        assertTrue(gemCell.getEntity() instanceof Gem);
+
+        packedBoard.movePlayer(packedBoard.indexOf(1, 0));
+        assertNull(gameBoard.getEntityCell(0, 0).getEntity());
+        assertSame(gameBoard.getPlayer(), gameBoard.getEntityCell(1, 0).getEntity());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> packedBoard.setEntityKind(packedBoard.indexOf(1, 1), PackedBoard.ENTITY_GEM));
+        assertThrows(IllegalArgumentException.class,
+                () -> packedBoard.setEntityKind(packedBoard.indexOf(2, 2), PackedBoard.ENTITY_PLAYER));
+    }
+
+    // P.*L.
+    // ..GXG
+    @Test
+    @Tag("provided")
+    @DisplayName("Live Counts - Moves and Undoes")
+    void testLiveCounts() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 5, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 2)) || pos.equals(new Position(1, 2))
+                    || pos.equals(new Position(1, 4))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(new Position(0, 3))) {
+                return new EntityCell(pos, new ExtraLife());
+            } else if (pos.equals(new Position(1, 3))) {
+                return new EntityCell(pos, new Mine());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        final var packedBoard = gameBoard.getPackedBoard();
+        final var controller = new GameBoardController(gameBoard);
+
+        assertEquals(3, gameBoard.getNumGems());
+        assertEquals(1, packedBoard.getNumExtraLives());
+
+        final var move = controller.makeMove(Direction.RIGHT);
+        assertTrue(move instanceof MoveResult.Valid.Alive);
+        assertEquals(2, gameBoard.getNumGems());
+        assertEquals(0, packedBoard.getNumExtraLives());
+
+        assertTrue(controller.makeMove(Direction.DOWN) instanceof MoveResult.Valid.Alive);
+        assertEquals(1, gameBoard.getNumGems());
+
+        // Dying does not change the board
+        assertTrue(controller.makeMove(Direction.LEFT) instanceof MoveResult.Valid.Dead);
+        assertEquals(1, gameBoard.getNumGems());
+
+        controller.undoMove(new MoveResult.Valid.Alive(new Position(1, 4), new Position(0, 4),
+                List.of(new Position(1, 4)), List.of()));
+        controller.undoMove(move);
+        assertEquals(3, gameBoard.getNumGems());
+        assertEquals(1, packedBoard.getNumExtraLives());
+
+        gameBoard.getEntityCell(1, 0).setEntity(new ExtraLife());
+        gameBoard.getEntityCell(1, 1).setEntity(new Gem());
+        assertEquals(4, gameBoard.getNumGems());
+        assertEquals(2, packedBoard.getNumExtraLives());
+
+        // Moving an entity off the board via Entity#setOwner
+        new EntityCell(new Position(0, 0)).setEntity(gameBoard.getEntityCell(1, 1).getEntity());
+        assertEquals(3, gameBoard.getNumGems());
+    }
+
+    // P*
+    // ..
+    @Test
+    @Tag("provided")
+    @DisplayName("Game Board - Packed Cells from Cell Array")
+    void testPackedFromCells() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 2, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new StopCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 1))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        final var packedBoard = gameBoard.getPackedBoard();
+
+        assertEquals(PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER), packedBoard.get(0));
+        assertEquals(PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM), packedBoard.get(1));
+
+        gameBoard.getEntityCell(1, 1).setEntity(new Mine());
+        assertEquals(PackedBoard.ENTITY_MINE, packedBoard.getEntityKind(packedBoard.indexOf(1, 1)));
+
+        assertThrows(IllegalStateException.class, () -> GameBoard.fromPackedBoard(packedBoard));
+    }
+
+    private static long rehash(final PackedBoard board) {
+        final var data = new byte[board.getNumRows() * board.getNumCols()];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = board.get(i);
+        }
+        return new PackedBoard(board.getNumRows(), board.getNumCols(), data).getZobristHash();
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Zobrist Hash - Incremental Updates")
+    void testZobristHash() {
+        final var packedBoard = createPackedBoard();
+        gameBoard = GameBoard.fromPackedBoard(packedBoard);
+        final var gameState = new GameState(gameBoard);
+        final var controller = new GameController(gameState);
+
+        final var initialHash = gameState.getZobristHash();
+        assertEquals(initialHash, gameBoard.getZobristHash());
+        assertEquals(initialHash, rehash(packedBoard));
+        assertEquals(initialHash, createPackedBoard().getZobristHash());
+
+        // Moving the player and collecting a gem
+        final var move = controller.processMove(Direction.RIGHT);
+        assertTrue(move instanceof MoveResult.Valid.Alive);
+        final var movedHash = gameBoard.getZobristHash();
+        assertNotEquals(initialHash, movedHash);
+        assertEquals(rehash(packedBoard), movedHash);
+
+        assertTrue(controller.processMove(Direction.DOWN) instanceof MoveResult.Valid.Alive);
+        assertEquals(rehash(packedBoard), gameBoard.getZobristHash());
+
+        // Dying does not change the board
+        final var beforeDeath = gameBoard.getZobristHash();
+        assertTrue(controller.processMove(Direction.LEFT) instanceof MoveResult.Valid.Dead);
+        assertEquals(beforeDeath, gameBoard.getZobristHash());
+
+        // Undoing restores the previous hashes
+        assertTrue(controller.processUndo());
+        assertEquals(movedHash, gameBoard.getZobristHash());
+        assertTrue(controller.processUndo());
+        assertEquals(initialHash, gameBoard.getZobristHash());
+
+        // Changing an entity through a cell
+        gameBoard.getEntityCell(2, 2).setEntity(new Gem());
+        assertNotEquals(initialHash, gameBoard.getZobristHash());
+        assertEquals(rehash(packedBoard), gameBoard.getZobristHash());
+        gameBoard.getEntityCell(2, 2).setEntity(null);
+        assertEquals(initialHash, gameBoard.getZobristHash());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Instance Creation - Wrapped Buffer")
+    void testWrap() {
+        final var data = new byte[]{
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE),
+        };
+        final var hash = new PackedBoard(1, 3, data.clone()).getZobristHash();
+
+        // The buffer is used from its position without copying
+        final var buffer = ByteBuffer.allocate(data.length + 1).position(1).put(data).position(1);
+        final var packedBoard = PackedBoard.wrap(1, 3, buffer, 1, 1, hash);
+        assertEquals(1, packedBoard.getNumGems());
+        assertEquals(1, packedBoard.getNumExtraLives());
+        assertEquals(hash, packedBoard.getZobristHash());
+
+        gameBoard = GameBoard.fromValidatedPackedBoard(packedBoard, 0);
+        assertTrue(new GameController(new GameState(gameBoard)).processMove(Direction.RIGHT)
+                instanceof MoveResult.Valid.Alive);
+        assertEquals(PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_PLAYER), buffer.get(3));
+        assertEquals(0, packedBoard.getNumGems());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedBoard.wrap(1, 2, ByteBuffer.wrap(data.clone()), 1, 1, hash));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedBoard.wrap(1, 3, ByteBuffer.wrap(data.clone()).asReadOnlyBuffer(), 1, 1, hash));
+        assertThrows(IllegalArgumentException.class,
+                () -> GameBoard.fromValidatedPackedBoard(PackedBoard.wrap(1, 3, ByteBuffer.wrap(data.clone()), 1, 1,
+                        hash), 1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameBoard = null;
+    }
+}
@@ -0,0 +1,209 @@
+package hk.ust.cse.comp3021.pa1.model;
+
+import hk.ust.cse.comp3021.pa1.util.GameBoardUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlideTableTest {
+
+    private GameBoard gameBoard;
+
+    private static List<Integer> collectibles(final SlideTable table, final int start, final int end,
+                                              final Direction direction) {
+        final var result = new ArrayList<Integer>();
+        for (int i = table.nextCollectible(start, end, direction); i >= 0;
+             i = table.nextCollectible(i, end, direction)) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    // P.*L.W
+    // ...#..
+    // ..X...
+    @Test
+    @Tag("provided")
+    @DisplayName("Slide - Destinations")
+    void testSlideDestinations() {
+        gameBoard = GameBoardUtils.createGameBoard(3, 6, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 2))) {
+                return new EntityCell(pos, new Gem());
+            } else if (pos.equals(new Position(0, 3))) {
+                return new EntityCell(pos, new ExtraLife());
+            } else if (pos.equals(new Position(0, 5))) {
+                return new Wall(pos);
+            } else if (pos.equals(new Position(1, 3))) {
+                return new StopCell(pos);
+            } else if (pos.equals(new Position(2, 2))) {
+                return new EntityCell(pos, new Mine());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        final var board = gameBoard.getPackedBoard();
+        final var table = board.getSlideTable();
+
+        assertEquals(SlideTable.NO_MOVE, table.slide(board.indexOf(0, 0), Direction.UP));
+        assertEquals(SlideTable.NO_MOVE, table.slide(board.indexOf(0, 0), Direction.LEFT));
+        assertEquals(SlideTable.NO_MOVE, table.slide(board.indexOf(0, 4), Direction.RIGHT));
+
+        final var right = table.slide(board.indexOf(0, 0), Direction.RIGHT);
+        assertTrue(SlideTable.isAlive(right));
+        assertEquals(board.indexOf(0, 4), SlideTable.cellOf(right));
+        assertEquals(List.of(board.indexOf(0, 2), board.indexOf(0, 3)),
+                collectibles(table, board.indexOf(0, 0), board.indexOf(0, 4), Direction.RIGHT));
+
+        final var left = table.slide(board.indexOf(0, 4), Direction.LEFT);
+        assertEquals(board.indexOf(0, 0), SlideTable.cellOf(left));
+        assertEquals(List.of(board.indexOf(0, 3), board.indexOf(0, 2)),
+                collectibles(table, board.indexOf(0, 4), board.indexOf(0, 0), Direction.LEFT));
+
+        final var down = table.slide(board.indexOf(0, 3), Direction.DOWN);
+        assertTrue(SlideTable.isAlive(down));
+        assertEquals(board.indexOf(1, 3), SlideTable.cellOf(down));
+
+        final var dead = table.slide(board.indexOf(0, 2), Direction.DOWN);
+        assertTrue(SlideTable.isDead(dead));
+        assertEquals(board.indexOf(2, 2), SlideTable.cellOf(dead));
+
+        final var up = table.slide(board.indexOf(2, 3), Direction.UP);
+        assertEquals(board.indexOf(1, 3), SlideTable.cellOf(up));
+    }
+
+    // P.*.
+    // ....
+    @Test
+    @Tag("provided")
+    @DisplayName("Slide - Incremental Updates")
+    void testIncrementalUpdates() {
+        gameBoard = GameBoardUtils.createGameBoard(2, 4, (pos) -> {
+            if (pos.equals(new Position(0, 0))) {
+                return new EntityCell(pos, new Player());
+            } else if (pos.equals(new Position(0, 2))) {
+                return new EntityCell(pos, new Gem());
+            } else {
+                return new EntityCell(pos);
+            }
+        });
+        final var board = gameBoard.getPackedBoard();
+        final var table = board.getSlideTable();
+        final var start = board.indexOf(0, 0);
+        final var end = board.indexOf(0, 3);
+
+        assertEquals(end, SlideTable.cellOf(table.slide(start, Direction.RIGHT)));
+        assertEquals(List.of(board.indexOf(0, 2)), collectibles(table, start, end, Direction.RIGHT));
+
+        board.setEntityKind(board.indexOf(0, 2), PackedBoard.ENTITY_NONE);
+        assertEquals(List.of(), collectibles(table, start, end, Direction.RIGHT));
+
+        gameBoard.getEntityCell(0, 1).setEntity(new ExtraLife());
+        assertEquals(List.of(board.indexOf(0, 1)), collectibles(table, start, end, Direction.RIGHT));
+
+        gameBoard.getEntityCell(0, 3).setEntity(new Mine());
+        final var dead = table.slide(start, Direction.RIGHT);
+        assertTrue(SlideTable.isDead(dead));
+        assertEquals(end, SlideTable.cellOf(dead));
+
+        gameBoard.getEntityCell(0, 3).setEntity(null);
+        assertEquals(end, SlideTable.cellOf(table.slide(start, Direction.RIGHT)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Slide - Matches Cell-by-Cell Traversal")
+    void testMatchesTraversal() {
+        final var random = new Random(3021);
+        final var rows = 24;
+        final var cols = 31;
+
+        final var data = new byte[rows * cols];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = switch (random.nextInt(10)) {
+                case 0 -> PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+                case 1 -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+                case 2 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+                case 3, 4 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+                case 5 -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+                default -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+            };
+        }
+        final var board = new PackedBoard(rows, cols, data);
+        final var table = board.getSlideTable();
+
+        for (int round = 0; round < 3; ++round) {
+            for (int index = 0; index < rows * cols; ++index) {
+                if (board.getCellKind(index) == PackedBoard.CELL_WALL) {
+                    continue;
+                }
+                for (final var direction : Direction.values()) {
+                    assertSlideMatches(board, table, index, direction);
+                }
+            }
+
+            // Flip some collectibles and mines before checking again
+            for (int i = 0; i < 40; ++i) {
+                final var index = random.nextInt(rows * cols);
+                final var kind = board.getEntityKind(index);
+                if (board.getCellKind(index) != PackedBoard.CELL_EMPTY) {
+                    continue;
+                }
+                board.setEntityKind(index, kind == PackedBoard.ENTITY_NONE ? 1 + random.nextInt(3)
+                        : PackedBoard.ENTITY_NONE);
+            }
+        }
+    }
+
+    private static void assertSlideMatches(final PackedBoard board, final SlideTable table, final int index,
+                                           final Direction direction) {
+        var r = index / board.getNumCols() + direction.getRowOffset();
+        var c = index % board.getNumCols() + direction.getColOffset();
+        final var expectedCollectibles = new ArrayList<Integer>();
+        int expected = SlideTable.NO_MOVE;
+        if (board.isInBounds(r, c) && board.getCellKind(board.indexOf(r, c)) != PackedBoard.CELL_WALL) {
+            var last = index;
+            while (true) {
+                if (!board.isInBounds(r, c) || board.getCellKind(board.indexOf(r, c)) == PackedBoard.CELL_WALL) {
+                    expected = last + 1;
+                    break;
+                }
+                final var i = board.indexOf(r, c);
+                final var kind = board.getEntityKind(i);
+                if (kind == PackedBoard.ENTITY_MINE) {
+                    expected = -(i + 1);
+                    break;
+                }
+                if (board.getCellKind(i) == PackedBoard.CELL_STOP) {
+                    expected = i + 1;
+                    break;
+                }
+                if (kind == PackedBoard.ENTITY_GEM || kind == PackedBoard.ENTITY_EXTRA_LIFE) {
+                    expectedCollectibles.add(i);
+                }
+                last = i;
+                r += direction.getRowOffset();
+                c += direction.getColOffset();
+            }
+        }
+
+        final var actual = table.slide(index, direction);
+        assertEquals(expected, actual, "Mismatch for index=" + index + " direction=" + direction);
+        if (SlideTable.isAlive(actual)) {
+            assertEquals(expectedCollectibles, collectibles(table, index, SlideTable.cellOf(actual), direction));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameBoard = null;
+    }
+}
@@ -0,0 +1,154 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelSolverTest {
+
+    private ForkJoinPool pool;
+
+    private static final String[] LARGE_BOARD = {
+            "P..S..S.S.SS..W.....",
+            ".S..WW..M....SSG....",
+            "...........W..W.S...",
+            "..........S.......S.",
+            "MWS.W...S..........W",
+            "M.....S........S....",
+            "..W.SSGM.SSWW.S..W..",
+            ".W....SW...MS..W.S..",
+            "....M..............S",
+            "S...........GG......",
+            "S.....M........MWW..",
+            "W.....WS.......G....",
+            "..W..........S.MS.M.",
+            "......W.............",
+            "...........WW.S.S...",
+            "W..W..G.....M...G..S",
+            "..S...S...W.S..W....",
+            "W...SS..S...S.S.....",
+            ".W..WMSG.....M.S.S..",
+            "M..W..............SW"
+    };
+
+    private static byte toPackedCell(final char c) {
+        return switch (c) {
+            case 'W' -> PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+            case 'S' -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+            case 'P' -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+            case 'G' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+            case 'M' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+            default -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+        };
+    }
+
+    private static GameState createRandomGameState(final Random random, final int rows, final int cols) {
+        while (true) {
+            final var data = new byte[rows * cols];
+            for (int i = 0; i < data.length; ++i) {
+                final var x = random.nextInt(100);
+                if (x < 10) {
+                    data[i] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+                } else if (x < 16) {
+                    data[i] = PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+                } else if (x < 19) {
+                    data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+                } else if (x < 22) {
+                    data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+                } else if (x < 24) {
+                    data[i] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+                }
+            }
+            data[random.nextInt(data.length)] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+
+            try {
+                return new GameState(GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+            } catch (IllegalArgumentException e) {
+                // Try again with another board
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Same Number of Moves as Sequential Search")
+    void testSameNumberOfMoves() {
+        final var random = new Random(3021);
+
+        for (int round = 0; round < 50; ++round) {
+            final var size = 3 + random.nextInt(10);
+            final var gameState = createRandomGameState(random, size, size);
+
+            final var expected = new Solver(gameState).solve();
+            final var actual = new ParallelSolver(gameState, pool).solve();
+
+            assertEquals(expected.isSolvable(), actual.isSolvable(), "Mismatch for round=" + round);
+            if (expected.isSolvable()) {
+                assertEquals(expected.getMoves().size(), actual.getMoves().size(), "Mismatch for round=" + round);
+            }
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Large Frontiers")
+    void testLargeFrontiers() {
+        final var rows = LARGE_BOARD.length;
+        final var cols = LARGE_BOARD[0].length();
+        final var data = new byte[rows * cols];
+        for (int r = 0; r < rows; ++r) {
+            for (int c = 0; c < cols; ++c) {
+                data[r * cols + c] = toPackedCell(LARGE_BOARD[r].charAt(c));
+            }
+        }
+        final var gameState = new GameState(GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+
+        final var expected = new Solver(gameState).solve();
+        final var actual = new ParallelSolver(gameState, pool).solve();
+
+        assertTrue(expected.isSolvable());
+        assertTrue(actual.isSolvable());
+        assertEquals(expected.getMoves().size(), actual.getMoves().size());
+        assertTrue(actual.getNumExploredStates() > 5000);
+
+        // The solution must be playable
+        final var controller = new GameController(gameState);
+        for (final var move : actual.getMoves()) {
+            assertTrue(controller.processMove(move) instanceof MoveResult.Valid.Alive);
+        }
+        assertTrue(gameState.hasWon());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Lost Game")
+    void testSolveLostGame() {
+        final var data = new byte[]{
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER),
+                PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM),
+        };
+        final var gameState = new GameState(GameBoard.fromPackedBoard(new PackedBoard(1, 2, data)), 0);
+
+        assertFalse(new ParallelSolver(gameState, pool).solve().isSolvable());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+        pool = null;
+    }
+}
@@ -0,0 +1,190 @@
+package hk.ust.cse.comp3021.pa1.solver;
+
+import hk.ust.cse.comp3021.pa1.controller.GameBoardController;
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolverTest {
+
+    private GameState gameState;
+
+    private static byte toPackedCell(final char c) {
+        return switch (c) {
+            case 'W' -> PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE);
+            case 'S' -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_NONE);
+            case 'P' -> PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+            case 'G' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+            case 'L' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_EXTRA_LIFE);
+            case 'M' -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_MINE);
+            default -> PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_NONE);
+        };
+    }
+
+    private static GameState createGameState(final int numLives, final String... rows) {
+        final var numCols = rows[0].length();
+        final var data = new byte[rows.length * numCols];
+        for (int r = 0; r < rows.length; ++r) {
+            for (int c = 0; c < numCols; ++c) {
+                data[r * numCols + c] = toPackedCell(rows[r].charAt(c));
+            }
+        }
+        return new GameState(GameBoard.fromPackedBoard(new PackedBoard(rows.length, numCols, data)), numLives);
+    }
+
+    private static boolean replayWins(final GameState gameState, final List<Direction> moves) {
+        final var controller = new GameController(gameState);
+        for (final var move : moves) {
+            assertTrue(controller.processMove(move) instanceof MoveResult.Valid.Alive);
+        }
+        return gameState.hasWon();
+    }
+
+    private static boolean bruteForce(final GameBoard gameBoard, final GameBoardController controller,
+                                      final int depth) {
+        if (gameBoard.getNumGems() == 0) {
+            return true;
+        }
+        if (depth == 0) {
+            return false;
+        }
+        for (final var direction : Direction.values()) {
+            final var result = controller.makeMove(direction);
+            if (!(result instanceof MoveResult.Valid.Alive)) {
+                continue;
+            }
+            final var found = bruteForce(gameBoard, controller, depth - 1);
+            controller.undoMove(result);
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // P.G.
+    // ..W.
+    // G.S.
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Shortest Solution")
+    void testSolveShortest() {
+        gameState = createGameState(GameState.UNLIMITED_LIVES, "P.G.", "..W.", "G.S.");
+
+        final var solution = new Solver(gameState).solve();
+
+        assertTrue(solution.isSolvable());
+        assertEquals(List.of(Direction.DOWN, Direction.UP, Direction.RIGHT), solution.getMoves());
+        assertTrue(solution.getNumExploredStates() > 0);
+        assertNotNull(solution.getElapsedTime());
+
+        // The game itself is not modified by the solver
+        assertEquals(2, gameState.getNumGems());
+        assertTrue(replayWins(gameState, solution.getMoves()));
+    }
+
+    // PM.G
+    // L...
+    // S..S
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Mines and Stop Cells")
+    void testSolveMinesAndStopCells() {
+        gameState = createGameState(1, "PM.G", "L...", "S..S");
+
+        final var solution = new Solver(gameState).solve();
+
+        assertTrue(solution.isSolvable());
+        assertEquals(List.of(Direction.DOWN, Direction.RIGHT, Direction.UP), solution.getMoves());
+        assertTrue(replayWins(gameState, solution.getMoves()));
+    }
+
+    // P..
+    // .G.
+    // ...
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Unsolvable Board")
+    void testSolveUnsolvable() {
+        gameState = createGameState(GameState.UNLIMITED_LIVES, "P..", ".G.", "...");
+
+        final var solution = new Solver(gameState).solve();
+
+        assertFalse(solution.isSolvable());
+        assertNull(solution.getMoves());
+        assertEquals(4, solution.getNumExploredStates());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Lost Game")
+    void testSolveLostGame() {
+        gameState = createGameState(0, "PG");
+
+        assertFalse(new Solver(gameState).solve().isSolvable());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Solve - Matches Exhaustive Search")
+    void testSolveMatchesExhaustiveSearch() {
+        final var random = new Random(3021);
+        final var maxDepth = 6;
+        final var cells = "....WWSGGLM";
+
+        var numBoards = 0;
+        while (numBoards < 60) {
+            final var rows = 2 + random.nextInt(4);
+            final var cols = 2 + random.nextInt(4);
+            final var board = new String[rows];
+            final var playerIndex = random.nextInt(rows * cols);
+            for (int r = 0; r < rows; ++r) {
+                final var row = new StringBuilder();
+                for (int c = 0; c < cols; ++c) {
+                    row.append(r * cols + c == playerIndex ? 'P' : cells.charAt(random.nextInt(cells.length())));
+                }
+                board[r] = row.toString();
+            }
+
+            try {
+                gameState = createGameState(GameState.UNLIMITED_LIVES, board);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            ++numBoards;
+
+            final var solution = new Solver(gameState).solve();
+            final var gameBoard = gameState.getGameBoard();
+            final var controller = new GameBoardController(gameBoard);
+
+            int shortest = -1;
+            for (int depth = 0; depth <= maxDepth && shortest < 0; ++depth) {
+                if (bruteForce(gameBoard, controller, depth)) {
+                    shortest = depth;
+                }
+            }
+
+            final var message = String.join("/", board);
+            if (shortest >= 0) {
+                assertTrue(solution.isSolvable(), message);
+                assertEquals(shortest, solution.getMoves().size(), message);
+                assertTrue(replayWins(gameState, solution.getMoves()), message);
+            } else {
+                assertTrue(!solution.isSolvable() || solution.getMoves().size() > maxDepth, message);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameState = null;
+    }
+}
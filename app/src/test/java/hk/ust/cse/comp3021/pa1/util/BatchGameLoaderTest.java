@@ -0,0 +1,138 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.writeText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchGameLoaderTest {
+
+    private static final String VALID = "2\n3\n4\nP.G\n.WS\n";
+
+    private static Map<String, BatchGameLoader.Result> loadAll(final Path directory, final BatchGameLoader.Mode mode)
+            throws IOException {
+        try (var loader = new BatchGameLoader(3);
+             var results = loader.loadDirectory(directory, mode)) {
+            return results.collect(Collectors.toMap(r -> r.file().getFileName().toString(), Function.identity()));
+        }
+    }
+
+    private static Path createLevels(final Path directory) throws IOException {
+        Files.writeString(directory.resolve("valid.game"), VALID);
+        Files.writeString(directory.resolve("unknown-cell.game"), "2\n3\n\nP.G\n.XS\n");
+        Files.writeString(directory.resolve("two-players.game"), "2\n3\n\nP.G\n.PS\n");
+        Files.writeString(directory.resolve("no-player.game"), "2\n3\n\n..G\n.WS\n");
+        Files.writeString(directory.resolve("no-gems.game"), "2\n3\n\nP..\n.WS\n");
+        Files.writeString(directory.resolve("unreachable.game"), "2\n3\n\nPWG\nWSS\n");
+        Files.writeString(directory.resolve("malformed.game"), "2\n3\n\nP.G\n");
+        Files.writeString(directory.resolve("ignored.txt"), "not a game");
+        GameStateSerializer.writeTo(loadText(VALID), directory.resolve("compressed.game.gz"));
+        BinaryGameStateSerializer.writeTo(loadText(VALID), directory.resolve("saved.game"), true);
+        return directory;
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch Loading - Structured Errors")
+    void testStructuredErrors(@TempDir final Path tempDir) throws IOException {
+        for (final var mode : BatchGameLoader.Mode.values()) {
+            final var results = loadAll(createLevels(tempDir), mode);
+            assertEquals(9, results.size(), mode.toString());
+
+            final var unknownCell = ((BatchGameLoader.Failed) results.get("unknown-cell.game")).error();
+            assertEquals(GameFileException.Kind.UNKNOWN_CELL, unknownCell.getKind());
+            assertEquals(5, unknownCell.getLine());
+            assertEquals(1, unknownCell.getColumn());
+
+            final var twoPlayers = ((BatchGameLoader.Failed) results.get("two-players.game")).error();
+            assertEquals(GameFileException.Kind.PLAYER_COUNT, twoPlayers.getKind());
+            assertEquals(5, twoPlayers.getLine());
+
+            assertEquals(GameFileException.Kind.PLAYER_COUNT,
+                    ((BatchGameLoader.Failed) results.get("no-player.game")).error().getKind());
+            assertEquals(GameFileException.Kind.NO_GEMS,
+                    ((BatchGameLoader.Failed) results.get("no-gems.game")).error().getKind());
+            assertEquals(GameFileException.Kind.UNREACHABLE_GEMS,
+                    ((BatchGameLoader.Failed) results.get("unreachable.game")).error().getKind());
+            assertEquals(GameFileException.Kind.MALFORMED,
+                    ((BatchGameLoader.Failed) results.get("malformed.game")).error().getKind());
+
+            for (final var file : new String[]{"valid.game", "compressed.game.gz", "saved.game"}) {
+                final var result = results.get(file);
+                if (mode == BatchGameLoader.Mode.LOAD) {
+                    assertTrue(result instanceof BatchGameLoader.Loaded, file);
+                    assertEquals(VALID, writeText(((BatchGameLoader.Loaded) result).gameState()));
+                    assertEquals(4, ((BatchGameLoader.Loaded) result).gameState().getNumLives());
+                } else {
+                    assertEquals(new BatchGameLoader.Validated(result.file(), 2, 3, 1), result, file);
+                }
+            }
+
+            try (var files = Files.list(tempDir)) {
+                for (final var file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch Loading - Same As Serializer")
+    void testSameAsSerializer() throws IOException {
+        final var puzzles = Path.of("..", "puzzles").toAbsolutePath().normalize();
+        final var directory = Files.isDirectory(puzzles) ? puzzles : Path.of("puzzles").toAbsolutePath();
+
+        final var results = loadAll(directory, BatchGameLoader.Mode.LOAD);
+        assertFalse(results.isEmpty());
+        for (final var result : results.values()) {
+            assertTrue(result instanceof BatchGameLoader.Loaded, result.toString());
+            final var expected = GameStateSerializer.loadFrom(result.file());
+            final var actual = ((BatchGameLoader.Loaded) result).gameState();
+            assertEquals(writeText(expected), writeText(actual));
+            assertEquals(expected.getZobristHash(), actual.getZobristHash());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Batch Loading - Many Files")
+    void testManyFiles(@TempDir final Path tempDir) throws IOException {
+        final var files = IntStream.range(0, 200)
+                .mapToObj(i -> tempDir.resolve(i + ".game"))
+                .toList();
+        for (final var file : files) {
+            Files.writeString(file, VALID);
+        }
+
+        try (var loader = new BatchGameLoader(4);
+             var results = loader.load(files.stream(), BatchGameLoader.Mode.VALIDATE)) {
+            assertEquals(files.size(), results.filter(r -> r instanceof BatchGameLoader.Validated).count());
+        }
+
+        try (var loader = new BatchGameLoader(2);
+             var results = loader.load(Stream.of(tempDir.resolve("missing.game")), BatchGameLoader.Mode.LOAD)) {
+            final var result = (BatchGameLoader.Failed) results.findFirst().orElseThrow();
+            assertEquals(GameFileException.Kind.IO_ERROR, result.error().getKind());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchGameLoader(0));
+        try (var loader = new BatchGameLoader(1)) {
+            assertThrows(FileNotFoundException.class,
+                    () -> loader.loadDirectory(tempDir.resolve("missing"), BatchGameLoader.Mode.LOAD));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.writeText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGameStateSerializerTest {
+
+    private static final String SOURCE = String.join(System.lineSeparator(),
+            "4", "5", "3",
+            "P..GS",
+            ".W.M.",
+            "L..G.",
+            "S.GWS"
+    );
+
+    private static ByteBuffer writeBinary(final GameState gameState, final boolean includeMoveLog) {
+        final var buffer = ByteBuffer.allocate(BinaryGameStateSerializer.sizeOf(gameState, includeMoveLog));
+        BinaryGameStateSerializer.writeTo(gameState, buffer, includeMoveLog);
+        assertFalse(buffer.hasRemaining());
+        return buffer.flip();
+    }
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Sanity Test - Public Methods")
+    void testPublicMethods() {
+        final var clazz = BinaryGameStateSerializer.class;
+
+        assertEquals(0, ReflectionUtils.getPublicConstructors(clazz).length);
+        assertEquals(0, ReflectionUtils.getPublicInstanceMethods(clazz).length);
+        assertEquals(4, ReflectionUtils.getPublicStaticMethods(clazz).length);
+
+        assertDoesNotThrow(() -> clazz.getMethod("writeTo", GameState.class, Path.class, boolean.class));
+        assertDoesNotThrow(() -> clazz.getMethod("writeTo", GameState.class, ByteBuffer.class, boolean.class));
+        assertDoesNotThrow(() -> clazz.getMethod("sizeOf", GameState.class, boolean.class));
+        assertDoesNotThrow(() -> clazz.getMethod("readFrom", ByteBuffer.class));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Round Trip - Text Format")
+    void testRoundTripTextFormat() {
+        final var gameState = loadText(SOURCE);
+        final var restored = BinaryGameStateSerializer.readFrom(writeBinary(gameState, false));
+
+        assertEquals(writeText(gameState), writeText(restored));
+        assertEquals(gameState.getNumLives(), restored.getNumLives());
+        assertEquals(gameState.getNumGems(), restored.getNumGems());
+        assertEquals(gameState.getZobristHash(), restored.getZobristHash());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Round Trip - Unlimited Lives")
+    void testRoundTripUnlimitedLives() {
+        final var gameState = loadText(String.join(System.lineSeparator(), "1", "3", "", "PLG"));
+        final var restored = BinaryGameStateSerializer.readFrom(writeBinary(gameState, false));
+
+        assertTrue(restored.hasUnlimitedLives());
+        assertEquals(writeText(gameState), writeText(restored));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Round Trip - Counters and Move Log")
+    void testRoundTripMoveLog() {
+        final var gameState = loadText(SOURCE);
+        final var controller = new GameController(gameState);
+        controller.processMove(Direction.RIGHT);
+        controller.processMove(Direction.DOWN);
+        controller.processMove(Direction.LEFT);
+        controller.processUndo();
+        controller.processMove(Direction.LEFT);
+
+        final var restored = BinaryGameStateSerializer.readFrom(writeBinary(gameState, true));
+
+        assertEquals(writeText(gameState), writeText(restored));
+        assertEquals(gameState.getNumMoves(), restored.getNumMoves());
+        assertEquals(gameState.getNumDeaths(), restored.getNumDeaths());
+        assertEquals(gameState.getNumLives(), restored.getNumLives());
+        assertEquals(gameState.getInitialNumGems(), restored.getInitialNumGems());
+        assertEquals(gameState.getMoveStack().getPopCount(), restored.getMoveStack().getPopCount());
+        assertEquals(gameState.getScore(), restored.getScore());
+        assertEquals(gameState.getMoveStack().getMoves().size(), restored.getMoveStack().getMoves().size());
+
+        // Both games must undo back to the same board
+        final var restoredController = new GameController(restored);
+        while (controller.processUndo()) {
+            assertTrue(restoredController.processUndo());
+            assertEquals(writeText(gameState), writeText(restored));
+            assertEquals(gameState.getNumLives(), restored.getNumLives());
+        }
+        assertFalse(restoredController.processUndo());
+        assertEquals(gameState.getScore(), restored.getScore());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Round Trip - Move Log Omitted")
+    void testMoveLogOmitted() {
+        final var gameState = loadText(SOURCE);
+        new GameController(gameState).processMove(Direction.RIGHT);
+
+        final var restored = BinaryGameStateSerializer.readFrom(writeBinary(gameState, false));
+
+        assertEquals(writeText(gameState), writeText(restored));
+        assertEquals(gameState.getScore(), restored.getScore());
+        assertTrue(restored.getMoveStack().isEmpty());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Size - Four Bits per Cell")
+    void testFourBitsPerCell() {
+        final var rows = 101;
+        final var cols = 99;
+        final var data = new byte[rows * cols];
+        data[0] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        data[data.length - 1] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        final var gameState = new GameState(GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+
+        // A 1x2 board takes a single byte for its cells
+        final var smallest = loadText(String.join(System.lineSeparator(), "1", "2", "", "PG"));
+        assertEquals((rows * cols + 1) / 2 - 1,
+                BinaryGameStateSerializer.sizeOf(gameState, false) - BinaryGameStateSerializer.sizeOf(smallest, false));
+
+        final var restored = BinaryGameStateSerializer.readFrom(writeBinary(gameState, false));
+        assertEquals(writeText(gameState), writeText(restored));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Round Trip - Entities on Stop Cells")
+    void testEntitiesOnStopCells() {
+        final var data = new byte[]{
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER),
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_GEM),
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_EXTRA_LIFE),
+                PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_MINE),
+                PackedBoard.pack(PackedBoard.CELL_WALL, PackedBoard.ENTITY_NONE),
+        };
+        final var gameState = new GameState(GameBoard.fromPackedBoard(new PackedBoard(1, data.length, data)));
+        final var restored = BinaryGameStateSerializer.readFrom(writeBinary(gameState, false));
+
+        final var board = restored.getGameBoard().getPackedBoard();
+        for (int i = 0; i < data.length; ++i) {
+            assertEquals(data[i], board.get(i), "Mismatch for index=" + i);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Deserialization - Invalid Input")
+    void testInvalidInput() {
+        final var bytes = writeBinary(loadText(SOURCE), false).array();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.readFrom(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.readFrom(ByteBuffer.wrap(SOURCE.getBytes())));
+
+        final var badVersion = bytes.clone();
+        badVersion[4] = 2;
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.readFrom(ByteBuffer.wrap(badVersion)));
+
+        final var badCell = bytes.clone();
+        badCell[badCell.length - 1] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryGameStateSerializer.readFrom(ByteBuffer.wrap(badCell)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("File - Format Auto-Detection")
+    void testFormatAutoDetection(@TempDir final Path tempDir) throws IOException {
+        final var gameState = loadText(SOURCE);
+        new GameController(gameState).processMove(Direction.RIGHT);
+
+        final var binaryFile = BinaryGameStateSerializer.writeTo(gameState, tempDir.resolve("binary.game"), true);
+        final var textFile = GameStateSerializer.writeTo(gameState, tempDir.resolve("text.game"));
+        assertEquals(BinaryGameStateSerializer.sizeOf(gameState, true), Files.size(binaryFile));
+
+        final var fromBinary = GameStateSerializer.loadFrom(binaryFile);
+        final var fromText = GameStateSerializer.loadFrom(textFile);
+        assertEquals(writeText(gameState), writeText(fromBinary));
+        assertEquals(writeText(gameState), writeText(fromText));
+        assertEquals(gameState.getScore(), fromBinary.getScore());
+        assertFalse(fromBinary.getMoveStack().isEmpty());
+
+        assertThrows(FileAlreadyExistsException.class,
+                () -> BinaryGameStateSerializer.writeTo(gameState, binaryFile, false));
+    }
+}
@@ -0,0 +1,97 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChannelBufferTest {
+
+    /**
+     * An input stream which returns at most one byte per read.
+     */
+    private static InputStream trickle(final byte[] bytes) {
+        return new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(final byte[] b, final int off, final int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Reading - Refills Across Short Reads")
+    void testReading() throws IOException {
+        final var bytes = ByteBuffer.allocate(12).putInt(3021).putLong(-1L).array();
+        final var in = ChannelBuffer.reading(Channels.newChannel(trickle(bytes)));
+
+        assertEquals(3021, in.require(Integer.BYTES).getInt());
+        assertEquals(-1L, in.require(Long.BYTES).getLong());
+        assertThrows(BufferUnderflowException.class, () -> in.require(1));
+        assertEquals(-1, in.read(ByteBuffer.allocate(1)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Reading - Peeked Bytes Are Read Again")
+    void testPeek() throws IOException {
+        final var bytes = "3\n3\n\n".getBytes();
+        final var in = ChannelBuffer.reading(Channels.newChannel(trickle(bytes)));
+
+        assertTrue(in.peek(3).remaining() >= 3);
+        assertEquals(bytes.length, in.peek(100).remaining());
+
+        final var out = ByteBuffer.allocate(100);
+        int numRead;
+        do {
+            numRead = in.read(out);
+        } while (numRead >= 0);
+        assertArrayEquals(bytes, Arrays.copyOf(out.array(), out.position()));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Writing - Drains When Full")
+    void testWriting() throws IOException {
+        final var stream = new ByteArrayOutputStream();
+        final var out = ChannelBuffer.writing(Channels.newChannel(stream));
+
+        final var count = ChannelBuffer.DEFAULT_CAPACITY;
+        for (int i = 0; i < count; ++i) {
+            out.require(Integer.BYTES).putInt(i);
+        }
+        assertTrue(stream.size() > 0);
+        out.flush();
+
+        final var written = ByteBuffer.wrap(stream.toByteArray());
+        assertEquals(count * Integer.BYTES, written.remaining());
+        for (int i = 0; i < count; ++i) {
+            assertEquals(i, written.getInt());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Without Channel - Buffer Used Directly")
+    void testWithoutChannel() throws IOException {
+        final var buffer = ByteBuffer.allocate(4).putInt(0, 42);
+        final var in = ChannelBuffer.of(buffer);
+
+        assertSame(buffer, in.require(Integer.BYTES));
+        assertFalse(in.endsBefore(Integer.BYTES));
+        assertTrue(in.endsBefore(Integer.BYTES + 1));
+        assertEquals(42, in.require(Integer.BYTES).getInt());
+        assertEquals(-1, in.read(ByteBuffer.allocate(1)));
+    }
+}
@@ -0,0 +1,142 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.writeText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameFilesTest {
+
+    private static final String SOURCE = String.join(System.lineSeparator(),
+            "4", "5", "3",
+            "P..GS",
+            ".W.M.",
+            "L..G.",
+            "S.GWS"
+    );
+
+    private static GameState largeGame(final int rows, final int cols) {
+        final var data = new byte[rows * cols];
+        data[0] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        data[data.length - 1] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        for (int r = 1; r < rows; r += 2) {
+            Arrays.fill(data, r * cols, (r + 1) * cols - 1, PackedBoard.pack(PackedBoard.CELL_WALL,
+                    PackedBoard.ENTITY_NONE));
+        }
+        return new GameState(GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+    }
+
+    private static byte[] decompress(final Path file) throws IOException {
+        try (var in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Compression - Detected From File Name")
+    void testIsCompressed() {
+        assertTrue(GameFiles.isCompressed(Path.of("puzzles", "01-easy.game.gz")));
+        assertTrue(GameFiles.isCompressed(Path.of("save.gz")));
+        assertFalse(GameFiles.isCompressed(Path.of("puzzles", "01-easy.game")));
+        assertFalse(GameFiles.isCompressed(Path.of("gz")));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Compression - Text Round Trip")
+    void testTextRoundTrip(@TempDir final Path tempDir) throws IOException {
+        final var gameState = loadText(SOURCE);
+
+        final var plain = GameStateSerializer.writeTo(gameState, tempDir.resolve("level.game"));
+        final var compressed = GameStateSerializer.writeTo(gameState, tempDir.resolve("level.game.gz"));
+
+        // The compressed stream holds the text format unchanged
+        assertArrayEquals(Files.readAllBytes(plain), decompress(compressed));
+        assertEquals(writeText(gameState), writeText(GameStateSerializer.loadFrom(compressed)));
+        assertEquals(writeText(gameState), writeText(MappedGameStateSerializer.loadFrom(compressed)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Compression - Binary Round Trip")
+    void testBinaryRoundTrip(@TempDir final Path tempDir) throws IOException {
+        final var gameState = loadText(SOURCE);
+        final var controller = new GameController(gameState);
+        controller.processMove(Direction.RIGHT);
+        controller.processMove(Direction.DOWN);
+
+        final var compressed = BinaryGameStateSerializer.writeTo(gameState, tempDir.resolve("save.bin.gz"), true);
+        final var mapped = MappedGameStateSerializer.writeTo(gameState, tempDir.resolve("mapped.bin.gz"), true);
+        assertEquals(BinaryGameStateSerializer.sizeOf(gameState, true), decompress(compressed).length);
+
+        for (final var file : new Path[]{compressed, mapped}) {
+            final var loaded = GameStateSerializer.loadFrom(file);
+            assertEquals(writeText(gameState), writeText(loaded));
+            assertEquals(gameState.getScore(), loaded.getScore());
+            assertEquals(gameState.getZobristHash(), loaded.getZobristHash());
+
+            final var loadedController = new GameController(loaded);
+            assertTrue(loadedController.processUndo());
+            assertTrue(loadedController.processUndo());
+            assertFalse(loadedController.processUndo());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Compression - Large Board")
+    void testLargeBoard(@TempDir final Path tempDir) throws IOException {
+        final var gameState = largeGame(1001, 1000);
+
+        final var text = GameStateSerializer.writeTo(gameState, tempDir.resolve("large.game.gz"));
+        final var binary = BinaryGameStateSerializer.writeTo(gameState, tempDir.resolve("large.bin.gz"), false);
+        final var uncompressed = BinaryGameStateSerializer.writeTo(gameState, tempDir.resolve("large.bin"), false);
+
+        assertTrue(Files.size(text) * 100 < Files.size(uncompressed), "Text: " + Files.size(text));
+        assertTrue(Files.size(binary) * 100 < Files.size(uncompressed), "Binary: " + Files.size(binary));
+
+        for (final var file : new Path[]{text, binary, uncompressed}) {
+            final var loaded = GameStateSerializer.loadFrom(file);
+            assertEquals(1, loaded.getNumGems());
+            assertEquals(gameState.getZobristHash(), loaded.getZobristHash());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Compression - Invalid Input")
+    void testInvalidInput(@TempDir final Path tempDir) throws IOException {
+        final var file = GameStateSerializer.writeTo(loadText(SOURCE), tempDir.resolve("level.game.gz"));
+        final var bytes = Files.readAllBytes(file);
+
+        final var truncated = Files.write(tempDir.resolve("truncated.game.gz"),
+                Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IllegalArgumentException.class, () -> GameStateSerializer.loadFrom(truncated));
+
+        final var corrupted = bytes.clone();
+        for (int i = 10; i < corrupted.length - 8; ++i) {
+            corrupted[i] = (byte) ~corrupted[i];
+        }
+        final var corruptedFile = Files.write(tempDir.resolve("corrupted.game.gz"), corrupted);
+        assertThrows(IllegalArgumentException.class, () -> GameStateSerializer.loadFrom(corruptedFile));
+
+        assertThrows(FileAlreadyExistsException.class,
+                () -> GameStateSerializer.writeTo(loadText(SOURCE), file));
+        assertThrows(FileAlreadyExistsException.class,
+                () -> BinaryGameStateSerializer.writeTo(loadText(SOURCE), file, false));
+    }
+}
@@ -0,0 +1,169 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.writeText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameJournalTest {
+
+    private static final String SOURCE = String.join(System.lineSeparator(),
+            "4", "5", "3",
+            "P..GS",
+            ".W.M.",
+            "L..G.",
+            "S.GWS"
+    );
+
+    private static void assertSameGame(final GameState expected, final GameState actual) {
+        assertEquals(writeText(expected), writeText(actual));
+        assertEquals(expected.getNumMoves(), actual.getNumMoves());
+        assertEquals(expected.getNumDeaths(), actual.getNumDeaths());
+        assertEquals(expected.getNumLives(), actual.getNumLives());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.getMoveStack().getPopCount(), actual.getMoveStack().getPopCount());
+        assertEquals(expected.getMoveStack().getMoves().size(), actual.getMoveStack().getMoves().size());
+        for (int i = 0; i < expected.getMoveStack().getMoves().size(); ++i) {
+            final var expectedMove = (MoveResult.Valid.Alive) expected.getMoveStack().getMoves().get(i);
+            final var actualMove = (MoveResult.Valid.Alive) actual.getMoveStack().getMoves().get(i);
+            assertEquals(expectedMove.origPosition, actualMove.origPosition);
+            assertEquals(expectedMove.newPosition, actualMove.newPosition);
+            assertEquals(expectedMove.collectedGems, actualMove.collectedGems);
+            assertEquals(expectedMove.collectedExtraLives, actualMove.collectedExtraLives);
+        }
+        assertEquals(expected.getZobristHash(), actual.getZobristHash());
+    }
+
+    /**
+     * Plays a fixed sequence of moves, including an invalid move, a death and undos.
+     */
+    private static void play(final GameController controller) {
+        controller.processMove(Direction.UP);
+        controller.processMove(Direction.RIGHT);
+        controller.processMove(Direction.DOWN);
+        controller.processMove(Direction.LEFT);
+        controller.processUndo();
+        controller.processMove(Direction.DOWN, new MutableMoveResult());
+        controller.processUndo();
+        controller.processUndo();
+        controller.processUndo();
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Recovery - Same As Played Game")
+    void testRecover(@TempDir final Path tempDir) throws IOException {
+        final var file = tempDir.resolve("game.journal");
+        final GameState played;
+        try (var journal = GameJournal.create(file, loadText(SOURCE), 3, 2)) {
+            play(journal.getController());
+            played = journal.getGameState();
+            assertSameGame(played, GameJournal.recover(file));
+        }
+        assertSameGame(played, GameJournal.recover(file));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Recovery - Records Are Appended in Constant Size")
+    void testCompactRecords(@TempDir final Path tempDir) throws IOException {
+        final var file = tempDir.resolve("game.journal");
+        try (var journal = GameJournal.create(file, loadText(SOURCE))) {
+            final var sizeAfterSnapshot = Files.size(file);
+            final var controller = journal.getController();
+
+            assertTrue(controller.processMove(Direction.RIGHT) instanceof MoveResult.Valid.Alive);
+            assertEquals(sizeAfterSnapshot + 1, Files.size(file));
+            assertTrue(controller.processMove(Direction.RIGHT) instanceof MoveResult.Invalid);
+            assertEquals(sizeAfterSnapshot + 1, Files.size(file));
+            assertTrue(controller.processUndo());
+            assertEquals(sizeAfterSnapshot + 2, Files.size(file));
+            assertFalse(controller.processUndo());
+            assertEquals(sizeAfterSnapshot + 2, Files.size(file));
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Recovery - Resume After Torn Write")
+    void testResume(@TempDir final Path tempDir) throws IOException {
+        final var file = tempDir.resolve("game.journal");
+        try (var journal = GameJournal.create(file, loadText(SOURCE), 4, 1)) {
+            play(journal.getController());
+        }
+        final var expected = loadText(SOURCE);
+        final var expectedController = new GameController(expected);
+        play(expectedController);
+
+        // Simulate a crash while a snapshot was being written
+        Files.write(file, new byte[]{0x30, 0, 0, 1, 0, 7, 7}, StandardOpenOption.APPEND);
+
+        try (var journal = GameJournal.open(file, 4, 1)) {
+            assertSameGame(expected, journal.getGameState());
+
+            journal.getController().processMove(Direction.RIGHT);
+            expectedController.processMove(Direction.RIGHT);
+        }
+        assertSameGame(expected, GameJournal.recover(file));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Recovery - Torn Snapshot With Corrupt Size")
+    void testCorruptSnapshotSize(@TempDir final Path tempDir) throws IOException {
+        final var file = tempDir.resolve("game.journal");
+        try (var journal = GameJournal.create(file, loadText(SOURCE), 4, 1)) {
+            play(journal.getController());
+        }
+        final var expected = loadText(SOURCE);
+        play(new GameController(expected));
+
+        // A damaged tail claiming a snapshot of Integer.MAX_VALUE bytes is discarded instead of being allocated
+        Files.write(file, new byte[]{0x30, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 7, 7},
+                StandardOpenOption.APPEND);
+        assertSameGame(expected, GameJournal.recover(file));
+
+        try (var journal = GameJournal.open(file, 4, 1)) {
+            assertSameGame(expected, journal.getGameState());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Recovery - Invalid Input")
+    void testInvalidInput(@TempDir final Path tempDir) throws IOException {
+        final var file = tempDir.resolve("game.journal");
+        GameJournal.create(file, loadText(SOURCE)).close();
+
+        assertThrows(FileAlreadyExistsException.class, () -> GameJournal.create(file, loadText(SOURCE)));
+        assertThrows(FileNotFoundException.class, () -> GameJournal.recover(tempDir.resolve("missing.journal")));
+        assertThrows(IllegalArgumentException.class, () -> GameJournal.create(tempDir.resolve("a"),
+                loadText(SOURCE), 0, 1));
+
+        final var text = GameStateSerializer.writeTo(loadText(SOURCE), tempDir.resolve("level.game"));
+        assertThrows(IllegalArgumentException.class, () -> GameJournal.recover(text));
+
+        // A journal whose only snapshot is corrupted cannot be recovered
+        final var bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        final var corrupted = Files.write(tempDir.resolve("corrupted.journal"), bytes);
+        assertThrows(IllegalArgumentException.class, () -> GameJournal.recover(corrupted));
+
+        // A move which does not match the game is rejected
+        final var mismatched = Files.copy(file, tempDir.resolve("mismatched.journal"));
+        Files.write(mismatched, new byte[]{(byte) (0x10 | Direction.UP.ordinal())}, StandardOpenOption.APPEND);
+        assertThrows(IllegalArgumentException.class, () -> GameJournal.recover(mismatched));
+    }
+}
@@ -0,0 +1,47 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.model.GameState;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+public class GameStateUtils {
+
+    public static GameState loadText(final String source) {
+        try (final var reader = new BufferedReader(new StringReader(source))) {
+            return GameStateSerializer.loadFrom(reader);
+        } catch (IOException e) {
+            fail(e);
+            throw new AssertionError();
+        }
+    }
+
+    public static String writeText(final GameState gameState) {
+        final var strWriter = new StringWriter();
+        try (final var writer = new BufferedWriter(strWriter)) {
+            GameStateSerializer.writeTo(gameState, writer);
+        } catch (final IOException e) {
+            fail(e);
+        }
+        return strWriter.toString();
+    }
+
+    public static GameState createGameState(final String source) throws IOException {
+        final var file = Files.createTempFile("board", ".game");
+        try {
+            Files.writeString(file, source);
+            return GameStateSerializer.loadFrom(file);
+        } catch (final FileNotFoundException e) {
+            throw new AssertionError(e);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.writeText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedGameStateSerializerTest {
+
+    private static final String SOURCE = String.join(System.lineSeparator(),
+            "4", "5", "3",
+            "P..GS",
+            ".W.M.",
+            "L..G.",
+            "S.GWS"
+    );
+
+    @Test
+    @Tag("sanity")
+    @DisplayName("Sanity Test - Public Methods")
+    void testPublicMethods() {
+        final var clazz = MappedGameStateSerializer.class;
+
+        assertEquals(0, ReflectionUtils.getPublicConstructors(clazz).length);
+        assertEquals(0, ReflectionUtils.getPublicInstanceMethods(clazz).length);
+        assertEquals(2, ReflectionUtils.getPublicStaticMethods(clazz).length);
+
+        assertDoesNotThrow(() -> clazz.getMethod("loadFrom", Path.class));
+        assertDoesNotThrow(() -> clazz.getMethod("writeTo", GameState.class, Path.class, boolean.class));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Round Trip - Mapped Board")
+    void testRoundTrip(@TempDir final Path tempDir) throws IOException {
+        final var gameState = loadText(SOURCE);
+        final var controller = new GameController(gameState);
+        controller.processMove(Direction.RIGHT);
+        controller.processMove(Direction.DOWN);
+
+        final var file = MappedGameStateSerializer.writeTo(gameState, tempDir.resolve("mapped.game"), true);
+        final var loaded = MappedGameStateSerializer.loadFrom(file);
+
+        assertEquals(writeText(gameState), writeText(loaded));
+        assertEquals(gameState.getNumGems(), loaded.getNumGems());
+        assertEquals(gameState.getZobristHash(), loaded.getZobristHash());
+        assertEquals(gameState.getScore(), loaded.getScore());
+        assertEquals(gameState.getGameBoard().getPlayer().getOwner().getPosition(),
+                loaded.getGameBoard().getPlayer().getOwner().getPosition());
+
+        // Both games must undo back to the same board
+        final var loadedController = new GameController(loaded);
+        while (controller.processUndo()) {
+            assertTrue(loadedController.processUndo());
+            assertEquals(writeText(gameState), writeText(loaded));
+        }
+        assertFalse(loadedController.processUndo());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Mapped Board - Moves Are Not Written Back")
+    void testFileUnchanged(@TempDir final Path tempDir) throws IOException {
+        final var file = MappedGameStateSerializer.writeTo(loadText(SOURCE), tempDir.resolve("mapped.game"), false);
+        final var original = Files.readAllBytes(file);
+
+        final var loaded = MappedGameStateSerializer.loadFrom(file);
+        final var controller = new GameController(loaded);
+        assertTrue(controller.processMove(Direction.RIGHT) instanceof MoveResult.Valid.Alive);
+        assertTrue(controller.processMove(Direction.DOWN) instanceof MoveResult.Valid.Alive);
+        assertEquals(2, loaded.getNumGems());
+
+        assertArrayEquals(original, Files.readAllBytes(file));
+        assertEquals(writeText(loadText(SOURCE)), writeText(MappedGameStateSerializer.loadFrom(file)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Mapped Board - Other Formats")
+    void testOtherFormats(@TempDir final Path tempDir) throws IOException {
+        final var gameState = loadText(SOURCE);
+
+        final var textFile = GameStateSerializer.writeTo(gameState, tempDir.resolve("text.game"));
+        final var binaryFile = BinaryGameStateSerializer.writeTo(gameState, tempDir.resolve("binary.game"), false);
+        final var mappedFile = MappedGameStateSerializer.writeTo(gameState, tempDir.resolve("mapped.game"), false);
+
+        assertEquals(writeText(gameState), writeText(MappedGameStateSerializer.loadFrom(textFile)));
+        assertEquals(writeText(gameState), writeText(MappedGameStateSerializer.loadFrom(binaryFile)));
+        assertEquals(writeText(gameState), writeText(GameStateSerializer.loadFrom(mappedFile)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Mapped Board - Invalid Input")
+    void testInvalidInput(@TempDir final Path tempDir) throws IOException {
+        final var file = MappedGameStateSerializer.writeTo(loadText(SOURCE), tempDir.resolve("mapped.game"), false);
+        final var bytes = Files.readAllBytes(file);
+
+        final var truncated = Files.write(tempDir.resolve("truncated.game"), Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IllegalArgumentException.class, () -> MappedGameStateSerializer.loadFrom(truncated));
+
+        assertThrows(FileNotFoundException.class,
+                () -> MappedGameStateSerializer.loadFrom(tempDir.resolve("missing.game")));
+        assertThrows(FileAlreadyExistsException.class,
+                () -> MappedGameStateSerializer.writeTo(loadText(SOURCE), file, false));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Mapped Board - Tampered Files")
+    void testTamperedFiles(@TempDir final Path tempDir) throws IOException {
+        final var gameState = loadText(SOURCE);
+        final var file = MappedGameStateSerializer.writeTo(gameState, tempDir.resolve("mapped.game"), false);
+        final var bytes = Files.readAllBytes(file);
+
+        // Without a move log, the cells are at the end of the file, right after the board summary
+        final var numCells = gameState.getGameBoard().getNumRows() * gameState.getGameBoard().getNumCols();
+        final var cellsStart = bytes.length - numCells;
+        final var numGemsOffset = cellsStart - 3 * Integer.BYTES - Long.BYTES;
+        final var zobristHashOffset = cellsStart - Long.BYTES;
+
+        final var wrongCount = ByteBuffer.wrap(bytes.clone());
+        wrongCount.putInt(numGemsOffset, gameState.getNumGems() + 1);
+        final var wrongCountFile = Files.write(tempDir.resolve("count.game"), wrongCount.array());
+        assertThrows(IllegalArgumentException.class, () -> MappedGameStateSerializer.loadFrom(wrongCountFile));
+
+        final var wrongHash = ByteBuffer.wrap(bytes.clone());
+        wrongHash.putLong(zobristHashOffset, wrongHash.getLong(zobristHashOffset) ^ 1);
+        final var wrongHashFile = Files.write(tempDir.resolve("hash.game"), wrongHash.array());
+        assertThrows(IllegalArgumentException.class, () -> MappedGameStateSerializer.loadFrom(wrongHashFile));
+
+        // An added gem is detected by the hash even if the count is edited to match
+        final var addedGem = ByteBuffer.wrap(bytes.clone());
+        addedGem.put(cellsStart + 1, PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM));
+        addedGem.putInt(numGemsOffset, gameState.getNumGems() + 1);
+        final var addedGemFile = Files.write(tempDir.resolve("gem.game"), addedGem.array());
+        assertThrows(IllegalArgumentException.class, () -> MappedGameStateSerializer.loadFrom(addedGemFile));
+
+        final var unknownCell = bytes.clone();
+        unknownCell[cellsStart + 6] = 0x7F;
+        final var unknownCellFile = Files.write(tempDir.resolve("cell.game"), unknownCell);
+        assertThrows(IllegalArgumentException.class, () -> MappedGameStateSerializer.loadFrom(unknownCellFile));
+
+        assertEquals(writeText(gameState), writeText(MappedGameStateSerializer.loadFrom(file)));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Mapped Board - Large Board")
+    void testLargeBoard(@TempDir final Path tempDir) throws IOException {
+        final var rows = 2000;
+        final var cols = 2000;
+        final var data = new byte[rows * cols];
+        data[0] = PackedBoard.pack(PackedBoard.CELL_STOP, PackedBoard.ENTITY_PLAYER);
+        data[cols - 1] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        data[data.length - 1] = PackedBoard.pack(PackedBoard.CELL_EMPTY, PackedBoard.ENTITY_GEM);
+        final var gameState = new GameState(GameBoard.fromPackedBoard(new PackedBoard(rows, cols, data)));
+
+        final var file = MappedGameStateSerializer.writeTo(gameState, tempDir.resolve("large.game"), false);
+        final var loaded = MappedGameStateSerializer.loadFrom(file);
+
+        assertEquals(2, loaded.getNumGems());
+        assertEquals(gameState.getZobristHash(), loaded.getZobristHash());
+
+        final var controller = new GameController(loaded);
+        assertTrue(controller.processMove(Direction.RIGHT) instanceof MoveResult.Valid.Alive);
+        assertTrue(controller.processMove(Direction.DOWN) instanceof MoveResult.Valid.Alive);
+        assertTrue(loaded.hasWon());
+    }
+}
@@ -0,0 +1,152 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayVerifierTest {
+
+    private static final String LEVEL = "3\n4\n2\nP.GS\n.W.M\nSG.L\n";
+
+    /**
+     * Plays a log on a freshly loaded level using {@link GameController#processMove(Direction)}.
+     */
+    private static GameState play(final String moves) {
+        final var gameState = loadText(LEVEL);
+        final var controller = new GameController(gameState);
+        for (int i = 0; i < moves.length() && !gameState.hasWon() && !gameState.hasLost(); ++i) {
+            switch (moves.charAt(i)) {
+                case 'U' -> controller.processMove(Direction.UP);
+                case 'D' -> controller.processMove(Direction.DOWN);
+                case 'L' -> controller.processMove(Direction.LEFT);
+                case 'R' -> controller.processMove(Direction.RIGHT);
+                case 'Z' -> controller.processUndo();
+                default -> fail("Unexpected move " + moves.charAt(i));
+            }
+        }
+        return gameState;
+    }
+
+    private static String randomMoves(final Random random, final int length) {
+        final var moves = new StringBuilder();
+        for (int i = 0; i < length; ++i) {
+            moves.append("UDLRZ".charAt(random.nextInt(5)));
+        }
+        return moves.toString();
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Replay Verifier - Replays Match Interactive Games")
+    void testReplayMatchesController() {
+        final var random = new Random(3021);
+        try (var verifier = new ReplayVerifier(loadText(LEVEL), 1)) {
+            for (int i = 0; i < 200; ++i) {
+                final var moves = randomMoves(random, random.nextInt(20));
+                final var expected = play(moves);
+
+                final var result = verifier.replay(
+                        new ReplayVerifier.MoveLog("log-" + i, moves, expected.getScore(), expected.hasWon()));
+                assertEquals(ReplayVerifier.Status.VERIFIED, result.status(), moves);
+                assertEquals(expected.getScore(), result.score(), moves);
+                assertEquals(expected.hasWon(), result.won(), moves);
+
+                final var mismatch = verifier.replay(
+                        new ReplayVerifier.MoveLog("log-" + i, moves, expected.getScore() + 1, expected.hasWon()));
+                assertEquals(ReplayVerifier.Status.MISMATCH, mismatch.status(), moves);
+            }
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Replay Verifier - Parsing Logs")
+    void testParseLogs() {
+        final var log = ReplayVerifier.MoveLog.parse("game-1, rrDz ,42,TRUE");
+        assertEquals("game-1", log.id());
+        assertEquals("rrDz", log.moves());
+        assertEquals(42, log.claimedScore());
+        assertTrue(log.claimedWon());
+
+        assertThrows(IllegalArgumentException.class, () -> ReplayVerifier.MoveLog.parse("game-1,RX,42,true"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayVerifier.MoveLog.parse("game-1,R,forty,true"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayVerifier.MoveLog.parse("game-1,R,42,yes"));
+        assertThrows(IllegalArgumentException.class, () -> ReplayVerifier.MoveLog.parse("game-1,R,42"));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Replay Verifier - Streaming Many Logs")
+    void testVerifyManyLogs() throws IOException {
+        final var random = new Random(42);
+        final var logs = new StringBuilder(ReplayVerifier.LOG_HEADER).append('\n');
+        final var numLogs = 2000;
+        int expectedVerified = 0;
+        int expectedMismatched = 0;
+        for (int i = 0; i < numLogs; ++i) {
+            final var moves = randomMoves(random, random.nextInt(30));
+            final var expected = play(moves);
+            final var honest = random.nextBoolean();
+            if (honest) {
+                ++expectedVerified;
+            } else {
+                ++expectedMismatched;
+            }
+            logs.append("log-").append(i).append(',').append(moves).append(',')
+                    .append(honest ? expected.getScore() : expected.getScore() - 10).append(',')
+                    .append(expected.hasWon()).append('\n');
+        }
+        logs.append("# comment\n\nbroken,RX,1,true\n");
+
+        final var out = new StringWriter();
+        final ReplayVerifier.Report report;
+        try (var verifier = new ReplayVerifier(loadText(LEVEL), 3);
+             var reader = new BufferedReader(new StringReader(logs.toString()))) {
+            report = verifier.verify(reader, out, ReplayVerifier.Format.JSONL);
+        }
+
+        assertEquals(numLogs + 1, report.numLogs());
+        assertEquals(expectedVerified, report.numVerified());
+        assertEquals(expectedMismatched, report.numMismatched());
+        assertEquals(1, report.numMalformed());
+        assertTrue(report.logsPerSecond() > 0);
+
+        final var lines = out.toString().split(System.lineSeparator());
+        assertEquals(numLogs + 1, lines.length);
+        for (final var line : lines) {
+            assertTrue(line.startsWith("{\"id\":\"") && line.endsWith("}"), line);
+        }
+        assertEquals(1, out.toString().split("\"status\":\"MALFORMED\"", -1).length - 1);
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Replay Verifier - CSV Output")
+    void testCsvOutput() throws IOException {
+        final var expected = play("R");
+        final var score = expected.getScore();
+        final var won = expected.hasWon();
+        final var out = new StringWriter();
+        try (var verifier = new ReplayVerifier(loadText(LEVEL), 2);
+             var reader = new BufferedReader(new StringReader("a,R," + score + "," + won + "\n"))) {
+            verifier.verify(reader, out, ReplayVerifier.Format.CSV);
+        }
+
+        final var lines = out.toString().split(System.lineSeparator());
+        assertEquals(2, lines.length);
+        assertEquals("id,status,num_moves,score,won,claimed_score,claimed_won,error", lines[0]);
+        assertEquals("a,VERIFIED,1," + score + "," + won + "," + score + "," + won + ",", lines[1]);
+    }
+}
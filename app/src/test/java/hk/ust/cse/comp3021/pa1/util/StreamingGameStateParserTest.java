@@ -0,0 +1,153 @@
+package hk.ust.cse.comp3021.pa1.util;
+
+import hk.ust.cse.comp3021.pa1.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.loadText;
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.writeText;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingGameStateParserTest {
+
+    private static GameState parse(final String source, final int bufferSize) {
+        final var channel = Channels.newChannel(new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII)));
+        try {
+            return new StreamingGameStateParser(bufferSize).parse(channel);
+        } catch (IOException e) {
+            fail(e);
+            throw new AssertionError();
+        }
+    }
+
+    private static void assertParseError(final String source, final String expectedMessage) {
+        final var e = assertThrows(IllegalArgumentException.class, () -> parse(source, 4));
+        assertTrue(e.getMessage().startsWith(expectedMessage), e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, StreamingGameStateParser.DEFAULT_BUFFER_SIZE})
+    @Tag("provided")
+    @DisplayName("Parse - Same as Line-Based Parser")
+    void testSameAsLineBasedParser(final int bufferSize) {
+        final var sources = new String[]{
+                "3\n3\n\nP..\nMWL\n.GS\n",
+                "3\r\n3\r\n10\r\nP..\r\nMWL\r\n.GS\r\n",
+                "3\r3\r10\rP..\rMWL\r.GS",
+                "1\n4\n2\nPGLS",
+                "2\n2\n\nPG\n.W\n\n\n",
+        };
+
+        for (final var source : sources) {
+            final var expected = loadText(source);
+            final var actual = parse(source, bufferSize);
+
+            assertEquals(writeText(expected), writeText(actual), source);
+            assertEquals(expected.hasUnlimitedLives(), actual.hasUnlimitedLives(), source);
+            assertEquals(expected.getNumLives(), actual.getNumLives(), source);
+            assertEquals(expected.getNumGems(), actual.getNumGems(), source);
+            assertEquals(expected.getZobristHash(), actual.getZobristHash(), source);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Parse - Random Boards")
+    void testRandomBoards() {
+        final var random = new Random(3021);
+        final var chars = new char[]{'.', '.', '.', 'S', 'W', 'G', 'L', 'M'};
+
+        for (int round = 0; round < 50; ++round) {
+            final var rows = 1 + random.nextInt(30);
+            final var cols = 2 + random.nextInt(30);
+            final var builder = new StringBuilder();
+            builder.append(rows).append('\n').append(cols).append('\n').append(round % 2 == 0 ? "" : "5").append('\n');
+            final var playerRow = random.nextInt(rows);
+            final var gemCol = random.nextInt(cols - 1) + 1;
+            for (int r = 0; r < rows; ++r) {
+                for (int c = 0; c < cols; ++c) {
+                    if (r == playerRow && c == 0) {
+                        builder.append('P');
+                    } else if (r == playerRow && c == gemCol) {
+                        builder.append('G');
+                    } else if (r == playerRow) {
+                        builder.append('.');
+                    } else {
+                        builder.append(chars[random.nextInt(chars.length)]);
+                    }
+                }
+                builder.append('\n');
+            }
+            final var source = builder.toString();
+
+            GameState expected;
+            try {
+                expected = loadText(source);
+            } catch (IllegalArgumentException e) {
+                assertThrows(IllegalArgumentException.class, () -> parse(source, 16), source);
+                continue;
+            }
+            final var actual = parse(source, 16);
+            assertEquals(writeText(expected), writeText(actual), source);
+            assertEquals(expected.getZobristHash(), actual.getZobristHash(), source);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Parse - Malformed Rows")
+    void testMalformedRows() {
+        assertParseError("3\n3\n\nP..\nMWX\n.GS\n", "Line 5 (row 1, column 2): Unknown cell representation: X");
+        assertParseError("3\n3\n\nP..\nMW\n.GS\n", "Line 5 (row 1, column 2): Row has 2 cells, but expected 3");
+        assertParseError("3\n3\n\nP..\nMWLL\n.GS\n", "Line 5 (row 1, column 3): Row has more than 3 cells");
+        assertParseError("3\n3\n\nP..\nMWL\n", "Line 6 (row 2, column 0): Row has 0 cells, but expected 3");
+        assertParseError("3\n3\n\nP..\nMWL\nPGS\n", "Line 6 (row 2, column 0): Second player found");
+        assertParseError("1\n2\n\nPG\nPG\n", "Line 5: Unexpected content after the board");
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Parse - Malformed Header")
+    void testMalformedHeader() {
+        assertParseError("", "Line 1: Missing number of rows");
+        assertParseError("x\n3\n\n", "Line 1, column 0: Malformed number of rows");
+        assertParseError("3\n3a\n\n", "Line 2, column 1: Malformed number of columns");
+        assertParseError("3\n99999999999\n\n", "Line 2: The number of columns is too large");
+        assertParseError("0\n3\n\n", "Invalid board size: 0x3");
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Parse - Invalid Board")
+    void testInvalidBoard() {
+        assertThrows(IllegalArgumentException.class, () -> parse("1\n3\n\nP.W\n", 4));
+        assertThrows(IllegalArgumentException.class, () -> parse("1\n3\n\nPWG\n", 4));
+        assertThrows(IllegalArgumentException.class, () -> parse("1\n3\n\n..G\n", 4));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Parse - Reused Instance")
+    void testReusedInstance() throws IOException {
+        final var parser = new StreamingGameStateParser(5);
+        final var first = "3\n3\n\nP..\nMWL\n.GS\n";
+        final var second = "1\n2\n4\nGP\n";
+
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(Channels.newChannel(
+                new ByteArrayInputStream("1\n2\n\nXX\n".getBytes(StandardCharsets.US_ASCII)))));
+
+        for (final var source : new String[]{first, second, first}) {
+            final var gameState = parser.parse(Channels.newChannel(
+                    new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII))));
+            assertEquals(writeText(loadText(source)), writeText(gameState));
+        }
+    }
+}
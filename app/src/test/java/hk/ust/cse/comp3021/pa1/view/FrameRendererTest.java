@@ -0,0 +1,124 @@
+package hk.ust.cse.comp3021.pa1.view;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.createGameState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrameRendererTest {
+
+    /**
+     * Stream which records the number of writes.
+     */
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+
+        private int numWrites = 0;
+
+        @Override
+        public void write(final int b) {
+            ++numWrites;
+            super.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            ++numWrites;
+            super.write(b, off, len);
+        }
+
+        String take() {
+            final var content = toString(Charset.defaultCharset());
+            reset();
+            return content;
+        }
+    }
+
+    private static String outputView(final GameState gameState) {
+        final var originalOut = System.out;
+        final var bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            new GameView(gameState).output(false);
+        } finally {
+            System.setOut(originalOut);
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Frame Rendering - Same As Game View")
+    void testSameAsGameView() throws IOException {
+        for (final var lives : new String[]{"", "3"}) {
+            final var gameState = createGameState("3\n5\n" + lives + "\nP..G.\n.W.M.\nL..GS\n");
+            final var out = new CountingOutputStream();
+            final var renderer = new FrameRenderer(gameState, out, FrameRenderer.Mode.FULL);
+
+            renderer.render(false);
+            assertEquals(1, out.numWrites);
+            assertEquals(outputView(gameState), out.take());
+
+            new GameController(gameState).processMove(Direction.RIGHT);
+            renderer.render(false);
+            assertEquals(2, out.numWrites);
+            assertEquals(outputView(gameState), out.take());
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Frame Rendering - Large Board in Single Write")
+    void testLargeBoard() throws IOException {
+        final var source = new StringBuilder("200\n200\n\n");
+        for (int r = 0; r < 200; ++r) {
+            source.append(r == 0 ? "PG" : "..").append(".".repeat(198)).append('\n');
+        }
+        final var gameState = createGameState(source.toString());
+
+        final var out = new CountingOutputStream();
+        new FrameRenderer(gameState, out, FrameRenderer.Mode.FULL).render(false);
+        assertEquals(1, out.numWrites);
+        assertEquals(outputView(gameState), out.take());
+
+        // Characters which cannot be encoded are replaced
+        new FrameRenderer(gameState, out, FrameRenderer.Mode.FULL, Charset.forName("US-ASCII")).render(true);
+        assertEquals(2, out.numWrites);
+        assertEquals('?', out.take().charAt(0));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Frame Rendering - Diff Mode")
+    void testDiffMode() throws IOException {
+        final var gameState = createGameState("3\n5\n3\nP..G.\n.W.M.\nL..GS\n");
+        final var out = new CountingOutputStream();
+        final var renderer = new FrameRenderer(gameState, out, FrameRenderer.Mode.DIFF);
+
+        renderer.render(false);
+        final var firstFrame = out.take();
+        assertTrue(firstFrame.startsWith("\u001B[2J"));
+
+        new GameController(gameState).processMove(Direction.RIGHT);
+        renderer.render(false);
+        final var secondFrame = out.take();
+        assertEquals(2, out.numWrites);
+        assertTrue(secondFrame.length() < firstFrame.length());
+
+        // Statistics are redrawn below the board in every frame
+        final var view = outputView(gameState);
+        final var stats = view.substring(view.indexOf("Number of Gems"));
+        assertTrue(secondFrame.endsWith("\u001B[J" + System.lineSeparator() + stats));
+        assertTrue(secondFrame.contains("Number of Moves : 1"));
+    }
+}
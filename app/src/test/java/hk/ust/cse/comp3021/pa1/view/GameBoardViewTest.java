@@ -0,0 +1,104 @@
+package hk.ust.cse.comp3021.pa1.view;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.GameStateSerializer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import static hk.ust.cse.comp3021.pa1.util.GameStateUtils.createGameState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameBoardViewTest {
+
+    private static final String ESC = "\u001B[";
+
+    // P..G.
+    // .W.M.
+    // L..GS
+    private static final String LEVEL = "3\n5\n\nP..G.\n.W.M.\nL..GS\n";
+
+    private static String render(final GameBoardView view, final boolean useUnicodeChars) {
+        final var out = new StringBuilder();
+        view.renderDiff(useUnicodeChars, out);
+        return out.toString();
+    }
+
+    private static String outputFull(final GameBoardView view, final boolean useUnicodeChars) {
+        final var originalOut = System.out;
+        final var bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            view.output(useUnicodeChars);
+        } finally {
+            System.setOut(originalOut);
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Diff Rendering - First Frame Draws Whole Board")
+    void testFirstFrame() throws IOException {
+        final var gameBoard = createGameState(LEVEL).getGameBoard();
+        final var view = new GameBoardView(gameBoard);
+        final var expected = ESC + "2J" + ESC + "H"
+                + outputFull(view, false)
+                + ESC + "4;1H" + ESC + "J";
+
+        assertEquals(expected, render(view, false));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Diff Rendering - Only Changed Cells Are Redrawn")
+    void testChangedCells() throws IOException {
+        final var gameState = createGameState(LEVEL);
+        final var view = new GameBoardView(gameState.getGameBoard());
+        final var firstFrame = render(view, false);
+
+        // Nothing changed: Only the cursor is moved below the board
+        assertEquals(ESC + "4;1H" + ESC + "J", render(view, false));
+
+        // Player moves from the stop cell at (0, 0) to (0, 4), collecting the gem at (0, 3)
+        new GameController(gameState).processMove(Direction.RIGHT);
+        final var diff = render(view, false);
+        assertEquals(ESC + "1;1H#" + ESC + "1;4H.@" + ESC + "4;1H" + ESC + "J", diff);
+        assertTrue(diff.length() < firstFrame.length());
+
+        // Switching characters redraws the whole board
+        assertTrue(render(view, true).startsWith(ESC + "2J"));
+        view.invalidate();
+        assertTrue(render(view, true).startsWith(ESC + "2J"));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Diff Rendering - Single Write Per Frame")
+    void testSingleWrite() throws IOException {
+        final var gameBoard = createGameState(LEVEL).getGameBoard();
+        final var view = new GameBoardView(gameBoard);
+        final var writes = new int[1];
+        final var originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()) {
+            @Override
+            public void write(final byte[] buf, final int off, final int len) {
+                ++writes[0];
+            }
+        });
+        try {
+            view.outputDiff(false);
+            view.outputDiff(false);
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertEquals(2, writes[0]);
+    }
+}
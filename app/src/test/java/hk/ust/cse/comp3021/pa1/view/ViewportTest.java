@@ -0,0 +1,118 @@
+package hk.ust.cse.comp3021.pa1.view;
+
+import hk.ust.cse.comp3021.pa1.controller.GameController;
+import hk.ust.cse.comp3021.pa1.model.Direction;
+import hk.ust.cse.comp3021.pa1.model.GameState;
+import hk.ust.cse.comp3021.pa1.util.GameStateUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViewportTest {
+
+    /**
+     * Creates a 30x30 board with the player at (15, 15), a stop cell at (15, 19) and a gem at (0, 0).
+     */
+    private static GameState createGameState() throws IOException {
+        final var source = new StringBuilder("30\n30\n\n");
+        for (int r = 0; r < 30; ++r) {
+            final var row = new StringBuilder(".".repeat(30));
+            if (r == 0) {
+                row.setCharAt(0, 'G');
+            } else if (r == 15) {
+                row.setCharAt(15, 'P');
+                row.setCharAt(19, 'S');
+            }
+            source.append(row).append('\n');
+        }
+        return GameStateUtils.createGameState(source.toString());
+    }
+
+    private static String[] render(final GameState gameState, final Viewport viewport) {
+        final var out = new StringBuilder();
+        new GameBoardView(gameState.getGameBoard()).renderViewport(false, viewport, out);
+        return out.toString().split(System.lineSeparator());
+    }
+
+    private static void assertPlayerAt(final String[] rows, final int r, final int c) {
+        for (int i = 0; i < rows.length; ++i) {
+            assertEquals(i == r ? c : -1, rows[i].indexOf('@'), "Row " + i);
+        }
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Viewport - Centered on Player")
+    void testCentered() throws IOException {
+        final var gameState = createGameState();
+        final var viewport = new Viewport(5, 7, 1);
+
+        final var rows = render(gameState, viewport);
+        assertEquals(5, rows.length);
+        for (final var row : rows) {
+            assertEquals(7, row.length());
+        }
+        assertPlayerAt(rows, 2, 3);
+        assertEquals(13, viewport.getTop());
+        assertEquals(12, viewport.getLeft());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Viewport - Scroll Margins")
+    void testScrollMargins() throws IOException {
+        final var gameState = createGameState();
+        final var controller = new GameController(gameState);
+        final var viewport = new Viewport(5, 7, 1);
+        render(gameState, viewport);
+
+        // Player stops at (15, 19), beyond the margin: Scrolls by just enough to keep the player at the margin
+        controller.processMove(Direction.RIGHT);
+        assertPlayerAt(render(gameState, viewport), 2, 5);
+        assertEquals(14, viewport.getLeft());
+
+        // Player moves back to (15, 15), within the viewport: Does not scroll
+        controller.processMove(Direction.LEFT);
+        assertPlayerAt(render(gameState, viewport), 2, 1);
+        assertEquals(14, viewport.getLeft());
+
+        // Player moves to (0, 0): The viewport is clamped to the board
+        controller.processMove(Direction.UP);
+        controller.processMove(Direction.LEFT);
+        final var rows = render(gameState, viewport);
+        assertPlayerAt(rows, 0, 0);
+        assertEquals(0, viewport.getTop());
+        assertEquals(0, viewport.getLeft());
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Viewport - Larger Than Board")
+    void testLargerThanBoard() throws IOException {
+        final var gameState = createGameState();
+        final var viewport = new Viewport(100, 10, 50);
+
+        final var rows = render(gameState, viewport);
+        assertEquals(30, rows.length);
+        assertEquals(10, rows[0].length());
+        assertPlayerAt(rows, 15, 5);
+
+        final var full = new StringBuilder();
+        new GameBoardView(gameState.getGameBoard()).render(false, full);
+        final var whole = new Viewport(30, 30, 0);
+        assertArrayEquals(full.toString().split(System.lineSeparator()), render(gameState, whole));
+    }
+
+    @Test
+    @Tag("provided")
+    @DisplayName("Viewport - Invalid Arguments")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new Viewport(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Viewport(1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Viewport(1, 1, -1));
+    }
+}